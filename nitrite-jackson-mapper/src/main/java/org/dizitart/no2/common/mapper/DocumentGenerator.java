@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.common.mapper;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.json.JsonWriteContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.dizitart.no2.collection.Document;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A {@link com.fasterxml.jackson.core.JsonGenerator} which builds a Nitrite
+ * {@link Document} from the tokens written to it, without creating an
+ * intermediate json tree.
+ * <p>
+ * Objects are collected into {@link Document}s, arrays into {@link List}s and
+ * scalar values are kept as they are written. The resulting values are the
+ * same as reading the {@link JsonNode} tree of the object, which is what
+ * {@link JacksonMapper} used to do.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class DocumentGenerator extends GeneratorBase {
+    private final Deque<Object> containers;
+    private Object result;
+
+    /**
+     * Instantiates a new {@link DocumentGenerator}.
+     *
+     * @param codec the object codec
+     */
+    DocumentGenerator(ObjectCodec codec) {
+        // nothing is written to a stream, so there is no io context
+        super(0, codec, (IOContext) null);
+        this.containers = new ArrayDeque<>();
+    }
+
+    /**
+     * Gets the value built from the written tokens. It is a {@link Document} for
+     * an object, a {@link List} for an array and a {@link Number}, {@link String}
+     * or {@link Boolean} for a scalar value, or {@code null} otherwise.
+     *
+     * @return the value
+     */
+    Object getResult() {
+        if (result instanceof Number || result instanceof String || result instanceof Boolean
+            || result instanceof Document || result instanceof List) {
+            return result;
+        }
+        return null;
+    }
+
+    @Override
+    public void writeStartArray() throws IOException {
+        _verifyValueWrite("start an array");
+        _writeContext = _writeContext.createChildArrayContext();
+        containers.push(new ArrayList<>());
+    }
+
+    @Override
+    public void writeStartArray(Object forValue, int size) throws IOException {
+        _verifyValueWrite("start an array");
+        _writeContext = _writeContext.createChildArrayContext(forValue);
+        containers.push(new ArrayList<>(Math.max(size, 0)));
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        if (!_writeContext.inArray()) {
+            _reportError("Current context not Array but " + _writeContext.typeDesc());
+        }
+        _writeContext = _writeContext.clearAndGetParent();
+        append(containers.pop());
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+        _verifyValueWrite("start an object");
+        _writeContext = _writeContext.createChildObjectContext();
+        containers.push(new LinkedHashMap<String, Object>());
+    }
+
+    @Override
+    public void writeStartObject(Object forValue) throws IOException {
+        _verifyValueWrite("start an object");
+        _writeContext = _writeContext.createChildObjectContext(forValue);
+        containers.push(new LinkedHashMap<String, Object>());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeEndObject() throws IOException {
+        if (!_writeContext.inObject()) {
+            _reportError("Current context not Object but " + _writeContext.typeDesc());
+        }
+        _writeContext = _writeContext.clearAndGetParent();
+        append(Document.createDocument((Map<String, Object>) containers.pop()));
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        if (_writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE) {
+            _reportError("Can not write a field name, expecting a value");
+        }
+    }
+
+    @Override
+    public void writeFieldName(SerializableString name) throws IOException {
+        writeFieldName(name.getValue());
+    }
+
+    @Override
+    public void writeString(String text) throws IOException {
+        if (text == null) {
+            writeNull();
+        } else {
+            writeValue(text);
+        }
+    }
+
+    @Override
+    public void writeString(char[] buffer, int offset, int length) throws IOException {
+        writeValue(new String(buffer, offset, length));
+    }
+
+    @Override
+    public void writeString(SerializableString text) throws IOException {
+        if (text == null) {
+            writeNull();
+        } else {
+            writeValue(text.getValue());
+        }
+    }
+
+    @Override
+    public void writeRawUTF8String(byte[] buffer, int offset, int length) throws IOException {
+        writeValue(new String(buffer, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeUTF8String(byte[] buffer, int offset, int length) throws IOException {
+        writeValue(new String(buffer, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeRaw(String text) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRaw(String text, int offset, int len) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRaw(char[] text, int offset, int len) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRaw(char c) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRawValue(String text) throws IOException {
+        writeEmbeddedObject(new RawValue(text));
+    }
+
+    @Override
+    public void writeRawValue(String text, int offset, int len) throws IOException {
+        writeEmbeddedObject(new RawValue(text.substring(offset, offset + len)));
+    }
+
+    @Override
+    public void writeRawValue(char[] text, int offset, int len) throws IOException {
+        writeEmbeddedObject(new RawValue(new String(text, offset, len)));
+    }
+
+    @Override
+    public void writeBinary(Base64Variant variant, byte[] data, int offset, int len) throws IOException {
+        writeValue(Arrays.copyOfRange(data, offset, offset + len));
+    }
+
+    @Override
+    public void writeNumber(int value) throws IOException {
+        writeValue(value);
+    }
+
+    @Override
+    public void writeNumber(long value) throws IOException {
+        writeValue(value);
+    }
+
+    @Override
+    public void writeNumber(BigInteger value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeValue(value);
+        }
+    }
+
+    @Override
+    public void writeNumber(double value) throws IOException {
+        writeValue(value);
+    }
+
+    @Override
+    public void writeNumber(float value) throws IOException {
+        writeValue(value);
+    }
+
+    @Override
+    public void writeNumber(BigDecimal value) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeValue(decimalValue(value));
+        }
+    }
+
+    @Override
+    public void writeNumber(String encodedValue) throws IOException {
+        if (encodedValue == null) {
+            writeNull();
+            return;
+        }
+
+        try {
+            writeValue(decimalValue(new BigDecimal(encodedValue)));
+        } catch (NumberFormatException e) {
+            writeValue(encodedValue);
+        }
+    }
+
+    @Override
+    public void writeBoolean(boolean state) throws IOException {
+        writeValue(state);
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        writeValue(null);
+    }
+
+    @Override
+    public void writeEmbeddedObject(Object object) throws IOException {
+        if (object == null) {
+            writeNull();
+        } else if (object instanceof byte[]) {
+            writeBinary((byte[]) object);
+        } else if (object instanceof JsonNode) {
+            writeTree((JsonNode) object);
+        } else {
+            // a pojo node used to be read as an empty document
+            writeValue(containers.isEmpty() ? object : Document.createDocument());
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    protected void _releaseBuffers() {
+    }
+
+    @Override
+    protected void _verifyValueWrite(String typeMsg) throws IOException {
+        if (_writeContext.writeValue() == JsonWriteContext.STATUS_EXPECT_NAME) {
+            throw new JsonGenerationException("Can not " + typeMsg + ", expecting field name", this);
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        _verifyValueWrite("write a value");
+        append(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void append(Object value) {
+        Object container = containers.peek();
+        if (container == null) {
+            result = value;
+        } else if (container instanceof Map) {
+            ((Map<String, Object>) container).put(_writeContext.getCurrentName(), value);
+        } else {
+            ((List<Object>) container).add(value);
+        }
+    }
+
+    private BigDecimal decimalValue(BigDecimal value) {
+        // json nodes strip the trailing zeros of big decimals
+        try {
+            return value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+        } catch (ArithmeticException e) {
+            return value;
+        }
+    }
+}
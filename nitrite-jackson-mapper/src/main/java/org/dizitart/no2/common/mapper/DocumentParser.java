@@ -0,0 +1,510 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.common.mapper;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.databind.cfg.PackageVersion;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.tuples.Pair;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * A {@link JsonParser} which reads the tokens directly from a Nitrite
+ * {@link Document}, without creating an intermediate json tree.
+ * <p>
+ * Documents are read as objects, collections and object arrays as arrays,
+ * binary data as embedded objects and {@link NitriteId}s as strings. Any
+ * other value is serialized using the object codec and its tokens are
+ * read in place.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class DocumentParser extends ParserMinimalBase {
+    private ObjectCodec codec;
+    private Cursor cursor;
+    private Object value;
+    private JsonParser delegate;
+    private boolean closed;
+
+    /**
+     * Instantiates a new {@link DocumentParser}.
+     *
+     * @param document the document to read
+     * @param codec    the object codec
+     */
+    DocumentParser(Document document, ObjectCodec codec) {
+        this.codec = codec;
+        this.cursor = new Cursor(JsonStreamContext.TYPE_ROOT, null,
+            Collections.singletonList(document).iterator());
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        if (closed) {
+            return _currToken = null;
+        }
+
+        if (delegate != null) {
+            JsonToken token = delegate.nextToken();
+            if (token != null) {
+                return _currToken = token;
+            }
+            delegate.close();
+            delegate = null;
+        }
+
+        Cursor current = cursor;
+        if (current.inObject()) {
+            if (current.valuePending) {
+                current.valuePending = false;
+                return _currToken = readValue(current.value);
+            }
+
+            if (current.iterator.hasNext()) {
+                Pair<?, ?> field = (Pair<?, ?>) current.next();
+                current.name = (String) field.getFirst();
+                current.value = field.getSecond();
+                current.valuePending = true;
+                return _currToken = JsonToken.FIELD_NAME;
+            }
+        } else if (current.iterator.hasNext()) {
+            return _currToken = readValue(current.next());
+        }
+
+        if (current.inRoot()) {
+            return _currToken = null;
+        }
+
+        cursor = current.parent;
+        return _currToken = current.inObject() ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+    }
+
+    @Override
+    public String currentName() throws IOException {
+        if (delegate != null && !delegateInRoot()) {
+            return delegate.currentName();
+        }
+
+        if ((_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY)
+            && cursor.parent != null) {
+            return cursor.parent.name;
+        }
+        return cursor.name;
+    }
+
+    @Override
+    public JsonStreamContext getParsingContext() {
+        if (delegate != null && !delegate.getParsingContext().inRoot()) {
+            return delegate.getParsingContext();
+        }
+        return cursor;
+    }
+
+    @Override
+    public void overrideCurrentName(String name) {
+        cursor.name = name;
+    }
+
+    @Override
+    public String getText() throws IOException {
+        if (delegate != null) {
+            return delegate.getText();
+        }
+
+        if (_currToken == null) {
+            return null;
+        }
+
+        switch (_currToken) {
+            case FIELD_NAME:
+                return cursor.name;
+            case VALUE_STRING:
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return String.valueOf(value);
+            case VALUE_EMBEDDED_OBJECT:
+                return value instanceof byte[]
+                    ? Base64Variants.getDefaultVariant().encode((byte[]) value) : null;
+            default:
+                return _currToken.asString();
+        }
+    }
+
+    @Override
+    public char[] getTextCharacters() throws IOException {
+        String text = getText();
+        return text == null ? null : text.toCharArray();
+    }
+
+    @Override
+    public boolean hasTextCharacters() {
+        return false;
+    }
+
+    @Override
+    public int getTextLength() throws IOException {
+        String text = getText();
+        return text == null ? 0 : text.length();
+    }
+
+    @Override
+    public int getTextOffset() {
+        return 0;
+    }
+
+    @Override
+    public byte[] getBinaryValue(Base64Variant variant) throws IOException {
+        if (delegate != null) {
+            return delegate.getBinaryValue(variant);
+        }
+
+        if (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT && value instanceof byte[]) {
+            return (byte[]) value;
+        }
+
+        if (_currToken == JsonToken.VALUE_STRING) {
+            try {
+                return variant.decode((String) value);
+            } catch (IllegalArgumentException e) {
+                throw _constructError(e.getMessage());
+            }
+        }
+        throw _constructError("Current token (" + _currToken + ") not VALUE_STRING or"
+            + " VALUE_EMBEDDED_OBJECT, can not access as binary");
+    }
+
+    @Override
+    public Object getEmbeddedObject() throws IOException {
+        if (delegate != null) {
+            return delegate.getEmbeddedObject();
+        }
+        return _currToken == JsonToken.VALUE_EMBEDDED_OBJECT ? value : null;
+    }
+
+    @Override
+    public Number getNumberValue() throws IOException {
+        if (delegate != null) {
+            return delegate.getNumberValue();
+        }
+
+        if (!(value instanceof Number) || !_currToken.isNumeric()) {
+            throw _constructError("Current token (" + _currToken + ") not numeric, can not use numeric value accessors");
+        }
+        return (Number) value;
+    }
+
+    @Override
+    public NumberType getNumberType() throws IOException {
+        if (delegate != null) {
+            return delegate.getNumberType();
+        }
+
+        if (!(value instanceof Number) || !_currToken.isNumeric()) {
+            return null;
+        }
+
+        if (value instanceof Long) {
+            return NumberType.LONG;
+        } else if (value instanceof BigInteger) {
+            return NumberType.BIG_INTEGER;
+        } else if (value instanceof Double) {
+            return NumberType.DOUBLE;
+        } else if (value instanceof Float) {
+            return NumberType.FLOAT;
+        } else if (value instanceof BigDecimal) {
+            return NumberType.BIG_DECIMAL;
+        }
+        return NumberType.INT;
+    }
+
+    @Override
+    public NumberTypeFP getNumberTypeFP() throws IOException {
+        if (delegate != null) {
+            return delegate.getNumberTypeFP();
+        }
+
+        if (value instanceof Double) {
+            return NumberTypeFP.DOUBLE64;
+        } else if (value instanceof Float) {
+            return NumberTypeFP.FLOAT32;
+        } else if (value instanceof BigDecimal) {
+            return NumberTypeFP.BIG_DECIMAL;
+        }
+        return NumberTypeFP.UNKNOWN;
+    }
+
+    @Override
+    public boolean isNaN() throws IOException {
+        if (delegate != null) {
+            return delegate.isNaN();
+        }
+
+        if (value instanceof Double) {
+            Double number = (Double) value;
+            return number.isNaN() || number.isInfinite();
+        } else if (value instanceof Float) {
+            Float number = (Float) value;
+            return number.isNaN() || number.isInfinite();
+        }
+        return false;
+    }
+
+    @Override
+    public int getIntValue() throws IOException {
+        Number number = getNumberValue();
+        if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return number.intValue();
+        }
+
+        if (number instanceof BigInteger || number instanceof BigDecimal) {
+            BigDecimal decimal = number instanceof BigInteger
+                ? new BigDecimal((BigInteger) number) : (BigDecimal) number;
+            if (decimal.compareTo(BigDecimal.valueOf(Integer.MIN_VALUE)) < 0
+                || decimal.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0) {
+                reportOverflowInt();
+            }
+        } else if (number instanceof Long) {
+            long l = number.longValue();
+            if (l < Integer.MIN_VALUE || l > Integer.MAX_VALUE) {
+                reportOverflowInt();
+            }
+        } else {
+            double d = number.doubleValue();
+            if (d < Integer.MIN_VALUE || d > Integer.MAX_VALUE) {
+                reportOverflowInt();
+            }
+        }
+        return number.intValue();
+    }
+
+    @Override
+    public long getLongValue() throws IOException {
+        Number number = getNumberValue();
+        if (number instanceof Long || number instanceof Integer
+            || number instanceof Short || number instanceof Byte) {
+            return number.longValue();
+        }
+
+        if (number instanceof BigInteger || number instanceof BigDecimal) {
+            BigDecimal decimal = number instanceof BigInteger
+                ? new BigDecimal((BigInteger) number) : (BigDecimal) number;
+            if (decimal.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0
+                || decimal.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+                reportOverflowLong();
+            }
+        } else {
+            double d = number.doubleValue();
+            if (d < Long.MIN_VALUE || d > Long.MAX_VALUE) {
+                reportOverflowLong();
+            }
+        }
+        return number.longValue();
+    }
+
+    @Override
+    public BigInteger getBigIntegerValue() throws IOException {
+        Number number = getNumberValue();
+        if (number instanceof BigInteger) {
+            return (BigInteger) number;
+        } else if (number instanceof BigDecimal) {
+            return ((BigDecimal) number).toBigInteger();
+        } else if (number instanceof Double || number instanceof Float) {
+            return getDecimalValue().toBigInteger();
+        }
+        return BigInteger.valueOf(number.longValue());
+    }
+
+    @Override
+    public float getFloatValue() throws IOException {
+        return getNumberValue().floatValue();
+    }
+
+    @Override
+    public double getDoubleValue() throws IOException {
+        return getNumberValue().doubleValue();
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() throws IOException {
+        Number number = getNumberValue();
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        } else if (number instanceof Double || number instanceof Float) {
+            return new BigDecimal(number.toString());
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+    @Override
+    public ObjectCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    public void setCodec(ObjectCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public Version version() {
+        return PackageVersion.VERSION;
+    }
+
+    @Override
+    public JsonLocation currentLocation() {
+        return JsonLocation.NA;
+    }
+
+    @Override
+    public JsonLocation currentTokenLocation() {
+        return JsonLocation.NA;
+    }
+
+    @Override
+    @Deprecated
+    public String getCurrentName() throws IOException {
+        return currentName();
+    }
+
+    @Override
+    @Deprecated
+    public JsonLocation getCurrentLocation() {
+        return currentLocation();
+    }
+
+    @Override
+    @Deprecated
+    public JsonLocation getTokenLocation() {
+        return currentTokenLocation();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            if (delegate != null) {
+                delegate.close();
+                delegate = null;
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    protected void _handleEOF() {
+    }
+
+    private JsonToken readValue(Object object) throws IOException {
+        value = object;
+        if (object == null) {
+            return JsonToken.VALUE_NULL;
+        } else if (object instanceof String) {
+            return JsonToken.VALUE_STRING;
+        } else if (object instanceof Boolean) {
+            return (Boolean) object ? JsonToken.VALUE_TRUE : JsonToken.VALUE_FALSE;
+        } else if (object instanceof Integer || object instanceof Long || object instanceof Short
+            || object instanceof Byte || object instanceof BigInteger) {
+            return JsonToken.VALUE_NUMBER_INT;
+        } else if (object instanceof Double || object instanceof Float || object instanceof BigDecimal) {
+            return JsonToken.VALUE_NUMBER_FLOAT;
+        } else if (object instanceof byte[]) {
+            return JsonToken.VALUE_EMBEDDED_OBJECT;
+        } else if (object instanceof NitriteId) {
+            value = ((NitriteId) object).getIdValue();
+            return value == null ? JsonToken.VALUE_NULL : JsonToken.VALUE_STRING;
+        } else if (object instanceof Document) {
+            cursor = new Cursor(JsonStreamContext.TYPE_OBJECT, cursor, ((Document) object).iterator());
+            return JsonToken.START_OBJECT;
+        } else if (object instanceof Collection) {
+            cursor = new Cursor(JsonStreamContext.TYPE_ARRAY, cursor, ((Collection<?>) object).iterator());
+            return JsonToken.START_ARRAY;
+        } else if (object instanceof Object[]) {
+            cursor = new Cursor(JsonStreamContext.TYPE_ARRAY, cursor, Arrays.asList((Object[]) object).iterator());
+            return JsonToken.START_ARRAY;
+        }
+
+        // any other value is read from its serialized tokens
+        TokenBuffer buffer = new TokenBuffer(codec, false);
+        codec.writeValue(buffer, object);
+        delegate = buffer.asParser(codec);
+        return delegate.nextToken();
+    }
+
+    private boolean delegateInRoot() {
+        JsonStreamContext context = delegate.getParsingContext();
+        return context.inRoot() || ((delegate.currentToken() == JsonToken.START_OBJECT
+            || delegate.currentToken() == JsonToken.START_ARRAY) && context.getParent().inRoot());
+    }
+
+    private static class Cursor extends JsonStreamContext {
+        private final Cursor parent;
+        private final Iterator<?> iterator;
+        private String name;
+        private Object value;
+        private boolean valuePending;
+        private Object currentValue;
+
+        Cursor(int type, Cursor parent, Iterator<?> iterator) {
+            super(type, -1);
+            this.parent = parent;
+            this.iterator = iterator;
+        }
+
+        private Object next() {
+            _index++;
+            return iterator.next();
+        }
+
+        @Override
+        public JsonStreamContext getParent() {
+            return parent;
+        }
+
+        @Override
+        public String getCurrentName() {
+            return name;
+        }
+
+        @Override
+        public Object getCurrentValue() {
+            return currentValue;
+        }
+
+        @Override
+        public void setCurrentValue(Object currentValue) {
+            this.currentValue = currentValue;
+        }
+    }
+}
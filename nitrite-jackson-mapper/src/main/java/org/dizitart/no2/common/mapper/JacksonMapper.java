@@ -27,19 +27,29 @@ import org.dizitart.no2.exceptions.ObjectMappingException;
 import org.dizitart.no2.exceptions.ValidationException;
 
 import java.io.IOException;
-import java.util.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.dizitart.no2.common.util.ValidationUtils.notNull;
 
 /**
  * A {@link NitriteMapper} implementation that uses Jackson ObjectMapper to
  * convert objects to and from Nitrite document.
+ * <p>
+ * Objects are serialized directly into documents and deserialized directly
+ * from them, without building an intermediate json tree. The object writers
+ * and readers are cached per type, so any change made to the object mapper
+ * after the first conversion must be done via {@link #registerJacksonModule(Module)},
+ * which clears the cache.
  * 
  * @since 4.0
  * @see NitriteMapper
  * @author Anindya Chatterjee
  */
 public class JacksonMapper implements NitriteMapper {
+    private final Map<Class<?>, ObjectWriter> writerCache = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectReader> readerCache = new ConcurrentHashMap<>();
     private ObjectMapper objectMapper;
 
     /**
@@ -73,6 +83,8 @@ public class JacksonMapper implements NitriteMapper {
     public void registerJacksonModule(Module module) {
         notNull(module, "module cannot be null");
         getObjectMapper().registerModule(module);
+        writerCache.clear();
+        readerCache.clear();
     }
 
     /**
@@ -80,9 +92,9 @@ public class JacksonMapper implements NitriteMapper {
      * ObjectMapper.
      * <p>
      * If the source object is null, returns null. If the source
-     * object is a value node, returns the node value. If the target type is
-     * Document, converts the source object to a Document. If the source object is
-     * already a Document, converts it to the target type. If the conversion fails,
+     * object is a Document, converts it to the target type. If the source object
+     * is serialized as a scalar value, returns the value. If the target type is
+     * Document, converts the source object to a Document. If the conversion fails,
      * throws an ObjectMappingException.
      *
      * @param source   the source object to convert
@@ -99,18 +111,15 @@ public class JacksonMapper implements NitriteMapper {
         }
 
         try {
-            JsonNode node = getObjectMapper().convertValue(source, JsonNode.class);
-            if (node == null)
-                return null;
-
-            if (node.isValueNode()) {
-                return getNodeValue(node);
-            } else {
-                if (Document.class.isAssignableFrom(type)) {
-                    return convertToDocument(source);
-                } else if (source instanceof Document) {
-                    return convertFromDocument((Document) source, type);
-                }
+            if (source instanceof Document && !Document.class.isAssignableFrom(type)) {
+                return convertFromDocument((Document) source, type);
+            }
+
+            Object value = writeValue(source);
+            if (!(value instanceof Document) && !(value instanceof List)) {
+                return value;
+            } else if (Document.class.isAssignableFrom(type)) {
+                return toDocument(value);
             }
         } catch (Exception e) {
             throw new ObjectMappingException("Failed to convert object of type "
@@ -137,16 +146,16 @@ public class JacksonMapper implements NitriteMapper {
      *                                process
      */
     protected <Target> Target convertFromDocument(Document source, Class<Target> type) {
-        try {
-            return getObjectMapper().convertValue(source, type);
-        } catch (IllegalArgumentException iae) {
-            if (iae.getCause() instanceof JsonMappingException) {
-                JsonMappingException jme = (JsonMappingException) iae.getCause();
-                if (jme.getMessage().contains("Cannot construct instance")) {
-                    throw new ObjectMappingException(jme.getMessage());
-                }
+        ObjectReader reader = readerCache.computeIfAbsent(type, t -> getObjectMapper().readerFor(t));
+        try (JsonParser parser = new DocumentParser(source, getObjectMapper())) {
+            return reader.readValue(parser);
+        } catch (JsonMappingException jme) {
+            if (jme.getMessage().contains("Cannot construct instance")) {
+                throw new ObjectMappingException(jme.getMessage());
             }
-            throw iae;
+            throw new IllegalArgumentException(jme.getMessage(), jme);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
         }
     }
 
@@ -159,81 +168,25 @@ public class JacksonMapper implements NitriteMapper {
      * @return the converted Nitrite {@link Document}
      */
     protected <Source> Document convertToDocument(Source source) {
-        JsonNode node = getObjectMapper().convertValue(source, JsonNode.class);
-        return readDocument(node);
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> T getNodeValue(JsonNode node) {
-        switch (node.getNodeType()) {
-            case NUMBER:
-                return (T) node.numberValue();
-            case STRING:
-                return (T) node.textValue();
-            case BOOLEAN:
-                return (T) Boolean.valueOf(node.booleanValue());
-            default:
-                return null;
-        }
-    }
-
-    private Document readDocument(JsonNode node) {
-        Map<String, Object> objectMap = new LinkedHashMap<>();
-        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
-        while (fields.hasNext()) {
-            Map.Entry<String, JsonNode> entry = fields.next();
-            String name = entry.getKey();
-            JsonNode value = entry.getValue();
-            Object object = readObject(value);
-            objectMap.put(name, object);
-        }
-
-        return Document.createDocument(objectMap);
-    }
-
-    private Object readObject(JsonNode node) {
-        if (node == null)
-            return null;
         try {
-            switch (node.getNodeType()) {
-                case ARRAY:
-                    return readArray(node);
-                case BINARY:
-                    return node.binaryValue();
-                case BOOLEAN:
-                    return node.booleanValue();
-                case MISSING:
-                case NULL:
-                    return null;
-                case NUMBER:
-                    return node.numberValue();
-                case OBJECT:
-                case POJO:
-                    return readDocument(node);
-                case STRING:
-                    return node.textValue();
-            }
+            return toDocument(writeValue(source));
         } catch (IOException e) {
-            return null;
+            throw new IllegalArgumentException(e.getMessage(), e);
         }
-        return null;
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
-    private List readArray(JsonNode array) {
-        if (array.isArray()) {
-            List list = new ArrayList();
-            Iterator iterator = array.elements();
-            while (iterator.hasNext()) {
-                Object element = iterator.next();
-                if (element instanceof JsonNode) {
-                    list.add(readObject((JsonNode) element));
-                } else {
-                    list.add(element);
-                }
-            }
-            return list;
+    private Object writeValue(Object source) throws IOException {
+        ObjectWriter writer = writerCache.computeIfAbsent(source.getClass(),
+            t -> getObjectMapper().writerFor(t).without(SerializationFeature.WRAP_ROOT_VALUE));
+        DocumentGenerator generator = new DocumentGenerator(getObjectMapper());
+        writer.writeValue(generator, source);
+        return generator.getResult();
+    }
+
+    private Document toDocument(Object value) {
+        if (value instanceof Document) {
+            return (Document) value;
         }
-        return null;
+        return Document.createDocument();
     }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.common.mapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.integration.repository.data.Company;
+import org.dizitart.no2.integration.repository.data.DataGenerator;
+import org.dizitart.no2.integration.repository.data.Employee;
+
+import java.util.*;
+
+/**
+ * Compares the direct document mapping of {@link JacksonMapper} with the
+ * previous implementation, which converted every object through a json tree.
+ * <p>
+ * It is not a unit test, run it from the test classpath with an optional
+ * iteration count as argument.
+ *
+ * @author Anindya Chatterjee
+ */
+public class JacksonMapperBenchmark {
+    private static final int WARMUP = 100_000;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            employees.add(DataGenerator.generateEmployee());
+        }
+        List<Company> companies = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            companies.add(DataGenerator.generateCompanyRecord());
+        }
+
+        JacksonMapper direct = new JacksonMapper();
+        JacksonMapper tree = new TreeJacksonMapper();
+
+        run("employee", employees, Employee.class, direct, tree, iterations);
+        run("company", companies, Company.class, direct, tree, iterations / 10);
+    }
+
+    private static <T> void run(String name, List<T> entities, Class<T> type,
+                                JacksonMapper direct, JacksonMapper tree, int iterations) {
+        for (JacksonMapper mapper : Arrays.asList(direct, tree)) {
+            measure(mapper, entities, type, WARMUP);
+        }
+
+        for (JacksonMapper mapper : Arrays.asList(direct, tree)) {
+            long[] elapsed = measure(mapper, entities, type, iterations);
+            System.out.printf("%-8s %-18s write: %8d ns/op, read: %8d ns/op%n", name,
+                mapper.getClass().getSimpleName(), elapsed[0] / iterations, elapsed[1] / iterations);
+        }
+    }
+
+    private static <T> long[] measure(JacksonMapper mapper, List<T> entities, Class<T> type, int iterations) {
+        Document[] documents = new Document[entities.size()];
+        long write = 0, read = 0, sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            int index = i % entities.size();
+
+            long start = System.nanoTime();
+            documents[index] = (Document) mapper.tryConvert(entities.get(index), Document.class);
+            write += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Object entity = mapper.tryConvert(documents[index], type);
+            read += System.nanoTime() - start;
+
+            sink += entity.hashCode();
+        }
+
+        if (sink == 42) {
+            System.out.println();
+        }
+        return new long[] {write, read};
+    }
+
+    /**
+     * The previous mapping implementation of {@link JacksonMapper}.
+     */
+    static class TreeJacksonMapper extends JacksonMapper {
+        @Override
+        public <Source, Target> Object tryConvert(Source source, Class<Target> type) {
+            JsonNode node = getObjectMapper().convertValue(source, JsonNode.class);
+            if (node.isValueNode()) {
+                return node.isNumber() ? node.numberValue() : node.isTextual() ? node.textValue()
+                    : node.isBoolean() ? node.booleanValue() : null;
+            } else if (Document.class.isAssignableFrom(type)) {
+                return readDocument(getObjectMapper().convertValue(source, JsonNode.class));
+            }
+            return getObjectMapper().convertValue(source, type);
+        }
+
+        private Document readDocument(JsonNode node) {
+            Map<String, Object> objectMap = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> entry = fields.next();
+                objectMap.put(entry.getKey(), readObject(entry.getValue()));
+            }
+            return Document.createDocument(objectMap);
+        }
+
+        private Object readObject(JsonNode node) {
+            switch (node.getNodeType()) {
+                case ARRAY:
+                    List<Object> list = new ArrayList<>();
+                    for (JsonNode element : node) {
+                        list.add(readObject(element));
+                    }
+                    return list;
+                case BINARY:
+                    return ((com.fasterxml.jackson.databind.node.BinaryNode) node).binaryValue();
+                case BOOLEAN:
+                    return node.booleanValue();
+                case NUMBER:
+                    return node.numberValue();
+                case OBJECT:
+                case POJO:
+                    return readDocument(node);
+                case STRING:
+                    return node.textValue();
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -22,11 +22,16 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.BinaryNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import org.dizitart.no2.NitriteConfig;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
 import org.dizitart.no2.exceptions.ObjectMappingException;
 import org.junit.Test;
 
 import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 import static org.junit.Assert.*;
 
@@ -94,5 +99,87 @@ public class JacksonMapperTest {
         assertTrue(jacksonMapper.getObjectMapper()
             .getSerializerProviderInstance() instanceof com.fasterxml.jackson.databind.ser.DefaultSerializerProvider.Impl);
     }
-}
 
+    @Test
+    public void testConvertNestedEntity() {
+        JacksonMapper jacksonMapper = new JacksonMapper();
+        Holder holder = new Holder();
+        holder.id = NitriteId.newId();
+        holder.name = "holder";
+        holder.count = (short) 3;
+        holder.ratio = 1.5f;
+        holder.amount = new BigDecimal("12.500");
+        holder.big = BigInteger.TEN.pow(25);
+        holder.data = new byte[] {1, 2, 3};
+        holder.tags = Arrays.asList("a", null, "b");
+        holder.child = new Holder();
+        holder.child.name = "child";
+        holder.children = Collections.singletonList(new Holder());
+
+        Document document = (Document) jacksonMapper.tryConvert(holder, Document.class);
+        assertEquals(holder.id.getIdValue(), document.get("id"));
+        assertEquals("holder", document.get("name"));
+        assertEquals(3, document.get("count"));
+        assertEquals(1.5f, document.get("ratio"));
+        assertEquals(new BigDecimal("12.5"), document.get("amount"));
+        assertEquals(BigInteger.TEN.pow(25), document.get("big"));
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) document.get("data"));
+        assertEquals(Arrays.asList("a", null, "b"), document.get("tags"));
+        assertEquals("child", document.get("child.name"));
+        assertTrue(document.get("children", List.class).get(0) instanceof Document);
+
+        Holder converted = (Holder) jacksonMapper.tryConvert(document, Holder.class);
+        assertEquals(holder.id, converted.id);
+        assertEquals(holder.name, converted.name);
+        assertEquals(holder.count, converted.count);
+        assertEquals(holder.ratio, converted.ratio, 0.0);
+        assertEquals(0, holder.amount.compareTo(converted.amount));
+        assertEquals(holder.big, converted.big);
+        assertArrayEquals(holder.data, converted.data);
+        assertEquals(holder.tags, converted.tags);
+        assertEquals("child", converted.child.name);
+        assertEquals(1, converted.children.size());
+    }
+
+    @Test
+    public void testConvertFromDocumentWithCustomValues() {
+        JacksonMapper jacksonMapper = new JacksonMapper();
+        Document document = Document.createDocument("name", "holder")
+            .put("created", new Date(1000L))
+            .put("tags", new String[] {"a", "b"})
+            .put("child", Document.createDocument("name", "child"));
+
+        Holder holder = (Holder) jacksonMapper.tryConvert(document, Holder.class);
+        assertEquals("holder", holder.name);
+        assertEquals(new Date(1000L), holder.created);
+        assertEquals(Arrays.asList("a", "b"), holder.tags);
+        assertEquals("child", holder.child.name);
+    }
+
+    @Test
+    public void testConvertScalarValues() {
+        JacksonMapper jacksonMapper = new JacksonMapper();
+        assertEquals(3, jacksonMapper.tryConvert((short) 3, Object.class));
+        assertEquals(2L, jacksonMapper.tryConvert(2L, Object.class));
+        assertEquals(true, jacksonMapper.tryConvert(true, Object.class));
+        assertEquals(1000L, jacksonMapper.tryConvert(new Date(1000L), Object.class));
+        assertNull(jacksonMapper.tryConvert(new byte[] {1}, Object.class));
+        assertEquals("value", jacksonMapper.tryConvert("value", Document.class));
+        assertEquals(0, ((Document) jacksonMapper.tryConvert(Arrays.asList(1, 2), Document.class)).size());
+        assertThrows(ObjectMappingException.class, () -> jacksonMapper.tryConvert(new Holder(), Holder.class));
+    }
+
+    private static class Holder {
+        private NitriteId id;
+        private String name;
+        private short count;
+        private float ratio;
+        private BigDecimal amount;
+        private BigInteger big;
+        private byte[] data;
+        private Date created;
+        private List<String> tags;
+        private Holder child;
+        private List<Holder> children;
+    }
+}
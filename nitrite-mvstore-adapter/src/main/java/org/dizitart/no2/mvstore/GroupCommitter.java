@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.mvstore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dizitart.no2.common.concurrent.ThreadPoolManager;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.h2.mvstore.MVStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Coalesces the commit requests of many threads into one store version.
+ * <p>
+ * A background thread waits for the first request, then for at most
+ * {@code maxLatency} milliseconds or until {@code maxBytes} of changes are
+ * pending, and commits and syncs the store once for all requests received
+ * so far. Requests arriving during a commit are served by the next one.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+@Slf4j(topic = "nitrite-mvstore")
+class GroupCommitter implements AutoCloseable {
+    private static final String THREAD_NAME = "GroupCommit.NO\u2082";
+
+    private final MVStore mvStore;
+    private final Runnable onCommit;
+    private final long maxLatency;
+    private final long maxBytes;
+    private final ExecutorService executor;
+    private List<CompletableFuture<Void>> pending;
+    private boolean closed;
+
+    /**
+     * Instantiates a new {@link GroupCommitter} and starts its thread.
+     *
+     * @param mvStore    the store to commit
+     * @param onCommit   the callback to run after each commit
+     * @param maxLatency the maximum time in milliseconds a request waits for others
+     * @param maxBytes   the amount of unsaved changes in bytes which triggers a commit
+     */
+    GroupCommitter(MVStore mvStore, Runnable onCommit, long maxLatency, long maxBytes) {
+        this.mvStore = mvStore;
+        this.onCommit = onCommit;
+        this.maxLatency = Math.max(0, maxLatency);
+        this.maxBytes = maxBytes;
+        this.pending = new ArrayList<>();
+        this.executor = ThreadPoolManager.getThreadPool(1, THREAD_NAME);
+        this.executor.submit(this::run);
+    }
+
+    /**
+     * Requests a commit of all changes made so far.
+     *
+     * @return the future which completes when the changes are durable
+     */
+    synchronized CompletableFuture<Void> request() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new NitriteIOException("Group commit is closed"));
+            return future;
+        }
+
+        pending.add(future);
+        if (pending.size() == 1 || mvStore.getUnsavedMemory() >= maxBytes) {
+            notifyAll();
+        }
+        return future;
+    }
+
+    /**
+     * Commits the pending requests and stops the thread.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        ThreadPoolManager.shutdownThreadPool(executor);
+    }
+
+    private void run() {
+        while (true) {
+            List<CompletableFuture<Void>> batch;
+            synchronized (this) {
+                try {
+                    while (pending.isEmpty() && !closed) {
+                        wait();
+                    }
+
+                    long deadline = System.currentTimeMillis() + maxLatency;
+                    long remaining = maxLatency;
+                    while (!closed && remaining > 0 && mvStore.getUnsavedMemory() < maxBytes) {
+                        wait(remaining);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    closed = true;
+                }
+
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+
+            synchronized (this) {
+                if (closed && pending.isEmpty()) return;
+            }
+        }
+    }
+
+    private void commit(List<CompletableFuture<Void>> batch) {
+        try {
+            if (!mvStore.isClosed()) {
+                mvStore.commit();
+                if (mvStore.getFileStore() != null) {
+                    mvStore.sync();
+                }
+                onCommit.run();
+            }
+
+            for (CompletableFuture<Void> future : batch) {
+                future.complete(null);
+            }
+        } catch (Exception e) {
+            log.error("Error while committing {} requests", batch.size(), e);
+            for (CompletableFuture<Void> future : batch) {
+                future.completeExceptionally(
+                    new NitriteIOException("Error occurred while committing the database", e));
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.mvstore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.store.BackupOptions;
+import org.h2.mvstore.MVStore;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Copies the file of an open {@link MVStore} while it remains writable.
+ * <p>
+ * The reuse of free space is switched off during the backup, so the store
+ * only appends new chunks to the file and never overwrites a chunk of the
+ * version being copied. The length of the file and its header are read
+ * while no chunk is being written, the chunks up to that length are then
+ * copied alongside the writers, optionally throttled.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+@Slf4j(topic = "nitrite-mvstore")
+class MVStoreBackup {
+    // the two store header blocks at the start of the file
+    private static final int HEADER_SIZE = 2 * 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MVStore mvStore;
+    private final File source;
+
+    /**
+     * Instantiates a new {@link MVStoreBackup}.
+     *
+     * @param mvStore the store to back up
+     * @param source  the file of the store
+     */
+    MVStoreBackup(MVStore mvStore, File source) {
+        this.mvStore = mvStore;
+        this.source = source;
+    }
+
+    /**
+     * Writes a copy of the last committed version of the store to the
+     * path of the options. The copy is written to a temporary file first,
+     * so an existing backup is only replaced by a complete one.
+     *
+     * @param backupOptions the backup options
+     */
+    void backup(BackupOptions backupOptions) {
+        File target = new File(backupOptions.getPath());
+        File temp = new File(target.getPath() + ".tmp");
+
+        boolean reuseSpace = mvStore.isSpaceReused();
+        mvStore.setReuseSpace(false);
+        try {
+            copy(temp, backupOptions.getRateLimit());
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new NitriteIOException("Failed to back up the store to " + target, e);
+        } finally {
+            mvStore.setReuseSpace(reuseSpace);
+        }
+
+        if (target.exists() && !target.delete()) {
+            deleteQuietly(temp);
+            throw new NitriteIOException("Failed to replace the backup " + target);
+        }
+
+        if (!temp.renameTo(target)) {
+            deleteQuietly(temp);
+            throw new NitriteIOException("Failed to move the backup to " + target);
+        }
+    }
+
+    private void copy(File temp, long rateLimit) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(source, "r");
+             FileOutputStream out = new FileOutputStream(temp)) {
+            FileChannel channel = file.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            long[] length = new long[1];
+            IOException[] error = new IOException[1];
+
+            // no chunk is written while the length and the header are read
+            mvStore.executeFilestoreOperation(() -> {
+                length[0] = mvStore.getFileStore().size();
+                header.limit((int) Math.min(HEADER_SIZE, length[0]));
+                try {
+                    while (header.hasRemaining()) {
+                        if (channel.read(header, header.position()) < 0) {
+                            throw new IOException("Unexpected end of file " + source);
+                        }
+                    }
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            });
+
+            if (error[0] != null) {
+                throw error[0];
+            }
+
+            out.write(header.array(), 0, header.limit());
+
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = header.limit();
+            long start = System.nanoTime();
+            while (position < length[0]) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, length[0] - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file " + source);
+                }
+
+                out.write(buffer.array(), 0, read);
+                position += read;
+                throttle(position, start, rateLimit);
+            }
+            out.getFD().sync();
+        }
+    }
+
+    private void throttle(long copied, long start, long rateLimit) throws IOException {
+        if (rateLimit <= 0) {
+            return;
+        }
+
+        long expected = copied * 1000 / rateLimit;
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (expected > elapsed) {
+            try {
+                Thread.sleep(expected - elapsed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Backup has been interrupted", e);
+            }
+        }
+    }
+
+    private void deleteQuietly(File file) {
+        if (file.exists() && !file.delete()) {
+            log.warn("Failed to delete {}", file);
+        }
+    }
+}
@@ -121,6 +121,31 @@ public class MVStoreConfig implements StoreConfig {
      */
     private FileStore<?> fileStore;
 
+    @Setter(AccessLevel.PACKAGE)
+    /**
+     * Indicates whether transactions should run natively on the MVStore.
+     */
+    private boolean nativeTransactions;
+
+    @Setter(AccessLevel.PACKAGE)
+    /**
+     * Indicates whether commits of concurrent callers are coalesced into one.
+     */
+    private boolean groupCommit;
+
+    @Setter(AccessLevel.PACKAGE)
+    /**
+     * The maximum time in milliseconds a group commit waits for more requests.
+     */
+    private long groupCommitMaxLatency;
+
+    @Setter(AccessLevel.PACKAGE)
+    /**
+     * The amount of unsaved changes in bytes which triggers a group commit
+     * without waiting for the maximum latency.
+     */
+    private long groupCommitMaxBytes;
+
     MVStoreConfig() {
         eventListeners = new HashSet<>();
     }
@@ -151,6 +176,10 @@ public class MVStoreConfig implements StoreConfig {
         config.cacheConcurrency(cacheConcurrency);
         config.pageSplitSize(pageSplitSize);
         config.fileStore(fileStore);
+        config.nativeTransactions(nativeTransactions);
+        config.groupCommit(groupCommit);
+        config.groupCommitMaxLatency(groupCommitMaxLatency);
+        config.groupCommitMaxBytes(groupCommitMaxBytes);
         return config;
     }
 }
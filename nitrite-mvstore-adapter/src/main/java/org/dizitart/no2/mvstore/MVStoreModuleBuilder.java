@@ -108,6 +108,37 @@ public class MVStoreModuleBuilder {
      */
     private FileStore<?> fileStore;
 
+    /**
+     * Flag to run transactions natively on the MVStore. If set to true, a
+     * transaction reads from a snapshot of the store, detects write conflicts
+     * on commit and applies its changes atomically, instead of replaying its
+     * journal on the collections. Index and collection level changes and
+     * spatial indexes are not supported inside such a transaction.
+     */
+    private boolean nativeTransactions;
+
+    /**
+     * Flag to enable group commit. If set to true, the commits requested by
+     * concurrent callers are coalesced by a background thread into one store
+     * version, which is written and synced to disk once for all of them. A
+     * caller of {@link org.dizitart.no2.Nitrite#commit()} waits until its
+     * changes are durable, {@link org.dizitart.no2.Nitrite#commitAsync()}
+     * returns a future instead.
+     */
+    private boolean groupCommit;
+
+    /**
+     * The maximum time in milliseconds a group commit waits for more commit
+     * requests before writing. The default is 5 ms.
+     */
+    private long groupCommitMaxLatency = 5;
+
+    /**
+     * The amount of unsaved changes in bytes which triggers a group commit
+     * before the maximum latency has passed. The default is 1 MB.
+     */
+    private long groupCommitMaxBytes = 1024 * 1024;
+
     /**
      * The configuration for the MVStore.
      */
@@ -179,6 +210,10 @@ public class MVStoreModuleBuilder {
         dbConfig.cacheConcurrency(cacheConcurrency());
         dbConfig.pageSplitSize(pageSplitSize());
         dbConfig.fileStore(fileStore());
+        dbConfig.nativeTransactions(nativeTransactions());
+        dbConfig.groupCommit(groupCommit());
+        dbConfig.groupCommitMaxLatency(groupCommitMaxLatency());
+        dbConfig.groupCommitMaxBytes(groupCommitMaxBytes());
         dbConfig.eventListeners(eventListeners());
 
         module.setStoreConfig(dbConfig);
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.mvstore;
+
+import org.dizitart.no2.exceptions.TransactionException;
+import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.store.StoreTransaction;
+import org.h2.mvstore.MVStore;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link StoreTransaction} on top of the copy-on-write maps of a {@link MVStore}.
+ * <p>
+ * Each map opened in the transaction reads from the root page of the map
+ * at the time it was opened, so readers never wait for writers. On commit,
+ * every written key is checked against the value the transaction has seen,
+ * and the whole write set is applied while the store lock is held, so that
+ * the changes are persisted in a single version of the store. If applying
+ * the write set fails, the writes already applied are reverted.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class MVStoreTransaction implements StoreTransaction {
+    private final NitriteMVStore nitriteStore;
+    private final MVStore mvStore;
+    private final Map<String, MVTransactionMap<?, ?>> mapRegistry;
+    private MVStore.TxCounter txCounter;
+
+    MVStoreTransaction(NitriteMVStore nitriteStore, MVStore mvStore) {
+        this.nitriteStore = nitriteStore;
+        this.mvStore = mvStore;
+        this.mapRegistry = new ConcurrentHashMap<>();
+
+        // keep the chunks of the snapshots alive till the transaction ends
+        this.txCounter = mvStore.registerVersionUsage();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <Key, Value> NitriteMap<Key, Value> openMap(String mapName, Class<?> keyType,
+                                                                   Class<?> valueType) {
+        checkOpened();
+        MVTransactionMap<Key, Value> transactionMap = (MVTransactionMap<Key, Value>) mapRegistry.get(mapName);
+        if (transactionMap != null) {
+            transactionMap.reopen();
+            return transactionMap;
+        }
+
+        NitriteMVMap<Key, Value> primaryMap = (NitriteMVMap<Key, Value>) nitriteStore.openMap(mapName,
+            keyType, valueType);
+        transactionMap = new MVTransactionMap<>(primaryMap);
+        mapRegistry.put(mapName, transactionMap);
+        return transactionMap;
+    }
+
+    @Override
+    public synchronized void commit() {
+        checkOpened();
+        for (MVTransactionMap<?, ?> transactionMap : mapRegistry.values()) {
+            transactionMap.validate();
+        }
+
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        Runnable apply = () -> {
+            Deque<MVTransactionMap<?, ?>> appliedMaps = new ArrayDeque<>();
+            try {
+                for (MVTransactionMap<?, ?> transactionMap : mapRegistry.values()) {
+                    if (transactionMap.hasWrites()) {
+                        appliedMaps.push(transactionMap);
+                        transactionMap.apply();
+                    }
+                }
+            } catch (RuntimeException e) {
+                // an exception escaping a file store operation puts
+                // the whole store in panic mode
+                error.set(e);
+                revert(appliedMaps, e);
+            }
+        };
+
+        if (mvStore.getFileStore() != null) {
+            mvStore.executeFilestoreOperation(apply);
+        } else {
+            apply.run();
+        }
+
+        discardWrites();
+        if (error.get() != null) {
+            throw new TransactionException("Failed to apply the transaction", error.get());
+        }
+    }
+
+    @Override
+    public synchronized void rollback() {
+        discardWrites();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (txCounter != null) {
+            discardWrites();
+            mapRegistry.clear();
+            if (!mvStore.isClosed()) {
+                mvStore.deregisterVersionUsage(txCounter);
+            }
+            txCounter = null;
+        }
+    }
+
+    private void revert(Deque<MVTransactionMap<?, ?>> appliedMaps, RuntimeException error) {
+        // undo the writes already applied, the last applied map first
+        for (MVTransactionMap<?, ?> transactionMap : appliedMaps) {
+            try {
+                transactionMap.revert();
+            } catch (RuntimeException e) {
+                error.addSuppressed(e);
+            }
+        }
+    }
+
+    private void discardWrites() {
+        for (MVTransactionMap<?, ?> transactionMap : mapRegistry.values()) {
+            transactionMap.discard();
+        }
+    }
+
+    private void checkOpened() {
+        if (txCounter == null) {
+            throw new TransactionException("Store transaction is closed");
+        }
+    }
+}
@@ -0,0 +1,463 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.mvstore;
+
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.exceptions.TransactionException;
+import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.store.NitriteStore;
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.RootReference;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
+/**
+ * A transactional view of a {@link NitriteMVMap}. Reads are served from the
+ * root page of the map captured when the view was opened, writes are buffered
+ * in the view until the {@link MVStoreTransaction} is committed.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+@SuppressWarnings("unchecked")
+class MVTransactionMap<Key, Value> implements NitriteMap<Key, Value> {
+    private static final Object TOMBSTONE = new Object();
+
+    private final NitriteMVMap<Key, Value> primaryMap;
+    private final MVMap<Key, Value> mvMap;
+    private final RootReference<Key, Value> snapshot;
+    private final NavigableMap<Key, Object> writes;
+    private final Map<Key, Object> observed;
+    private final Map<Key, Object> applied;
+    private final AtomicBoolean closedFlag;
+
+    MVTransactionMap(NitriteMVMap<Key, Value> primaryMap) {
+        this.primaryMap = primaryMap;
+        this.mvMap = primaryMap.getMVMap();
+        this.snapshot = mvMap.flushAndGetRoot();
+        this.writes = new ConcurrentSkipListMap<>();
+        this.observed = new ConcurrentHashMap<>();
+        this.applied = new LinkedHashMap<>();
+        this.closedFlag = new AtomicBoolean(false);
+    }
+
+    @Override
+    public boolean containsKey(Key key) {
+        Object value = writes.get(key);
+        if (value != null) {
+            return value != TOMBSTONE;
+        }
+        return mvMap.get(snapshot.root, key) != null;
+    }
+
+    @Override
+    public Value get(Key key) {
+        Object value = writes.get(key);
+        if (value != null) {
+            return value == TOMBSTONE ? null : (Value) value;
+        }
+
+        Object seen = observed.get(key);
+        if (seen != null) {
+            return (Value) copyOf(seen);
+        }
+
+        Value snapshotValue = mvMap.get(snapshot.root, key);
+        if (isMutable(snapshotValue)) {
+            // containers like index entries are updated in place by the
+            // primary map, keep the version this transaction has seen
+            // to validate it on commit
+            seen = copyOf(snapshotValue);
+            observed.put(key, seen);
+            return (Value) copyOf(seen);
+        }
+        return snapshotValue;
+    }
+
+    @Override
+    public NitriteStore<?> getStore() {
+        return primaryMap.getStore();
+    }
+
+    @Override
+    public void clear() {
+        writes.replaceAll((key, value) -> TOMBSTONE);
+
+        Cursor<Key, Value> cursor = mvMap.cursor(snapshot, null, null, false);
+        while (cursor.hasNext()) {
+            writes.put(cursor.next(), TOMBSTONE);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return primaryMap.getName();
+    }
+
+    @Override
+    public RecordStream<Value> values() {
+        return () -> new Iterator<Value>() {
+            final Iterator<Pair<Key, Value>> iterator = new MergedIterator(false);
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Value next() {
+                return iterator.next().getSecond();
+            }
+        };
+    }
+
+    @Override
+    public Value remove(Key key) {
+        Value value = get(key);
+        writes.put(key, TOMBSTONE);
+        return value;
+    }
+
+    @Override
+    public RecordStream<Key> keys() {
+        return () -> new Iterator<Key>() {
+            final Iterator<Pair<Key, Value>> iterator = new MergedIterator(false);
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Key next() {
+                return iterator.next().getFirst();
+            }
+        };
+    }
+
+    @Override
+    public void put(Key key, Value value) {
+        notNull(value, "value cannot be null");
+        writes.put(key, value);
+    }
+
+    @Override
+    public long size() {
+        long size = snapshot.getTotalCount();
+        for (Map.Entry<Key, Object> entry : writes.entrySet()) {
+            boolean inSnapshot = mvMap.get(snapshot.root, entry.getKey()) != null;
+            boolean removed = entry.getValue() == TOMBSTONE;
+            if (inSnapshot && removed) {
+                size--;
+            } else if (!inSnapshot && !removed) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Value putIfAbsent(Key key, Value value) {
+        Value existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public RecordStream<Pair<Key, Value>> entries() {
+        return () -> new MergedIterator(false);
+    }
+
+    @Override
+    public RecordStream<Pair<Key, Value>> reversedEntries() {
+        return () -> new MergedIterator(true);
+    }
+
+    @Override
+    public Key firstKey() {
+        Iterator<Pair<Key, Value>> iterator = new MergedIterator(false);
+        return iterator.hasNext() ? iterator.next().getFirst() : null;
+    }
+
+    @Override
+    public Key lastKey() {
+        Iterator<Pair<Key, Value>> iterator = new MergedIterator(true);
+        return iterator.hasNext() ? iterator.next().getFirst() : null;
+    }
+
+    @Override
+    public Key higherKey(Key key) {
+        Key snapshotKey = mvMap.higherKey(snapshot, key);
+        while (snapshotKey != null && writes.containsKey(snapshotKey)) {
+            snapshotKey = mvMap.higherKey(snapshot, snapshotKey);
+        }
+
+        Key writtenKey = writes.higherKey(key);
+        while (writtenKey != null && writes.get(writtenKey) == TOMBSTONE) {
+            writtenKey = writes.higherKey(writtenKey);
+        }
+        return compare(snapshotKey, writtenKey) <= 0 ? snapshotKey : writtenKey;
+    }
+
+    @Override
+    public Key ceilingKey(Key key) {
+        return containsKey(key) ? key : higherKey(key);
+    }
+
+    @Override
+    public Key lowerKey(Key key) {
+        Key snapshotKey = mvMap.lowerKey(snapshot, key);
+        while (snapshotKey != null && writes.containsKey(snapshotKey)) {
+            snapshotKey = mvMap.lowerKey(snapshot, snapshotKey);
+        }
+
+        Key writtenKey = writes.lowerKey(key);
+        while (writtenKey != null && writes.get(writtenKey) == TOMBSTONE) {
+            writtenKey = writes.lowerKey(writtenKey);
+        }
+        if (snapshotKey == null || writtenKey == null) {
+            return snapshotKey == null ? writtenKey : snapshotKey;
+        }
+        return compare(snapshotKey, writtenKey) >= 0 ? snapshotKey : writtenKey;
+    }
+
+    @Override
+    public Key floorKey(Key key) {
+        return containsKey(key) ? key : lowerKey(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return firstKey() == null;
+    }
+
+    @Override
+    public void drop() {
+        throw new InvalidOperationException("A map can not be dropped in a native store transaction");
+    }
+
+    @Override
+    public boolean isDropped() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        closedFlag.set(true);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closedFlag.get();
+    }
+
+    void reopen() {
+        closedFlag.set(false);
+    }
+
+    boolean hasWrites() {
+        return !writes.isEmpty();
+    }
+
+    void validate() {
+        for (Key key : writes.keySet()) {
+            Object expected = observed.get(key);
+            if (expected == null) {
+                expected = mvMap.get(snapshot.root, key);
+            }
+
+            Value current = mvMap.get(key);
+            if (current != expected && !Objects.equals(current, expected)) {
+                throw new TransactionException("Transaction conflict on " + getName()
+                    + ", the key " + key + " has been modified by another writer");
+            }
+        }
+    }
+
+    void apply() {
+        applied.clear();
+        for (Map.Entry<Key, Object> entry : writes.entrySet()) {
+            // keep the current value before writing, so that a failed
+            // commit can put it back
+            Value previous = mvMap.get(entry.getKey());
+            applied.put(entry.getKey(), previous == null ? TOMBSTONE : previous);
+
+            if (entry.getValue() == TOMBSTONE) {
+                primaryMap.remove(entry.getKey());
+            } else {
+                primaryMap.put(entry.getKey(), (Value) entry.getValue());
+            }
+        }
+    }
+
+    void revert() {
+        for (Map.Entry<Key, Object> entry : applied.entrySet()) {
+            if (entry.getValue() == TOMBSTONE) {
+                primaryMap.remove(entry.getKey());
+            } else {
+                primaryMap.put(entry.getKey(), (Value) entry.getValue());
+            }
+        }
+        applied.clear();
+    }
+
+    void discard() {
+        writes.clear();
+        observed.clear();
+        applied.clear();
+    }
+
+    private Value visibleValue(Key key, Value snapshotValue) {
+        Object seen = observed.get(key);
+        if (seen != null) {
+            return (Value) copyOf(seen);
+        }
+        return isMutable(snapshotValue) ? (Value) copyOf(snapshotValue) : snapshotValue;
+    }
+
+    private static boolean isMutable(Object value) {
+        // documents are never changed in place, index entries can be
+        return !(value instanceof Document) && (value instanceof List || value instanceof Map);
+    }
+
+    private static Object copyOf(Object value) {
+        if (!isMutable(value)) {
+            return value;
+        } else if (value instanceof List) {
+            return new CopyOnWriteArrayList<>((List<?>) value);
+        } else if (value instanceof NavigableMap) {
+            ConcurrentSkipListMap<Object, Object> copy = new ConcurrentSkipListMap<>();
+            for (Map.Entry<?, ?> entry : ((NavigableMap<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), copyOf(entry.getValue()));
+            }
+            return copy;
+        } else if (value instanceof Map) {
+            return new HashMap<>((Map<?, ?>) value);
+        }
+        return value;
+    }
+
+    private int compare(Key first, Key second) {
+        // a null key sorts after any other key
+        if (first == null) {
+            return second == null ? 0 : 1;
+        }
+
+        if (second == null) {
+            return -1;
+        }
+        return ((Comparable<Key>) first).compareTo(second);
+    }
+
+    private class MergedIterator implements Iterator<Pair<Key, Value>> {
+        private final Cursor<Key, Value> cursor;
+        private final Iterator<Map.Entry<Key, Object>> writeIterator;
+        private final boolean reverse;
+        private Pair<Key, Value> snapshotEntry;
+        private Map.Entry<Key, Object> writeEntry;
+        private Pair<Key, Value> nextEntry;
+
+        MergedIterator(boolean reverse) {
+            this.reverse = reverse;
+            this.cursor = mvMap.cursor(snapshot, null, null, reverse);
+            this.writeIterator = reverse ? writes.descendingMap().entrySet().iterator()
+                : writes.entrySet().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextEntry == null) {
+                nextEntry = advance();
+            }
+            return nextEntry != null;
+        }
+
+        @Override
+        public Pair<Key, Value> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Pair<Key, Value> entry = nextEntry;
+            nextEntry = null;
+            return entry;
+        }
+
+        private Pair<Key, Value> advance() {
+            while (true) {
+                if (snapshotEntry == null) {
+                    snapshotEntry = nextSnapshotEntry();
+                }
+
+                if (writeEntry == null && writeIterator.hasNext()) {
+                    writeEntry = writeIterator.next();
+                }
+
+                if (writeEntry == null) {
+                    Pair<Key, Value> entry = snapshotEntry;
+                    snapshotEntry = null;
+                    return entry;
+                }
+
+                int order = snapshotEntry == null ? 1 : compare(snapshotEntry.getFirst(), writeEntry.getKey());
+                if (reverse && snapshotEntry != null) {
+                    order = -order;
+                }
+
+                if (order < 0) {
+                    Pair<Key, Value> entry = snapshotEntry;
+                    snapshotEntry = null;
+                    return entry;
+                }
+
+                if (order == 0) {
+                    // the key was written after the snapshot entry was read
+                    snapshotEntry = null;
+                }
+
+                Map.Entry<Key, Object> entry = writeEntry;
+                writeEntry = null;
+                if (entry.getValue() != TOMBSTONE) {
+                    return new Pair<>(entry.getKey(), (Value) entry.getValue());
+                }
+            }
+        }
+
+        private Pair<Key, Value> nextSnapshotEntry() {
+            while (cursor.hasNext()) {
+                Key key = cursor.next();
+                if (!writes.containsKey(key)) {
+                    return new Pair<>(key, visibleValue(key, cursor.getValue()));
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -48,6 +48,10 @@ class NitriteMVMap<Key, Value> implements NitriteMap<Key, Value> {
         this.droppedFlag = new AtomicBoolean(false);
     }
 
+    MVMap<Key, Value> getMVMap() {
+        return mvMap;
+    }
+
     @Override
     public boolean containsKey(Key key) {
         return mvMap.containsKey(key);
@@ -19,21 +19,29 @@ package org.dizitart.no2.mvstore;
 
 import lombok.extern.slf4j.Slf4j;
 import org.dizitart.no2.common.util.StringUtils;
+import org.dizitart.no2.exceptions.InvalidOperationException;
 import org.dizitart.no2.exceptions.NitriteIOException;
 import org.dizitart.no2.index.BoundingBox;
 import org.dizitart.no2.store.AbstractNitriteStore;
+import org.dizitart.no2.store.BackupOptions;
 import org.dizitart.no2.store.NitriteMap;
 import org.dizitart.no2.store.NitriteRTree;
 import org.dizitart.no2.store.events.StoreEventListener;
+import org.dizitart.no2.store.StoreTransaction;
 import org.dizitart.no2.store.events.StoreEvents;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
 import org.h2.mvstore.MVStoreException;
 import org.h2.mvstore.rtree.MVRTreeMap;
 
+import java.io.File;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static org.dizitart.no2.common.util.ValidationUtils.notEmpty;
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
 import static org.h2.mvstore.DataUtils.*;
 
 /**
@@ -43,6 +51,7 @@ import static org.h2.mvstore.DataUtils.*;
 @Slf4j
 public class NitriteMVStore extends AbstractNitriteStore<MVStoreConfig> {
     private MVStore mvStore;
+    private GroupCommitter groupCommitter;
     private final Map<String, NitriteMap<?, ?>> nitriteMapRegistry;
     private final Map<String, NitriteRTree<?, ?>> nitriteRTreeMapRegistry;
 
@@ -56,6 +65,10 @@ public class NitriteMVStore extends AbstractNitriteStore<MVStoreConfig> {
     public void openOrCreate() {
         this.mvStore = MVStoreUtils.openOrCreate(getStoreConfig());
         initEventBus();
+        if (getStoreConfig().groupCommit() && !mvStore.isReadOnly()) {
+            this.groupCommitter = new GroupCommitter(mvStore, () -> alert(StoreEvents.Commit),
+                getStoreConfig().groupCommitMaxLatency(), getStoreConfig().groupCommitMaxBytes());
+        }
         alert(StoreEvents.Opened);
     }
 
@@ -76,12 +89,36 @@ public class NitriteMVStore extends AbstractNitriteStore<MVStoreConfig> {
 
     @Override
     public void commit() {
+        flushModifications();
+        if (groupCommitter != null) {
+            try {
+                groupCommitter.request().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof NitriteIOException) {
+                    throw (NitriteIOException) e.getCause();
+                }
+                throw new NitriteIOException("Error occurred while committing the database", e.getCause());
+            }
+            return;
+        }
+
         mvStore.commit();
         alert(StoreEvents.Commit);
     }
 
+    @Override
+    public CompletableFuture<Void> commitAsync() {
+        if (groupCommitter != null) {
+            flushModifications();
+            return groupCommitter.request();
+        }
+        return super.commitAsync();
+    }
+
     @Override
     public void close() {
+        flushModifications();
+
         // close nitrite maps
         for (NitriteMap<?, ?> nitriteMap : nitriteMapRegistry.values()) {
             nitriteMap.close();
@@ -94,6 +131,12 @@ public class NitriteMVStore extends AbstractNitriteStore<MVStoreConfig> {
         nitriteMapRegistry.clear();
         nitriteRTreeMapRegistry.clear();
 
+        if (groupCommitter != null) {
+            // write the pending requests before the store is closed
+            groupCommitter.close();
+            groupCommitter = null;
+        }
+
         if (getStoreConfig().autoCompact()) {
            mvStore.close(-1);
         } else {
@@ -103,6 +146,30 @@ public class NitriteMVStore extends AbstractNitriteStore<MVStoreConfig> {
         eventBus.close();
     }
 
+    @Override
+    public synchronized void backup(BackupOptions backupOptions) {
+        notNull(backupOptions, "backupOptions cannot be null");
+        notEmpty(backupOptions.getPath(), "backup path cannot be empty");
+
+        String filePath = getStoreConfig().filePath();
+        if (StringUtils.isNullOrEmpty(filePath)) {
+            throw new InvalidOperationException("An in-memory store can not be backed up");
+        }
+
+        File source = new File(filePath);
+        if (source.getAbsoluteFile().equals(new File(backupOptions.getPath()).getAbsoluteFile())) {
+            throw new InvalidOperationException("A store can not be backed up to its own file");
+        }
+
+        // the backup holds everything committed before it started
+        if (!isReadOnly()) {
+            commit();
+        }
+
+        // the file is always copied in full, it has no notion of the previous backup
+        new MVStoreBackup(mvStore, source).backup(backupOptions);
+    }
+
     @Override
     public boolean hasMap(String mapName) {
         return mvStore.hasMap(mapName);
@@ -141,6 +208,7 @@ public class NitriteMVStore extends AbstractNitriteStore<MVStoreConfig> {
         mvStore.removeMap(mvMap);
         getCatalog().remove(name);
         nitriteMapRegistry.remove(name);
+        discardModifications(name);
     }
 
     @Override
@@ -165,6 +233,19 @@ public class NitriteMVStore extends AbstractNitriteStore<MVStoreConfig> {
         return nitriteMVRTreeMap;
     }
 
+    @Override
+    public boolean isTransactional() {
+        return getStoreConfig() != null && getStoreConfig().nativeTransactions();
+    }
+
+    @Override
+    public StoreTransaction beginTransaction() {
+        if (!isTransactional()) {
+            return super.beginTransaction();
+        }
+        return new MVStoreTransaction(this, mvStore);
+    }
+
     @Override
     public String getStoreVersion() {
         return "MVStore/" + org.h2.engine.Constants.VERSION;
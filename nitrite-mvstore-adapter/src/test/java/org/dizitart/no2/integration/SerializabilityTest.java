@@ -30,6 +30,10 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
 
 /**
  * @author Anindya Chatterjee
@@ -91,6 +95,24 @@ public class SerializabilityTest {
         }
     }
 
+    @Test
+    public void testRemoveFromListElementAfterRead() {
+        Document doc = Document.createDocument("key", 1)
+            .put("arr", Arrays.asList(Document.createDocument("x", 1).put("y", 2)));
+        collection.insert(doc);
+        db.close();
+
+        // documents read back from the store are compacted
+        db = TestUtil.createDb(dbFile.getPath());
+        collection = db.getCollection("test");
+        Document stored = collection.find().firstOrNull();
+        stored.remove("arr.0.x");
+
+        List<?> arr = stored.get("arr", List.class);
+        assertEquals(1, arr.size());
+        assertEquals(Document.createDocument("y", 2), arr.get(0));
+    }
+
     @Data
     public static class NotSerializableClass {
         private String myId;
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.integration.mvstore;
+
+import org.dizitart.no2.Nitrite;
+import org.dizitart.no2.collection.NitriteCollection;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.index.IndexType;
+import org.dizitart.no2.integration.Retry;
+import org.dizitart.no2.mvstore.MVStoreModule;
+import org.dizitart.no2.store.BackupOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.dizitart.no2.index.IndexOptions.indexOptions;
+import static org.dizitart.no2.integration.TestUtil.deleteDb;
+import static org.dizitart.no2.integration.TestUtil.getRandomTempDbFile;
+import static org.dizitart.no2.store.BackupOptions.backupOptions;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee
+ */
+public class BackupTest {
+    private String dbFile;
+    private String backupFile;
+    private Nitrite db;
+    private Nitrite backupDb;
+
+    @Rule
+    public Retry retry = new Retry(3);
+
+    @Before
+    public void before() {
+        dbFile = getRandomTempDbFile();
+        backupFile = getRandomTempDbFile();
+        db = openDb(dbFile);
+    }
+
+    @After
+    public void cleanup() {
+        if (db != null && !db.isClosed()) {
+            db.close();
+        }
+        if (backupDb != null && !backupDb.isClosed()) {
+            backupDb.close();
+        }
+        deleteDb(dbFile);
+        deleteDb(backupFile);
+    }
+
+    @Test
+    public void testBackupWhileWriting() throws Exception {
+        NitriteCollection collection = db.getCollection("test");
+        collection.createIndex(indexOptions(IndexType.NON_UNIQUE), "group");
+        for (int i = 0; i < 1000; i++) {
+            collection.insert(createDocument("id", i).put("group", i % 10));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger written = new AtomicInteger(1000);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            while (running.get()) {
+                int id = written.getAndIncrement();
+                collection.insert(createDocument("id", id).put("group", id % 10));
+                if (id % 50 == 0) {
+                    db.commit();
+                }
+            }
+        });
+
+        BackupOptions backupOptions = backupOptions(backupFile);
+        backupOptions.setRateLimit(512 * 1024);
+        db.getStore().backup(backupOptions);
+
+        running.set(false);
+        writer.get();
+        db.close();
+
+        backupDb = openDb(backupFile);
+        NitriteCollection backup = backupDb.getCollection("test");
+        long size = backup.size();
+        assertTrue(size >= 1000);
+        assertTrue(size < written.get());
+        assertEquals(size, backup.find().size());
+        assertEquals(100, backup.find(where("group").eq(3).and(where("id").lt(1000))).size());
+    }
+
+    @Test
+    public void testBackupReplacesPrevious() {
+        NitriteCollection collection = db.getCollection("test");
+        collection.insert(createDocument("id", 1));
+        db.getStore().backup(backupOptions(backupFile));
+
+        collection.insert(createDocument("id", 2));
+        db.getStore().backup(backupOptions(backupFile));
+        assertFalse(new File(backupFile + ".tmp").exists());
+        db.close();
+
+        backupDb = openDb(backupFile);
+        assertEquals(2, backupDb.getCollection("test").size());
+    }
+
+    @Test
+    public void testRateLimit() {
+        NitriteCollection collection = db.getCollection("test");
+        for (int i = 0; i < 2000; i++) {
+            collection.insert(createDocument("id", i).put("text", "some text to fill the file " + i));
+        }
+        db.commit();
+
+        long length = new File(dbFile).length();
+        BackupOptions backupOptions = backupOptions(backupFile);
+        backupOptions.setRateLimit(length * 2);
+
+        long start = System.currentTimeMillis();
+        db.getStore().backup(backupOptions);
+        long elapsed = System.currentTimeMillis() - start;
+
+        // the header is written unthrottled, the rest takes about half a second
+        assertTrue(elapsed >= 300);
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void testBackupToOwnFile() {
+        db.getStore().backup(backupOptions(dbFile));
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void testBackupInMemory() {
+        db.close();
+        db = Nitrite.builder()
+            .loadModule(MVStoreModule.withConfig().build())
+            .openOrCreate();
+        db.getStore().backup(backupOptions(backupFile));
+    }
+
+    private Nitrite openDb(String file) {
+        MVStoreModule storeModule = MVStoreModule.withConfig()
+            .filePath(file)
+            .build();
+
+        return Nitrite.builder()
+            .loadModule(storeModule)
+            .fieldSeparator(".")
+            .openOrCreate();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.integration.mvstore;
+
+import org.dizitart.no2.Nitrite;
+import org.dizitart.no2.collection.NitriteCollection;
+import org.dizitart.no2.integration.Retry;
+import org.dizitart.no2.mvstore.MVStoreModule;
+import org.dizitart.no2.store.events.StoreEvents;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.dizitart.no2.integration.TestUtil.deleteDb;
+import static org.dizitart.no2.integration.TestUtil.getRandomTempDbFile;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee
+ */
+public class GroupCommitTest {
+    private String dbFile;
+    private Nitrite db;
+    private AtomicInteger commits;
+
+    @Rule
+    public Retry retry = new Retry(3);
+
+    @Before
+    public void before() {
+        dbFile = getRandomTempDbFile();
+        commits = new AtomicInteger();
+    }
+
+    @After
+    public void cleanup() {
+        if (db != null && !db.isClosed()) {
+            db.close();
+        }
+        deleteDb(dbFile);
+    }
+
+    @Test
+    public void testCommitAsyncCoalesced() {
+        db = openDb(100);
+        NitriteCollection collection = db.getCollection("test");
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            collection.insert(createDocument("id", i));
+            futures.add(db.commitAsync());
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        for (CompletableFuture<Void> future : futures) {
+            assertTrue(future.isDone());
+            assertFalse(future.isCompletedExceptionally());
+        }
+        assertFalse(db.hasUnsavedChanges());
+        await().atMost(1, TimeUnit.SECONDS).until(() -> commits.get() > 0);
+        assertTrue(commits.get() < 20);
+    }
+
+    @Test
+    public void testConcurrentCommitsAreDurable() throws InterruptedException {
+        db = openDb(5);
+        NitriteCollection collection = db.getCollection("test");
+
+        int threads = 8;
+        int writes = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+        AtomicInteger errors = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            executor.submit(() -> {
+                try {
+                    for (int i = 0; i < writes; i++) {
+                        collection.insert(createDocument("thread", thread).put("id", i));
+                        db.commit();
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(1, TimeUnit.MINUTES));
+        executor.shutdown();
+        assertEquals(0, errors.get());
+
+        db.close();
+        db = openDb(5);
+        assertEquals(threads * writes, db.getCollection("test").size());
+    }
+
+    @Test
+    public void testCommitAfterCloseAndReopen() {
+        db = openDb(5);
+        db.getCollection("test").insert(createDocument("id", 1));
+        db.commitAsync().join();
+        db.close();
+
+        db = openDb(5);
+        db.getCollection("test").insert(createDocument("id", 2));
+        db.commit();
+        assertEquals(2, db.getCollection("test").size());
+    }
+
+    private Nitrite openDb(long maxLatency) {
+        MVStoreModule module = MVStoreModule.withConfig()
+            .filePath(dbFile)
+            .autoCommit(false)
+            .groupCommit(true)
+            .groupCommitMaxLatency(maxLatency)
+            .addStoreEventListener(eventInfo -> {
+                if (eventInfo.getEvent() == StoreEvents.Commit) {
+                    commits.incrementAndGet();
+                }
+            })
+            .build();
+
+        return Nitrite.builder()
+            .loadModule(module)
+            .fieldSeparator(".")
+            .openOrCreate();
+    }
+}
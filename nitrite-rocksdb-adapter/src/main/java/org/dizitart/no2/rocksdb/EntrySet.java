@@ -5,6 +5,7 @@ import org.dizitart.no2.rocksdb.formatter.ObjectFormatter;
 import org.rocksdb.*;
 
 import java.util.Iterator;
+import java.util.function.Supplier;
 
 /**
  * @since 4.0
@@ -12,8 +13,7 @@ import java.util.Iterator;
  */
 class EntrySet<K, V> implements Iterable<Pair<K, V>> {
     private final ObjectFormatter objectFormatter;
-    private final RocksDB rocksDB;
-    private final ColumnFamilyHandle columnFamilyHandle;
+    private final Supplier<RocksIterator> iteratorSupplier;
     private final Class<?> keyType;
     private final Class<?> valueType;
     private final boolean reverse;
@@ -21,8 +21,13 @@ class EntrySet<K, V> implements Iterable<Pair<K, V>> {
     public EntrySet(RocksDB rocksDB, ColumnFamilyHandle columnFamilyHandle,
                     ObjectFormatter objectFormatter, Class<?> keyType,
                     Class<?> valueType, boolean reverse) {
-        this.rocksDB = rocksDB;
-        this.columnFamilyHandle = columnFamilyHandle;
+        this(() -> rocksDB.newIterator(columnFamilyHandle), objectFormatter, keyType, valueType, reverse);
+    }
+
+    EntrySet(Supplier<RocksIterator> iteratorSupplier,
+             ObjectFormatter objectFormatter, Class<?> keyType,
+             Class<?> valueType, boolean reverse) {
+        this.iteratorSupplier = iteratorSupplier;
         this.objectFormatter = objectFormatter;
         this.keyType = keyType;
         this.valueType = valueType;
@@ -38,7 +43,7 @@ class EntrySet<K, V> implements Iterable<Pair<K, V>> {
         private final RocksIterator rawEntryIterator;
 
         public EntryIterator() {
-            rawEntryIterator = rocksDB.newIterator(columnFamilyHandle);
+            rawEntryIterator = iteratorSupplier.get();
             if (reverse) {
                 rawEntryIterator.seekToLast();
             } else {
@@ -7,6 +7,7 @@ import org.rocksdb.RocksIterator;
 
 import java.lang.ref.Cleaner;
 import java.util.Iterator;
+import java.util.function.Supplier;
 
 import static org.dizitart.no2.rocksdb.Constants.CLEANER;
 
@@ -16,13 +17,15 @@ import static org.dizitart.no2.rocksdb.Constants.CLEANER;
  */
 class KeySet<K> implements Iterable<K> {
     private final ObjectFormatter objectFormatter;
-    private final RocksDB rocksDB;
-    private final ColumnFamilyHandle columnFamilyHandle;
+    private final Supplier<RocksIterator> iteratorSupplier;
     private final Class<?> keyType;
 
     public KeySet(RocksDB rocksDB, ColumnFamilyHandle columnFamilyHandle, ObjectFormatter objectFormatter, Class<?> keyType) {
-        this.rocksDB = rocksDB;
-        this.columnFamilyHandle = columnFamilyHandle;
+        this(() -> rocksDB.newIterator(columnFamilyHandle), objectFormatter, keyType);
+    }
+
+    KeySet(Supplier<RocksIterator> iteratorSupplier, ObjectFormatter objectFormatter, Class<?> keyType) {
+        this.iteratorSupplier = iteratorSupplier;
         this.objectFormatter = objectFormatter;
         this.keyType = keyType;
     }
@@ -37,7 +40,7 @@ class KeySet<K> implements Iterable<K> {
         private final Cleaner.Cleanable cleanable;
 
         public KeyIterator() {
-            rawEntryIterator = rocksDB.newIterator(columnFamilyHandle);
+            rawEntryIterator = iteratorSupplier.get();
             rawEntryIterator.seekToFirst();
             cleanable = CLEANER.register(this, new CleaningAction(rawEntryIterator));
         }
@@ -69,6 +69,14 @@ public class RocksDBConfig implements StoreConfig {
      */
     private ObjectFormatter objectFormatter;
 
+    @Getter
+    @Setter(AccessLevel.PACKAGE)
+    /**
+     * Indicates whether the database is opened as an {@code OptimisticTransactionDB}
+     * and transactions run as RocksDB transactions.
+     */
+    private boolean nativeTransactions;
+
     RocksDBConfig() {
         eventListeners = new HashSet<>();
         objectFormatter = new KryoObjectFormatter();
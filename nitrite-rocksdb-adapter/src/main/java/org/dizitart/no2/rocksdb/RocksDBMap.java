@@ -11,6 +11,7 @@ import org.dizitart.no2.store.NitriteMap;
 import org.dizitart.no2.store.NitriteStore;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
 import org.rocksdb.util.BytewiseComparator;
 
@@ -61,11 +62,11 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
         byte[] key = objectFormatter.encodeKey(k);
         try {
             // check if key definitely does not exist, then return false
-            boolean result = rocksDB.keyMayExist(columnFamilyHandle, key, null);
+            boolean result = mayContain(key);
             if (!result) return false;
 
             // if above result is true then double check if really the key exists
-            return rocksDB.get(columnFamilyHandle, key) != null;
+            return readValue(key) != null;
         } catch (Exception e) {
             log.error("Error while querying key", e);
             throw new NitriteIOException("Failed to check key", e);
@@ -77,7 +78,7 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
     public V get(K k) {
         try {
             byte[] key = objectFormatter.encodeKey(k);
-            byte[] value = rocksDB.get(columnFamilyHandle, key);
+            byte[] value = readValue(key);
             if (value == null) {
                 return null;
             }
@@ -110,7 +111,7 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
 
     @Override
     public RecordStream<V> values() {
-        return RecordStream.fromIterable(new ValueSet<>(rocksDB, columnFamilyHandle, objectFormatter, getValueType()));
+        return RecordStream.fromIterable(new ValueSet<>(this::newIterator, objectFormatter, getValueType()));
     }
 
     @Override
@@ -120,18 +121,18 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
             byte[] key = objectFormatter.encodeKey(k);
 
             // if the definitely does not exist return null
-            if (!rocksDB.keyMayExist(columnFamilyHandle, key, null)) {
+            if (!mayContain(key)) {
                 return null;
             }
 
             // double check if the key exists, if it does not return null
-            byte[] value = reference.getRocksDB().get(columnFamilyHandle, key);
+            byte[] value = readValue(key);
             if (value == null) {
                 return null;
             }
 
             // if key exists with null value, delete the key and return null
-            reference.getRocksDB().delete(columnFamilyHandle, key);
+            deleteValue(key);
             size.decrementAndGet();
             updateLastModifiedTime();
 
@@ -144,7 +145,7 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
 
     @Override
     public RecordStream<K> keys() {
-        return RecordStream.fromIterable(new KeySet<>(rocksDB, columnFamilyHandle, objectFormatter, getKeyType()));
+        return RecordStream.fromIterable(new KeySet<>(this::newIterator, objectFormatter, getKeyType()));
     }
 
     @Override
@@ -155,9 +156,9 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
             byte[] value = objectFormatter.encode(v);
 
             // check if this is update or insert
-            boolean result = rocksDB.keyMayExist(columnFamilyHandle, key, null);
+            boolean result = mayContain(key);
 
-            reference.getRocksDB().put(columnFamilyHandle, key, value);
+            writeValue(key, value);
             if (!result) {
                 // if insert then update the size
                 size.incrementAndGet();
@@ -174,7 +175,7 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
     public long size() {
         if (size.get() == 0) {
             // first time size calculation after db opening
-            try (RocksIterator iterator = rocksDB.newIterator(columnFamilyHandle)) {
+            try (RocksIterator iterator = newIterator()) {
                 iterator.seekToFirst();
 
                 while (iterator.isValid()) {
@@ -195,11 +196,11 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
 
         try {
             byte[] key = objectFormatter.encodeKey(k);
-            byte[] oldValue = rocksDB.get(columnFamilyHandle, key);
+            byte[] oldValue = readValue(key);
 
             if (oldValue == null) {
                 byte[] value = objectFormatter.encode(v);
-                rocksDB.put(columnFamilyHandle, key, value);
+                writeValue(key, value);
                 size.incrementAndGet();
                 updateLastModifiedTime();
                 return null;
@@ -214,20 +215,20 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
 
     @Override
     public RecordStream<Pair<K, V>> entries() {
-        return RecordStream.fromIterable(new EntrySet<>(rocksDB, columnFamilyHandle,
+        return RecordStream.fromIterable(new EntrySet<>(this::newIterator,
             objectFormatter, getKeyType(), getValueType(), false));
     }
 
     @Override
     public RecordStream<Pair<K, V>> reversedEntries() {
-        return RecordStream.fromIterable(new EntrySet<>(rocksDB, columnFamilyHandle,
+        return RecordStream.fromIterable(new EntrySet<>(this::newIterator,
             objectFormatter, getKeyType(), getValueType(), true));
     }
 
     @Override
     @SuppressWarnings({"unchecked"})
     public K firstKey() {
-        try (RocksIterator iterator = rocksDB.newIterator(columnFamilyHandle)) {
+        try (RocksIterator iterator = newIterator()) {
             iterator.seekToFirst();
             if (iterator.isValid()) {
                 byte[] key = iterator.key();
@@ -240,7 +241,7 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
     @Override
     @SuppressWarnings({"unchecked"})
     public K lastKey() {
-        try (RocksIterator iterator = rocksDB.newIterator(columnFamilyHandle)) {
+        try (RocksIterator iterator = newIterator()) {
             iterator.seekToLast();
             if (iterator.isValid()) {
                 byte[] key = iterator.key();
@@ -253,7 +254,7 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
     @Override
     @SuppressWarnings({"unchecked", "rawtypes"})
     public K higherKey(K k) {
-        try (RocksIterator iterator = rocksDB.newIterator(columnFamilyHandle)) {
+        try (RocksIterator iterator = newIterator()) {
             byte[] key = objectFormatter.encodeKey(k);
 
             iterator.seek(key);
@@ -279,7 +280,7 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
     @Override
     @SuppressWarnings({"unchecked", "rawtypes"})
     public K ceilingKey(K k) {
-        try (RocksIterator iterator = rocksDB.newIterator(columnFamilyHandle)) {
+        try (RocksIterator iterator = newIterator()) {
             byte[] key = objectFormatter.encodeKey(k);
 
             iterator.seek(key);
@@ -305,7 +306,7 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
     @Override
     @SuppressWarnings({"unchecked", "rawtypes"})
     public K lowerKey(K k) {
-        try (RocksIterator iterator = rocksDB.newIterator(columnFamilyHandle)) {
+        try (RocksIterator iterator = newIterator()) {
             byte[] key = objectFormatter.encodeKey(k);
 
             iterator.seekForPrev(key);
@@ -333,7 +334,7 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
     @Override
     @SuppressWarnings({"unchecked", "rawtypes"})
     public K floorKey(K k) {
-        try (RocksIterator iterator = rocksDB.newIterator(columnFamilyHandle)) {
+        try (RocksIterator iterator = newIterator()) {
             byte[] key = objectFormatter.encodeKey(k);
 
             iterator.seekForPrev(key);
@@ -379,6 +380,12 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
         return droppedFlag.get();
     }
 
+    @Override
+    public boolean isNaturallyOrdered() {
+        // keys are ordered by their serialized bytes
+        return false;
+    }
+
     @Override
     public void close() {
         if (!closedFlag.get() && !droppedFlag.get()) {
@@ -392,6 +399,33 @@ public class RocksDBMap<K, V> implements NitriteMap<K, V> {
         return closedFlag.get();
     }
 
+    void adjustSize(long delta) {
+        // a zero size is counted again on the next call to size()
+        if (size.get() != 0) {
+            size.addAndGet(delta);
+        }
+    }
+
+    RocksIterator newIterator() {
+        return rocksDB.newIterator(columnFamilyHandle);
+    }
+
+    boolean mayContain(byte[] key) {
+        return rocksDB.keyMayExist(columnFamilyHandle, key, null);
+    }
+
+    byte[] readValue(byte[] key) throws RocksDBException {
+        return rocksDB.get(columnFamilyHandle, key);
+    }
+
+    void writeValue(byte[] key, byte[] value) throws RocksDBException {
+        reference.getRocksDB().put(columnFamilyHandle, key, value);
+    }
+
+    void deleteValue(byte[] key) throws RocksDBException {
+        reference.getRocksDB().delete(columnFamilyHandle, key);
+    }
+
     private void initialize() {
         this.size = new AtomicLong(0); // just initialized
         this.closedFlag = new AtomicBoolean(false);
@@ -61,6 +61,15 @@ public class RocksDBModuleBuilder {
      * The object formatter used to serialize and deserialize objects.
      */
     private ObjectFormatter objectFormatter;
+    /**
+     * Flag to run transactions as RocksDB transactions. If set to true, the
+     * database is opened as an {@code OptimisticTransactionDB}, a transaction
+     * reads from a snapshot and its writes are committed atomically in one
+     * write batch, a write conflict fails the commit. Index and collection
+     * level changes and spatial indexes are not supported inside such a
+     * transaction.
+     */
+    private boolean nativeTransactions;
     /**
      * The RocksDB configuration for the module.
      */
@@ -121,6 +130,7 @@ public class RocksDBModuleBuilder {
         dbConfig.dbOptions(dbOptions());
         dbConfig.columnFamilyOptions(columnFamilyOptions());
         dbConfig.filePath(filePath());
+        dbConfig.nativeTransactions(nativeTransactions());
 
         if (objectFormatter() != null) {
             dbConfig.objectFormatter(objectFormatter());
@@ -8,16 +8,22 @@ import org.dizitart.no2.exceptions.NitriteException;
 import org.dizitart.no2.exceptions.NitriteIOException;
 import org.dizitart.no2.index.BoundingBox;
 import org.dizitart.no2.store.AbstractNitriteStore;
+import org.dizitart.no2.store.BackupOptions;
 import org.dizitart.no2.store.NitriteMap;
 import org.dizitart.no2.store.NitriteRTree;
+import org.dizitart.no2.store.StoreTransaction;
 import org.dizitart.no2.store.events.StoreEventListener;
 import org.dizitart.no2.store.events.StoreEvents;
-import org.rocksdb.RocksDB;
+import org.rocksdb.*;
 
+import java.io.File;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.dizitart.no2.common.util.ValidationUtils.notEmpty;
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
 /**
  * @since 4.0
  * @author Anindya Chatterjee
@@ -71,6 +77,7 @@ public class RocksDBStore extends AbstractNitriteStore<RocksDBConfig> {
 
     @Override
     public void commit() {
+        flushModifications();
         alert(StoreEvents.Commit);
     }
 
@@ -78,6 +85,8 @@ public class RocksDBStore extends AbstractNitriteStore<RocksDBConfig> {
     public void close() {
         try {
             if (!closed.get()) {
+                flushModifications();
+
                 // close nitrite maps
                 for (NitriteMap<?, ?> nitriteMap : nitriteMapRegistry.values()) {
                     nitriteMap.close();
@@ -135,6 +144,7 @@ public class RocksDBStore extends AbstractNitriteStore<RocksDBConfig> {
         reference.dropColumnFamily(mapName);
         getCatalog().remove(mapName);
         nitriteMapRegistry.remove(mapName);
+        discardModifications(mapName);
     }
 
     @Override
@@ -168,6 +178,96 @@ public class RocksDBStore extends AbstractNitriteStore<RocksDBConfig> {
         nitriteRTreeMapRegistry.remove(mapName);
     }
 
+    @Override
+    public boolean isTransactional() {
+        return getStoreConfig() != null && getStoreConfig().nativeTransactions();
+    }
+
+    @Override
+    public StoreTransaction beginTransaction() {
+        if (!isTransactional()) {
+            return super.beginTransaction();
+        }
+        return new RocksDBTransaction(this, reference);
+    }
+
+    /**
+     * Writes an online backup of the database.
+     * <p>
+     * A full backup is a RocksDB checkpoint, a directory which can be opened
+     * as a database right away. Its table files are hard links if the
+     * directory is on the same file system, so the rate limit does not apply
+     * to it. The directory must not exist.
+     * <p>
+     * An incremental backup is written by the RocksDB backup engine, which
+     * only copies the table files missing in the backup directory. Such a
+     * directory holds all backups taken into it and is restored with
+     * {@link #restoreBackup(String, String)}.
+     *
+     * @param backupOptions the backup options
+     * @since 4.3.1
+     */
+    @Override
+    public void backup(BackupOptions backupOptions) {
+        notNull(backupOptions, "backupOptions cannot be null");
+        notEmpty(backupOptions.getPath(), "backup path cannot be empty");
+
+        flushModifications();
+        RocksDB rocksDB = reference.getRocksDB();
+        try {
+            if (backupOptions.isIncremental()) {
+                File directory = new File(backupOptions.getPath());
+                if (!directory.exists() && !directory.mkdirs()) {
+                    throw new NitriteIOException("Failed to create backup directory " + directory);
+                }
+
+                try (BackupEngineOptions engineOptions = new BackupEngineOptions(backupOptions.getPath())) {
+                    if (backupOptions.getRateLimit() > 0) {
+                        engineOptions.setBackupRateLimit(backupOptions.getRateLimit());
+                    }
+
+                    try (BackupEngine backupEngine = BackupEngine.open(Env.getDefault(), engineOptions)) {
+                        backupEngine.createNewBackup(rocksDB, true);
+                    }
+                }
+            } else {
+                try (Checkpoint checkpoint = Checkpoint.create(rocksDB)) {
+                    checkpoint.createCheckpoint(backupOptions.getPath());
+                }
+            }
+        } catch (RocksDBException e) {
+            log.error("Error while backing up the database", e);
+            throw new NitriteIOException("Failed to back up the database to " + backupOptions.getPath(), e);
+        }
+    }
+
+    /**
+     * Restores the latest backup written by an incremental
+     * {@link #backup(BackupOptions)} into a database directory. The
+     * database must not be open.
+     *
+     * @param backupPath the backup directory
+     * @param dbPath     the database directory to restore into
+     * @since 4.3.1
+     */
+    public static void restoreBackup(String backupPath, String dbPath) {
+        notEmpty(backupPath, "backup path cannot be empty");
+        notEmpty(dbPath, "database path cannot be empty");
+        if (!new File(backupPath).isDirectory()) {
+            throw new NitriteIOException("Backup directory " + backupPath + " does not exist");
+        }
+
+        RocksDB.loadLibrary();
+        try (BackupEngineOptions engineOptions = new BackupEngineOptions(backupPath);
+             BackupEngine backupEngine = BackupEngine.open(Env.getDefault(), engineOptions);
+             RestoreOptions restoreOptions = new RestoreOptions(false)) {
+            backupEngine.restoreDbFromLatestBackup(dbPath, dbPath, restoreOptions);
+        } catch (RocksDBException e) {
+            log.error("Error while restoring the database", e);
+            throw new NitriteIOException("Failed to restore the backup " + backupPath + " to " + dbPath, e);
+        }
+    }
+
     @Override
     public String getStoreVersion() {
         return "RocksDB/" + getRocksDbVersion();
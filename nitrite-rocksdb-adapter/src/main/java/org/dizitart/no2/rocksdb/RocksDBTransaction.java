@@ -0,0 +1,126 @@
+package org.dizitart.no2.rocksdb;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.dizitart.no2.exceptions.TransactionException;
+import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.store.StoreTransaction;
+import org.rocksdb.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link StoreTransaction} backed by a transaction of an {@link OptimisticTransactionDB}.
+ * <p>
+ * The transaction takes a snapshot when it begins, all maps opened in it read
+ * from that snapshot and their writes are batched in the RocksDB transaction.
+ * On commit RocksDB checks that none of the written keys has been changed
+ * since the snapshot and writes the batch atomically.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+@Slf4j(topic = "nitrite-rocksdb")
+class RocksDBTransaction implements StoreTransaction {
+    private final RocksDBStore store;
+    private final RocksDBReference reference;
+    private final Map<String, RocksDBTransactionMap<?, ?>> mapRegistry;
+    private final WriteOptions writeOptions;
+    private final OptimisticTransactionOptions transactionOptions;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final Transaction transaction;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final ReadOptions readOptions;
+
+    private boolean closed;
+
+    RocksDBTransaction(RocksDBStore store, RocksDBReference reference) {
+        this.store = store;
+        this.reference = reference;
+        this.mapRegistry = new ConcurrentHashMap<>();
+        this.writeOptions = new WriteOptions();
+        this.transactionOptions = new OptimisticTransactionOptions().setSetSnapshot(true);
+
+        OptimisticTransactionDB transactionDB = (OptimisticTransactionDB) reference.getRocksDB();
+        this.transaction = transactionDB.beginTransaction(writeOptions, transactionOptions);
+        this.readOptions = new ReadOptions().setSnapshot(transaction.getSnapshot());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <Key, Value> NitriteMap<Key, Value> openMap(String mapName, Class<?> keyType,
+                                                                   Class<?> valueType) {
+        checkOpened();
+        RocksDBTransactionMap<Key, Value> transactionMap = (RocksDBTransactionMap<Key, Value>) mapRegistry.get(mapName);
+        if (transactionMap != null) {
+            transactionMap.reopen();
+            return transactionMap;
+        }
+
+        RocksDBMap<Key, Value> primaryMap = (RocksDBMap<Key, Value>) store.openMap(mapName, keyType, valueType);
+        transactionMap = new RocksDBTransactionMap<>(primaryMap, store, reference, this);
+        mapRegistry.put(mapName, transactionMap);
+        return transactionMap;
+    }
+
+    @Override
+    public synchronized void commit() {
+        checkOpened();
+        try {
+            transaction.commit();
+        } catch (RocksDBException e) {
+            Status status = e.getStatus();
+            if (status != null && (status.getCode() == Status.Code.Busy
+                || status.getCode() == Status.Code.TryAgain)) {
+                throw new TransactionException("Transaction conflict, a written key has been"
+                    + " modified by another writer", e);
+            }
+            log.error("Error while committing transaction", e);
+            throw new TransactionException("Failed to commit transaction", e);
+        }
+
+        for (RocksDBTransactionMap<?, ?> transactionMap : mapRegistry.values()) {
+            transactionMap.afterCommit();
+        }
+    }
+
+    @Override
+    public synchronized void rollback() {
+        if (closed) {
+            return;
+        }
+
+        try {
+            transaction.rollback();
+        } catch (RocksDBException e) {
+            log.error("Error while rolling back transaction", e);
+            throw new TransactionException("Failed to rollback transaction", e);
+        }
+
+        for (RocksDBTransactionMap<?, ?> transactionMap : mapRegistry.values()) {
+            transactionMap.afterRollback();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            mapRegistry.clear();
+            readOptions.close();
+            transaction.close();
+            transactionOptions.close();
+            writeOptions.close();
+        }
+    }
+
+    private void checkOpened() {
+        if (closed) {
+            throw new TransactionException("Store transaction is closed");
+        }
+    }
+}
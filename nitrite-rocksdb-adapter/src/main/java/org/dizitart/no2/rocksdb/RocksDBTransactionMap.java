@@ -0,0 +1,145 @@
+package org.dizitart.no2.rocksdb;
+
+import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.rocksdb.*;
+
+/**
+ * A view of a {@link RocksDBMap} inside a {@link RocksDBTransaction}. Reads
+ * see the snapshot of the transaction together with its own writes, writes
+ * are batched in the transaction until it is committed.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class RocksDBTransactionMap<K, V> extends RocksDBMap<K, V> {
+    private final RocksDBTransaction storeTransaction;
+    private final RocksDBMap<K, V> primaryMap;
+    private final ColumnFamilyHandle columnFamilyHandle;
+    private long sizeDelta;
+    private boolean written;
+    private boolean closed;
+
+    RocksDBTransactionMap(RocksDBMap<K, V> primaryMap, RocksDBStore store,
+                          RocksDBReference reference, RocksDBTransaction storeTransaction) {
+        super(primaryMap.getName(), store, reference, primaryMap.getKeyType(), primaryMap.getValueType());
+        this.primaryMap = primaryMap;
+        this.storeTransaction = storeTransaction;
+        this.columnFamilyHandle = reference.getOrCreateColumnFamily(primaryMap.getName());
+    }
+
+    @Override
+    public void clear() {
+        try (RocksIterator iterator = newIterator()) {
+            iterator.seekToFirst();
+            while (iterator.isValid()) {
+                deleteValue(iterator.key());
+                iterator.next();
+            }
+        } catch (RocksDBException e) {
+            throw new NitriteIOException("Failed to clear " + getName() + " in transaction", e);
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        try (RocksIterator iterator = newIterator()) {
+            iterator.seekToFirst();
+            while (iterator.isValid()) {
+                size++;
+                iterator.next();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return firstKey() == null;
+    }
+
+    @Override
+    public void drop() {
+        throw new InvalidOperationException("A map can not be dropped in a native store transaction");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void updateLastModifiedTime() {
+        // updated once on the primary map when the transaction commits
+    }
+
+    @Override
+    RocksIterator newIterator() {
+        synchronized (storeTransaction) {
+            return storeTransaction.getTransaction().getIterator(storeTransaction.getReadOptions(),
+                columnFamilyHandle);
+        }
+    }
+
+    @Override
+    boolean mayContain(byte[] key) {
+        try {
+            return readValue(key) != null;
+        } catch (RocksDBException e) {
+            throw new NitriteIOException("Failed to read " + getName() + " in transaction", e);
+        }
+    }
+
+    @Override
+    byte[] readValue(byte[] key) throws RocksDBException {
+        synchronized (storeTransaction) {
+            return storeTransaction.getTransaction().get(storeTransaction.getReadOptions(),
+                columnFamilyHandle, key);
+        }
+    }
+
+    @Override
+    void writeValue(byte[] key, byte[] value) throws RocksDBException {
+        synchronized (storeTransaction) {
+            if (readValue(key) == null) {
+                sizeDelta++;
+            }
+            storeTransaction.getTransaction().put(columnFamilyHandle, key, value);
+            written = true;
+        }
+    }
+
+    @Override
+    void deleteValue(byte[] key) throws RocksDBException {
+        synchronized (storeTransaction) {
+            if (readValue(key) != null) {
+                sizeDelta--;
+            }
+            storeTransaction.getTransaction().delete(columnFamilyHandle, key);
+            written = true;
+        }
+    }
+
+    void reopen() {
+        closed = false;
+    }
+
+    void afterCommit() {
+        if (written) {
+            primaryMap.adjustSize(sizeDelta);
+            primaryMap.updateLastModifiedTime();
+        }
+        afterRollback();
+    }
+
+    void afterRollback() {
+        sizeDelta = 0;
+        written = false;
+    }
+}
@@ -109,8 +109,14 @@ class StoreFactory {
     private static void createRocksDB(RocksDBReference reference, RocksDBConfig dbConfig) {
         try {
             List<ColumnFamilyHandle> columnFamilyHandleList = new ArrayList<>();
-            RocksDB db = RocksDB.open(reference.getDbOptions(), dbConfig.filePath(),
-                reference.getColumnFamilyDescriptors(), columnFamilyHandleList);
+            RocksDB db;
+            if (dbConfig.nativeTransactions()) {
+                db = OptimisticTransactionDB.open(reference.getDbOptions(), dbConfig.filePath(),
+                    reference.getColumnFamilyDescriptors(), columnFamilyHandleList);
+            } else {
+                db = RocksDB.open(reference.getDbOptions(), dbConfig.filePath(),
+                    reference.getColumnFamilyDescriptors(), columnFamilyHandleList);
+            }
             reference.setRocksDB(db);
 
             Map<String, ColumnFamilyHandle> handleMap = new ConcurrentHashMap<>();
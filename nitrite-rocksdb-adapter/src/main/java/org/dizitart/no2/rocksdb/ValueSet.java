@@ -7,6 +7,7 @@ import org.rocksdb.RocksIterator;
 
 import java.lang.ref.Cleaner;
 import java.util.Iterator;
+import java.util.function.Supplier;
 
 import static org.dizitart.no2.rocksdb.Constants.CLEANER;
 
@@ -16,14 +17,17 @@ import static org.dizitart.no2.rocksdb.Constants.CLEANER;
  */
 class ValueSet<V> implements Iterable<V> {
     private final ObjectFormatter objectFormatter;
-    private final RocksDB rocksDB;
-    private final ColumnFamilyHandle columnFamilyHandle;
+    private final Supplier<RocksIterator> iteratorSupplier;
     private final Class<?> valueType;
 
     public ValueSet(RocksDB rocksDB, ColumnFamilyHandle columnFamilyHandle,
                     ObjectFormatter objectFormatter, Class<?> valueType) {
-        this.rocksDB = rocksDB;
-        this.columnFamilyHandle = columnFamilyHandle;
+        this(() -> rocksDB.newIterator(columnFamilyHandle), objectFormatter, valueType);
+    }
+
+    ValueSet(Supplier<RocksIterator> iteratorSupplier,
+             ObjectFormatter objectFormatter, Class<?> valueType) {
+        this.iteratorSupplier = iteratorSupplier;
         this.objectFormatter = objectFormatter;
         this.valueType = valueType;
     }
@@ -38,7 +42,7 @@ class ValueSet<V> implements Iterable<V> {
         private final Cleaner.Cleanable cleanable;
 
         public ValueIterator() {
-            rawEntryIterator = rocksDB.newIterator(columnFamilyHandle);
+            rawEntryIterator = iteratorSupplier.get();
             rawEntryIterator.seekToFirst();
             cleanable = CLEANER.register(this, new CleaningAction(rawEntryIterator));
         }
@@ -21,6 +21,7 @@ import org.dizitart.no2.store.UserCredential;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -71,7 +72,7 @@ public class NitriteSerializers {
         private final MapSerializer mapSerializer = new MapSerializer() {
             @Override
             protected Map create(Kryo kryo, Input input, Class type, int size) {
-                return (Map) Document.createDocument();
+                return new LinkedHashMap<>(size);
             }
         };
 
@@ -82,13 +83,8 @@ public class NitriteSerializers {
 
         @Override
         public Document read(Kryo kryo, Input input, Class<? extends Document> type) {
-            Document document = Document.createDocument();
-            Map<?, ?> map = mapSerializer.read(kryo, input, Map.class);
-            for (Map.Entry<?, ?> entry : map.entrySet()) {
-                document.put((String) entry.getKey(), entry.getValue());
-            }
-
-            return document;
+            Map<String, Object> map = mapSerializer.read(kryo, input, Map.class);
+            return Document.createCompactDocument(map);
         }
     }
 
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.integration.collection;
+
+import org.dizitart.no2.collection.DistinctOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.exceptions.ValidationException;
+import org.dizitart.no2.index.IndexOptions;
+import org.dizitart.no2.index.IndexType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.dizitart.no2.filters.Filter.ALL;
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee
+ */
+public class CollectionDistinctTest extends BaseCollectionTest {
+
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        String[] cities = {"Kolkata", "Delhi", "Mumbai", "Chennai"};
+        for (int i = 0; i < 40; i++) {
+            Document document = createDocument("orderId", i)
+                .put("city", i % 7 == 6 ? null : cities[i % 4])
+                .put("amount", (i % 5) * 10 + 5)
+                .put("tags", i % 2 == 0 ? Arrays.asList("gift", "express") : Arrays.asList("gift"));
+            collection.insert(document);
+        }
+    }
+
+    @Test
+    public void testDistinctWithoutIndex() {
+        assertEquals(Arrays.asList("Kolkata", "Delhi", "Mumbai", "Chennai"),
+            collection.distinct("city", ALL).toList());
+        assertEquals(Arrays.asList("gift", "express"), collection.distinct("tags", ALL).toList());
+        assertEquals(Arrays.asList("Delhi", "Kolkata"), sorted(collection.distinct("city", ALL,
+            DistinctOptions.distinctOptions().from("D", true).to("Mumbai", false)).toList()));
+        assertEquals(2, collection.distinct("city", ALL, DistinctOptions.distinctOptions().limit(2)).size());
+        assertTrue(collection.distinct("missing", ALL).isEmpty());
+    }
+
+    // rocksdb keys are ordered by their bytes, so the indexes are not scanned in value order
+    @Test
+    public void testDistinctWithSingleFieldIndex() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "city");
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "tags");
+
+        assertEquals(Arrays.asList("Chennai", "Delhi", "Kolkata", "Mumbai"),
+            sorted(collection.distinct("city", ALL).toList()));
+        assertEquals(Arrays.asList("express", "gift"), sorted(collection.distinct("tags", ALL).toList()));
+        assertEquals(Arrays.asList("Delhi", "Kolkata"), sorted(collection.distinct("city", ALL,
+            DistinctOptions.distinctOptions().from("D", true).to("Mumbai", false)).toList()));
+        assertEquals(Collections.singletonList("Kolkata"), collection.distinct("city", ALL,
+            DistinctOptions.distinctOptions().prefix("Ko")).toList());
+        assertEquals(2, collection.distinct("city", ALL, DistinctOptions.distinctOptions().limit(2)).size());
+
+        collection.remove(where("city").eq("Delhi"));
+        assertEquals(Arrays.asList("Chennai", "Kolkata", "Mumbai"),
+            sorted(collection.distinct("city", ALL).toList()));
+    }
+
+    @Test
+    public void testDistinctWithCompoundIndex() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "city", "amount");
+
+        assertEquals(Arrays.asList("Chennai", "Delhi", "Kolkata", "Mumbai"),
+            sorted(collection.distinct("city", ALL).toList()));
+
+        collection.remove(where("city").eq("Delhi"));
+        assertEquals(Arrays.asList("Chennai", "Kolkata", "Mumbai"),
+            sorted(collection.distinct("city", ALL).toList()));
+
+        // the second field of a compound index is scanned
+        assertEquals(Arrays.asList(5, 15, 25, 35, 45), sorted(collection.distinct("amount", ALL).toList()));
+    }
+
+    @Test
+    public void testDistinctWithFilter() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "city");
+
+        List<Object> cities = collection.distinct("city",
+            where("amount").eq(5).and(where("orderId").lt(10))).toList();
+        assertEquals(Arrays.asList("Delhi", "Kolkata"), sorted(cities));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testDistinctWithoutField() {
+        collection.distinct("", ALL);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Object> sorted(List<Object> values) {
+        List<Object> result = new ArrayList<>(values);
+        result.sort((a, b) -> ((Comparable) a).compareTo(b));
+        return result;
+    }
+}
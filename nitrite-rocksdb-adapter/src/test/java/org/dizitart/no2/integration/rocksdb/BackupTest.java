@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.integration.rocksdb;
+
+import org.dizitart.no2.Nitrite;
+import org.dizitart.no2.collection.NitriteCollection;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.index.IndexType;
+import org.dizitart.no2.integration.Retry;
+import org.dizitart.no2.rocksdb.RocksDBModule;
+import org.dizitart.no2.rocksdb.RocksDBStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.dizitart.no2.index.IndexOptions.indexOptions;
+import static org.dizitart.no2.integration.TestUtil.deleteDb;
+import static org.dizitart.no2.integration.TestUtil.getRandomTempDbFile;
+import static org.dizitart.no2.store.BackupOptions.backupOptions;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee
+ */
+public class BackupTest {
+    private String dbFile;
+    private String backupDir;
+    private String restoreDir;
+    private Nitrite db;
+    private Nitrite backupDb;
+
+    @Rule
+    public Retry retry = new Retry(3);
+
+    @Before
+    public void before() {
+        dbFile = getRandomTempDbFile();
+        backupDir = getRandomTempDbFile();
+        restoreDir = getRandomTempDbFile();
+        db = openDb(dbFile);
+
+        NitriteCollection collection = db.getCollection("test");
+        collection.createIndex(indexOptions(IndexType.NON_UNIQUE), "group");
+        for (int i = 0; i < 100; i++) {
+            collection.insert(createDocument("id", i).put("group", i % 10));
+        }
+    }
+
+    @After
+    public void cleanup() {
+        if (db != null && !db.isClosed()) {
+            db.close();
+        }
+        if (backupDb != null && !backupDb.isClosed()) {
+            backupDb.close();
+        }
+        deleteDb(dbFile);
+        deleteDb(backupDir);
+        deleteDb(restoreDir);
+    }
+
+    @Test
+    public void testCheckpoint() {
+        db.getStore().backup(backupOptions(backupDir));
+        db.getCollection("test").insert(createDocument("id", 100).put("group", 0));
+        db.close();
+
+        backupDb = openDb(backupDir);
+        NitriteCollection backup = backupDb.getCollection("test");
+        assertEquals(100, backup.size());
+        assertEquals(10, backup.find(where("group").eq(3)).size());
+    }
+
+    @Test(expected = NitriteIOException.class)
+    public void testCheckpointExistingDirectory() {
+        assertTrue(new File(backupDir).mkdirs());
+        db.getStore().backup(backupOptions(backupDir));
+    }
+
+    @Test
+    public void testIncrementalBackup() {
+        db.getStore().backup(backupOptions(backupDir, true));
+
+        NitriteCollection collection = db.getCollection("test");
+        for (int i = 100; i < 150; i++) {
+            collection.insert(createDocument("id", i).put("group", i % 10));
+        }
+        db.getStore().backup(backupOptions(backupDir, true));
+        db.close();
+
+        RocksDBStore.restoreBackup(backupDir, restoreDir);
+        backupDb = openDb(restoreDir);
+        NitriteCollection backup = backupDb.getCollection("test");
+        assertEquals(150, backup.size());
+        assertEquals(15, backup.find(where("group").eq(3)).size());
+    }
+
+    private Nitrite openDb(String file) {
+        RocksDBModule storeModule = RocksDBModule.withConfig()
+            .filePath(file)
+            .build();
+
+        return Nitrite.builder()
+            .loadModule(storeModule)
+            .fieldSeparator(".")
+            .openOrCreate();
+    }
+}
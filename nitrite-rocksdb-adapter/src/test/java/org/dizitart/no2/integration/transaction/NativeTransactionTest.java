@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.integration.transaction;
+
+import org.dizitart.no2.Nitrite;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteCollection;
+import org.dizitart.no2.collection.events.EventType;
+import org.dizitart.no2.exceptions.TransactionException;
+import org.dizitart.no2.index.IndexType;
+import org.dizitart.no2.integration.Retry;
+import org.dizitart.no2.rocksdb.RocksDBModule;
+import org.dizitart.no2.transaction.Session;
+import org.dizitart.no2.transaction.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.dizitart.no2.index.IndexOptions.indexOptions;
+import static org.dizitart.no2.integration.TestUtil.deleteDb;
+import static org.dizitart.no2.integration.TestUtil.getRandomTempDbFile;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee
+ */
+public class NativeTransactionTest {
+    private String dbFile;
+    private Nitrite db;
+    private NitriteCollection collection;
+
+    @Rule
+    public Retry retry = new Retry(3);
+
+    @Before
+    public void setUp() {
+        dbFile = getRandomTempDbFile();
+        RocksDBModule storeModule = RocksDBModule.withConfig()
+            .filePath(dbFile)
+            .nativeTransactions(true)
+            .build();
+
+        db = Nitrite.builder()
+            .loadModule(storeModule)
+            .fieldSeparator(".")
+            .openOrCreate();
+
+        collection = db.getCollection("test");
+        collection.createIndex(indexOptions(IndexType.NON_UNIQUE), "lastName");
+        collection.insert(createDocument("firstName", "John").put("lastName", "Doe"));
+        collection.insert(createDocument("firstName", "Jane").put("lastName", "Doe"));
+    }
+
+    @After
+    public void cleanUp() {
+        if (db != null && !db.isClosed()) {
+            db.close();
+        }
+        deleteDb(dbFile);
+    }
+
+    @Test
+    public void testCommit() {
+        try (Session session = db.createSession()) {
+            try (Transaction transaction = session.beginTransaction()) {
+                NitriteCollection txCol = transaction.getCollection("test");
+                txCol.insert(createDocument("firstName", "Jack").put("lastName", "Doe"));
+                txCol.update(where("firstName").eq("John"), createDocument("lastName", "Smith"));
+
+                assertEquals(2, txCol.find(where("lastName").eq("Doe")).size());
+                assertEquals(1, txCol.find(where("lastName").eq("Smith")).size());
+                assertEquals(2, collection.find(where("lastName").eq("Doe")).size());
+                assertEquals(0, collection.find(where("lastName").eq("Smith")).size());
+
+                transaction.commit();
+            }
+        }
+
+        assertEquals(3, collection.size());
+        assertEquals(2, collection.find(where("lastName").eq("Doe")).size());
+        assertEquals("John", collection.find(where("lastName").eq("Smith")).firstOrNull().get("firstName"));
+    }
+
+    @Test
+    public void testSnapshotRead() {
+        try (Session session = db.createSession()) {
+            try (Transaction transaction = session.beginTransaction()) {
+                NitriteCollection txCol = transaction.getCollection("test");
+
+                collection.insert(createDocument("firstName", "Jack").put("lastName", "Doe"));
+                collection.remove(where("firstName").eq("Jane"));
+
+                assertEquals(2, txCol.size());
+                assertEquals(2, txCol.find(where("lastName").eq("Doe")).size());
+                assertEquals(1, txCol.find(where("firstName").eq("Jane")).size());
+                assertEquals(0, txCol.find(where("firstName").eq("Jack")).size());
+            }
+        }
+    }
+
+    @Test
+    public void testRollback() {
+        try (Session session = db.createSession()) {
+            Transaction transaction = session.beginTransaction();
+            NitriteCollection txCol = transaction.getCollection("test");
+            txCol.insert(createDocument("firstName", "Jack").put("lastName", "Doe"));
+            txCol.remove(where("firstName").eq("John"));
+            assertEquals(2, txCol.size());
+
+            transaction.rollback();
+        }
+
+        assertEquals(2, collection.size());
+        assertEquals(1, collection.find(where("firstName").eq("John")).size());
+        assertEquals(0, collection.find(where("firstName").eq("Jack")).size());
+    }
+
+    @Test
+    public void testCommitPublishesEvents() {
+        List<EventType> events = new CopyOnWriteArrayList<>();
+        collection.subscribe(eventInfo -> events.add(eventInfo.getEventType()));
+
+        try (Session session = db.createSession()) {
+            try (Transaction transaction = session.beginTransaction()) {
+                NitriteCollection txCol = transaction.getCollection("test");
+                txCol.insert(createDocument("firstName", "Jack").put("lastName", "Doe"));
+                txCol.update(where("firstName").eq("John"), createDocument("lastName", "Smith"));
+                txCol.remove(where("firstName").eq("Jane"));
+
+                // nothing is published before the commit
+                assertTrue(events.isEmpty());
+                transaction.commit();
+            }
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> events.size() == 3);
+        assertEquals(Arrays.asList(EventType.Insert, EventType.Update, EventType.Remove), events);
+    }
+
+    @Test
+    public void testRollbackPublishesNoEvents() throws InterruptedException {
+        List<EventType> events = new CopyOnWriteArrayList<>();
+        collection.subscribe(eventInfo -> events.add(eventInfo.getEventType()));
+
+        try (Session session = db.createSession()) {
+            Transaction transaction = session.beginTransaction();
+            transaction.getCollection("test").insert(createDocument("firstName", "Jack").put("lastName", "Doe"));
+            transaction.rollback();
+        }
+
+        collection.insert(createDocument("firstName", "Jill").put("lastName", "Doe"));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> events.size() == 1);
+        Thread.sleep(100);
+        assertEquals(Collections.singletonList(EventType.Insert), events);
+    }
+
+    @Test
+    public void testWriteConflict() {
+        try (Session session = db.createSession()) {
+            Transaction first = session.beginTransaction();
+            Transaction second = session.beginTransaction();
+
+            first.getCollection("test").update(where("firstName").eq("John"),
+                createDocument("lastName", "Smith"));
+            second.getCollection("test").update(where("firstName").eq("John"),
+                createDocument("lastName", "Brown"));
+
+            first.commit();
+
+            boolean conflict = false;
+            try {
+                second.commit();
+            } catch (TransactionException e) {
+                conflict = true;
+                second.rollback();
+            }
+
+            assertTrue(conflict);
+            assertEquals(1, collection.find(where("lastName").eq("Smith")).size());
+            assertEquals(0, collection.find(where("lastName").eq("Brown")).size());
+        }
+    }
+
+    @Test
+    public void testConflictWithDirectWrite() {
+        try (Session session = db.createSession()) {
+            Transaction transaction = session.beginTransaction();
+            transaction.getCollection("test").insert(createDocument("firstName", "Jack").put("lastName", "Doe"));
+
+            // the index entry of "Doe" changes after the transaction has read it
+            collection.insert(createDocument("firstName", "Jill").put("lastName", "Doe"));
+
+            boolean conflict = false;
+            try {
+                transaction.commit();
+            } catch (TransactionException e) {
+                conflict = true;
+                transaction.rollback();
+            }
+
+            assertTrue(conflict);
+            assertEquals(3, collection.find(where("lastName").eq("Doe")).size());
+        }
+    }
+
+    @Test
+    public void testDisjointWrites() {
+        try (Session session = db.createSession()) {
+            Transaction first = session.beginTransaction();
+            Transaction second = session.beginTransaction();
+
+            first.getCollection("test").update(where("firstName").eq("John"),
+                createDocument("age", 30));
+            second.getCollection("test").update(where("firstName").eq("Jane"),
+                createDocument("age", 28));
+
+            first.commit();
+            second.commit();
+        }
+
+        assertEquals(30, (int) collection.find(where("firstName").eq("John")).firstOrNull().get("age", Integer.class));
+        assertEquals(28, (int) collection.find(where("firstName").eq("Jane")).firstOrNull().get("age", Integer.class));
+    }
+
+    @Test(expected = TransactionException.class)
+    public void testIndexChangeNotSupported() {
+        try (Session session = db.createSession()) {
+            try (Transaction transaction = session.beginTransaction()) {
+                NitriteCollection txCol = transaction.getCollection("test");
+                txCol.createIndex("firstName");
+            }
+        }
+    }
+
+    @Test
+    public void testCommitSurvivesReopen() {
+        try (Session session = db.createSession()) {
+            try (Transaction transaction = session.beginTransaction()) {
+                NitriteCollection txCol = transaction.getCollection("test");
+                Document document = createDocument("firstName", "Jack").put("lastName", "Doe");
+                txCol.insert(document);
+                transaction.commit();
+            }
+        }
+        db.close();
+
+        db = Nitrite.builder()
+            .loadModule(RocksDBModule.withConfig().filePath(dbFile).nativeTransactions(true).build())
+            .fieldSeparator(".")
+            .openOrCreate();
+        collection = db.getCollection("test");
+        assertEquals(3, collection.find(where("lastName").eq("Doe")).size());
+    }
+}
@@ -25,9 +25,13 @@ import org.dizitart.no2.exceptions.NitriteSecurityException;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The {@code AESEncryptor} class provides AES encryption and decryption
@@ -39,6 +43,14 @@ import java.nio.charset.StandardCharsets;
  * The class provides methods to encrypt and decrypt byte arrays and strings
  * using the specified password and encryption parameters.
  * <p>
+ * The expensive PBKDF2 derivation of a key from the password runs once per
+ * encryptor, producing a master key. Every encrypted text gets its own key,
+ * derived from the master key and a random salt with HKDF. The salt of the
+ * master key is stored along with the text, so that another encryptor with
+ * the same password can decrypt it, deriving that master key only once.
+ * Texts encrypted by earlier versions, which derived a key from the
+ * password for every text, can still be decrypted.
+ * <p>
  * 
  * NOTE: This is a derivative work of <a href=
  * "https://mkyong.com/java/java-symmetric-key-cryptography-example/">this</a>.
@@ -47,13 +59,21 @@ import java.nio.charset.StandardCharsets;
  * @since 4.0
  */
 public class AESEncryptor implements Encryptor {
+    private static final byte KEY_HIERARCHY_VERSION = 2;
+    private static final int RECORD_KEY_LENGTH = 32;
+
     private final String encryptAlgo;
     private final int tagLengthBit;
     private final int ivLengthByte;
     private final int saltLengthByte;
     private final Charset UTF_8 = StandardCharsets.UTF_8;
+    private final byte[] recordKeyInfo = "nitrite-aes-record-key".getBytes(UTF_8);
 
     private final SecureString password;
+    private final byte[] masterSalt;
+    private final byte[] masterKey;
+    private final Map<ByteBuffer, byte[]> masterKeys;
+    private final ThreadLocal<Cipher> cipher;
 
     /**
      * Instantiates a new {@link AESEncryptor} with these default values
@@ -87,6 +107,18 @@ public class AESEncryptor implements Encryptor {
         this.tagLengthBit = tagLengthBit;
         this.ivLengthByte = ivLengthByte;
         this.saltLengthByte = saltLengthByte;
+        this.cipher = new ThreadLocal<Cipher>() {
+            @Override
+            protected Cipher initialValue() {
+                return createCipher();
+            }
+        };
+
+        // derive the master key once, it is the expensive part
+        this.masterSalt = CryptoUtils.getRandomNonce(saltLengthByte);
+        this.masterKey = deriveMasterKey(masterSalt);
+        this.masterKeys = new ConcurrentHashMap<>();
+        this.masterKeys.put(ByteBuffer.wrap(masterSalt), masterKey);
     }
 
     /**
@@ -98,31 +130,37 @@ public class AESEncryptor implements Encryptor {
     @Override
     public String encrypt(byte[] plainText) {
         try {
-            // 16 bytes salt
+            // 16 bytes salt for the key of this text
             byte[] salt = CryptoUtils.getRandomNonce(saltLengthByte);
 
             // GCM recommended 12 bytes iv?
             byte[] iv = CryptoUtils.getRandomNonce(ivLengthByte);
 
-            // secret key from password
-            SecretKey aesKeyFromPassword = CryptoUtils.getAESKeyFromPassword(password.asString().toCharArray(), salt);
+            // version, master key salt, salt and iv are stored in clear
+            // and authenticated along with the cipher text
+            byte[] header = ByteBuffer.allocate(1 + masterSalt.length + salt.length + iv.length)
+                    .put(KEY_HIERARCHY_VERSION)
+                    .put(masterSalt)
+                    .put(salt)
+                    .put(iv)
+                    .array();
 
-            Cipher cipher = Cipher.getInstance(encryptAlgo);
+            Cipher cipher = this.cipher.get();
 
             // ASE-GCM needs GCMParameterSpec
-            cipher.init(Cipher.ENCRYPT_MODE, aesKeyFromPassword, new GCMParameterSpec(tagLengthBit, iv));
+            cipher.init(Cipher.ENCRYPT_MODE, deriveRecordKey(masterKey, salt),
+                    new GCMParameterSpec(tagLengthBit, iv));
+            cipher.updateAAD(header);
 
             byte[] cipherText = cipher.doFinal(plainText);
 
-            // prefix IV and Salt to cipher text
-            byte[] cipherTextWithIvSalt = ByteBuffer.allocate(iv.length + salt.length + cipherText.length)
-                    .put(iv)
-                    .put(salt)
+            byte[] cipherTextWithHeader = ByteBuffer.allocate(header.length + cipherText.length)
+                    .put(header)
                     .put(cipherText)
                     .array();
 
             // string representation, base64, send this string to other for decryption.
-            return Base64.encodeBase64URLSafeString(cipherTextWithIvSalt);
+            return Base64.encodeBase64URLSafeString(cipherTextWithHeader);
         } catch (Exception e) {
             throw new NitriteSecurityException("Failed to encrypt data", e);
         }
@@ -143,25 +181,100 @@ public class AESEncryptor implements Encryptor {
         try {
             byte[] decode = Base64.decodeBase64(encryptedText);
 
-            // get back the iv and salt from the cipher text
-            ByteBuffer bb = ByteBuffer.wrap(decode);
-            byte[] iv = new byte[ivLengthByte];
-            bb.get(iv);
+            if (isKeyHierarchy(decode)) {
+                try {
+                    return decryptWithRecordKey(decode);
+                } catch (GeneralSecurityException e) {
+                    // a text of the earlier format might start with the
+                    // version byte by chance, its iv is random
+                }
+            }
+            return decryptWithPasswordKey(decode);
+        } catch (Exception e) {
+            throw new NitriteSecurityException("Failed to decrypt data", e);
+        }
+    }
 
-            byte[] salt = new byte[saltLengthByte];
-            bb.get(salt);
+    private String decryptWithRecordKey(byte[] decode) throws GeneralSecurityException {
+        ByteBuffer bb = ByteBuffer.wrap(decode);
+        bb.get();
 
-            byte[] cipherText = new byte[bb.remaining()];
-            bb.get(cipherText);
+        byte[] saltOfMasterKey = new byte[saltLengthByte];
+        bb.get(saltOfMasterKey);
 
-            // get back the aes key from the same password and salt
-            SecretKey aesKeyFromPassword = CryptoUtils.getAESKeyFromPassword(password.asString().toCharArray(), salt);
-            Cipher cipher = Cipher.getInstance(encryptAlgo);
-            cipher.init(Cipher.DECRYPT_MODE, aesKeyFromPassword, new GCMParameterSpec(tagLengthBit, iv));
-            byte[] plainText = cipher.doFinal(cipherText);
-            return new String(plainText, UTF_8);
-        } catch (Exception e) {
-            throw new NitriteSecurityException("Failed to decrypt data", e);
+        byte[] salt = new byte[saltLengthByte];
+        bb.get(salt);
+
+        byte[] iv = new byte[ivLengthByte];
+        bb.get(iv);
+
+        int headerLength = bb.position();
+        byte[] cipherText = new byte[bb.remaining()];
+        bb.get(cipherText);
+
+        // texts written by other encryptors carry the salt of their master key
+        ByteBuffer masterKeyId = ByteBuffer.wrap(saltOfMasterKey);
+        byte[] key = masterKeys.get(masterKeyId);
+        boolean derived = key == null;
+        if (derived) {
+            key = deriveMasterKey(saltOfMasterKey);
+        }
+
+        Cipher cipher = this.cipher.get();
+        cipher.init(Cipher.DECRYPT_MODE, deriveRecordKey(key, salt), new GCMParameterSpec(tagLengthBit, iv));
+        cipher.updateAAD(decode, 0, headerLength);
+        byte[] plainText = cipher.doFinal(cipherText);
+
+        if (derived) {
+            // only cache a master key which is proven to be right
+            masterKeys.putIfAbsent(masterKeyId, key);
+        }
+        return new String(plainText, UTF_8);
+    }
+
+    private String decryptWithPasswordKey(byte[] decode) throws GeneralSecurityException {
+        // get back the iv and salt from the cipher text
+        ByteBuffer bb = ByteBuffer.wrap(decode);
+        byte[] iv = new byte[ivLengthByte];
+        bb.get(iv);
+
+        byte[] salt = new byte[saltLengthByte];
+        bb.get(salt);
+
+        byte[] cipherText = new byte[bb.remaining()];
+        bb.get(cipherText);
+
+        // get back the aes key from the same password and salt
+        SecretKey aesKeyFromPassword = CryptoUtils.getAESKeyFromPassword(password.asString().toCharArray(), salt);
+        Cipher cipher = this.cipher.get();
+        cipher.init(Cipher.DECRYPT_MODE, aesKeyFromPassword, new GCMParameterSpec(tagLengthBit, iv));
+        byte[] plainText = cipher.doFinal(cipherText);
+        return new String(plainText, UTF_8);
+    }
+
+    private boolean isKeyHierarchy(byte[] decode) {
+        int headerLength = 1 + 2 * saltLengthByte + ivLengthByte;
+        return decode.length >= headerLength + tagLengthBit / 8
+                && decode[0] == KEY_HIERARCHY_VERSION;
+    }
+
+    private byte[] deriveMasterKey(byte[] salt) {
+        try {
+            return CryptoUtils.getAESKeyFromPassword(password.asString().toCharArray(), salt).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new NitriteSecurityException("Failed to derive the master key", e);
+        }
+    }
+
+    private SecretKey deriveRecordKey(byte[] key, byte[] salt) throws GeneralSecurityException {
+        return new SecretKeySpec(CryptoUtils.hkdf(key, salt, recordKeyInfo, RECORD_KEY_LENGTH), "AES");
+    }
+
+    private Cipher createCipher() {
+        try {
+            return Cipher.getInstance(encryptAlgo);
+        } catch (GeneralSecurityException e) {
+            throw new NitriteSecurityException("Failed to create cipher " + encryptAlgo, e);
         }
     }
 }
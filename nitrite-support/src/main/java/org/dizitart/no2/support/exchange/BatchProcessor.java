@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.support.exchange;
+
+import org.dizitart.no2.common.concurrent.ThreadPoolManager;
+import org.dizitart.no2.exceptions.NitriteIOException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Transforms items in batches on a thread pool and hands the results to a
+ * sink on the calling thread, in the order of the items.
+ * <p>
+ * At most twice as many batches as threads are in flight, so a stream of
+ * any size is processed in bounded memory, while the encoding or decoding
+ * of the documents runs on all cores.
+ *
+ * @param <T> the item type
+ * @param <R> the result type
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class BatchProcessor<T, R> implements AutoCloseable {
+    private static final String THREAD_NAME = "Exchange.NO\u2082";
+
+    private final int batchSize;
+    private final int maxInFlight;
+    private final ExecutorService executor;
+    private final Deque<Future<List<R>>> inFlight;
+    private Function<List<T>, List<R>> transform;
+    private Sink<R> sink;
+    private List<T> batch;
+
+    /**
+     * Instantiates a new {@link BatchProcessor}.
+     *
+     * @param parallelism the number of threads, 1 or less runs on the calling thread
+     * @param batchSize   the number of items of a batch
+     */
+    BatchProcessor(int parallelism, int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        this.maxInFlight = Math.max(1, parallelism) * 2;
+        this.executor = parallelism > 1 ? ThreadPoolManager.getThreadPool(parallelism, THREAD_NAME) : null;
+        this.inFlight = new ArrayDeque<>();
+        this.batch = new ArrayList<>(this.batchSize);
+    }
+
+    /**
+     * Starts processing a new stream of items. The previous stream must
+     * have been flushed.
+     *
+     * @param transform the transformation of a batch, run on the thread pool
+     * @param sink      the receiver of the transformed batches
+     */
+    void start(Function<List<T>, List<R>> transform, Sink<R> sink) {
+        this.transform = transform;
+        this.sink = sink;
+    }
+
+    /**
+     * Adds an item to the current batch.
+     *
+     * @param item the item
+     * @throws IOException if the sink fails
+     */
+    void add(T item) throws IOException {
+        batch.add(item);
+        if (batch.size() >= batchSize) {
+            submit();
+            while (inFlight.size() >= maxInFlight) {
+                sink.accept(await(inFlight.poll()));
+            }
+        }
+    }
+
+    /**
+     * Processes the remaining items and waits for all batches.
+     *
+     * @throws IOException if the sink fails
+     */
+    void flush() throws IOException {
+        if (!batch.isEmpty()) {
+            submit();
+        }
+
+        while (!inFlight.isEmpty()) {
+            sink.accept(await(inFlight.poll()));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            ThreadPoolManager.shutdownThreadPool(executor);
+        }
+    }
+
+    private void submit() {
+        List<T> items = batch;
+        batch = new ArrayList<>(batchSize);
+
+        Function<List<T>, List<R>> function = transform;
+        if (executor == null) {
+            inFlight.add(CompletableFuture.completedFuture(function.apply(items)));
+        } else {
+            inFlight.add(executor.submit(() -> function.apply(items)));
+        }
+    }
+
+    private List<R> await(Future<List<R>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NitriteIOException("Interrupted while processing data", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new NitriteIOException("Error while processing data", e.getCause());
+        }
+    }
+
+    /**
+     * Receives the transformed batches in order.
+     *
+     * @param <R> the result type
+     */
+    interface Sink<R> {
+        /**
+         * Accepts a transformed batch.
+         *
+         * @param results the results of a batch
+         * @throws IOException if an I/O error occurs
+         */
+        void accept(List<R> results) throws IOException;
+    }
+}
@@ -148,4 +148,40 @@ public class ExportOptions {
      * @return list of keyed repositories names.
      */
     private Map<String, Set<String>> keyedRepositories;
+
+    /**
+     * Specifies the number of threads used to encode the documents.
+     * <p>
+     * The documents of a collection are encoded in batches on these threads,
+     * while writing the output stays in order on the calling thread.
+     * <p>
+     * This is an optional field. If not specified, it will be set to the
+     * number of available processors. A value of 1 or less runs everything
+     * on the calling thread.
+     *
+     * @param parallelism the number of threads.
+     * @return the number of threads.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Specifies the number of documents of a batch.
+     * <p>
+     * This is an optional field. If not specified, it will be set to 1000.
+     *
+     * @param batchSize the number of documents of a batch.
+     * @return the number of documents of a batch.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Specifies a {@link ProgressListener} to be notified after each batch of
+     * documents has been exported.
+     * <p>
+     * This is an optional field.
+     *
+     * @param progressListener the progress listener.
+     * @return the progress listener.
+     */
+    private ProgressListener progressListener;
 }
@@ -44,4 +44,58 @@ public class ImportOptions {
      * @return the jsonFactory.
      */
     private JsonFactory jsonFactory;
+
+    /**
+     * Specifies the number of threads used to decode the documents.
+     * <p>
+     * The documents of a collection are decoded in batches on these threads,
+     * while reading the input and writing to the database stay in order on
+     * the calling thread.
+     * <p>
+     * This is an optional field. If not specified, it will be set to the
+     * number of available processors. A value of 1 or less runs everything
+     * on the calling thread.
+     *
+     * @param parallelism the number of threads.
+     * @return the number of threads.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Specifies the number of documents of a batch.
+     * <p>
+     * This is an optional field. If not specified, it will be set to 1000.
+     *
+     * @param batchSize the number of documents of a batch.
+     * @return the number of documents of a batch.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Specifies a {@link ProgressListener} to be notified after each batch of
+     * documents has been imported.
+     * <p>
+     * This is an optional field.
+     *
+     * @param progressListener the progress listener.
+     * @return the progress listener.
+     */
+    private ProgressListener progressListener;
+
+    /**
+     * Indicates if {@link SnapshotImporter} restores the index maps contained
+     * in a snapshot as they are.
+     * <p>
+     * If <code>true</code>, the unique and non-unique indices are restored
+     * from the snapshot without rebuilding them, any other index is rebuilt.
+     * If <code>false</code>, all indices are rebuilt from the imported data.
+     * <p>
+     * This is an optional field. If not specified, it will be set to
+     * <code>false</code>. It has no effect on a json import.
+     *
+     * @param restoreIndexMaps a value indicating if index maps will be restored.
+     * @return <code>true</code> if index maps are restored; otherwise,
+     *         <code>false</code>.
+     */
+    private boolean restoreIndexMaps;
 }
@@ -33,6 +33,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static org.dizitart.no2.common.Constants.*;
@@ -45,6 +46,7 @@ import static org.dizitart.no2.common.util.ObjectUtils.findRepositoryName;
  class NitriteJsonExporter {
      private JsonGenerator generator;
      private ExportOptions options;
+     private BatchProcessor<Pair<NitriteId, Document>, String[]> batchProcessor;
 
      public void exportData() throws IOException, ClassNotFoundException {
          try(Nitrite db = options.getNitriteFactory().create()) {
@@ -91,7 +93,11 @@ import static org.dizitart.no2.common.util.ObjectUtils.findRepositoryName;
                  }
              }
 
-             exportData(db, collectionNames, repositoryNames, keyedRepositoryNames, indexDescriptors);
+             try (BatchProcessor<Pair<NitriteId, Document>, String[]> processor
+                      = new BatchProcessor<>(options.getParallelism(), options.getBatchSize())) {
+                 this.batchProcessor = processor;
+                 exportData(db, collectionNames, repositoryNames, keyedRepositoryNames, indexDescriptors);
+             }
              generator.close();
          }
      }
@@ -177,19 +183,45 @@ import static org.dizitart.no2.common.util.ObjectUtils.findRepositoryName;
          generator.writeFieldName(TAG_DATA);
          generator.writeStartArray();
          if (options.isExportData()) {
-             for (Pair<NitriteId, Document> entry : nitriteMap.entries()) {
-                 generator.writeStartObject();
-                 generator.writeFieldName(TAG_KEY);
-                 generator.writeObject(writeEncodedObject(entry.getFirst()));
+             // encode the entries in parallel, but write them in order
+             AtomicLong count = new AtomicLong();
+             batchProcessor.start(this::encodeEntries, entries -> {
+                 for (String[] entry : entries) {
+                     generator.writeStartObject();
+                     generator.writeFieldName(TAG_KEY);
+                     generator.writeObject(entry[0]);
+
+                     generator.writeFieldName(TAG_VALUE);
+                     generator.writeObject(entry[1]);
+                     generator.writeEndObject();
+                 }
+                 reportProgress(nitriteMap.getName(), count.addAndGet(entries.size()));
+             });
 
-                 generator.writeFieldName(TAG_VALUE);
-                 generator.writeObject(writeEncodedObject(entry.getSecond()));
-                 generator.writeEndObject();
+             for (Pair<NitriteId, Document> entry : nitriteMap.entries()) {
+                 batchProcessor.add(entry);
              }
+             batchProcessor.flush();
          }
          generator.writeEndArray();
      }
 
+     private List<String[]> encodeEntries(List<Pair<NitriteId, Document>> entries) {
+         List<String[]> encoded = new ArrayList<>(entries.size());
+         for (Pair<NitriteId, Document> entry : entries) {
+             encoded.add(new String[] {
+                 writeEncodedObject(entry.getFirst()), writeEncodedObject(entry.getSecond())
+             });
+         }
+         return encoded;
+     }
+
+     private void reportProgress(String mapName, long documents) {
+         if (options.getProgressListener() != null) {
+             options.getProgressListener().onProgress(mapName, documents);
+         }
+     }
+
      private String writeEncodedObject(Object object) {
          try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
              try (ObjectOutputStream oos = new ObjectOutputStream(os)) {
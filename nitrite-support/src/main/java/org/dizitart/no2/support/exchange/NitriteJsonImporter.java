@@ -24,6 +24,7 @@ import org.dizitart.no2.Nitrite;
 import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.NitriteId;
 import org.dizitart.no2.collection.operation.IndexManager;
+import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.exceptions.NitriteIOException;
 import org.dizitart.no2.index.IndexDescriptor;
 import org.dizitart.no2.store.NitriteMap;
@@ -34,6 +35,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.dizitart.no2.common.Constants.*;
 
@@ -44,9 +46,13 @@ import static org.dizitart.no2.common.Constants.*;
 class NitriteJsonImporter {
     private JsonParser parser;
     private ImportOptions options;
+    private BatchProcessor<String[], Pair<NitriteId, Document>> batchProcessor;
 
     public void importData() throws IOException, ClassNotFoundException {
-        try (Nitrite db = options.getNitriteFactory().create()) {
+        try (Nitrite db = options.getNitriteFactory().create();
+             BatchProcessor<String[], Pair<NitriteId, Document>> processor
+                 = new BatchProcessor<>(options.getParallelism(), options.getBatchSize())) {
+            this.batchProcessor = processor;
             while (parser.nextToken() != JsonToken.END_OBJECT) {
                 String fieldName = parser.getCurrentName();
 
@@ -127,32 +133,54 @@ class NitriteJsonImporter {
     }
 
     private void readNitriteMapData(NitriteMap<NitriteId, Document> nitriteMap) throws IOException {
+        // decode the entries in parallel, but write them in order
+        AtomicLong count = new AtomicLong();
+        batchProcessor.start(this::decodeEntries, entries -> {
+            for (Pair<NitriteId, Document> entry : entries) {
+                nitriteMap.put(entry.getFirst(), entry.getSecond());
+            }
+            reportProgress(nitriteMap.getName(), count.addAndGet(entries.size()));
+        });
+
         // move to [
         parser.nextToken();
 
         // loop till token equal to "]"
         while (parser.nextToken() != JsonToken.END_ARRAY) {
             // loop until end of collection object
-            NitriteId nitriteId = null;
+            String key = null;
             while (parser.nextToken() != JsonToken.END_OBJECT) {
                 String fieldName = parser.getCurrentName();
 
                 if (TAG_KEY.equals(fieldName)) {
                     parser.nextToken();
-                    String data = parser.readValueAs(String.class);
-                    nitriteId = readEncodedObject(data, NitriteId.class);
+                    key = parser.readValueAs(String.class);
                 }
 
                 if (TAG_VALUE.equals(fieldName)) {
                     parser.nextToken();
-                    String data = parser.readValueAs(String.class);
-                    Document document = readEncodedObject(data, Document.class);
-                    if (nitriteMap != null) {
-                        nitriteMap.put(nitriteId, document);
-                    }
+                    String value = parser.readValueAs(String.class);
+                    batchProcessor.add(new String[] { key, value });
                 }
             }
         }
+        batchProcessor.flush();
+    }
+
+    private List<Pair<NitriteId, Document>> decodeEntries(List<String[]> entries) {
+        List<Pair<NitriteId, Document>> decoded = new ArrayList<>(entries.size());
+        for (String[] entry : entries) {
+            NitriteId nitriteId = readEncodedObject(entry[0], NitriteId.class);
+            Document document = readEncodedObject(entry[1], Document.class);
+            decoded.add(new Pair<>(nitriteId, document));
+        }
+        return decoded;
+    }
+
+    private void reportProgress(String mapName, long documents) {
+        if (options.getProgressListener() != null) {
+            options.getProgressListener().onProgress(mapName, documents);
+        }
     }
 
     private <T> T readEncodedObject(String encodedString, Class<T> type) {
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.support.exchange;
+
+import lombok.Setter;
+import org.dizitart.no2.Nitrite;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.collection.operation.CollectionOperations;
+import org.dizitart.no2.common.Fields;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.index.IndexDescriptor;
+import org.dizitart.no2.index.IndexMeta;
+import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.store.NitriteStore;
+import org.dizitart.no2.store.StoreCatalog;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.dizitart.no2.support.exchange.SnapshotFormat.*;
+
+/**
+ * Restores the maps of a nitrite database from the records of the
+ * snapshot format.
+ *
+ * @author Anindya Chatterjee
+ * @see SnapshotFormat
+ * @since 4.3.1
+ */
+@Setter
+class NitriteSnapshotReader {
+    private DataInputStream input;
+    private ImportOptions options;
+    private BatchProcessor<byte[][], Pair<Object, Object>> batchProcessor;
+
+    public void importData() throws IOException, ClassNotFoundException {
+        try (Nitrite db = options.getNitriteFactory().create();
+             BatchProcessor<byte[][], Pair<Object, Object>> processor
+                 = new BatchProcessor<>(options.getParallelism(), options.getBatchSize())) {
+            this.batchProcessor = processor;
+            NitriteStore<?> nitriteStore = db.getStore();
+            Set<String> restoredIndexMaps = new HashSet<>();
+
+            byte record;
+            while ((record = readRecord()) != RECORD_END) {
+                if (record != RECORD_MAP) {
+                    throw new IOException("Unexpected record " + record + " in snapshot");
+                }
+
+                byte kind = input.readByte();
+                String mapName = input.readUTF();
+                Class<?> keyType = Class.forName(input.readUTF());
+                Class<?> valueType = Class.forName(input.readUTF());
+
+                switch (kind) {
+                    case KIND_COLLECTION:
+                    case KIND_REPOSITORY:
+                    case KIND_KEYED_REPOSITORY:
+                        readMap(nitriteStore.openMap(mapName, keyType, valueType), true);
+                        writeCatalog(nitriteStore, mapName, kind);
+                        break;
+                    case KIND_INDEX:
+                        if (options.isRestoreIndexMaps()) {
+                            readMap(nitriteStore.openMap(mapName, keyType, valueType), false);
+                            restoredIndexMaps.add(mapName);
+                        } else {
+                            skipMap(mapName);
+                        }
+                        break;
+                    case KIND_INDEX_META:
+                        readIndexMeta(db, nitriteStore.openMap(mapName, keyType, valueType), restoredIndexMaps);
+                        break;
+                    default:
+                        throw new IOException("Unknown kind " + kind + " of map " + mapName + " in snapshot");
+                }
+            }
+        }
+    }
+
+    private void readMap(NitriteMap<Object, Object> nitriteMap, boolean reportProgress) throws IOException {
+        // decode the entries in parallel, but write them in order
+        AtomicLong count = new AtomicLong();
+        batchProcessor.start(this::decodeEntries, entries -> {
+            for (Pair<Object, Object> entry : entries) {
+                nitriteMap.put(entry.getFirst(), entry.getSecond());
+            }
+
+            long documents = count.addAndGet(entries.size());
+            if (reportProgress && options.getProgressListener() != null) {
+                options.getProgressListener().onProgress(nitriteMap.getName(), documents);
+            }
+        });
+
+        long entries = 0;
+        byte record;
+        while ((record = readRecord()) == RECORD_ENTRY) {
+            batchProcessor.add(readEntry());
+            entries++;
+        }
+        batchProcessor.flush();
+        readMapEnd(nitriteMap.getName(), record, entries);
+    }
+
+    private void skipMap(String mapName) throws IOException {
+        long entries = 0;
+        byte record;
+        while ((record = readRecord()) == RECORD_ENTRY) {
+            readEntry();
+            entries++;
+        }
+        readMapEnd(mapName, record, entries);
+    }
+
+    private void readIndexMeta(Nitrite db, NitriteMap<Fields, IndexMeta> indexMetaMap,
+                               Set<String> restoredIndexMaps) throws IOException {
+        List<IndexDescriptor> indexDescriptors = new ArrayList<>();
+        long entries = 0;
+        byte record;
+        while ((record = readRecord()) == RECORD_ENTRY) {
+            byte[][] entry = readEntry();
+            Fields fields = readObject(entry[0], Fields.class);
+            IndexMeta indexMeta = readObject(entry[1], IndexMeta.class);
+            if (restoredIndexMaps.contains(indexMeta.getIndexMap())) {
+                indexMetaMap.put(fields, indexMeta);
+            } else {
+                indexDescriptors.add(indexMeta.getIndexDescriptor());
+            }
+            entries++;
+        }
+        readMapEnd(indexMetaMap.getName(), record, entries);
+
+        // build the indexes which are not restored from the snapshot
+        if (!indexDescriptors.isEmpty()) {
+            String collectionName = indexDescriptors.get(0).getCollectionName();
+            NitriteMap<NitriteId, Document> nitriteMap = db.getStore()
+                .openMap(collectionName, NitriteId.class, Document.class);
+            try (CollectionOperations operations
+                     = new CollectionOperations(collectionName, nitriteMap, db.getConfig(), null)) {
+                for (IndexDescriptor indexDescriptor : indexDescriptors) {
+                    operations.createIndex(indexDescriptor.getFields(), indexDescriptor.getIndexType());
+                }
+            }
+        }
+    }
+
+    private void writeCatalog(NitriteStore<?> nitriteStore, String mapName, byte kind) {
+        StoreCatalog storeCatalog = nitriteStore.getCatalog();
+        if (!storeCatalog.hasEntry(mapName)) {
+            if (kind == KIND_COLLECTION) {
+                storeCatalog.writeCollectionEntry(mapName);
+            } else if (kind == KIND_REPOSITORY) {
+                storeCatalog.writeRepositoryEntry(mapName);
+            } else {
+                storeCatalog.writeKeyedRepositoryEntry(mapName);
+            }
+        }
+    }
+
+    private byte readRecord() throws IOException {
+        try {
+            return input.readByte();
+        } catch (EOFException e) {
+            throw new IOException("Snapshot is truncated", e);
+        }
+    }
+
+    private byte[][] readEntry() throws IOException {
+        return new byte[][] { readBytes(), readBytes() };
+    }
+
+    private byte[] readBytes() throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid length " + length + " of an entry in snapshot");
+        }
+
+        byte[] data = new byte[length];
+        input.readFully(data);
+        return data;
+    }
+
+    private void readMapEnd(String mapName, byte record, long entries) throws IOException {
+        if (record != RECORD_END_MAP) {
+            throw new IOException("Unexpected record " + record + " in map " + mapName + " of snapshot");
+        }
+
+        long expected = input.readLong();
+        if (expected != entries) {
+            throw new IOException("Map " + mapName + " of snapshot has " + entries
+                + " entries, expected " + expected);
+        }
+    }
+
+    private List<Pair<Object, Object>> decodeEntries(List<byte[][]> entries) {
+        List<Pair<Object, Object>> decoded = new ArrayList<>(entries.size());
+        for (byte[][] entry : entries) {
+            decoded.add(new Pair<>(readObject(entry[0], Object.class), readObject(entry[1], Object.class)));
+        }
+        return decoded;
+    }
+
+    private <T> T readObject(byte[] data, Class<T> type) {
+        try (ByteArrayInputStream is = new ByteArrayInputStream(data)) {
+            try (ObjectInputStream ois = new ObjectInputStream(is)) {
+                return type.cast(ois.readObject());
+            }
+        } catch (Exception e) {
+            throw new NitriteIOException("Error while reading data", e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.support.exchange;
+
+import lombok.Setter;
+import org.dizitart.no2.Nitrite;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.DBValue;
+import org.dizitart.no2.common.Fields;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.index.IndexDescriptor;
+import org.dizitart.no2.index.IndexMeta;
+import org.dizitart.no2.index.IndexType;
+import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.store.NitriteStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.dizitart.no2.common.util.IndexUtils.deriveIndexMetaMapName;
+import static org.dizitart.no2.common.util.ObjectUtils.findRepositoryName;
+import static org.dizitart.no2.support.exchange.SnapshotFormat.*;
+
+/**
+ * Writes the maps of a nitrite database as records of the snapshot format.
+ *
+ * @author Anindya Chatterjee
+ * @see SnapshotFormat
+ * @since 4.3.1
+ */
+@Setter
+class NitriteSnapshotWriter {
+    private DataOutputStream output;
+    private ExportOptions options;
+    private BatchProcessor<Pair<?, ?>, byte[][]> batchProcessor;
+
+    public void exportData() throws IOException {
+        try (Nitrite db = options.getNitriteFactory().create();
+             BatchProcessor<Pair<?, ?>, byte[][]> processor
+                 = new BatchProcessor<>(options.getParallelism(), options.getBatchSize())) {
+            this.batchProcessor = processor;
+            NitriteStore<?> nitriteStore = db.getStore();
+
+            Collection<String> collectionNames = options.getCollections() == null
+                ? db.listCollectionNames() : options.getCollections();
+            for (String collectionName : collectionNames) {
+                writeCollection(nitriteStore, collectionName, KIND_COLLECTION);
+            }
+
+            Collection<String> repositoryNames = options.getRepositories() == null
+                ? db.listRepositories() : options.getRepositories();
+            for (String repositoryName : repositoryNames) {
+                writeCollection(nitriteStore, repositoryName, KIND_REPOSITORY);
+            }
+
+            Map<String, Set<String>> keyedRepositoryNames = options.getKeyedRepositories() == null
+                ? db.listKeyedRepositories() : options.getKeyedRepositories();
+            for (Map.Entry<String, Set<String>> entry : keyedRepositoryNames.entrySet()) {
+                for (String entityName : entry.getValue()) {
+                    String repositoryName = findRepositoryName(entityName, entry.getKey());
+                    writeCollection(nitriteStore, repositoryName, KIND_KEYED_REPOSITORY);
+                }
+            }
+
+            output.writeByte(RECORD_END);
+        }
+    }
+
+    private void writeCollection(NitriteStore<?> nitriteStore, String mapName, byte kind) throws IOException {
+        try (NitriteMap<NitriteId, Document> nitriteMap
+                 = nitriteStore.openMap(mapName, NitriteId.class, Document.class)) {
+            writeMap(nitriteMap, kind, NitriteId.class, Document.class, options.isExportData());
+        }
+
+        if (options.isExportIndices()) {
+            try (NitriteMap<Fields, IndexMeta> indexMetaMap
+                     = nitriteStore.openMap(deriveIndexMetaMapName(mapName), Fields.class, IndexMeta.class)) {
+                for (IndexMeta indexMeta : indexMetaMap.values()) {
+                    if (options.isExportData() && isVerbatim(indexMeta)) {
+                        writeIndexMap(nitriteStore, indexMeta);
+                    }
+                }
+
+                // the importer restores an index from its map if the map
+                // precedes the index meta, otherwise it rebuilds the index
+                writeMap(indexMetaMap, KIND_INDEX_META, Fields.class, IndexMeta.class, true);
+            }
+        }
+    }
+
+    private void writeIndexMap(NitriteStore<?> nitriteStore, IndexMeta indexMeta) throws IOException {
+        Class<?> valueType = indexMeta.getIndexDescriptor().isCompoundIndex()
+            ? ConcurrentSkipListMap.class : CopyOnWriteArrayList.class;
+        try (NitriteMap<DBValue, ?> indexMap
+                 = nitriteStore.openMap(indexMeta.getIndexMap(), DBValue.class, valueType)) {
+            writeMap(indexMap, KIND_INDEX, DBValue.class, valueType, true);
+        }
+    }
+
+    private <K, V> void writeMap(NitriteMap<K, V> nitriteMap, byte kind, Class<?> keyType,
+                                 Class<?> valueType, boolean withEntries) throws IOException {
+        String mapName = nitriteMap.getName();
+        output.writeByte(RECORD_MAP);
+        output.writeByte(kind);
+        output.writeUTF(mapName);
+        output.writeUTF(keyType.getName());
+        output.writeUTF(valueType.getName());
+
+        // encode the entries in parallel, but write them in order
+        AtomicLong count = new AtomicLong();
+        if (withEntries) {
+            batchProcessor.start(this::encodeEntries, entries -> {
+                for (byte[][] entry : entries) {
+                    output.writeByte(RECORD_ENTRY);
+                    output.writeInt(entry[0].length);
+                    output.write(entry[0]);
+                    output.writeInt(entry[1].length);
+                    output.write(entry[1]);
+                }
+
+                long documents = count.addAndGet(entries.size());
+                if (kind != KIND_INDEX && kind != KIND_INDEX_META) {
+                    reportProgress(mapName, documents);
+                }
+            });
+
+            for (Pair<K, V> entry : nitriteMap.entries()) {
+                batchProcessor.add(entry);
+            }
+            batchProcessor.flush();
+        }
+
+        output.writeByte(RECORD_END_MAP);
+        output.writeLong(count.get());
+    }
+
+    private boolean isVerbatim(IndexMeta indexMeta) {
+        // only the maps of the built-in unique and non-unique indexes are
+        // self-contained, any other index is rebuilt on import
+        IndexDescriptor indexDescriptor = indexMeta.getIndexDescriptor();
+        return indexDescriptor != null
+            && !indexMeta.getIsDirty().get()
+            && (IndexType.UNIQUE.equals(indexDescriptor.getIndexType())
+                || IndexType.NON_UNIQUE.equals(indexDescriptor.getIndexType()));
+    }
+
+    private List<byte[][]> encodeEntries(List<Pair<?, ?>> entries) {
+        List<byte[][]> encoded = new ArrayList<>(entries.size());
+        for (Pair<?, ?> entry : entries) {
+            encoded.add(new byte[][] {
+                writeObject(entry.getFirst()), writeObject(entry.getSecond())
+            });
+        }
+        return encoded;
+    }
+
+    private void reportProgress(String mapName, long documents) {
+        if (options.getProgressListener() != null) {
+            options.getProgressListener().onProgress(mapName, documents);
+        }
+    }
+
+    private byte[] writeObject(Object object) {
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            try (ObjectOutputStream oos = new ObjectOutputStream(os)) {
+                oos.writeObject(object);
+            }
+            return os.toByteArray();
+        } catch (IOException e) {
+            throw new NitriteIOException("Failed to write object", e);
+        }
+    }
+}
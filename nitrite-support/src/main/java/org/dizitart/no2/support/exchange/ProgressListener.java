@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.support.exchange;
+
+/**
+ * Receives the progress of an export or import operation.
+ *
+ * @author Anindya Chatterjee
+ * @see ExportOptions#setProgressListener(ProgressListener)
+ * @see ImportOptions#setProgressListener(ProgressListener)
+ * @since 4.3.1
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * Called after a batch of documents of a collection or repository
+     * has been exported or imported.
+     *
+     * @param mapName   the name of the underlying map of the collection or repository
+     * @param documents the number of documents of the map processed so far
+     */
+    void onProgress(String mapName, long documents);
+}
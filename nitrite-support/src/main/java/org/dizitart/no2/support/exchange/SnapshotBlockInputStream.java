@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.support.exchange;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.dizitart.no2.support.exchange.SnapshotFormat.*;
+
+/**
+ * An {@link InputStream} which reads the blocks of the snapshot format,
+ * verifying the checksum of every block.
+ *
+ * @author Anindya Chatterjee
+ * @see SnapshotFormat
+ * @since 4.3.1
+ */
+class SnapshotBlockInputStream extends InputStream {
+    private final DataInputStream in;
+    private final Inflater inflater;
+    private final CRC32 checksum;
+    private final byte[] block;
+    private final byte[] compressed;
+    private int position;
+    private int limit;
+    private int blockNumber;
+    private boolean finished;
+
+    /**
+     * Instantiates a new {@link SnapshotBlockInputStream} and validates
+     * the snapshot header.
+     *
+     * @param in the underlying stream
+     * @throws IOException if the stream is not a snapshot or an I/O error occurs
+     */
+    SnapshotBlockInputStream(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        this.inflater = new Inflater();
+        this.checksum = new CRC32();
+
+        byte[] magic = new byte[MAGIC.length];
+        try {
+            this.in.readFully(magic);
+        } catch (EOFException e) {
+            throw new IOException("Not a nitrite snapshot", e);
+        }
+
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("Not a nitrite snapshot");
+        }
+
+        int version = this.in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+
+        int blockSize = this.in.readInt();
+        if (blockSize <= 0 || blockSize > 64 * BLOCK_SIZE) {
+            throw new IOException("Invalid snapshot block size " + blockSize);
+        }
+
+        this.block = new byte[blockSize];
+        // deflate may expand incompressible data slightly
+        this.compressed = new byte[blockSize + blockSize / 8 + 64];
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return block[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!fill()) {
+            return -1;
+        }
+
+        int length = Math.min(len, limit - position);
+        System.arraycopy(block, position, b, off, length);
+        position += length;
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            in.close();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        while (position == limit) {
+            if (finished) {
+                return false;
+            }
+            readBlock();
+        }
+        return true;
+    }
+
+    private void readBlock() throws IOException {
+        int rawLength;
+        int compressedLength;
+        int expectedChecksum;
+        try {
+            rawLength = in.readInt();
+            if (rawLength == 0) {
+                finished = true;
+                return;
+            }
+
+            compressedLength = in.readInt();
+            expectedChecksum = in.readInt();
+            if (rawLength < 0 || rawLength > block.length
+                || compressedLength <= 0 || compressedLength > compressed.length) {
+                throw new IOException("Corrupted snapshot block " + blockNumber);
+            }
+            in.readFully(compressed, 0, compressedLength);
+        } catch (EOFException e) {
+            throw new IOException("Snapshot is truncated at block " + blockNumber, e);
+        }
+
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        int length = 0;
+        try {
+            while (length < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(block, length, rawLength - length);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += count;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted snapshot block " + blockNumber, e);
+        }
+
+        checksum.reset();
+        checksum.update(block, 0, length);
+        if (length != rawLength || (int) checksum.getValue() != expectedChecksum) {
+            throw new IOException("Checksum mismatch in snapshot block " + blockNumber);
+        }
+
+        position = 0;
+        limit = rawLength;
+        blockNumber++;
+    }
+}
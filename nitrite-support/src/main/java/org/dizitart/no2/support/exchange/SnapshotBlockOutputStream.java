@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.support.exchange;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static org.dizitart.no2.support.exchange.SnapshotFormat.*;
+
+/**
+ * An {@link OutputStream} which writes the data as checksummed,
+ * compressed blocks of the snapshot format.
+ *
+ * @author Anindya Chatterjee
+ * @see SnapshotFormat
+ * @since 4.3.1
+ */
+class SnapshotBlockOutputStream extends OutputStream {
+    private final DataOutputStream out;
+    private final Deflater deflater;
+    private final CRC32 checksum;
+    private final byte[] block;
+    private byte[] compressed;
+    private int position;
+    private boolean closed;
+
+    /**
+     * Instantiates a new {@link SnapshotBlockOutputStream} and writes the
+     * snapshot header.
+     *
+     * @param out the underlying stream
+     * @throws IOException if an I/O error occurs
+     */
+    SnapshotBlockOutputStream(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.deflater = new Deflater(Deflater.BEST_SPEED);
+        this.checksum = new CRC32();
+        this.block = new byte[BLOCK_SIZE];
+        this.compressed = new byte[BLOCK_SIZE];
+
+        this.out.write(MAGIC);
+        this.out.writeInt(VERSION);
+        this.out.writeInt(BLOCK_SIZE);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position == block.length) {
+            writeBlock();
+        }
+        block[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (position == block.length) {
+                writeBlock();
+            }
+
+            int length = Math.min(len, block.length - position);
+            System.arraycopy(b, off, block, position, length);
+            position += length;
+            off += length;
+            len -= length;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            writeBlock();
+            // end of snapshot
+            out.writeInt(0);
+            out.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (position == 0) {
+            return;
+        }
+
+        checksum.reset();
+        checksum.update(block, 0, position);
+
+        deflater.reset();
+        deflater.setInput(block, 0, position);
+        deflater.finish();
+
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        out.writeInt(position);
+        out.writeInt(length);
+        out.writeInt((int) checksum.getValue());
+        out.write(compressed, 0, length);
+        position = 0;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.support.exchange;
+
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.exceptions.ValidationException;
+
+import java.io.*;
+
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
+/**
+ * The SnapshotExporter class provides methods to export Nitrite database data
+ * to a file or an output stream in a compact binary snapshot format.
+ * <p>
+ * The snapshot holds the documents of the collections and repositories and,
+ * if indices are exported, their index information and the maps of the
+ * unique and non-unique indices, so that {@link SnapshotImporter} can restore
+ * them without rebuilding. The data is written as checksummed blocks
+ * compressed with {@link java.util.zip.Deflater}.
+ * <p>
+ * It uses the provided ExportOptions to configure the export process, the
+ * json factory of the options is not used.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class SnapshotExporter {
+    private ExportOptions options;
+
+    private SnapshotExporter() {
+    }
+
+    /**
+     * Creates a SnapshotExporter instance with the specified export options.
+     *
+     * @param exportOptions the export options to be set
+     *                      (must not be null and must have a valid nitrite factory)
+     * @return the SnapshotExporter instance with the specified export options
+     * @throws ValidationException if the export options or nitrite factory is null
+     */
+    public static SnapshotExporter withOptions(ExportOptions exportOptions) {
+        SnapshotExporter exporter = new SnapshotExporter();
+        notNull(exportOptions, "exportOptions cannot be null");
+        notNull(exportOptions.getNitriteFactory(), "nitriteFactory cannot be null");
+
+        exporter.options = exportOptions;
+        return exporter;
+    }
+
+    /**
+     * Exports the data to the specified file.
+     *
+     * @param file the file to export the data to
+     */
+    public void exportTo(String file) {
+        exportTo(new File(file));
+    }
+
+    /**
+     * Exports the data to the specified file.
+     *
+     * @param file the file to export the data to
+     * @throws NitriteIOException if there is an I/O error while writing the snapshot to the file
+     */
+    public void exportTo(File file) {
+        try {
+            if (file.isDirectory()) {
+                throw new IOException(file.getPath() + " is not a file");
+            }
+
+            File parent = file.getParentFile();
+            // if parent dir does not exist, try to create it
+            if (parent != null && !parent.exists()) {
+                boolean result = parent.mkdirs();
+                if (!result) {
+                    throw new IOException("Failed to create parent directory " + parent.getPath());
+                }
+            }
+            try (FileOutputStream outputStream = new FileOutputStream(file)) {
+                exportTo(outputStream);
+            }
+        } catch (IOException ioe) {
+            throw new NitriteIOException("I/O error while writing snapshot to file " + file, ioe);
+        }
+    }
+
+    /**
+     * Exports the data to the specified output stream. The stream is
+     * closed at the end of the export.
+     *
+     * @param stream the output stream to export the data to
+     * @throws NitriteIOException if there is an error while exporting data
+     */
+    public void exportTo(OutputStream stream) {
+        try (DataOutputStream output = new DataOutputStream(new SnapshotBlockOutputStream(
+            new BufferedOutputStream(stream)))) {
+            NitriteSnapshotWriter snapshotWriter = new NitriteSnapshotWriter();
+            snapshotWriter.setOutput(output);
+            snapshotWriter.setOptions(options);
+            snapshotWriter.exportData();
+        } catch (IOException e) {
+            throw new NitriteIOException("Error while exporting snapshot", e);
+        }
+    }
+}
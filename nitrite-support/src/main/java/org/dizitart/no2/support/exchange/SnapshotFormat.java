@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.support.exchange;
+
+/**
+ * Constants of the binary snapshot format written by {@link SnapshotExporter}.
+ * <p>
+ * A snapshot starts with the {@link #MAGIC} bytes, the format {@link #VERSION}
+ * and the block size. The rest is a sequence of blocks, each holding the
+ * length of the raw data, the length of the compressed data, the CRC-32 of
+ * the raw data and the data compressed with {@link java.util.zip.Deflater}.
+ * A block with a raw length of 0 ends the snapshot.
+ * <p>
+ * The raw data of all blocks forms a stream of records:
+ * <pre>
+ * map     := RECORD_MAP kind name keyType valueType entry* RECORD_END_MAP count
+ * entry   := RECORD_ENTRY keyLength key valueLength value
+ * content := map* RECORD_END
+ * </pre>
+ * Keys and values are encoded with java serialization.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+final class SnapshotFormat {
+    static final byte[] MAGIC = {'N', 'O', '2', 'S'};
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 1024 * 1024;
+
+    static final byte RECORD_MAP = 1;
+    static final byte RECORD_ENTRY = 2;
+    static final byte RECORD_END_MAP = 3;
+    static final byte RECORD_END = 4;
+
+    static final byte KIND_COLLECTION = 1;
+    static final byte KIND_REPOSITORY = 2;
+    static final byte KIND_KEYED_REPOSITORY = 3;
+    static final byte KIND_INDEX = 4;
+    static final byte KIND_INDEX_META = 5;
+
+    private SnapshotFormat() {
+    }
+}
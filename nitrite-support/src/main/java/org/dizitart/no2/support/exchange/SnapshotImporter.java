@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.support.exchange;
+
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.exceptions.ValidationException;
+
+import java.io.*;
+
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
+/**
+ * The SnapshotImporter class provides methods to restore a snapshot written
+ * by {@link SnapshotExporter} from a file or stream into Nitrite database.
+ * <p>
+ * The maps are loaded directly into the store. The indices are rebuilt
+ * after their collection has been loaded, unless
+ * {@link ImportOptions#isRestoreIndexMaps()} is set, in which case the
+ * index maps contained in the snapshot are restored as they are.
+ * <p>
+ * It uses the provided ImportOptions to configure the import process, the
+ * json factory of the options is not used.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class SnapshotImporter {
+    private ImportOptions options;
+
+    private SnapshotImporter() {
+    }
+
+    /**
+     * Creates a new instance of {@link SnapshotImporter} with the specified import options.
+     *
+     * @param importOptions the import options to use
+     * @return a new instance of {@link SnapshotImporter} with the specified import options
+     * @throws ValidationException if the import options or nitrite factory is null
+     */
+    public static SnapshotImporter withOptions(ImportOptions importOptions) {
+        SnapshotImporter importer = new SnapshotImporter();
+        notNull(importOptions, "importOptions cannot be null");
+        notNull(importOptions.getNitriteFactory(), "nitriteFactory cannot be null");
+
+        importer.options = importOptions;
+        return importer;
+    }
+
+    /**
+     * Imports data from the specified file.
+     *
+     * @param file the file to import data from
+     */
+    public void importFrom(String file) {
+        importFrom(new File(file));
+    }
+
+    /**
+     * Imports data from a file.
+     *
+     * @param file the file to import data from
+     * @throws NitriteIOException if there is an I/O error while reading the snapshot from the file
+     */
+    public void importFrom(File file) {
+        try (FileInputStream stream = new FileInputStream(file)) {
+            importFrom(stream);
+        } catch (IOException ioe) {
+            throw new NitriteIOException("I/O error while reading snapshot from file " + file, ioe);
+        }
+    }
+
+    /**
+     * Imports data from the specified input stream. The stream is closed
+     * at the end of the import.
+     *
+     * @param stream the input stream to import data from
+     * @throws NitriteIOException if the snapshot is corrupted or there is an
+     *                            error while importing data
+     */
+    public void importFrom(InputStream stream) {
+        try (DataInputStream input = new DataInputStream(new SnapshotBlockInputStream(
+            new BufferedInputStream(stream)))) {
+            NitriteSnapshotReader snapshotReader = new NitriteSnapshotReader();
+            snapshotReader.setInput(input);
+            snapshotReader.setOptions(options);
+            snapshotReader.importData();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new NitriteIOException("Error while importing snapshot", e);
+        }
+    }
+}
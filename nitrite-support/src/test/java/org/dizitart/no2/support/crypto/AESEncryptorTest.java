@@ -17,10 +17,19 @@
 
 package org.dizitart.no2.support.crypto;
 
+import org.apache.commons.codec.binary.Base64;
+import org.dizitart.no2.common.util.CryptoUtils;
 import org.dizitart.no2.exceptions.NitriteSecurityException;
 import org.junit.Test;
 
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 
 public class AESEncryptorTest {
@@ -33,6 +42,46 @@ public class AESEncryptorTest {
         assertEquals("iloveyou", aesEncryptor.decrypt(encrypted));
     }
 
+    @Test
+    public void testDecryptWithAnotherEncryptor() {
+        String encrypted = new AESEncryptor("iloveyou").encrypt("secret".getBytes(StandardCharsets.UTF_8));
+        AESEncryptor aesEncryptor = new AESEncryptor("iloveyou");
+        assertEquals("secret", aesEncryptor.decrypt(encrypted));
+        assertEquals("secret", aesEncryptor.decrypt(encrypted));
+    }
+
+    @Test
+    public void testEncryptWithRecordKeys() {
+        AESEncryptor aesEncryptor = new AESEncryptor("iloveyou");
+        String first = aesEncryptor.encrypt("secret".getBytes(StandardCharsets.UTF_8));
+        String second = aesEncryptor.encrypt("secret".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(first, second);
+        assertEquals("secret", aesEncryptor.decrypt(first));
+        assertEquals("secret", aesEncryptor.decrypt(second));
+    }
+
+    @Test
+    public void testDecryptEarlierFormat() throws Exception {
+        // iv, salt and cipher text with a key derived from the password
+        byte[] salt = CryptoUtils.getRandomNonce(16);
+        byte[] iv = CryptoUtils.getRandomNonce(12);
+        iv[0] = 2;
+        SecretKey key = CryptoUtils.getAESKeyFromPassword("iloveyou".toCharArray(), salt);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        byte[] cipherText = cipher.doFinal("secret".getBytes(StandardCharsets.UTF_8));
+        String encrypted = Base64.encodeBase64URLSafeString(ByteBuffer.allocate(iv.length + salt.length + cipherText.length)
+            .put(iv).put(salt).put(cipherText).array());
+
+        assertEquals("secret", new AESEncryptor("iloveyou").decrypt(encrypted));
+    }
+
+    @Test(expected = NitriteSecurityException.class)
+    public void testDecryptWithWrongPassword() {
+        String encrypted = new AESEncryptor("iloveyou").encrypt("secret".getBytes(StandardCharsets.UTF_8));
+        new AESEncryptor("iloveme").decrypt(encrypted);
+    }
+
     @Test(expected = NitriteSecurityException.class)
     public void testDecrypt2() {
         (new AESEncryptor("iloveyou")).decrypt("bad base-64");
@@ -29,6 +29,7 @@
  import java.util.Map;
  import java.util.Random;
  import java.util.Set;
+ import java.util.concurrent.ConcurrentHashMap;
  
  import static org.dizitart.no2.collection.Document.createDocument;
  import static org.junit.Assert.*;
@@ -99,5 +100,49 @@
          assertEquals(sourceFirstColl.listIndices(), destFirstColl.listIndices());
          assertEquals(0, destSecondColl.listIndices().size());
      }
+ 
+     @Test
+     public void testParallelImportExport() {
+         schemaFile = System.getProperty("java.io.tmpdir") + File.separator
+             + "nitrite" + File.separator + "schema.json";
+
+         for (int i = 0; i < 25; i++) {
+             sourceEmpRepo.insert(DataGenerator.generateEmployee());
+             sourceFirstColl.insert(createDocument("first-field", i));
+         }
+         closeDb();
+
+         Map<String, Long> exported = new ConcurrentHashMap<>();
+         ExportOptions exportOptions = new ExportOptions();
+         exportOptions.setNitriteFactory(() -> createDb(sourceDbFile));
+         exportOptions.setParallelism(4);
+         exportOptions.setBatchSize(2);
+         exportOptions.setProgressListener(exported::put);
+
+         Exporter exporter = Exporter.withOptions(exportOptions);
+         exporter.exportTo(schemaFile);
+
+         Map<String, Long> imported = new ConcurrentHashMap<>();
+         ImportOptions importOptions = new ImportOptions();
+         importOptions.setNitriteFactory(() -> createDb(destDbFile));
+         importOptions.setParallelism(4);
+         importOptions.setBatchSize(2);
+         importOptions.setProgressListener(imported::put);
+
+         Importer importer = Importer.withOptions(importOptions);
+         importer.importFrom(schemaFile);
+
+         openDb();
+
+         NitriteCollection destFirstColl = destDb.getCollection("first");
+         ObjectRepository<Employee> destEmpRepo = destDb.getRepository(Employee.class);
+
+         assertEquals(filter(sourceFirstColl.find().toList()),
+             filter(destFirstColl.find().toList()));
+         assertEquals(sourceEmpRepo.find().toList(), destEmpRepo.find().toList());
+         assertEquals(sourceEmpRepo.listIndices(), destEmpRepo.listIndices());
+
+         assertEquals(Long.valueOf(25), exported.get("first"));
+         assertEquals(exported, imported);
+     }
  }
- 
\ No newline at end of file
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2017-2020. Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dizitart.no2.support.exchange;
+
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteCollection;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.index.IndexOptions;
+import org.dizitart.no2.index.IndexType;
+import org.dizitart.no2.repository.ObjectRepository;
+import org.dizitart.no2.support.data.Company;
+import org.dizitart.no2.support.data.DataGenerator;
+import org.dizitart.no2.support.data.Employee;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee
+ */
+public class SnapshotTest extends BaseExternalTest {
+    private static final String[] WORDS = {
+        "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel", "india", "juliet"
+    };
+
+    @Test
+    public void testSnapshotRebuildIndices() {
+        writeSnapshot();
+        restoreSnapshot(false);
+        verify();
+    }
+
+    @Test
+    public void testSnapshotRestoreIndexMaps() {
+        writeSnapshot();
+        restoreSnapshot(true);
+        verify();
+    }
+
+    @Test
+    public void testSnapshotProgress() {
+        writeSnapshot();
+
+        Map<String, Long> progress = new ConcurrentHashMap<>();
+        ImportOptions importOptions = new ImportOptions();
+        importOptions.setNitriteFactory(() -> createDb(destDbFile));
+        importOptions.setBatchSize(7);
+        importOptions.setProgressListener(progress::put);
+        SnapshotImporter.withOptions(importOptions).importFrom(schemaFile);
+
+        assertEquals(Long.valueOf(50), progress.get("first"));
+        assertEquals(Long.valueOf(10), progress.get("second"));
+        assertEquals(Long.valueOf(20), progress.get(Employee.class.getName()));
+        openDb();
+    }
+
+    @Test
+    public void testCorruptedSnapshot() throws Exception {
+        writeSnapshot();
+
+        try (RandomAccessFile file = new RandomAccessFile(schemaFile, "rw")) {
+            long position = file.length() / 2;
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xff);
+        }
+        assertImportFails();
+    }
+
+    @Test
+    public void testTruncatedSnapshot() throws Exception {
+        writeSnapshot();
+
+        try (RandomAccessFile file = new RandomAccessFile(schemaFile, "rw")) {
+            file.setLength(file.length() - 10);
+        }
+        assertImportFails();
+    }
+
+    @Test
+    public void testImportJsonAsSnapshot() {
+        writeSnapshot();
+
+        ExportOptions exportOptions = new ExportOptions();
+        exportOptions.setNitriteFactory(() -> createDb(sourceDbFile));
+        Exporter.withOptions(exportOptions).exportTo(schemaFile);
+        assertImportFails();
+    }
+
+    private void writeSnapshot() {
+        schemaFile = System.getProperty("java.io.tmpdir") + File.separator
+            + "nitrite" + File.separator + "snapshot.bin";
+
+        sourceFirstColl.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "group", "value");
+        sourceSecondColl.createIndex(IndexOptions.indexOptions(IndexType.FULL_TEXT), "text");
+        for (int i = 0; i < 50; i++) {
+            sourceFirstColl.insert(createDocument("group", i % 5).put("value", i));
+        }
+        for (int i = 0; i < 10; i++) {
+            sourceSecondColl.insert(createDocument("text", "snapshot of " + WORDS[i]));
+        }
+        for (int i = 0; i < 20; i++) {
+            sourceEmpRepo.insert(DataGenerator.generateEmployee());
+            sourceKeyedEmpRepo.insert(DataGenerator.generateEmployee());
+        }
+        sourceCompRepo.insert(DataGenerator.generateCompanyRecord());
+        closeDb();
+
+        ExportOptions exportOptions = new ExportOptions();
+        exportOptions.setNitriteFactory(() -> createDb(sourceDbFile));
+        exportOptions.setParallelism(4);
+        exportOptions.setBatchSize(3);
+        SnapshotExporter.withOptions(exportOptions).exportTo(schemaFile);
+    }
+
+    private void restoreSnapshot(boolean restoreIndexMaps) {
+        ImportOptions importOptions = new ImportOptions();
+        importOptions.setNitriteFactory(() -> createDb(destDbFile));
+        importOptions.setRestoreIndexMaps(restoreIndexMaps);
+        SnapshotImporter.withOptions(importOptions).importFrom(schemaFile);
+    }
+
+    private void assertImportFails() {
+        try {
+            restoreSnapshot(false);
+            fail("snapshot should not be imported");
+        } catch (NitriteIOException e) {
+            assertNotNull(e.getCause());
+        } finally {
+            openDb();
+        }
+    }
+
+    private void verify() {
+        openDb();
+
+        assertEquals(sourceDb.listCollectionNames(), destDb.listCollectionNames());
+        assertEquals(sourceDb.listRepositories(), destDb.listRepositories());
+        assertEquals(sourceDb.listKeyedRepositories(), destDb.listKeyedRepositories());
+
+        NitriteCollection destFirstColl = destDb.getCollection("first");
+        NitriteCollection destSecondColl = destDb.getCollection("second");
+        ObjectRepository<Employee> destEmpRepo = destDb.getRepository(Employee.class);
+        ObjectRepository<Employee> destKeyedEmpRepo = destDb.getRepository(Employee.class, "key");
+        ObjectRepository<Company> destCompRepo = destDb.getRepository(Company.class);
+
+        assertEquals(filter(sourceFirstColl.find().toList()), filter(destFirstColl.find().toList()));
+        assertEquals(filter(sourceSecondColl.find().toList()), filter(destSecondColl.find().toList()));
+        assertEquals(sourceEmpRepo.find().toList(), destEmpRepo.find().toList());
+        assertEquals(sourceKeyedEmpRepo.find().toList(), destKeyedEmpRepo.find().toList());
+        assertEquals(sourceCompRepo.find().toList(), destCompRepo.find().toList());
+
+        assertEquals(sourceFirstColl.listIndices(), destFirstColl.listIndices());
+        assertEquals(sourceSecondColl.listIndices(), destSecondColl.listIndices());
+        assertEquals(sourceEmpRepo.listIndices(), destEmpRepo.listIndices());
+        assertEquals(sourceCompRepo.listIndices(), destCompRepo.listIndices());
+
+        // the queries use the restored or rebuilt indices
+        assertEquals(10, destFirstColl.find(where("group").eq(3)).size());
+        assertEquals(1, destFirstColl.find(where("group").eq(3).and(where("value").eq(13))).size());
+        assertEquals(1, destSecondColl.find(where("text").text("hotel")).size());
+        for (Employee employee : sourceEmpRepo.find()) {
+            assertEquals(employee, destEmpRepo.find(where("empId").eq(employee.getEmpId())).firstOrNull());
+        }
+        for (Document document : destFirstColl.find(where("value").gte(0))) {
+            assertNotNull(document.get("group"));
+        }
+    }
+}
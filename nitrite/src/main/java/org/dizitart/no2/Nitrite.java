@@ -29,6 +29,7 @@ import org.dizitart.no2.transaction.Session;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.dizitart.no2.common.Constants.RESERVED_NAMES;
 import static org.dizitart.no2.common.util.ObjectUtils.findRepositoryName;
@@ -79,6 +80,24 @@ public interface Nitrite extends AutoCloseable {
      */
     void commit();
 
+    /**
+     * Commits the unsaved changes without waiting for them to be written.
+     * The returned future completes once the changes are on disk.
+     * <p>
+     * A store with group commit enabled writes the changes of many callers
+     * in one go, otherwise the changes are committed right away.
+     * <p>
+     * By default, the changes are committed with {@link #commit()} and an
+     * already completed future is returned.
+     *
+     * @return the future which completes when the changes are durable.
+     * @since 4.3.1
+     */
+    default CompletableFuture<Void> commitAsync() {
+        commit();
+        return CompletableFuture.completedFuture(null);
+    }
+
     /**
      * Opens a named collection from the store. If the collection does not
      * exist it will be created automatically and returned. If a collection
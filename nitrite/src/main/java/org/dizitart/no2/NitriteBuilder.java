@@ -82,6 +82,26 @@ public class NitriteBuilder {
         return this;
     }
 
+    /**
+     * Enables a bounded cache of deserialized documents for every collection.
+     * <p>
+     * Documents fetched by id or through an index are kept in the cache, so that
+     * a hot set of documents is not read and deserialized from the store on
+     * every access. The cache of a collection is invalidated on every write.
+     * The cache statistics can be retrieved with
+     * {@link org.dizitart.no2.collection.NitriteCollection#getDocumentCacheStats()}.
+     * <p>
+     * By default, the document cache is disabled.
+     *
+     * @param maxSizeInBytes the maximum estimated size of the cache of a collection in bytes
+     * @return the NitriteBuilder instance with document cache enabled
+     * @since 4.3.1
+     */
+    public NitriteBuilder documentCacheSize(long maxSizeInBytes) {
+        this.nitriteConfig.documentCacheSize(maxSizeInBytes);
+        return this;
+    }
+
     /**
      * Registers an {@link EntityConverter} with the Nitrite database.
      * An {@link EntityConverter} is used to convert between an entity and a
@@ -85,6 +85,13 @@ public class NitriteConfig implements AutoCloseable {
      */
     private boolean repositoryTypeValidationDisabled = false;
 
+    @Getter
+    /**
+     * The maximum size in bytes of the document cache of each collection.
+     * The document cache is disabled if it is 0, which is the default.
+     */
+    private long documentCacheSize = 0;
+
     /**
      * Instantiates a new {@link NitriteConfig}.
      */
@@ -123,6 +130,26 @@ public class NitriteConfig implements AutoCloseable {
         this.repositoryTypeValidationDisabled = true;
     }
 
+    /**
+     * Sets the maximum size in bytes of the document cache of each collection.
+     * A size of 0 disables the document cache.
+     *
+     * @param maxSizeInBytes the maximum size of the cache in bytes.
+     * @throws InvalidOperationException if the cache size is attempted to be changed
+     *                                   after database initialization.
+     * @since 4.3.1
+     */
+    public void documentCacheSize(long maxSizeInBytes) {
+        if (configured) {
+            throw new InvalidOperationException("Cannot change the document cache size after database" +
+                    " initialization");
+        }
+        if (maxSizeInBytes < 0) {
+            throw new InvalidOperationException("Document cache size cannot be negative");
+        }
+        this.documentCacheSize = maxSizeInBytes;
+    }
+
     /**
      * Registers an {@link EntityConverter} with the Nitrite database.
      *
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+/**
+ * An enum to specify the function of an aggregate.
+ *
+ * @author Anindya Chatterjee
+ * @see AggregateOptions
+ * @since 4.3.1
+ */
+public enum AggregateFunction {
+    /**
+     * Counts the documents of a group.
+     */
+    Count,
+    /**
+     * Sums the numeric values of a field.
+     */
+    Sum,
+    /**
+     * Averages the numeric values of a field.
+     */
+    Average,
+    /**
+     * Gets the smallest value of a field.
+     */
+    Min,
+    /**
+     * Gets the largest value of a field.
+     */
+    Max
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.dizitart.no2.common.SortOrder;
+import org.dizitart.no2.common.SortableFields;
+import org.dizitart.no2.exceptions.ValidationException;
+import org.dizitart.no2.filters.Filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.dizitart.no2.common.util.StringUtils.isNullOrEmpty;
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
+/**
+ * Represents the options of an aggregation. The matching documents are
+ * grouped by the values of the group fields, and every group produces a
+ * result document which contains the group fields and the aggregated values
+ * under their aliases.
+ * <p>
+ * Values of array fields are unwound, the same way an index stores them.
+ * A document with an array in a group field belongs to the group of each
+ * element, and the elements of an aggregated array field are aggregated
+ * one by one. Null values are not aggregated, but null is a group of its own.
+ * </p>
+ *
+ * <pre>
+ * {@code
+ * RecordStream<Document> result = collection.aggregate(where("status").eq("shipped"),
+ *     AggregateOptions.groupBy("city")
+ *         .count("orders")
+ *         .sum("amount", "revenue")
+ *         .max("amount", "largest")
+ *         .having(where("orders").gte(10))
+ *         .sortBy("revenue", SortOrder.Descending)
+ *         .limit(5));
+ * }
+ * </pre>
+ *
+ * @author Anindya Chatterjee
+ * @see NitriteCollection#aggregate(Filter, AggregateOptions)
+ * @since 4.3.1
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class AggregateOptions {
+    /**
+     * Gets the fields to group the documents by.
+     */
+    private final List<String> groupFields;
+
+    /**
+     * Gets the aggregates to compute for every group.
+     */
+    private final List<Aggregate> aggregates;
+
+    /**
+     * Gets the filter on the result documents.
+     */
+    private Filter having;
+
+    /**
+     * Gets the sort order of the result documents.
+     */
+    private SortableFields sortBy;
+
+    /**
+     * Gets the maximum number of result documents.
+     */
+    private Long limit;
+
+    private AggregateOptions(List<String> groupFields) {
+        this.groupFields = Collections.unmodifiableList(groupFields);
+        this.aggregates = new ArrayList<>();
+    }
+
+    /**
+     * Creates an aggregation which groups the documents by the specified fields.
+     *
+     * @param fields the group fields
+     * @return the aggregate options
+     */
+    public static AggregateOptions groupBy(String... fields) {
+        notNull(fields, "fields cannot be null");
+        for (String field : fields) {
+            if (isNullOrEmpty(field)) {
+                throw new ValidationException("Group field cannot be null or empty");
+            }
+        }
+        return new AggregateOptions(new ArrayList<>(Arrays.asList(fields)));
+    }
+
+    /**
+     * Creates an aggregation over all the matching documents as a single group.
+     *
+     * @return the aggregate options
+     */
+    public static AggregateOptions aggregateAll() {
+        return new AggregateOptions(new ArrayList<>());
+    }
+
+    /**
+     * Counts the documents of a group.
+     *
+     * @param alias the field name of the count in the result
+     * @return the aggregate options
+     */
+    public AggregateOptions count(String alias) {
+        return add(AggregateFunction.Count, null, alias);
+    }
+
+    /**
+     * Sums the numeric values of a field. The sum is a {@link Long} if all
+     * values are integral, a {@link Double} otherwise.
+     *
+     * @param field the field to sum
+     * @param alias the field name of the sum in the result
+     * @return the aggregate options
+     */
+    public AggregateOptions sum(String field, String alias) {
+        return add(AggregateFunction.Sum, field, alias);
+    }
+
+    /**
+     * Averages the numeric values of a field.
+     *
+     * @param field the field to average
+     * @param alias the field name of the average in the result
+     * @return the aggregate options
+     */
+    public AggregateOptions avg(String field, String alias) {
+        return add(AggregateFunction.Average, field, alias);
+    }
+
+    /**
+     * Gets the smallest value of a field.
+     *
+     * @param field the field
+     * @param alias the field name of the minimum in the result
+     * @return the aggregate options
+     */
+    public AggregateOptions min(String field, String alias) {
+        return add(AggregateFunction.Min, field, alias);
+    }
+
+    /**
+     * Gets the largest value of a field.
+     *
+     * @param field the field
+     * @param alias the field name of the maximum in the result
+     * @return the aggregate options
+     */
+    public AggregateOptions max(String field, String alias) {
+        return add(AggregateFunction.Max, field, alias);
+    }
+
+    /**
+     * Filters the result documents, the filter can refer to the group
+     * fields and the aliases.
+     *
+     * @param filter the filter
+     * @return the aggregate options
+     */
+    public AggregateOptions having(Filter filter) {
+        this.having = filter;
+        return this;
+    }
+
+    /**
+     * Sorts the result documents by a group field or an alias.
+     *
+     * @param field     the field
+     * @param sortOrder the sort order
+     * @return the aggregate options
+     */
+    public AggregateOptions sortBy(String field, SortOrder sortOrder) {
+        notNull(field, "field cannot be null");
+        notNull(sortOrder, "sortOrder cannot be null");
+        if (sortBy == null) {
+            sortBy = new SortableFields();
+        }
+        sortBy.addField(field, sortOrder);
+        return this;
+    }
+
+    /**
+     * Limits the number of result documents.
+     *
+     * @param limit the limit
+     * @return the aggregate options
+     */
+    public AggregateOptions limit(long limit) {
+        if (limit < 0) {
+            throw new ValidationException("Limit cannot be negative");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    private AggregateOptions add(AggregateFunction function, String field, String alias) {
+        if (function != AggregateFunction.Count && isNullOrEmpty(field)) {
+            throw new ValidationException("Aggregate field cannot be null or empty");
+        }
+        if (isNullOrEmpty(alias)) {
+            throw new ValidationException("Aggregate alias cannot be null or empty");
+        }
+        if (groupFields.contains(alias)) {
+            throw new ValidationException("Aggregate alias " + alias + " is already a group field");
+        }
+        for (Aggregate aggregate : aggregates) {
+            if (aggregate.getAlias().equals(alias)) {
+                throw new ValidationException("Aggregate alias " + alias + " is already in use");
+            }
+        }
+
+        aggregates.add(new Aggregate(function, field, alias));
+        return this;
+    }
+
+    /**
+     * Represents an aggregate of a field.
+     *
+     * @since 4.3.1
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    public static class Aggregate {
+        /**
+         * Gets the aggregate function.
+         */
+        private final AggregateFunction function;
+
+        /**
+         * Gets the aggregated field, or <code>null</code> for a count.
+         */
+        private final String field;
+
+        /**
+         * Gets the field name of the aggregated value in the result.
+         */
+        private final String alias;
+
+        Aggregate(AggregateFunction function, String field, String alias) {
+            this.function = function;
+            this.field = field;
+            this.alias = alias;
+        }
+    }
+}
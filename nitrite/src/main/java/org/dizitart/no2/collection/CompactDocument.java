@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+import org.dizitart.no2.common.FieldPath;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.exceptions.InvalidIdException;
+
+import java.util.*;
+
+import static org.dizitart.no2.collection.NitriteId.createId;
+import static org.dizitart.no2.common.Constants.DOC_ID;
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
+/**
+ * A compact, read-optimized {@link Document} produced by the store codecs.
+ * <p>
+ * The field names are held by a shared {@link DocumentShape} and the values
+ * are stored in a flat array in the same order. The first mutation inflates
+ * the document into a regular {@link NitriteDocument} and all subsequent
+ * operations are delegated to it.
+ * <p>
+ * Instances handed out by a store are shared between threads. The shape and
+ * the values are never changed, and the inflated document is published once,
+ * so a read racing with the first mutation sees either form in full.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class CompactDocument extends AbstractMap<String, Object> implements Document {
+    private static final long serialVersionUID = 1697532817L;
+
+    private final DocumentShape shape;
+    private final Object[] values;
+    private volatile NitriteDocument inflated;
+
+    CompactDocument() {
+        this(DocumentShape.root(), new Object[0]);
+    }
+
+    private CompactDocument(DocumentShape shape, Object[] values) {
+        this.shape = shape;
+        this.values = values;
+    }
+
+    /**
+     * Creates a compact document from the given map. Embedded documents are
+     * compacted as well. If the map is too wide or too irregular to be
+     * shaped, a regular document is returned instead.
+     *
+     * @param map the map
+     * @return the document
+     */
+    @SuppressWarnings("unchecked")
+    static Document compact(Map<String, Object> map) {
+        DocumentShape shape = DocumentShape.root();
+        Object[] values = new Object[map.size()];
+
+        int i = 0;
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (i == values.length) break;
+            shape = shape.withField(entry.getKey());
+            if (shape == null) {
+                // fall back to map based document
+                return map instanceof Document ? (Document) map : new NitriteDocument(map);
+            }
+
+            Object value = entry.getValue();
+            if (value instanceof NitriteDocument) {
+                value = compact((Map<String, Object>) value);
+            }
+            values[i++] = value;
+        }
+
+        if (i != values.length) {
+            // map modified concurrently
+            return map instanceof Document ? (Document) map : new NitriteDocument(map);
+        }
+        return new CompactDocument(shape, values);
+    }
+
+    @Override
+    public Document put(String key, Object value) {
+        inflate().put(key, value);
+        return this;
+    }
+
+    @Override
+    public Object get(String key) {
+        NitriteDocument inflated = this.inflated;
+        if (inflated != null) {
+            return inflated.get(key);
+        }
+
+        int index = shape.indexOf(key);
+        if (index >= 0) {
+            return values[index];
+        }
+
+        if (key != null && NitriteDocument.isEmbedded(key)) {
+            // if field is an embedded field, get it by deep scan
+            return FieldPath.of(key).getValue(this, 0);
+        }
+        return null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return key instanceof String ? get((String) key) : null;
+    }
+
+    @Override
+    public <T> T get(String key, Class<T> type) {
+        notNull(type, "type cannot be null");
+        return type.cast(get(key));
+    }
+
+    @Override
+    public NitriteId getId() {
+        if (inflated != null || !hasId()) {
+            // a new id will be generated and set in the document
+            return inflate().getId();
+        }
+
+        Object id = values[shape.indexOf(DOC_ID)];
+        try {
+            return createId((String) id);
+        } catch (ClassCastException cce) {
+            throw new InvalidIdException("Invalid _id found " + id);
+        }
+    }
+
+    @Override
+    public Set<String> getFields() {
+        NitriteDocument inflated = this.inflated;
+        if (inflated != null) {
+            return inflated.getFields();
+        }
+        return NitriteDocument.getFieldsInternal(this, "");
+    }
+
+    @Override
+    public boolean hasId() {
+        return containsKey(DOC_ID);
+    }
+
+    @Override
+    public void remove(String key) {
+        inflate().remove(key);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return inflate().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        inflate().clear();
+    }
+
+    @Override
+    public Document clone() {
+        NitriteDocument inflated = this.inflated;
+        if (inflated != null) {
+            return inflated.clone();
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof Document) {
+                // this will recursively take care any embedded document
+                value = ((Document) value).clone();
+            }
+            map.put(shape.field(i), value);
+        }
+        return new NitriteDocument(map);
+    }
+
+    @Override
+    public int size() {
+        NitriteDocument inflated = this.inflated;
+        return inflated != null ? inflated.size() : values.length;
+    }
+
+    @Override
+    public Document merge(Document update) {
+        inflate().merge(update);
+        return this;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        NitriteDocument inflated = this.inflated;
+        return inflated != null ? inflated.containsKey(key) : shape.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && containsKey((String) key);
+    }
+
+    @Override
+    public boolean containsField(String field) {
+        return containsKey(field) || getFields().contains(field);
+    }
+
+    @Override
+    public Iterator<Pair<String, Object>> iterator() {
+        NitriteDocument inflated = this.inflated;
+        if (inflated != null) {
+            return inflated.iterator();
+        }
+
+        return new Iterator<Pair<String, Object>>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < values.length;
+            }
+
+            @Override
+            public Pair<String, Object> next() {
+                if (index >= values.length) {
+                    throw new NoSuchElementException();
+                }
+                Pair<String, Object> pair = new Pair<>(shape.field(index), values[index]);
+                index++;
+                return pair;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        NitriteDocument inflated = this.inflated;
+        if (inflated != null) {
+            return inflated.entrySet();
+        }
+
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                Iterator<Pair<String, Object>> iterator = CompactDocument.this.iterator();
+                return new Iterator<Entry<String, Object>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        Pair<String, Object> next = iterator.next();
+                        return new SimpleImmutableEntry<>(next.getFirst(), next.getSecond());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompactDocument.this.size();
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return NitriteDocument.deepEquals(this, other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    private NitriteDocument inflate() {
+        NitriteDocument document = inflated;
+        if (document == null) {
+            synchronized (this) {
+                document = inflated;
+                if (document == null) {
+                    document = new NitriteDocument();
+                    for (int i = 0; i < values.length; i++) {
+                        document.putInternal(shape.field(i), values[i]);
+                    }
+                    inflated = document;
+                }
+            }
+        }
+        return document;
+    }
+
+    private Object writeReplace() {
+        return clone();
+    }
+}
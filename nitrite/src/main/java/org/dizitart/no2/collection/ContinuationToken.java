@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.collection;
+
+import lombok.Getter;
+import org.dizitart.no2.common.FieldPath;
+import org.dizitart.no2.common.SortOrder;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.exceptions.ValidationException;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Represents the position of a document in the results of a keyset
+ * paginated find operation. It holds the sort key values and the
+ * {@link NitriteId} of the last document of a page, and is handed
+ * out to the caller as an opaque string.
+ *
+ * @author Anindya Chatterjee
+ * @see FindOptions#after(String)
+ * @since 4.3.1
+ */
+@Getter
+public final class ContinuationToken {
+    private static final byte VERSION = 1;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte SHORT = 6;
+    private static final byte BYTE = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte BIG_INTEGER = 10;
+    private static final byte BIG_DECIMAL = 11;
+    private static final byte DATE = 12;
+    private static final byte NITRITE_ID = 13;
+
+    /**
+     * Gets the sort order the token was created for.
+     * */
+    private final List<Pair<String, SortOrder>> sortOrder;
+
+    /**
+     * Gets the sort key values of the last document.
+     * */
+    private final List<Object> values;
+
+    /**
+     * Gets the id of the last document.
+     * */
+    private final NitriteId nitriteId;
+
+    private ContinuationToken(List<Pair<String, SortOrder>> sortOrder, List<Object> values, NitriteId nitriteId) {
+        this.sortOrder = Collections.unmodifiableList(sortOrder);
+        this.values = Collections.unmodifiableList(values);
+        this.nitriteId = nitriteId;
+    }
+
+    /**
+     * Creates a token pointing to a document of the results.
+     *
+     * @param sortOrder the sort order of the find operation
+     * @param nitriteId the id of the document
+     * @param document  the document
+     * @return the continuation token
+     */
+    public static ContinuationToken of(List<Pair<String, SortOrder>> sortOrder,
+                                       NitriteId nitriteId, Document document) {
+        List<Object> values = new ArrayList<>(sortOrder.size());
+        for (Pair<String, SortOrder> pair : sortOrder) {
+            values.add(FieldPath.of(pair.getFirst()).getValue(document));
+        }
+        return new ContinuationToken(new ArrayList<>(sortOrder), values, nitriteId);
+    }
+
+    /**
+     * Decodes a token previously returned by {@link #encode()}.
+     *
+     * @param token the encoded token
+     * @return the continuation token
+     * @throws ValidationException if the token is malformed
+     */
+    public static ContinuationToken decode(String token) {
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(fromHex(token)));
+            if (input.readByte() != VERSION) {
+                throw new ValidationException("Unsupported continuation token " + token);
+            }
+
+            int size = input.readInt();
+            if (size < 0 || size > input.available()) {
+                throw new ValidationException("Invalid continuation token " + token);
+            }
+
+            List<Pair<String, SortOrder>> sortOrder = new ArrayList<>(size);
+            List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String field = readString(input);
+                SortOrder order = input.readBoolean() ? SortOrder.Descending : SortOrder.Ascending;
+                sortOrder.add(new Pair<>(field, order));
+                values.add(readValue(input));
+            }
+
+            NitriteId nitriteId = NitriteId.createId(readString(input));
+            if (input.available() != 0) {
+                throw new ValidationException("Invalid continuation token " + token);
+            }
+            return new ContinuationToken(sortOrder, values, nitriteId);
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof ValidationException) throw (ValidationException) e;
+            throw new ValidationException("Invalid continuation token " + token, e);
+        }
+    }
+
+    /**
+     * Encodes this token into an opaque string.
+     *
+     * @return the encoded token
+     * @throws InvalidOperationException if a sort key value can not be encoded
+     */
+    public String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeByte(VERSION);
+            output.writeInt(sortOrder.size());
+            for (int i = 0; i < sortOrder.size(); i++) {
+                Pair<String, SortOrder> pair = sortOrder.get(i);
+                writeString(output, pair.getFirst());
+                output.writeBoolean(pair.getSecond() == SortOrder.Descending);
+                writeValue(output, pair.getFirst(), values.get(i));
+            }
+            writeString(output, nitriteId.getIdValue());
+            output.flush();
+            return toHex(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new NitriteIOException("Failed to encode continuation token", e);
+        }
+    }
+
+    /**
+     * Checks if this token was created for the given sort order.
+     *
+     * @param sortOrder the sort order
+     * @return <code>true</code> if the sort order matches
+     */
+    public boolean matches(List<Pair<String, SortOrder>> sortOrder) {
+        return this.sortOrder.equals(sortOrder);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+
+    private static void writeValue(DataOutputStream output, String field, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof String) {
+            output.writeByte(STRING);
+            writeString(output, (String) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(INTEGER);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT);
+            output.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            output.writeByte(SHORT);
+            output.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            output.writeByte(BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            output.writeByte(CHARACTER);
+            output.writeChar((Character) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(BIG_INTEGER);
+            writeString(output, value.toString());
+        } else if (value instanceof BigDecimal) {
+            output.writeByte(BIG_DECIMAL);
+            writeString(output, value.toString());
+        } else if (value instanceof Date) {
+            output.writeByte(DATE);
+            output.writeLong(((Date) value).getTime());
+        } else if (value instanceof NitriteId) {
+            output.writeByte(NITRITE_ID);
+            writeString(output, ((NitriteId) value).getIdValue());
+        } else {
+            throw new InvalidOperationException("Value of type " + value.getClass().getName()
+                + " of field " + field + " can not be used for keyset pagination");
+        }
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(input);
+            case INTEGER:
+                return input.readInt();
+            case LONG:
+                return input.readLong();
+            case DOUBLE:
+                return input.readDouble();
+            case FLOAT:
+                return input.readFloat();
+            case SHORT:
+                return input.readShort();
+            case BYTE:
+                return input.readByte();
+            case BOOLEAN:
+                return input.readBoolean();
+            case CHARACTER:
+                return input.readChar();
+            case BIG_INTEGER:
+                return new BigInteger(readString(input));
+            case BIG_DECIMAL:
+                return new BigDecimal(readString(input));
+            case DATE:
+                return new Date(input.readLong());
+            case NITRITE_ID:
+                return NitriteId.createId(readString(input));
+            default:
+                throw new ValidationException("Invalid value type " + type + " in continuation token");
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > input.available()) {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static byte[] fromHex(String value) {
+        if (value == null || value.length() % 2 != 0) {
+            throw new ValidationException("Invalid continuation token " + value);
+        }
+
+        byte[] bytes = new byte[value.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(value.charAt(2 * i), 16);
+            int low = Character.digit(value.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new ValidationException("Invalid continuation token " + value);
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+import org.dizitart.no2.common.tuples.Pair;
+
+import java.util.*;
+
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
+/**
+ * A copy-on-write view over a stored {@link Document}.
+ * <p>
+ * All read operations are served directly from the source document. The first
+ * mutation on the view, or on any embedded document obtained from it, materializes
+ * a private deep copy of the source and all subsequent operations are served from
+ * that copy. The source document is never modified through this view.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class CopyOnWriteDocument extends AbstractMap<String, Object> implements Document {
+    private static final long serialVersionUID = 1697446532L;
+
+    private final Document source;
+    private final CopyOnWriteDocument parent;
+    private final String parentKey;
+    private Document copy;
+
+    CopyOnWriteDocument(Document source) {
+        this(source, null, null);
+    }
+
+    private CopyOnWriteDocument(Document source, CopyOnWriteDocument parent, String parentKey) {
+        this.source = source;
+        this.parent = parent;
+        this.parentKey = parentKey;
+    }
+
+    @Override
+    public Document put(String key, Object value) {
+        materialize().put(key, value);
+        return this;
+    }
+
+    @Override
+    public Object get(String key) {
+        Document current = current();
+        Object value = current.get(key);
+        if (current == source && value instanceof Document && current.containsKey(key)) {
+            // embedded document of the source, hand out a view
+            // so that it can not be modified in place
+            return new CopyOnWriteDocument((Document) value, this, key);
+        }
+        return readOnly(value);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return key instanceof String ? get((String) key) : null;
+    }
+
+    @Override
+    public <T> T get(String key, Class<T> type) {
+        notNull(type, "type cannot be null");
+        return type.cast(get(key));
+    }
+
+    @Override
+    public NitriteId getId() {
+        if (!current().hasId()) {
+            // a new id will be generated and set in the document
+            return materialize().getId();
+        }
+        return current().getId();
+    }
+
+    @Override
+    public Set<String> getFields() {
+        return current().getFields();
+    }
+
+    @Override
+    public boolean hasId() {
+        return current().hasId();
+    }
+
+    @Override
+    public void remove(String key) {
+        materialize().remove(key);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String) || !current().containsKey((String) key)) {
+            return null;
+        }
+        Object value = current().get((String) key);
+        materialize().remove((String) key);
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        Document document = materialize();
+        List<String> keys = new ArrayList<>();
+        for (Pair<String, Object> pair : document) {
+            keys.add(pair.getFirst());
+        }
+
+        for (String key : keys) {
+            document.remove(key);
+        }
+    }
+
+    @Override
+    public Document clone() {
+        return current().clone();
+    }
+
+    @Override
+    public int size() {
+        return current().size();
+    }
+
+    @Override
+    public Document merge(Document update) {
+        materialize().merge(update);
+        return this;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return current().containsKey(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && containsKey((String) key);
+    }
+
+    @Override
+    public boolean containsField(String field) {
+        return current().containsField(field);
+    }
+
+    @Override
+    public Iterator<Pair<String, Object>> iterator() {
+        Iterator<Pair<String, Object>> iterator = current().iterator();
+        return new Iterator<Pair<String, Object>>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Pair<String, Object> next() {
+                Pair<String, Object> next = iterator.next();
+                return new Pair<>(next.getFirst(), get(next.getFirst()));
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                Iterator<Pair<String, Object>> iterator = CopyOnWriteDocument.this.iterator();
+                return new Iterator<Entry<String, Object>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        Pair<String, Object> next = iterator.next();
+                        return new SimpleImmutableEntry<>(next.getFirst(), next.getSecond());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CopyOnWriteDocument.this.size();
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) return true;
+        if (other instanceof CopyOnWriteDocument) {
+            other = ((CopyOnWriteDocument) other).current();
+        }
+        return current().equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return current().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return current().toString();
+    }
+
+    private Object readOnly(Object value) {
+        if (value instanceof Document && copy == null && !(value instanceof CopyOnWriteDocument)) {
+            // embedded document found via a nested path, it must not
+            // leak the source document out of this view
+            return new CopyOnWriteDocument((Document) value);
+        }
+        return value;
+    }
+
+    private Document current() {
+        if (copy == null && parent != null) {
+            // if the parent has been materialized in the meantime,
+            // follow its private copy
+            Document parentDocument = parent.current();
+            if (parentDocument != parent.source) {
+                Object value = parentDocument.get(parentKey);
+                if (value instanceof Document) {
+                    copy = (Document) value;
+                }
+            }
+        }
+        return copy != null ? copy : source;
+    }
+
+    private Document materialize() {
+        if (current() != source) {
+            return copy;
+        }
+
+        if (parent != null) {
+            Object value = parent.materialize().get(parentKey);
+            if (value instanceof Document) {
+                copy = (Document) value;
+                return copy;
+            }
+        }
+
+        copy = source.clone();
+        return copy;
+    }
+
+    private Object writeReplace() {
+        return clone();
+    }
+}
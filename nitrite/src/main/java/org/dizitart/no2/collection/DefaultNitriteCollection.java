@@ -21,7 +21,9 @@ import org.dizitart.no2.collection.events.CollectionEventInfo;
 import org.dizitart.no2.collection.events.CollectionEventListener;
 import org.dizitart.no2.collection.operation.CollectionOperations;
 import org.dizitart.no2.common.Fields;
+import org.dizitart.no2.common.RecordStream;
 import org.dizitart.no2.common.WriteResult;
+import org.dizitart.no2.common.cache.CacheStats;
 import org.dizitart.no2.common.concurrent.LockService;
 import org.dizitart.no2.common.event.EventBus;
 import org.dizitart.no2.common.event.NitriteEventBus;
@@ -178,10 +180,55 @@ class DefaultNitriteCollection implements NitriteCollection {
         }
     }
 
+    public RecordStream<Document> aggregate(Filter filter, AggregateOptions aggregateOptions) {
+        try {
+            readLock.lock();
+            checkOpened();
+            return collectionOperations.aggregate(filter, aggregateOptions, true);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public RecordStream<Object> distinct(String field, Filter filter, DistinctOptions distinctOptions) {
+        try {
+            readLock.lock();
+            checkOpened();
+            return collectionOperations.distinct(field, filter, distinctOptions, true);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public long count(Filter filter) {
+        try {
+            readLock.lock();
+            checkOpened();
+            return collectionOperations.count(filter);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public boolean exists(Filter filter) {
+        try {
+            readLock.lock();
+            checkOpened();
+            return collectionOperations.exists(filter);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     public void createIndex(IndexOptions indexOptions, String... fields) {
         notNull(fields, "fields cannot be null");
 
         Fields indexFields = Fields.withNames(fields);
+        if (indexOptions != null && indexOptions.isOnline()) {
+            createIndexOnline(indexFields, indexOptions.getIndexType());
+            return;
+        }
+
         try {
             writeLock.lock();
             checkOpened();
@@ -373,6 +420,16 @@ class DefaultNitriteCollection implements NitriteCollection {
         }
     }
 
+    public CacheStats getDocumentCacheStats() {
+        try {
+            readLock.lock();
+            checkOpened();
+            return collectionOperations.getDocumentCacheStats();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     public NitriteStore<?> getStore() {
         try {
             writeLock.lock();
@@ -407,6 +464,19 @@ class DefaultNitriteCollection implements NitriteCollection {
         }
     }
 
+    @Override
+    public void publish(CollectionEventInfo<?> eventInfo) {
+        notNull(eventInfo, "eventInfo cannot be null");
+        try {
+            readLock.lock();
+            if (eventBus != null) {
+                eventBus.post(eventInfo);
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     public Attributes getAttributes() {
         try {
             readLock.lock();
@@ -445,6 +515,40 @@ class DefaultNitriteCollection implements NitriteCollection {
         this.collectionOperations = new CollectionOperations(collectionName, nitriteMap, nitriteConfig, eventBus);
     }
 
+    private void createIndexOnline(Fields indexFields, String indexType) {
+        IndexDescriptor indexDescriptor;
+        CollectionOperations operations;
+        try {
+            writeLock.lock();
+            checkOpened();
+            operations = collectionOperations;
+            indexDescriptor = operations.beginOnlineIndex(indexFields, indexType);
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (indexDescriptor == null) {
+            // index already exists
+            return;
+        }
+
+        boolean built = false;
+        try {
+            // scan the documents without holding the write lock
+            operations.buildOnlineIndex(indexDescriptor);
+            built = true;
+        } finally {
+            try {
+                writeLock.lock();
+                if (isOpen()) {
+                    operations.endOnlineIndex(indexDescriptor, built);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
     private void checkOpened() {
         if (isOpen()) return;
         throw new NitriteIOException("Collection is closed");
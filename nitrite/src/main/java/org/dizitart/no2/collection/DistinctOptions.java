@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.dizitart.no2.common.util.Comparables;
+import org.dizitart.no2.exceptions.ValidationException;
+
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
+/**
+ * Represents the options of a distinct values query. The values can be
+ * restricted to a range or to a string prefix, and their number can be
+ * limited.
+ *
+ * <pre>
+ * {@code
+ * RecordStream<Object> tenants = collection.distinct("tenantId", Filter.ALL,
+ *     DistinctOptions.distinctOptions().prefix("eu-").limit(100));
+ * }
+ * </pre>
+ *
+ * @author Anindya Chatterjee
+ * @see NitriteCollection#distinct(String, org.dizitart.no2.filters.Filter, DistinctOptions)
+ * @since 4.3.1
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class DistinctOptions {
+    /**
+     * Gets the lower bound of the values, or <code>null</code> if unbounded.
+     */
+    private Comparable<?> lowerBound;
+
+    /**
+     * Indicates if the lower bound is a value of the result.
+     */
+    private boolean lowerInclusive;
+
+    /**
+     * Gets the upper bound of the values, or <code>null</code> if unbounded.
+     */
+    private Comparable<?> upperBound;
+
+    /**
+     * Indicates if the upper bound is a value of the result.
+     */
+    private boolean upperInclusive;
+
+    /**
+     * Gets the prefix of the string values, or <code>null</code> for all values.
+     */
+    private String prefix;
+
+    /**
+     * Gets the maximum number of values.
+     */
+    private Long limit;
+
+    /**
+     * Creates a new {@link DistinctOptions} without any restriction.
+     *
+     * @return the distinct options
+     */
+    public static DistinctOptions distinctOptions() {
+        return new DistinctOptions();
+    }
+
+    /**
+     * Only returns the values which are greater than (or equal to) a value.
+     *
+     * @param value     the lower bound
+     * @param inclusive if the lower bound itself is returned
+     * @return the distinct options
+     */
+    public DistinctOptions from(Comparable<?> value, boolean inclusive) {
+        notNull(value, "value cannot be null");
+        this.lowerBound = value;
+        this.lowerInclusive = inclusive;
+        return this;
+    }
+
+    /**
+     * Only returns the values which are less than (or equal to) a value.
+     *
+     * @param value     the upper bound
+     * @param inclusive if the upper bound itself is returned
+     * @return the distinct options
+     */
+    public DistinctOptions to(Comparable<?> value, boolean inclusive) {
+        notNull(value, "value cannot be null");
+        this.upperBound = value;
+        this.upperInclusive = inclusive;
+        return this;
+    }
+
+    /**
+     * Only returns the string values which start with a prefix.
+     *
+     * @param prefix the prefix
+     * @return the distinct options
+     */
+    public DistinctOptions prefix(String prefix) {
+        notNull(prefix, "prefix cannot be null");
+        this.prefix = prefix;
+        return this;
+    }
+
+    /**
+     * Limits the number of values.
+     *
+     * @param limit the limit
+     * @return the distinct options
+     */
+    public DistinctOptions limit(long limit) {
+        if (limit < 0) {
+            throw new ValidationException("Limit cannot be negative");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Checks if a value is below the upper bound.
+     *
+     * @param value the value
+     * @return <code>true</code> if the value is not above the upper bound
+     */
+    @SuppressWarnings({"rawtypes"})
+    public boolean isBelowUpperBound(Comparable value) {
+        if (upperBound == null) return true;
+        Integer result = compare(value, (Comparable) upperBound);
+        return result != null && (upperInclusive ? result <= 0 : result < 0);
+    }
+
+    /**
+     * Checks if a value is accepted by the bounds and the prefix.
+     *
+     * @param value the value
+     * @return <code>true</code> if the value is accepted
+     */
+    @SuppressWarnings({"rawtypes"})
+    public boolean accepts(Object value) {
+        if (prefix != null && !(value instanceof String && ((String) value).startsWith(prefix))) {
+            return false;
+        }
+        if (lowerBound == null && upperBound == null) {
+            return true;
+        }
+        if (!(value instanceof Comparable)) {
+            return false;
+        }
+
+        Comparable comparable = (Comparable) value;
+        if (lowerBound != null) {
+            Integer result = compare(comparable, (Comparable) lowerBound);
+            if (result == null || (lowerInclusive ? result < 0 : result <= 0)) return false;
+        }
+        return isBelowUpperBound(comparable);
+    }
+
+    @SuppressWarnings({"rawtypes"})
+    private static Integer compare(Comparable value, Comparable bound) {
+        try {
+            return Comparables.compare(value, bound);
+        } catch (ClassCastException e) {
+            // a value of another type is outside of the range
+            return null;
+        }
+    }
+}
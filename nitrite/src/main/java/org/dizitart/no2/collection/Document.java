@@ -87,6 +87,41 @@ public interface Document extends Iterable<Pair<String, Object>>, Cloneable, Ser
         return new NitriteDocument(document);
     }
 
+    /**
+     * Creates a compact, read-optimized document initialized with the given map.
+     * <p>
+     * Field names are shared between all compact documents having the same layout
+     * and the values are stored in a flat array, which makes it suitable for documents
+     * read from a store. Wide or irregular maps are stored as regular documents.
+     * A compact document is converted to a regular one on first modification.
+     *
+     * @param documentMap the map
+     * @return the document
+     * @since 4.3.1
+     */
+    static Document createCompactDocument(Map<String, Object> documentMap) {
+        return CompactDocument.compact(documentMap);
+    }
+
+    /**
+     * Creates a copy-on-write view of the given document.
+     * <p>
+     * The view reads directly from the source document without copying it.
+     * A private copy of the source is created only when the view, or any
+     * embedded document obtained from it, is modified for the first time.
+     * The source document is never modified through the view.
+     *
+     * @param document the source document
+     * @return the copy-on-write view
+     * @since 4.3.1
+     */
+    static Document copyOnWrite(Document document) {
+        if (document == null || document instanceof CopyOnWriteDocument) {
+            return document;
+        }
+        return new CopyOnWriteDocument(document);
+    }
+
     /**
      * Associates the specified value with the specified key in this document.
      * <p>
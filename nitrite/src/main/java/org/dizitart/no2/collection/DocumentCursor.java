@@ -65,4 +65,29 @@ public interface DocumentCursor extends RecordStream<Document> {
      * @since 2.1.0
      */
     RecordStream<Document> join(DocumentCursor foreignCursor, Lookup lookup);
+
+    /**
+     * Gets the relevance score of a document of this cursor, if the
+     * documents were found by a full-text search on a text index. The
+     * documents are returned in the order of descending score.
+     *
+     * @param document the document of this cursor
+     * @return the score, or <code>null</code> if the document was not ranked.
+     * @since 4.3.1
+     */
+    default Double getScore(Document document) {
+        if (document == null || getFindPlan() == null) return null;
+        return getFindPlan().findTextScore(document.getId());
+    }
+
+    /**
+     * Gets the continuation token for the next page of a keyset paginated
+     * find operation. The token points to the last document iterated from
+     * this cursor.
+     *
+     * @return the token, or <code>null</code> if no document was iterated.
+     * @see FindOptions#after(String)
+     * @since 4.3.1
+     */
+    String getContinuationToken();
 }
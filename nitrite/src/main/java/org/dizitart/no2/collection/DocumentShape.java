@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents the ordered set of field names shared by all {@link CompactDocument}s
+ * having the same layout.
+ * <p>
+ * Shapes form a transition tree starting from an empty root shape. Adding a field
+ * to a shape returns the same child shape for every document, so the field names
+ * are stored once per shape instead of once per document.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+final class DocumentShape {
+    /**
+     * Maximum number of fields in a shape. Wider documents are not compacted.
+     */
+    static final int MAX_FIELDS = 64;
+
+    /**
+     * Maximum number of distinct transitions from a shape. Documents with
+     * irregular layouts are not compacted beyond this point.
+     */
+    static final int MAX_TRANSITIONS = 32;
+
+    /**
+     * Maximum number of shapes created in total.
+     */
+    static final int MAX_SHAPES = 8192;
+
+    private static final int INDEX_THRESHOLD = 8;
+    private static final AtomicInteger shapeCount = new AtomicInteger();
+    private static final DocumentShape ROOT = new DocumentShape(new String[0]);
+
+    private final String[] fields;
+    private final Map<String, Integer> fieldIndex;
+    private final Map<String, DocumentShape> transitions;
+
+    private DocumentShape(String[] fields) {
+        this.fields = fields;
+        this.transitions = new ConcurrentHashMap<>();
+
+        if (fields.length > INDEX_THRESHOLD) {
+            // linear scan is faster for narrow shapes
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < fields.length; i++) {
+                index.put(fields[i], i);
+            }
+            this.fieldIndex = index;
+        } else {
+            this.fieldIndex = null;
+        }
+    }
+
+    static DocumentShape root() {
+        return ROOT;
+    }
+
+    /**
+     * Gets the shape having all fields of this shape followed by the given field.
+     *
+     * @param field the field
+     * @return the shape, or <code>null</code> if the field can not be added compactly
+     */
+    DocumentShape withField(String field) {
+        DocumentShape shape = transitions.get(field);
+        if (shape != null) {
+            return shape;
+        }
+
+        if (field == null || fields.length >= MAX_FIELDS || indexOf(field) >= 0
+            || transitions.size() >= MAX_TRANSITIONS) {
+            return null;
+        }
+
+        if (shapeCount.incrementAndGet() > MAX_SHAPES) {
+            shapeCount.decrementAndGet();
+            return null;
+        }
+
+        String[] newFields = new String[fields.length + 1];
+        System.arraycopy(fields, 0, newFields, 0, fields.length);
+        newFields[fields.length] = field;
+
+        DocumentShape newShape = new DocumentShape(newFields);
+        DocumentShape existing = transitions.putIfAbsent(field, newShape);
+        if (existing != null) {
+            shapeCount.decrementAndGet();
+            return existing;
+        }
+        return newShape;
+    }
+
+    int indexOf(String field) {
+        if (fieldIndex != null) {
+            Integer index = fieldIndex.get(field);
+            return index == null ? -1 : index;
+        }
+
+        for (int i = 0; i < fields.length; i++) {
+            // field names are shared, so an identity check mostly succeeds
+            if (fields[i] == field || fields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String field(int index) {
+        return fields[index];
+    }
+
+    int size() {
+        return fields.length;
+    }
+}
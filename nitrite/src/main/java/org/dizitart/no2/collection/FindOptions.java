@@ -56,6 +56,22 @@ public class FindOptions {
      * */
     private boolean distinct = false;
 
+    /**
+     * Indicates if the find operation should return the results in pages
+     * using keyset pagination.
+     *
+     * @since 4.3.1
+     * */
+    private boolean keyset = false;
+
+    /**
+     * Gets the continuation token of the previous page, or <code>null</code>
+     * for the first page of a keyset pagination.
+     *
+     * @since 4.3.1
+     * */
+    private String after;
+
     /**
      * Specifies the {@link Collator}.
      */
@@ -162,6 +178,40 @@ public class FindOptions {
         return this;
     }
 
+    /**
+     * Returns the results after the position of a continuation token. It
+     * enables keyset pagination, where each page is read by seeking to the
+     * position of the previous page instead of skipping over it.
+     * <p>
+     * The results are ordered by the sort order of the find options and
+     * then by the {@link NitriteId} of the documents. A <code>null</code>
+     * token gives the first page. The token for the next page is available
+     * from {@link DocumentCursor#getContinuationToken()} after iterating
+     * a page.
+     * <p>
+     * <pre>
+     * {@code
+     * DocumentCursor page = collection.find(filter, orderBy("name", SortOrder.Ascending)
+     *      .limit(20).after(null));
+     * // iterate the page
+     * String token = page.getContinuationToken();
+     *
+     * // get the next page
+     * page = collection.find(filter, orderBy("name", SortOrder.Ascending)
+     *      .limit(20).after(token));
+     * }
+     * </pre>
+     *
+     * @param token the continuation token of the previous page
+     * @return the find options
+     * @since 4.3.1
+     */
+    public FindOptions after(String token) {
+        this.keyset = true;
+        this.after = token;
+        return this;
+    }
+
     /**
      * Then order by find options.
      *
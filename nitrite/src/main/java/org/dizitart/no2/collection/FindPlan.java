@@ -18,12 +18,15 @@
 package org.dizitart.no2.collection;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.dizitart.no2.common.SortOrder;
 import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.filters.FieldBasedFilter;
 import org.dizitart.no2.filters.Filter;
 import org.dizitart.no2.filters.IndexScanFilter;
 import org.dizitart.no2.index.IndexDescriptor;
+import org.dizitart.no2.index.TextIndex;
 
 import java.text.Collator;
 import java.util.ArrayList;
@@ -88,6 +91,45 @@ public class FindPlan {
      * */
     private Collator collator;
 
+    /**
+     * Gets the relevance scores of a ranked full-text search, if any.
+     *
+     * @see TextIndex#rank(java.util.Set, int)
+     * @since 4.3.1
+     * */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Map<NitriteId, Double> textScores;
+
+    /**
+     * Gets the keyset pagination flag.
+     *
+     * @since 4.3.1
+     * */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean keyset;
+
+    /**
+     * Gets the sort order of a keyset pagination, the documents are
+     * finally ordered by their ids.
+     *
+     * @since 4.3.1
+     * */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<Pair<String, SortOrder>> keysetOrder;
+
+    /**
+     * Gets the position after which the documents are returned
+     * in a keyset pagination, if any.
+     *
+     * @since 4.3.1
+     * */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ContinuationToken continuation;
+
     /**
      * Gets the sub plans.
      * */
@@ -100,4 +142,24 @@ public class FindPlan {
         this.subPlans = new ArrayList<>();
         this.blockingSortOrder = new ArrayList<>();
     }
+
+    /**
+     * Finds the relevance score of a document in this plan or its sub plans.
+     *
+     * @param nitriteId the id of the document
+     * @return the score, or <code>null</code> if the document was not ranked.
+     * @since 4.3.1
+     */
+    public Double findTextScore(NitriteId nitriteId) {
+        if (textScores != null) {
+            Double score = textScores.get(nitriteId);
+            if (score != null) return score;
+        }
+
+        for (FindPlan subPlan : subPlans) {
+            Double score = subPlan.findTextScore(nitriteId);
+            if (score != null) return score;
+        }
+        return null;
+    }
 }
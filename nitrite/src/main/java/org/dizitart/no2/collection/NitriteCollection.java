@@ -16,12 +16,19 @@
 
 package org.dizitart.no2.collection;
 
+import org.dizitart.no2.collection.events.CollectionEventInfo;
 import org.dizitart.no2.collection.events.CollectionEventListener;
 import org.dizitart.no2.collection.events.EventAware;
 import org.dizitart.no2.collection.events.EventType;
 import org.dizitart.no2.common.PersistentCollection;
+import org.dizitart.no2.common.RecordStream;
 import org.dizitart.no2.common.WriteResult;
+import org.dizitart.no2.common.cache.CacheStats;
 import org.dizitart.no2.common.event.EventBus;
+import org.dizitart.no2.common.streams.AggregateStream;
+import org.dizitart.no2.common.streams.DistinctValueStream;
+import org.dizitart.no2.common.streams.GroupedStream;
+import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.exceptions.InvalidIdException;
 import org.dizitart.no2.exceptions.UniqueConstraintException;
 import org.dizitart.no2.exceptions.ValidationException;
@@ -29,9 +36,11 @@ import org.dizitart.no2.filters.Filter;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.dizitart.no2.common.util.ValidationUtils.containsNull;
+import static org.dizitart.no2.common.util.ValidationUtils.notEmpty;
 import static org.dizitart.no2.common.util.ValidationUtils.notNull;
 
 /**
@@ -248,6 +257,119 @@ public interface NitriteCollection extends PersistentCollection<Document> {
      */
     DocumentCursor find(Filter filter, FindOptions findOptions);
 
+    /**
+     * Aggregates the documents which match a filter. The matching documents
+     * are grouped by the group fields of the {@link AggregateOptions} and a
+     * result document with the aggregated values is returned for every group.
+     * <p>
+     * The aggregation is computed in a single pass over the stored documents.
+     * If there is no filter and an index starts with the group fields, counts
+     * and min/max values are read from the index keys without loading any
+     * document.
+     * </p>
+     *
+     * @param filter           the filter to apply to select documents from collection.
+     * @param aggregateOptions the group fields and aggregates.
+     * @return the result documents, one for every group.
+     * @since 4.3.1
+     */
+    default RecordStream<Document> aggregate(Filter filter, AggregateOptions aggregateOptions) {
+        DocumentCursor cursor = find(filter);
+        RecordStream<Pair<NitriteId, Document>> recordStream = () -> new Iterator<Pair<NitriteId, Document>>() {
+            private final Iterator<Document> iterator = cursor.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Pair<NitriteId, Document> next() {
+                return new Pair<>(null, iterator.next());
+            }
+        };
+        return new AggregateStream(new GroupedStream(recordStream, aggregateOptions, null), aggregateOptions);
+    }
+
+    /**
+     * Gets the distinct values of a field in the documents which match a filter.
+     *
+     * @param field  the field.
+     * @param filter the filter to apply to select documents from collection.
+     * @return the distinct values of the field.
+     * @see #distinct(String, Filter, DistinctOptions)
+     * @since 4.3.1
+     */
+    default RecordStream<Object> distinct(String field, Filter filter) {
+        return distinct(field, filter, null);
+    }
+
+    /**
+     * Gets the distinct values of a field in the documents which match a filter.
+     * The values of array fields are unwound and <code>null</code> is never
+     * returned.
+     * <p>
+     * If there is no filter and an index starts with the field, the values are
+     * read from the index keys in ascending order, without loading any document,
+     * and only the keys within the range of the {@link DistinctOptions} are visited.
+     * Otherwise the matching documents are scanned and the values are returned
+     * in the order they are first seen.
+     * </p>
+     *
+     * @param field           the field.
+     * @param filter          the filter to apply to select documents from collection.
+     * @param distinctOptions the range, prefix and limit of the values.
+     * @return the distinct values of the field.
+     * @since 4.3.1
+     */
+    default RecordStream<Object> distinct(String field, Filter filter, DistinctOptions distinctOptions) {
+        notEmpty(field, "field cannot be empty");
+        DocumentCursor cursor = find(filter);
+        RecordStream<Pair<NitriteId, Document>> recordStream = () -> new Iterator<Pair<NitriteId, Document>>() {
+            private final Iterator<Document> iterator = cursor.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Pair<NitriteId, Document> next() {
+                return new Pair<>(null, iterator.next());
+            }
+        };
+        return new DistinctValueStream(recordStream, field, distinctOptions, null);
+    }
+
+    /**
+     * Counts the documents which match a filter.
+     * <p>
+     * Unlike {@code find(filter).size()}, the documents are not fetched when
+     * the filter can be answered from the indexes alone. Otherwise only the
+     * filters which are not covered by an index are checked on the stored
+     * documents.
+     * </p>
+     *
+     * @param filter the filter to apply to select documents from collection.
+     * @return the number of matching documents.
+     * @since 4.3.1
+     */
+    default long count(Filter filter) {
+        return find(filter).size();
+    }
+
+    /**
+     * Checks if any document matches a filter. The search stops at the
+     * first matching document.
+     *
+     * @param filter the filter to apply to select documents from collection.
+     * @return {@code true} if at least one document matches.
+     * @since 4.3.1
+     */
+    default boolean exists(Filter filter) {
+        return !find(filter).isEmpty();
+    }
+
     /**
      * Gets a single element from the collection by its id. If no element
      * is found, it will return {@code null}.
@@ -264,4 +386,28 @@ public interface NitriteCollection extends PersistentCollection<Document> {
      * @return the name.
      */
     String getName();
+
+    /**
+     * Gets the statistics of the document cache of the {@link NitriteCollection}.
+     *
+     * @return the cache statistics, or {@code null} if the document cache is disabled.
+     * @see org.dizitart.no2.NitriteBuilder#documentCacheSize(long)
+     * @since 4.3.1
+     */
+    default CacheStats getDocumentCacheStats() {
+        return null;
+    }
+
+    /**
+     * Notifies the subscribed listeners of a change which has been written
+     * to the store of the {@link NitriteCollection} directly, like the
+     * changes of a committed native store transaction.
+     * <p>
+     * The default implementation does nothing.
+     *
+     * @param eventInfo the change event.
+     * @since 4.3.1
+     */
+    default void publish(CollectionEventInfo<?> eventInfo) {
+    }
 }
@@ -17,8 +17,8 @@
 package org.dizitart.no2.collection;
 
 import org.dizitart.no2.NitriteConfig;
+import org.dizitart.no2.common.FieldPath;
 import org.dizitart.no2.common.tuples.Pair;
-import org.dizitart.no2.common.util.Iterables;
 import org.dizitart.no2.exceptions.InvalidIdException;
 import org.dizitart.no2.exceptions.InvalidOperationException;
 import org.dizitart.no2.exceptions.ValidationException;
@@ -27,7 +27,6 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.text.MessageFormat;
 import java.util.*;
 
 import static org.dizitart.no2.collection.NitriteId.*;
@@ -75,15 +74,17 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
         // if field name contains field separator, split the fields, and put the value
         // accordingly associated with th embedded field.
         if (isEmbedded(field)) {
-            String regex = MessageFormat.format("\\{0}", NitriteConfig.getFieldSeparator());
-            String[] splits = field.split(regex);
-            deepPut(splits, value);
+            deepPut(FieldPath.of(field), 0, value);
         } else {
             super.put(field, value);
         }
         return this;
     }
 
+    void putInternal(String field, Object value) {
+        super.put(field, value);
+    }
+
     @Override
     public Object get(String field) {
         if (field != null
@@ -124,7 +125,7 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
     @Override
     public Set<String> getFields() {
         // get all fields except from the reserved ones
-        return getFieldsInternal("");
+        return getFieldsInternal(this, "");
     }
 
     @Override
@@ -137,9 +138,7 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
         if (isEmbedded(field)) {
             // if the field is an embedded field,
             // run a deep scan and remove the last field
-            String regex = MessageFormat.format("\\{0}", NitriteConfig.getFieldSeparator());
-            String[] splits = field.split(regex);
-            deepRemove(splits);
+            deepRemove(FieldPath.of(field), 0);
         } else {
             // remove the field from this document
             super.remove(field);
@@ -167,12 +166,11 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
 
     @Override
     public Document merge(Document document) {
-        if (document instanceof NitriteDocument) {
-            NitriteDocument nitriteDocument = (NitriteDocument) document;
-            for (Pair<String, Object> entry : nitriteDocument) {
+        if (document != null) {
+            for (Pair<String, Object> entry : document) {
                 String key = entry.getFirst();
                 Object value = entry.getSecond();
-                if (value instanceof NitriteDocument) {
+                if (value instanceof Document) {
                     // if the value is a document, merge it recursively
                     if (containsKey(key)) {
                         // if the current document already contains the key,
@@ -195,7 +193,7 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
                 }
             }
         } else {
-            throw new InvalidOperationException("Document merge only supports NitriteDocument");
+            throw new InvalidOperationException("Document to merge cannot be null");
         }
         return this;
     }
@@ -218,20 +216,29 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
 
     @Override
     public boolean equals(Object other) {
-        if (other == this)
+        return deepEquals(this, other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    static boolean deepEquals(Document document, Object other) {
+        if (other == document)
             return true;
 
-        if (!(other instanceof NitriteDocument))
+        if (!(other instanceof Document))
             return false;
 
-        NitriteDocument m = (NitriteDocument) other;
-        if (m.size() != size())
+        Document m = (Document) other;
+        if (m.size() != document.size())
             return false;
 
         try {
-            for (Map.Entry<String, Object> e : entrySet()) {
-                String key = e.getKey();
-                Object value = e.getValue();
+            for (Pair<String, Object> e : document) {
+                String key = e.getFirst();
+                Object value = e.getSecond();
                 if (value == null) {
                     if (!(m.get(key) == null && m.containsKey(key)))
                         return false;
@@ -248,36 +255,31 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
         return true;
     }
 
-    @Override
-    public int hashCode() {
-        return super.hashCode();
-    }
-
     @Override
     public Iterator<Pair<String, Object>> iterator() {
         return new PairIterator(super.entrySet().iterator());
     }
 
-    private Set<String> getFieldsInternal(String prefix) {
+    static Set<String> getFieldsInternal(Document document, String prefix) {
         Set<String> fields = new HashSet<>();
 
         // iterate top level keys
-        for (Pair<String, Object> entry : this) {
+        for (Pair<String, Object> entry : document) {
             // ignore the reserved fields
             if (reservedFields.contains(entry.getFirst())) continue;
 
             if (isNullOrEmpty(entry.getFirst())) continue;
 
             Object value = entry.getSecond();
-            if (value instanceof NitriteDocument) {
+            if (value instanceof Document) {
                 // if the value is a document, traverse its fields recursively,
                 // prefix would be the field name of the document
                 if (isNullOrEmpty(prefix)) {
                     // level-1 fields
-                    fields.addAll(((NitriteDocument) value).getFieldsInternal(entry.getFirst()));
+                    fields.addAll(getFieldsInternal((Document) value, entry.getFirst()));
                 } else {
                     // level-n fields, separated by field separator
-                    fields.addAll(((NitriteDocument) value).getFieldsInternal(prefix
+                    fields.addAll(getFieldsInternal((Document) value, prefix
                         + NitriteConfig.getFieldSeparator() + entry.getFirst()));
                 }
             } else {
@@ -297,35 +299,35 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
     private Object deepGet(String field) {
         if (isEmbedded(field)) {
             // for embedded field, run a deep scan
-            return getByEmbeddedKey(field);
+            return FieldPath.of(field).getValue(this, 0);
         } else {
             return null;
         }
     }
 
-    private void deepPut(String[] splits, Object value) {
-        if (splits.length == 0) {
+    private void deepPut(FieldPath path, int position, Object value) {
+        if (position >= path.size()) {
             throw new ValidationException("Invalid key provided");
         }
-        String key = splits[0];
-        if (splits.length == 1) {
+        String key = path.segment(position);
+        if (position == path.size() - 1) {
             // if last key, simply put in the current document
             put(key, value);
         } else {
             // get the object for the current level
             Object val = get(key);
 
-            // get the remaining embedded fields for next level scan
-            String[] remaining = Arrays.copyOfRange(splits, 1, splits.length);
-
             if (val instanceof NitriteDocument) {
                 // if the current level value is embedded doc, scan to the next level
-                ((NitriteDocument) val).deepPut(remaining, value);
+                ((NitriteDocument) val).deepPut(path, position + 1, value);
+            } else if (val instanceof Document) {
+                // any other document implementation resolves the remaining path itself
+                ((Document) val).put(remainingPath(path, position + 1), value);
             } else if (val == null) {
                 // if current level value is null, create a new document
                 // and try to create next level embedded doc by next level scan
                 NitriteDocument subDoc = new NitriteDocument();
-                subDoc.deepPut(remaining, value);
+                subDoc.deepPut(path, position + 1, value);
 
                 // put the newly created document in current level
                 put(key, subDoc);
@@ -333,40 +335,44 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
         }
     }
 
-    private void deepRemove(String[] splits) {
-        if (splits.length == 0) {
+    private void deepRemove(FieldPath path, int position) {
+        if (position >= path.size()) {
             throw new ValidationException("Invalid key provided");
         }
-        String key = splits[0];
-        if (splits.length == 1) {
+        String key = path.segment(position);
+        if (position == path.size() - 1) {
             // if last key, simply remove the current document
             remove(key);
         } else {
             // get the object for the current level
             Object val = get(key);
 
-            // get the remaining embedded fields for next level scan
-            String[] remaining = Arrays.copyOfRange(splits, 1, splits.length);
-
             if (val instanceof NitriteDocument) {
                 // if the current level value is embedded doc, scan to the next level
                 NitriteDocument subDoc = (NitriteDocument) val;
-                subDoc.deepRemove(remaining);
+                subDoc.deepRemove(path, position + 1);
                 if (subDoc.size() == 0) {
                     // if the next level document is an empty one
                     // remove the current level document also
                     super.remove(key);
                 }
-            } else if (val instanceof List && isInteger(splits[1])) {
+            } else if (val instanceof Document) {
+                // any other document implementation resolves the remaining path itself
+                Document subDoc = (Document) val;
+                subDoc.remove(remainingPath(path, position + 1));
+                if (subDoc.size() == 0) {
+                    super.remove(key);
+                }
+            } else if (val instanceof List && path.isIndex(position + 1)) {
                 // if the current level value is an iterable,
                 // remove the element at the next level
                 List<?> list = (List<?>) val;
-                int index = Integer.parseInt(splits[1]);
+                int index = Integer.parseInt(path.segment(position + 1));
                 Object item = list.get(index);
-                if (splits.length > 2 && item instanceof NitriteDocument) {
+                if (path.size() > position + 2 && item instanceof Document) {
                     // if there are more splits, then this is an embedded document
                     // so remove the element at the next level
-                    ((NitriteDocument) item).deepRemove(Arrays.copyOfRange(splits, 2, splits.length));
+                    removeFromItem((Document) item, path, position + 2);
                 } else {
                     // if there are no more splits, then this is a primitive value
                     // so remove the element at the next level
@@ -377,12 +383,12 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
                 // if the current level value is an array,
                 // remove the element at the next level
                 Object[] array = convertToObjectArray(val);
-                int index = Integer.parseInt(splits[1]);
+                int index = Integer.parseInt(path.segment(position + 1));
                 Object item = array[index];
-                if (splits.length > 2 && item instanceof NitriteDocument) {
+                if (path.size() > position + 2 && item instanceof Document) {
                     // if there are more splits, then this is an embedded document
                     // so remove the element at the next level
-                    ((NitriteDocument) item).deepRemove(Arrays.copyOfRange(splits, 2, splits.length));
+                    removeFromItem((Document) item, path, position + 2);
                 } else {
                     // if there are no more splits, then this is a primitive value
                     // so remove the element at the next level
@@ -398,156 +404,24 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
         }
     }
 
-    private Object getByEmbeddedKey(String embeddedKey) {
-        String regex = MessageFormat.format("\\{0}", NitriteConfig.getFieldSeparator());
-
-        // split the key
-        String[] path = embeddedKey.split(regex);
-        if (path.length < 1) {
-            return null;
-        }
-
-        // get current level value and scan to next level using remaining keys
-        return recursiveGet(get(path[0]), Arrays.copyOfRange(path, 1, path.length));
-    }
-
-    @SuppressWarnings("unchecked")
-    private Object recursiveGet(Object object, String[] remainingPath) {
-        if (object == null) {
-            return null;
-        }
-
-        if (remainingPath.length == 0) {
-            return object;
-        }
-
-        if (object instanceof Document) {
-            // if the current level value is document, scan to the next level with remaining keys
-            return recursiveGet(((Document) object).get(remainingPath[0]),
-                Arrays.copyOfRange(remainingPath, 1, remainingPath.length));
-        }
-
-        if (object.getClass().isArray()) {
-            // if the current level value is an array
-
-            // get the first key
-            String accessor = remainingPath[0];
-
-            // convert current value to object array
-            Object[] array = convertToObjectArray(object);
-
-            if (isInteger(accessor)) {
-                // if the current key is an integer
-
-                // convert the key as an integer index
-                int index = asInteger(accessor);
-
-                // check index bound
-                if (index < 0 || index >= array.length) {
-                    throw new ValidationException("Invalid index " + index + " to access item inside a document");
-                }
-
-                // get the value at the index from the array
-                // if there are remaining keys, scan to the next level
-                return recursiveGet(array[index], Arrays.copyOfRange(remainingPath, 1, remainingPath.length));
-            } else {
-                // if the current key is not an integer, then decompose the
-                // object array into a list and scan each of the element of the
-                // list using remaining keys and return a list of all returned
-                // elements from each of the list items.
-                return decompose(listOf(array), remainingPath);
-            }
-        }
-
-        if (object instanceof Iterable) {
-            // if the current level value is an iterable
-
-            // get the first key
-            String accessor = remainingPath[0];
-
-            // convert current value to object iterable
-            Iterable<Object> iterable = (Iterable<Object>) object;
-
-            // create a list from the iterable
-            List<Object> collection = Iterables.toList(iterable);
-
-            if (isInteger(accessor)) {
-                // if the current key is an integer
-
-                // convert the key as an integer index
-                int index = asInteger(accessor);
-
-                // check index bound
-                if (index < 0 || index >= collection.size()) {
-                    throw new ValidationException("Invalid index " + index + " to access item inside a document");
-                }
-
-                // get the value at the index from the list
-                // if there are remaining keys, scan to the next level
-                return recursiveGet(collection.get(index), Arrays.copyOfRange(remainingPath, 1, remainingPath.length));
-            } else {
-                // if the current key is not an integer, then decompose the
-                // list and scan each of the element of the
-                // list using remaining keys and return a list of all returned
-                // elements from each of the list items.
-                return decompose(collection, remainingPath);
-            }
-        }
-
-        // if no match found return null
-        return null;
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<Object> decompose(List<Object> collection, String[] remainingPath) {
-        Set<Object> items = new HashSet<>();
-
-        // iterate each item
-        for (Object item : collection) {
-
-            // scan the item using remaining keys
-            Object result = recursiveGet(item, remainingPath);
-
-            if (result != null) {
-                if (result instanceof Iterable) {
-                    // if the result is iterable, return everything as a list
-                    List<Object> list = Iterables.toList((Iterable<Object>) result);
-                    items.addAll(list);
-                } else if (result.getClass().isArray()) {
-                    // if the result is an array, return everything as list
-                    List<Object> list = Arrays.asList(convertToObjectArray(result));
-                    items.addAll(list);
-                } else {
-                    // if its neither a iterable not an array, return the item
-                    items.add(result);
-                }
-            }
-        }
-        return new ArrayList<>(items);
-    }
-
-    private int asInteger(String number) {
-        try {
-            // parse the string as an integer
-            return Integer.parseInt(number);
-        } catch (NumberFormatException e) {
-            // if parsing fails, return invalid integer for document access
-            return -1;
+    private static void removeFromItem(Document item, FieldPath path, int position) {
+        if (item instanceof NitriteDocument) {
+            ((NitriteDocument) item).deepRemove(path, position);
+        } else {
+            // any other document implementation resolves the remaining path itself
+            item.remove(remainingPath(path, position));
         }
     }
 
-    private boolean isInteger(String value) {
-        try {
-            // try parse the string as an integer
-            Integer.parseInt(value);
-            return true;
-        } catch (NumberFormatException e) {
-            // if parsing fails, then value is not an integer
-            return false;
+    private static String remainingPath(FieldPath path, int position) {
+        StringBuilder builder = new StringBuilder(path.segment(position));
+        for (int i = position + 1; i < path.size(); i++) {
+            builder.append(NitriteConfig.getFieldSeparator()).append(path.segment(i));
         }
+        return builder.toString();
     }
 
-    private boolean isEmbedded(String field) {
+    static boolean isEmbedded(String field) {
         // if the field contains separator character, then it is an embedded field
         return field.contains(NitriteConfig.getFieldSeparator());
     }
@@ -568,6 +442,11 @@ class NitriteDocument extends LinkedHashMap<String, Object> implements Document
         }
     }
 
+    private Object readResolve() {
+        // documents read back from a store are kept in compact form
+        return CompactDocument.compact(this);
+    }
+
     private static class PairIterator implements Iterator<Pair<String, Object>> {
         private final Iterator<Map.Entry<String, Object>> iterator;
 
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.dizitart.no2.collection.operation;
+
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.cache.CacheStats;
+import org.dizitart.no2.common.cache.TinyLfuCache;
+import org.dizitart.no2.common.meta.Attributes;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.store.NitriteStore;
+
+import java.lang.reflect.Array;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link NitriteMap} of a collection which keeps recently read documents
+ * in a bounded {@link TinyLfuCache}, so that hot documents are not read
+ * and deserialized from the store again and again.
+ * <p>
+ * Point reads go through the cache, full scans bypass it. Every write
+ * invalidates the cached document of the key.
+ * <p>
+ * A write also bumps the generation of the stripe of its key. A document
+ * loaded on a cache miss is cached only if the generation of its stripe has
+ * not changed since the load started, so a reader racing with a writer never
+ * caches the document the writer has just replaced.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class CachedDocumentMap implements NitriteMap<NitriteId, Document> {
+    private static final int GENERATION_STRIPES = 64;
+
+    private final NitriteMap<NitriteId, Document> nitriteMap;
+    private final TinyLfuCache<NitriteId, Document> cache;
+    private final AtomicLongArray generations;
+
+    CachedDocumentMap(NitriteMap<NitriteId, Document> nitriteMap, long maxSizeInBytes) {
+        this.nitriteMap = nitriteMap;
+        this.cache = new TinyLfuCache<>(maxSizeInBytes, CachedDocumentMap::estimateSize);
+        this.generations = new AtomicLongArray(GENERATION_STRIPES);
+    }
+
+    CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public boolean containsKey(NitriteId nitriteId) {
+        return cache.contains(nitriteId) || nitriteMap.containsKey(nitriteId);
+    }
+
+    @Override
+    public Document get(NitriteId nitriteId) {
+        Document document = cache.get(nitriteId);
+        if (document == null) {
+            int stripe = stripe(nitriteId);
+            long generation = generations.get(stripe);
+            document = nitriteMap.get(nitriteId);
+            cache.put(nitriteId, document, () -> generations.get(stripe) == generation);
+        }
+        return document;
+    }
+
+    @Override
+    public void clear() {
+        nitriteMap.clear();
+        invalidateAll();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return nitriteMap.isClosed();
+    }
+
+    @Override
+    public void close() {
+        invalidateAll();
+        nitriteMap.close();
+    }
+
+    @Override
+    public Iterable<Document> values() {
+        return nitriteMap.values();
+    }
+
+    @Override
+    public Iterable<NitriteId> keys() {
+        return nitriteMap.keys();
+    }
+
+    @Override
+    public Document remove(NitriteId nitriteId) {
+        Document document = nitriteMap.remove(nitriteId);
+        invalidate(nitriteId);
+        return document;
+    }
+
+    @Override
+    public void put(NitriteId nitriteId, Document document) {
+        nitriteMap.put(nitriteId, document);
+        invalidate(nitriteId);
+    }
+
+    @Override
+    public long size() {
+        return nitriteMap.size();
+    }
+
+    @Override
+    public Document putIfAbsent(NitriteId nitriteId, Document document) {
+        Document existing = nitriteMap.putIfAbsent(nitriteId, document);
+        invalidate(nitriteId);
+        return existing;
+    }
+
+    @Override
+    public NitriteId firstKey() {
+        return nitriteMap.firstKey();
+    }
+
+    @Override
+    public NitriteId lastKey() {
+        return nitriteMap.lastKey();
+    }
+
+    @Override
+    public NitriteId higherKey(NitriteId nitriteId) {
+        return nitriteMap.higherKey(nitriteId);
+    }
+
+    @Override
+    public NitriteId ceilingKey(NitriteId nitriteId) {
+        return nitriteMap.ceilingKey(nitriteId);
+    }
+
+    @Override
+    public NitriteId lowerKey(NitriteId nitriteId) {
+        return nitriteMap.lowerKey(nitriteId);
+    }
+
+    @Override
+    public NitriteId floorKey(NitriteId nitriteId) {
+        return nitriteMap.floorKey(nitriteId);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return nitriteMap.isEmpty();
+    }
+
+    @Override
+    public boolean isNaturallyOrdered() {
+        return nitriteMap.isNaturallyOrdered();
+    }
+
+    @Override
+    public NitriteStore<?> getStore() {
+        return nitriteMap.getStore();
+    }
+
+    @Override
+    public String getName() {
+        return nitriteMap.getName();
+    }
+
+    @Override
+    public RecordStream<Pair<NitriteId, Document>> entries() {
+        return nitriteMap.entries();
+    }
+
+    @Override
+    public RecordStream<Pair<NitriteId, Document>> reversedEntries() {
+        return nitriteMap.reversedEntries();
+    }
+
+    @Override
+    public void drop() {
+        invalidateAll();
+        nitriteMap.drop();
+    }
+
+    @Override
+    public boolean isDropped() {
+        return nitriteMap.isDropped();
+    }
+
+    @Override
+    public Attributes getAttributes() {
+        return nitriteMap.getAttributes();
+    }
+
+    @Override
+    public void setAttributes(Attributes attributes) {
+        nitriteMap.setAttributes(attributes);
+    }
+
+    @Override
+    public void updateLastModifiedTime() {
+        nitriteMap.updateLastModifiedTime();
+    }
+
+    private void invalidate(NitriteId nitriteId) {
+        // bump the generation first, a reader which loaded the old
+        // document either sees it or finds it invalidated afterwards
+        generations.incrementAndGet(stripe(nitriteId));
+        cache.invalidate(nitriteId);
+    }
+
+    private void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    private static int stripe(NitriteId nitriteId) {
+        int hash = nitriteId == null ? 0 : nitriteId.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    // rough estimation of the heap footprint of a deserialized value
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 8;
+        } else if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 24;
+        } else if (value instanceof NitriteId) {
+            return 64;
+        } else if (value instanceof Document) {
+            long size = 64;
+            for (Pair<String, Object> pair : (Document) value) {
+                size += 40 + estimateSize(pair.getFirst()) + estimateSize(pair.getSecond());
+            }
+            return size;
+        } else if (value instanceof Map) {
+            long size = 64;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += 40 + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+            }
+            return size;
+        } else if (value instanceof Iterable) {
+            long size = 40;
+            for (Object item : (Iterable<?>) value) {
+                size += 8 + estimateSize(item);
+            }
+            return size;
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            if (value.getClass().getComponentType().isPrimitive()) {
+                return 16 + 8L * length;
+            }
+
+            long size = 16;
+            for (int i = 0; i < length; i++) {
+                size += 8 + estimateSize(Array.get(value, i));
+            }
+            return size;
+        }
+        return 64;
+    }
+}
@@ -22,13 +22,16 @@ import org.dizitart.no2.collection.events.CollectionEventInfo;
 import org.dizitart.no2.collection.events.CollectionEventListener;
 import org.dizitart.no2.common.meta.Attributes;
 import org.dizitart.no2.common.Fields;
+import org.dizitart.no2.common.RecordStream;
 import org.dizitart.no2.common.WriteResult;
+import org.dizitart.no2.common.cache.CacheStats;
 import org.dizitart.no2.common.event.EventBus;
 import org.dizitart.no2.common.processors.Processor;
 import org.dizitart.no2.common.processors.ProcessorChain;
 import org.dizitart.no2.filters.Filter;
 import org.dizitart.no2.index.IndexDescriptor;
 import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.store.NitriteStore;
 import org.dizitart.no2.store.StoreCatalog;
 
 import java.util.Collection;
@@ -52,7 +55,12 @@ public class CollectionOperations implements AutoCloseable {
                                 NitriteConfig nitriteConfig,
                                 EventBus<CollectionEventInfo<?>, CollectionEventListener> eventBus) {
         this.collectionName = collectionName;
-        this.nitriteMap = nitriteMap;
+        // a native store transaction writes to the store directly on commit,
+        // which would leave a document cache over the collection stale
+        this.nitriteMap = nitriteConfig.getDocumentCacheSize() > 0
+            && !isTransactional(nitriteMap)
+            ? new CachedDocumentMap(nitriteMap, nitriteConfig.getDocumentCacheSize())
+            : nitriteMap;
         this.nitriteConfig = nitriteConfig;
         this.eventBus = eventBus;
         initialize();
@@ -66,6 +74,18 @@ public class CollectionOperations implements AutoCloseable {
         indexOperations.createIndex(fields, indexType);
     }
 
+    public IndexDescriptor beginOnlineIndex(Fields fields, String indexType) {
+        return indexOperations.beginOnlineIndex(fields, indexType);
+    }
+
+    public void buildOnlineIndex(IndexDescriptor indexDescriptor) {
+        indexOperations.buildOnlineIndex(indexDescriptor);
+    }
+
+    public void endOnlineIndex(IndexDescriptor indexDescriptor, boolean built) {
+        indexOperations.endOnlineIndex(indexDescriptor, built);
+    }
+
     public IndexDescriptor findIndex(Fields fields) {
         return indexOperations.findIndexDescriptor(fields);
     }
@@ -118,6 +138,24 @@ public class CollectionOperations implements AutoCloseable {
         return readOperations.getById(nitriteId);
     }
 
+    public RecordStream<Document> aggregate(Filter filter, AggregateOptions aggregateOptions,
+                                            boolean useIndexKeys) {
+        return readOperations.aggregate(filter, aggregateOptions, useIndexKeys);
+    }
+
+    public RecordStream<Object> distinct(String field, Filter filter, DistinctOptions distinctOptions,
+                                         boolean useIndexKeys) {
+        return readOperations.distinct(field, filter, distinctOptions, useIndexKeys);
+    }
+
+    public long count(Filter filter) {
+        return readOperations.count(filter);
+    }
+
+    public boolean exists(Filter filter) {
+        return readOperations.exists(filter);
+    }
+
     public void dropCollection() {
         indexOperations.dropAllIndices();
         dropNitriteMap();
@@ -127,6 +165,13 @@ public class CollectionOperations implements AutoCloseable {
         return nitriteMap.size();
     }
 
+    public CacheStats getDocumentCacheStats() {
+        if (nitriteMap instanceof CachedDocumentMap) {
+            return ((CachedDocumentMap) nitriteMap).getCacheStats();
+        }
+        return null;
+    }
+
     public Attributes getAttributes() {
         return nitriteMap != null ? nitriteMap.getAttributes() : null;
     }
@@ -166,4 +211,9 @@ public class CollectionOperations implements AutoCloseable {
         // drop the map
         nitriteMap.drop();
     }
+
+    private static boolean isTransactional(NitriteMap<NitriteId, Document> nitriteMap) {
+        NitriteStore<?> nitriteStore = nitriteMap.getStore();
+        return nitriteStore != null && nitriteStore.isTransactional();
+    }
 }
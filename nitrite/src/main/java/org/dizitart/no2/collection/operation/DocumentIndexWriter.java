@@ -89,8 +89,11 @@ class DocumentIndexWriter {
             Fields fields = indexDescriptor.getFields();
             FieldValues fieldValues = DocumentUtils.getValues(document, fields);
 
-            // if dirty index and currently indexing is not running, rebuild
-            if (indexOperations.shouldRebuildIndex(fields)) {
+            if (indexOperations.isBuildingOnline(fields)) {
+                // index is being built online, the entry will be merged at the end of the build
+                indexOperations.logIndexDelta(fields, fieldValues, false);
+            } else if (indexOperations.shouldRebuildIndex(fields)) {
+                // if dirty index and currently indexing is not running, rebuild
                 // rebuild will also take care of the current document
                 indexOperations.buildIndex(indexDescriptor, true);
             } else if (nitriteIndexer != null) {
@@ -105,8 +108,11 @@ class DocumentIndexWriter {
             Fields fields = indexDescriptor.getFields();
             FieldValues fieldValues = DocumentUtils.getValues(document, fields);
 
-            // if dirty index and currently indexing is not running, rebuild
-            if (indexOperations.shouldRebuildIndex(fields)) {
+            if (indexOperations.isBuildingOnline(fields)) {
+                // index is being built online, the entry will be merged at the end of the build
+                indexOperations.logIndexDelta(fields, fieldValues, true);
+            } else if (indexOperations.shouldRebuildIndex(fields)) {
+                // if dirty index and currently indexing is not running, rebuild
                 // rebuild will also take care of the current document
                 indexOperations.buildIndex(indexDescriptor, true);
             } else if (nitriteIndexer != null) {
@@ -17,13 +17,16 @@
 
 package org.dizitart.no2.collection.operation;
 
+import org.dizitart.no2.collection.ContinuationToken;
 import org.dizitart.no2.collection.FindOptions;
 import org.dizitart.no2.collection.FindPlan;
 import org.dizitart.no2.common.SortOrder;
 import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.exceptions.FilterException;
+import org.dizitart.no2.exceptions.ValidationException;
 import org.dizitart.no2.filters.*;
 import org.dizitart.no2.index.IndexDescriptor;
+import org.dizitart.no2.index.IndexType;
 
 import java.util.*;
 
@@ -37,11 +40,41 @@ import static org.dizitart.no2.filters.Filter.or;
  * @author Anindya Chatterjee
  */
 class FindOptimizer {
+    private final boolean orderedIndexes;
+    private final FindPlanCache findPlanCache;
+
+    FindOptimizer() {
+        this(true);
+    }
+
+    /**
+     * Instantiates a new {@link FindOptimizer}.
+     *
+     * @param orderedIndexes if the index maps iterate in the natural order of the keys
+     */
+    FindOptimizer(boolean orderedIndexes) {
+        this(orderedIndexes, null);
+    }
+
+    /**
+     * Instantiates a new {@link FindOptimizer} which reuses the filter plans
+     * of a {@link FindPlanCache}.
+     *
+     * @param orderedIndexes if the index maps iterate in the natural order of the keys
+     * @param findPlanCache  the plan cache, or <code>null</code> to plan every query
+     */
+    FindOptimizer(boolean orderedIndexes, FindPlanCache findPlanCache) {
+        this.orderedIndexes = orderedIndexes;
+        this.findPlanCache = findPlanCache;
+    }
 
     public FindPlan optimize(Filter filter,
                              FindOptions findOptions,
                              Collection<IndexDescriptor> indexDescriptors) {
-        FindPlan findPlan = createFilterPlan(indexDescriptors, filter);
+        // the find options are applied on a fresh copy of the cached filter plan
+        FindPlan findPlan = findPlanCache == null ? createFilterPlan(indexDescriptors, filter)
+            : findPlanCache.getFilterPlan(filter, f -> createFilterPlan(indexDescriptors, f));
+        readKeysetOption(findOptions, findPlan, indexDescriptors);
         readSortOption(findOptions, findPlan);
         readLimitOption(findOptions, findPlan);
 
@@ -227,9 +260,11 @@ class FindOptimizer {
                 boolean matchFound = false;
                 for (Filter filter : filters) {
                     if (filter instanceof ComparableFilter) {
-                        String filterFieldName = ((ComparableFilter) filter).getField();
-                        if (filterFieldName.equals(fieldName)) {
-                            indexedFilters.add((ComparableFilter) filter);
+                        ComparableFilter comparableFilter = (ComparableFilter) filter;
+                        String filterFieldName = comparableFilter.getField();
+                        if (filterFieldName.equals(fieldName)
+                            && comparableFilter.supportsIndexType(indexDescriptor.getIndexType())) {
+                            indexedFilters.add(comparableFilter);
                             matchFound = true;
                             break;
                         }
@@ -289,6 +324,46 @@ class FindOptimizer {
         }
     }
 
+    private void readKeysetOption(FindOptions findOptions, FindPlan findPlan,
+                                  Collection<IndexDescriptor> indexDescriptors) {
+        if (findOptions == null || !findOptions.keyset()) return;
+
+        List<Pair<String, SortOrder>> keysetOrder = findOptions.orderBy() == null
+            ? new ArrayList<>() : new ArrayList<>(findOptions.orderBy().getSortingOrders());
+        findPlan.setKeyset(true);
+        findPlan.setKeysetOrder(keysetOrder);
+
+        ContinuationToken token = null;
+        if (findOptions.after() != null) {
+            token = ContinuationToken.decode(findOptions.after());
+            if (!token.matches(keysetOrder)) {
+                throw new ValidationException("Continuation token does not match the sort order of the query");
+            }
+            findPlan.setContinuation(token);
+        }
+
+        if (orderedIndexes && keysetOrder.size() == 1 && findPlan.getSubPlans().isEmpty()
+            && findPlan.getByIdFilter() == null && findPlan.getIndexDescriptor() == null) {
+            // no index is used by the filter, so seek on the index
+            // of the sort field (if any) from the token position
+            String sortField = keysetOrder.get(0).getFirst();
+            Object value = token == null ? null : token.getValues().get(0);
+            if (value != null && !(value instanceof Comparable)) return;
+
+            for (IndexDescriptor indexDescriptor : indexDescriptors) {
+                List<String> fieldNames = indexDescriptor.getFields().getFieldNames();
+                String indexType = indexDescriptor.getIndexType();
+                if (fieldNames.size() == 1 && fieldNames.get(0).equals(sortField)
+                    && (IndexType.UNIQUE.equals(indexType) || IndexType.NON_UNIQUE.equals(indexType))) {
+                    KeysetSeekFilter seekFilter = new KeysetSeekFilter(sortField, (Comparable<?>) value, token != null);
+                    findPlan.setIndexDescriptor(indexDescriptor);
+                    findPlan.setIndexScanFilter(new IndexScanFilter(Collections.singletonList(seekFilter)));
+                    break;
+                }
+            }
+        }
+    }
+
     private void readSortOption(FindOptions findOptions, FindPlan findPlan) {
         IndexDescriptor indexDescriptor = findPlan.getIndexDescriptor();
         if (findOptions != null && findOptions.orderBy() != null) {
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection.operation;
+
+import org.dizitart.no2.collection.FindPlan;
+import org.dizitart.no2.common.cache.TinyLfuCache;
+import org.dizitart.no2.filters.*;
+import org.dizitart.no2.index.IndexDescriptor;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caches the filter plans of a collection by the shape of the filter.
+ * <p>
+ * The shape of a filter is its tree of logical filters with the type and the
+ * field of every other filter, but without any value. The optimizer only looks
+ * at the shape while choosing the indexes, so a cached plan is reused for a
+ * filter of the same shape by binding the filters of the new query in place
+ * of the old ones.
+ * </p>
+ * <p>
+ * All plans and the queryable indexes are discarded when the index version
+ * of the collection changes.
+ * </p>
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class FindPlanCache {
+    private static final int MAX_PLANS = 512;
+
+    private final TinyLfuCache<String, CachedPlan> plans;
+    private volatile IndexSnapshot indexSnapshot;
+
+    FindPlanCache() {
+        this.plans = new TinyLfuCache<>(MAX_PLANS, plan -> 1);
+    }
+
+    /**
+     * Gets the queryable indexes of the collection, they are only loaded
+     * again after the index version has changed.
+     */
+    Collection<IndexDescriptor> getIndexDescriptors(long indexVersion,
+                                                    Supplier<Collection<IndexDescriptor>> loader) {
+        IndexSnapshot snapshot = indexSnapshot;
+        if (snapshot == null || snapshot.indexVersion != indexVersion) {
+            plans.invalidateAll();
+            Collection<IndexDescriptor> indexDescriptors = loader.get();
+            snapshot = new IndexSnapshot(indexVersion, indexDescriptors == null
+                ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(indexDescriptors)));
+            indexSnapshot = snapshot;
+        }
+        return snapshot.indexDescriptors;
+    }
+
+    /**
+     * Gets the filter plan of a filter from the cache, or creates and
+     * caches it. The returned plan is never shared with another query.
+     */
+    FindPlan getFilterPlan(Filter filter, Function<Filter, FindPlan> planner) {
+        IndexSnapshot snapshot = indexSnapshot;
+        FilterShape shape = new FilterShape(filter);
+        if (snapshot == null || !shape.cacheable) {
+            return planner.apply(filter);
+        }
+
+        CachedPlan cachedPlan = plans.get(shape.key);
+        if (cachedPlan == null || cachedPlan.indexVersion != snapshot.indexVersion) {
+            FindPlan findPlan = planner.apply(filter);
+            cachedPlan = new CachedPlan(snapshot.indexVersion, shape.nodes, findPlan);
+            plans.put(shape.key, cachedPlan);
+        }
+        return cachedPlan.bind(shape.nodes);
+    }
+
+    private static class IndexSnapshot {
+        private final long indexVersion;
+        private final Collection<IndexDescriptor> indexDescriptors;
+
+        IndexSnapshot(long indexVersion, Collection<IndexDescriptor> indexDescriptors) {
+            this.indexVersion = indexVersion;
+            this.indexDescriptors = indexDescriptors;
+        }
+    }
+
+    private static class CachedPlan {
+        private final long indexVersion;
+        private final List<Filter> nodes;
+        private final FindPlan findPlan;
+
+        CachedPlan(long indexVersion, List<Filter> nodes, FindPlan findPlan) {
+            this.indexVersion = indexVersion;
+            this.nodes = nodes;
+            this.findPlan = findPlan;
+        }
+
+        FindPlan bind(List<Filter> newNodes) {
+            // the nodes of both filters are in the same pre-order
+            Map<Filter, Filter> bindings = new IdentityHashMap<>();
+            for (int i = 0; i < nodes.size(); i++) {
+                bindings.put(nodes.get(i), newNodes.get(i));
+            }
+            return bind(findPlan, bindings);
+        }
+
+        private static FindPlan bind(FindPlan template, Map<Filter, Filter> bindings) {
+            FindPlan findPlan = new FindPlan();
+            findPlan.setByIdFilter((FieldBasedFilter) bind(template.getByIdFilter(), bindings));
+            findPlan.setCollectionScanFilter(bind(template.getCollectionScanFilter(), bindings));
+            findPlan.setIndexDescriptor(template.getIndexDescriptor());
+
+            IndexScanFilter indexScanFilter = template.getIndexScanFilter();
+            if (indexScanFilter != null) {
+                List<ComparableFilter> filters = new ArrayList<>(indexScanFilter.getFilters().size());
+                for (ComparableFilter filter : indexScanFilter.getFilters()) {
+                    filters.add((ComparableFilter) bind(filter, bindings));
+                }
+                findPlan.setIndexScanFilter(new IndexScanFilter(filters));
+            }
+
+            for (FindPlan subPlan : template.getSubPlans()) {
+                findPlan.getSubPlans().add(bind(subPlan, bindings));
+            }
+            return findPlan;
+        }
+
+        private static Filter bind(Filter filter, Map<Filter, Filter> bindings) {
+            if (filter == null) return null;
+
+            Filter bound = bindings.get(filter);
+            if (bound != null) {
+                return bound;
+            }
+
+            // logical filters created by the optimizer itself
+            if (filter instanceof LogicalFilter) {
+                List<Filter> filters = ((LogicalFilter) filter).getFilters();
+                Filter[] children = new Filter[filters.size()];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = bind(filters.get(i), bindings);
+                }
+                return filter instanceof AndFilter ? Filter.and(children) : Filter.or(children);
+            }
+            return filter;
+        }
+    }
+
+    private static class FilterShape {
+        private final List<Filter> nodes;
+        private final Set<String> leafShapes;
+        private final String key;
+        private boolean cacheable;
+        private boolean repeated;
+
+        FilterShape(Filter filter) {
+            this.nodes = new ArrayList<>();
+            this.leafShapes = new HashSet<>();
+            this.cacheable = true;
+
+            StringBuilder builder = new StringBuilder();
+            append(filter, builder);
+            this.key = builder.toString();
+
+            if (cacheable && repeated) {
+                // the optimizer merges equal filters, which a cached
+                // plan can not replay for filters with other values
+                cacheable = new HashSet<>(nodes).size() == nodes.size();
+            }
+        }
+
+        private void append(Filter filter, StringBuilder builder) {
+            nodes.add(filter);
+            if (filter == null) {
+                builder.append("null");
+            } else if (filter instanceof AndFilter || filter instanceof OrFilter) {
+                builder.append(filter instanceof AndFilter ? "and(" : "or(");
+                List<Filter> filters = ((LogicalFilter) filter).getFilters();
+                for (int i = 0; i < filters.size(); i++) {
+                    if (i > 0) builder.append(',');
+                    append(filters.get(i), builder);
+                }
+                builder.append(')');
+            } else if (filter instanceof IndexScanFilter) {
+                // only created by the optimizer
+                cacheable = false;
+            } else {
+                int start = builder.length();
+                builder.append(filter.getClass().getName());
+                if (filter instanceof FieldBasedFilter) {
+                    builder.append(':').append(((FieldBasedFilter) filter).getField());
+                }
+                if (filter instanceof IndexOnlyFilter) {
+                    builder.append(':').append(((IndexOnlyFilter) filter).supportedIndexType());
+                }
+
+                if (!leafShapes.add(builder.substring(start))) {
+                    repeated = true;
+                }
+            }
+        }
+    }
+}
@@ -16,14 +16,10 @@ import org.dizitart.no2.index.IndexDescriptor;
 import org.dizitart.no2.index.NitriteIndexer;
 import org.dizitart.no2.store.NitriteMap;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.dizitart.no2.common.concurrent.ThreadPoolManager.runAsync;
 
@@ -32,11 +28,15 @@ import static org.dizitart.no2.common.concurrent.ThreadPoolManager.runAsync;
  * @since 1.0
  */
 class IndexOperations implements AutoCloseable {
+    private static final int BUILD_BATCH_SIZE = 10000;
+
     private final String collectionName;
     private final NitriteConfig nitriteConfig;
     private final NitriteMap<NitriteId, Document> nitriteMap;
     private final EventBus<CollectionEventInfo<?>, CollectionEventListener> eventBus;
     private final Map<Fields, AtomicBoolean> indexBuildTracker;
+    private final Map<Fields, Queue<IndexDelta>> onlineBuildTracker;
+    private final AtomicLong indexVersion;
     private IndexManager indexManager;
 
     IndexOperations(String collectionName, NitriteConfig nitriteConfig,
@@ -47,6 +47,8 @@ class IndexOperations implements AutoCloseable {
         this.nitriteMap = nitriteMap;
         this.eventBus = eventBus;
         this.indexBuildTracker = new ConcurrentHashMap<>();
+        this.onlineBuildTracker = new ConcurrentHashMap<>();
+        this.indexVersion = new AtomicLong();
         this.indexManager = new IndexManager(collectionName, nitriteConfig);
     }
 
@@ -56,22 +58,71 @@ class IndexOperations implements AutoCloseable {
     }
 
     void createIndex(Fields fields, String indexType) {
-        IndexDescriptor indexDescriptor = indexManager.findExactIndexDescriptor(fields);
+        IndexDescriptor indexDescriptor = prepareIndexDescriptor(fields, indexType);
+        if (indexDescriptor != null) {
+            buildIndex(indexDescriptor, false);
+        }
+    }
+
+    // must be called while holding the collection write lock, returns null
+    // if an index of the same type already exists on the fields
+    IndexDescriptor beginOnlineIndex(Fields fields, String indexType) {
+        IndexDescriptor indexDescriptor = prepareIndexDescriptor(fields, indexType);
         if (indexDescriptor == null) {
-            // if no index create index
-            indexDescriptor = indexManager.createIndexDescriptor(fields, indexType);
-        } else {
-            // if index already there check if it is of same type, if not throw exception
-            if (!indexDescriptor.getIndexType().equals(indexType)) {
-                throw new IndexingException("Index already exists on fields: " + fields
-                    + " with type " + indexDescriptor.getIndexType());
-            } else {
-                // if index is of same type, return
-                return;
+            return null;
+        }
+
+        if (!getBuildFlag(fields).compareAndSet(false, true)) {
+            throw new IndexingException("Index build already in progress on fields: " + fields);
+        }
+
+        // from now on all index writes on these fields go to the delta log
+        onlineBuildTracker.put(fields, new ConcurrentLinkedQueue<>());
+        indexVersion.incrementAndGet();
+        alert(EventType.IndexStart, fields);
+        indexManager.beginIndexing(fields);
+        return indexDescriptor;
+    }
+
+    // called without holding the collection lock, writers are free to
+    // modify the collection while the documents are being scanned
+    void buildOnlineIndex(IndexDescriptor indexDescriptor) {
+        NitriteIndexer nitriteIndexer = nitriteConfig.findIndexer(indexDescriptor.getIndexType());
+        bulkLoad(indexDescriptor, nitriteIndexer);
+    }
+
+    // must be called while holding the collection write lock
+    void endOnlineIndex(IndexDescriptor indexDescriptor, boolean built) {
+        Fields fields = indexDescriptor.getFields();
+        Queue<IndexDelta> deltaLog = onlineBuildTracker.remove(fields);
+        indexVersion.incrementAndGet();
+        boolean merged = false;
+        try {
+            if (built && deltaLog != null) {
+                mergeDeltaLog(indexDescriptor, deltaLog);
+                merged = true;
             }
+        } finally {
+            indexManager.endIndexing(fields);
+            getBuildFlag(fields).set(false);
+
+            if (!merged) {
+                // an incomplete index must never be used by the query planner
+                dropIndex(fields);
+            }
+            alert(EventType.IndexEnd, fields);
         }
+    }
 
-        buildIndex(indexDescriptor, false);
+    boolean isBuildingOnline(Fields fields) {
+        return onlineBuildTracker.containsKey(fields);
+    }
+
+    void logIndexDelta(Fields fields, FieldValues fieldValues, boolean removal) {
+        Queue<IndexDelta> deltaLog = onlineBuildTracker.get(fields);
+        if (deltaLog != null) {
+            deltaLog.add(new IndexDelta(fieldValues, removal));
+        }
     }
 
     // call to this method is already synchronized, only one thread per field
@@ -98,6 +149,7 @@ class IndexOperations implements AutoCloseable {
 
             indexManager.dropIndexDescriptor(fields);
             indexBuildTracker.remove(fields);
+            indexVersion.incrementAndGet();
         } else {
             throw new IndexingException("Index does not exist on fields: " + fields);
         }
@@ -131,6 +183,7 @@ class IndexOperations implements AutoCloseable {
         // recreate index manager to discard old native resources
         // special measure for RocksDB adapter
         indexManager = new IndexManager(collectionName, nitriteConfig);
+        indexVersion.incrementAndGet();
     }
 
     void clear() {
@@ -159,6 +212,12 @@ class IndexOperations implements AutoCloseable {
         return indexManager.getIndexDescriptors();
     }
 
+    // changes whenever an index is created or dropped, or an online
+    // build starts or ends, cached query plans are invalid after that
+    long getIndexVersion() {
+        return indexVersion.get();
+    }
+
     IndexDescriptor findIndexDescriptor(Fields field) {
         return indexManager.findExactIndexDescriptor(field);
     }
@@ -191,11 +250,7 @@ class IndexOperations implements AutoCloseable {
                 nitriteIndexer.dropIndex(indexDescriptor, nitriteConfig);
             }
 
-            for (Pair<NitriteId, Document> entry : nitriteMap.entries()) {
-                Document document = entry.getSecond();
-                FieldValues fieldValues = DocumentUtils.getValues(document, indexDescriptor.getFields());
-                nitriteIndexer.writeIndexEntry(fieldValues, indexDescriptor, nitriteConfig);
-            }
+            bulkLoad(indexDescriptor, nitriteIndexer);
         } finally {
             // remove dirty marker to denote indexing completed successfully
             // if dirty marker is found in any index, it needs to be rebuilt
@@ -205,6 +260,97 @@ class IndexOperations implements AutoCloseable {
         }
     }
 
+    private IndexDescriptor prepareIndexDescriptor(Fields fields, String indexType) {
+        IndexDescriptor indexDescriptor = indexManager.findExactIndexDescriptor(fields);
+        if (indexDescriptor == null) {
+            // if no index create index
+            indexDescriptor = indexManager.createIndexDescriptor(fields, indexType);
+            indexVersion.incrementAndGet();
+            return indexDescriptor;
+        }
+
+        // if index already there check if it is of same type, if not throw exception
+        if (!indexDescriptor.getIndexType().equals(indexType)) {
+            throw new IndexingException("Index already exists on fields: " + fields
+                + " with type " + indexDescriptor.getIndexType());
+        }
+
+        // if index is of same type, nothing to build
+        return null;
+    }
+
+    private void bulkLoad(IndexDescriptor indexDescriptor, NitriteIndexer nitriteIndexer) {
+        // field values are extracted in parallel batches on the fork-join pool,
+        // the batches are handed over to the indexer in scan order
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int maxPending = Math.max(2, pool.getParallelism() * 2);
+        Deque<Future<List<FieldValues>>> pending = new ArrayDeque<>();
+
+        List<Document> batch = new ArrayList<>(BUILD_BATCH_SIZE);
+        for (Pair<NitriteId, Document> entry : nitriteMap.entries()) {
+            batch.add(entry.getSecond());
+            if (batch.size() == BUILD_BATCH_SIZE) {
+                pending.add(pool.submit(extractTask(batch, indexDescriptor.getFields())));
+                batch = new ArrayList<>(BUILD_BATCH_SIZE);
+
+                // keep the memory bounded while the scan is ahead of the writer
+                while (pending.size() >= maxPending) {
+                    writeBatch(pending.poll(), indexDescriptor, nitriteIndexer);
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            pending.add(pool.submit(extractTask(batch, indexDescriptor.getFields())));
+        }
+
+        while (!pending.isEmpty()) {
+            writeBatch(pending.poll(), indexDescriptor, nitriteIndexer);
+        }
+    }
+
+    private Callable<List<FieldValues>> extractTask(List<Document> documents, Fields fields) {
+        return () -> {
+            List<FieldValues> fieldValues = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                fieldValues.add(DocumentUtils.getValues(document, fields));
+            }
+            return fieldValues;
+        };
+    }
+
+    private void writeBatch(Future<List<FieldValues>> future, IndexDescriptor indexDescriptor,
+                            NitriteIndexer nitriteIndexer) {
+        List<FieldValues> fieldValues;
+        try {
+            fieldValues = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexingException("Index build interrupted on fields: " + indexDescriptor.getFields(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IndexingException("Failed to build index on fields: " + indexDescriptor.getFields(), cause);
+        }
+        nitriteIndexer.writeIndexEntries(fieldValues, indexDescriptor, nitriteConfig);
+    }
+
+    private void mergeDeltaLog(IndexDescriptor indexDescriptor, Queue<IndexDelta> deltaLog) {
+        NitriteIndexer nitriteIndexer = nitriteConfig.findIndexer(indexDescriptor.getIndexType());
+
+        // the scan might or might not have seen a concurrent write, so every
+        // entry is replayed with set semantics - remove first, then add
+        IndexDelta delta;
+        while ((delta = deltaLog.poll()) != null) {
+            nitriteIndexer.removeIndexEntry(delta.fieldValues, indexDescriptor, nitriteConfig);
+            if (!delta.removal) {
+                nitriteIndexer.writeIndexEntry(delta.fieldValues, indexDescriptor, nitriteConfig);
+            }
+        }
+    }
+
     private void alert(EventType eventType, Fields field) {
         CollectionEventInfo<Fields> eventInfo = new CollectionEventInfo<>();
         eventInfo.setItem(field);
@@ -214,4 +360,14 @@ class IndexOperations implements AutoCloseable {
             eventBus.post(eventInfo);
         }
     }
+
+    private static class IndexDelta {
+        private final FieldValues fieldValues;
+        private final boolean removal;
+
+        IndexDelta(FieldValues fieldValues, boolean removal) {
+            this.fieldValues = fieldValues;
+            this.removal = removal;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.collection.operation;
+
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.filters.SortingAwareFilter;
+import org.dizitart.no2.index.IndexMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * An index scan filter for keyset pagination on an indexed sort field. It
+ * seeks to the sort key of the continuation token, including the key itself,
+ * and scans the rest of the index in the scan order. Documents with a
+ * <code>null</code> key are ordered before all other keys.
+ * <p>
+ * The filter does not select any document on its own, it only narrows down
+ * the index range, the exact position is resolved by the keyset stream.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class KeysetSeekFilter extends SortingAwareFilter {
+    private final boolean seek;
+
+    KeysetSeekFilter(String field, Comparable<?> value, boolean seek) {
+        super(field, value);
+        this.seek = seek;
+    }
+
+    @Override
+    public boolean apply(Pair<NitriteId, Document> element) {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<?> applyOnIndex(IndexMap indexMap) {
+        List<NavigableMap<Comparable<?>, Object>> subMaps = new ArrayList<>();
+        List<NitriteId> nitriteIds = new ArrayList<>();
+        Comparable value = (Comparable) getValue();
+
+        if (!seek) {
+            // first page, scan the whole index in order
+            for (Pair<Comparable<?>, ?> entry : indexMap.entries()) {
+                processIndexValue(entry.getSecond(), subMaps, nitriteIds);
+            }
+        } else if (value == null) {
+            if (isReverseScan()) {
+                // null keys are the last ones in a reverse scan
+                processIndexValue(indexMap.get(null), subMaps, nitriteIds);
+            } else {
+                for (Pair<Comparable<?>, ?> entry : indexMap.entries()) {
+                    processIndexValue(entry.getSecond(), subMaps, nitriteIds);
+                }
+            }
+        } else if (isReverseScan()) {
+            Comparable key = indexMap.floorKey(value);
+            while (key != null) {
+                processIndexValue(indexMap.get(key), subMaps, nitriteIds);
+                key = indexMap.lowerKey(key);
+            }
+            processIndexValue(indexMap.get(null), subMaps, nitriteIds);
+        } else {
+            Comparable key = indexMap.ceilingKey(value);
+            while (key != null) {
+                processIndexValue(indexMap.get(key), subMaps, nitriteIds);
+                key = indexMap.higherKey(key);
+            }
+        }
+
+        if (!subMaps.isEmpty()) {
+            return subMaps;
+        } else {
+            return nitriteIds;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "(" + getField() + " after " + getValue() + ")";
+    }
+}
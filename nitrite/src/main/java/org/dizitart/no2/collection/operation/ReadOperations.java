@@ -22,17 +22,20 @@ import org.dizitart.no2.common.RecordStream;
 import org.dizitart.no2.common.streams.*;
 import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.filters.*;
+import org.dizitart.no2.exceptions.ValidationException;
+import org.dizitart.no2.index.ComparableIndexer;
 import org.dizitart.no2.index.IndexDescriptor;
+import org.dizitart.no2.index.IndexMap;
+import org.dizitart.no2.index.IndexType;
 import org.dizitart.no2.index.NitriteIndexer;
 import org.dizitart.no2.common.processors.ProcessorChain;
 import org.dizitart.no2.store.NitriteMap;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.*;
 
 import static org.dizitart.no2.common.tuples.Pair.pair;
+import static org.dizitart.no2.common.util.ValidationUtils.notEmpty;
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
 
 /**
  * @author Anindya Chatterjee
@@ -43,6 +46,7 @@ class ReadOperations {
     private final NitriteConfig nitriteConfig;
     private final NitriteMap<NitriteId, Document> nitriteMap;
     private final FindOptimizer findOptimizer;
+    private final FindPlanCache findPlanCache;
     private final IndexOperations indexOperations;
     private final ProcessorChain processorChain;
 
@@ -55,29 +59,276 @@ class ReadOperations {
         this.nitriteConfig = nitriteConfig;
         this.collectionName = collectionName;
         this.indexOperations = indexOperations;
-        this.findOptimizer = new FindOptimizer();
+        this.findPlanCache = new FindPlanCache();
+        this.findOptimizer = new FindOptimizer(nitriteMap == null || nitriteMap.isNaturallyOrdered(), findPlanCache);
         this.processorChain = processorChain;
     }
 
     public DocumentCursor find(Filter filter, FindOptions findOptions) {
-        if (filter == null) {
-            filter = Filter.ALL;
+        FindPlan findPlan = createPlan(filter, findOptions);
+        return createCursor(findPlan);
+    }
+
+    long count(Filter filter) {
+        if (filter == null || filter == Filter.ALL) {
+            return nitriteMap.size();
         }
 
-        prepareFilter(filter);
-        Collection<IndexDescriptor> indexDescriptors = indexOperations.listIndexes();
-        FindPlan findPlan = findOptimizer.optimize(filter, findOptions, indexDescriptors);
-        return createCursor(findPlan);
+        FindPlan findPlan = createPlan(filter, null);
+        return countMatches(findPlan, Long.MAX_VALUE);
+    }
+
+    boolean exists(Filter filter) {
+        if (filter == null || filter == Filter.ALL) {
+            return !nitriteMap.isEmpty();
+        }
+
+        FindPlan findPlan = createPlan(filter, null);
+        return countMatches(findPlan, 1) > 0;
+    }
+
+    RecordStream<Document> aggregate(Filter filter, AggregateOptions aggregateOptions, boolean useIndexKeys) {
+        notNull(aggregateOptions, "aggregateOptions cannot be null");
+        if (aggregateOptions.getGroupFields().isEmpty() && aggregateOptions.getAggregates().isEmpty()) {
+            throw new ValidationException("Aggregation has no group field and no aggregate");
+        }
+        if (aggregateOptions.getHaving() != null) {
+            prepareFilter(aggregateOptions.getHaving());
+        }
+
+        RecordStream<Pair<NitriteId, Document>> groupStream = null;
+        if (useIndexKeys && (filter == null || filter == Filter.ALL)
+            && nitriteMap.isNaturallyOrdered()
+            && (processorChain == null || processorChain.isEmpty())) {
+            groupStream = indexGroupStream(aggregateOptions);
+        }
+
+        if (groupStream == null) {
+            FindPlan findPlan = createPlan(filter, null);
+            groupStream = new GroupedStream(findSuitableStream(findPlan), aggregateOptions, processorChain);
+        }
+        return new AggregateStream(groupStream, aggregateOptions);
+    }
+
+    RecordStream<Object> distinct(String field, Filter filter, DistinctOptions distinctOptions,
+                                  boolean useIndexKeys) {
+        notEmpty(field, "field cannot be empty");
+        if (distinctOptions == null) {
+            distinctOptions = DistinctOptions.distinctOptions();
+        }
+
+        if (useIndexKeys && (filter == null || filter == Filter.ALL)
+            && nitriteMap.isNaturallyOrdered()
+            && (processorChain == null || processorChain.isEmpty())) {
+            RecordStream<Object> keyStream = indexKeyStream(field, distinctOptions);
+            if (keyStream != null) {
+                return keyStream;
+            }
+        }
+
+        FindPlan findPlan = createPlan(filter, null);
+        return new DistinctValueStream(findSuitableStream(findPlan), field, distinctOptions, processorChain);
     }
 
     Document getById(NitriteId nitriteId) {
-        Document document = nitriteMap.get(nitriteId);
-        if (processorChain != null) {
+        Document document = Document.copyOnWrite(nitriteMap.get(nitriteId));
+        if (processorChain != null && !processorChain.isEmpty()) {
             document = processorChain.processAfterRead(document);
         }
         return document;
     }
 
+    private FindPlan createPlan(Filter filter, FindOptions findOptions) {
+        if (filter == null) {
+            filter = Filter.ALL;
+        }
+
+        prepareFilter(filter);
+        Collection<IndexDescriptor> indexDescriptors = queryableIndexes();
+        return findOptimizer.optimize(filter, findOptions, indexDescriptors);
+    }
+
+    private long countMatches(FindPlan findPlan, long max) {
+        Set<NitriteId> nitriteIds = coveredIds(findPlan);
+        if (nitriteIds != null) {
+            // fully answered by the indexes, no document is read
+            return Math.min(nitriteIds.size(), max);
+        }
+
+        // residual filters are checked against the stored documents, but
+        // they are neither copied nor passed through the processors
+        long count = 0;
+        RecordStream<Pair<NitriteId, Document>> recordStream = findSuitableStream(findPlan);
+        if (recordStream != null) {
+            Iterator<Pair<NitriteId, Document>> iterator = recordStream.iterator();
+            while (count < max && iterator.hasNext()) {
+                iterator.next();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Set<NitriteId> coveredIds(FindPlan findPlan) {
+        if (findPlan.getCollectionScanFilter() != null) {
+            return null;
+        }
+
+        if (!findPlan.getSubPlans().isEmpty()) {
+            // or filter, union of the ids of all sub plans
+            Set<NitriteId> nitriteIds = new HashSet<>();
+            for (FindPlan subPlan : findPlan.getSubPlans()) {
+                Set<NitriteId> subIds = coveredIds(subPlan);
+                if (subIds == null) {
+                    return null;
+                }
+                nitriteIds.addAll(subIds);
+            }
+            return nitriteIds;
+        }
+
+        if (findPlan.getByIdFilter() != null) {
+            NitriteId nitriteId = NitriteId.createId((String) findPlan.getByIdFilter().getValue());
+            return nitriteMap.containsKey(nitriteId)
+                ? Collections.singleton(nitriteId) : Collections.<NitriteId>emptySet();
+        }
+
+        IndexDescriptor indexDescriptor = findPlan.getIndexDescriptor();
+        if (indexDescriptor != null) {
+            NitriteIndexer indexer = nitriteConfig.findIndexer(indexDescriptor.getIndexType());
+            return indexer.findByFilter(findPlan, nitriteConfig);
+        }
+        return null;
+    }
+
+    private RecordStream<Pair<NitriteId, Document>> indexGroupStream(AggregateOptions aggregateOptions) {
+        Collection<IndexDescriptor> indexDescriptors = queryableIndexes();
+        if (indexDescriptors == null || indexDescriptors.isEmpty()) {
+            return null;
+        }
+
+        if (aggregateOptions.getGroupFields().isEmpty()) {
+            return indexAggregateAll(aggregateOptions, indexDescriptors);
+        }
+
+        for (IndexDescriptor indexDescriptor : indexDescriptors) {
+            List<String> indexFields = indexDescriptor.getFields().getFieldNames();
+            if (IndexGroupedStream.canAnswer(indexFields, aggregateOptions)) {
+                IndexMap indexMap = findIndexMap(indexDescriptor);
+                if (indexMap != null) {
+                    return new IndexGroupedStream(indexMap, indexFields, aggregateOptions);
+                }
+            }
+        }
+        return null;
+    }
+
+    private RecordStream<Pair<NitriteId, Document>> indexAggregateAll(AggregateOptions aggregateOptions,
+                                                                      Collection<IndexDescriptor> indexDescriptors) {
+        List<AggregateOptions.Aggregate> aggregates = aggregateOptions.getAggregates();
+        AggregateState state = new AggregateState(aggregates, new Object[0]);
+        state.addCount(nitriteMap.size());
+
+        for (int i = 0; i < aggregates.size(); i++) {
+            AggregateOptions.Aggregate aggregate = aggregates.get(i);
+            if (aggregate.getFunction() == AggregateFunction.Count) continue;
+            if (aggregate.getFunction() != AggregateFunction.Min
+                && aggregate.getFunction() != AggregateFunction.Max) {
+                return null;
+            }
+
+            // the keys of a single field index are removed with their last id,
+            // so its first and last keys are the extremes of the field
+            IndexMap indexMap = null;
+            for (IndexDescriptor indexDescriptor : indexDescriptors) {
+                if (!indexDescriptor.isCompoundIndex()
+                    && indexDescriptor.getFields().getFieldNames().get(0).equals(aggregate.getField())) {
+                    indexMap = findIndexMap(indexDescriptor);
+                    if (indexMap != null) break;
+                }
+            }
+            if (indexMap == null) {
+                return null;
+            }
+
+            if (aggregate.getFunction() == AggregateFunction.Min) {
+                Comparable<?> first = indexMap.firstKey();
+                // the first key is null if the field has null values
+                state.accept(i, first != null ? first : indexMap.higherKey(null));
+            } else {
+                state.accept(i, indexMap.lastKey());
+            }
+        }
+        return RecordStream.single(pair(null, state.toDocument(aggregateOptions.getGroupFields())));
+    }
+
+    private RecordStream<Object> indexKeyStream(String field, DistinctOptions distinctOptions) {
+        Collection<IndexDescriptor> indexDescriptors = queryableIndexes();
+        if (indexDescriptors == null || indexDescriptors.isEmpty()) {
+            return null;
+        }
+
+        // a single field index is preferred, its keys are removed with their last id
+        IndexDescriptor compoundIndex = null;
+        for (IndexDescriptor indexDescriptor : indexDescriptors) {
+            if (!indexDescriptor.getFields().getFieldNames().get(0).equals(field)) continue;
+
+            if (!indexDescriptor.isCompoundIndex()) {
+                IndexMap indexMap = findIndexMap(indexDescriptor);
+                if (indexMap != null) {
+                    return new IndexKeyStream(indexMap, distinctOptions, false);
+                }
+            } else if (compoundIndex == null) {
+                compoundIndex = indexDescriptor;
+            }
+        }
+
+        if (compoundIndex != null) {
+            IndexMap indexMap = findIndexMap(compoundIndex);
+            if (indexMap != null) {
+                return new IndexKeyStream(indexMap, distinctOptions, true);
+            }
+        }
+        return null;
+    }
+
+    private IndexMap findIndexMap(IndexDescriptor indexDescriptor) {
+        String indexType = indexDescriptor.getIndexType();
+        if (!IndexType.UNIQUE.equals(indexType) && !IndexType.NON_UNIQUE.equals(indexType)) {
+            return null;
+        }
+
+        NitriteIndexer indexer = nitriteConfig.findIndexer(indexType);
+        if (indexer instanceof ComparableIndexer) {
+            return ((ComparableIndexer) indexer).findIndexMap(indexDescriptor, nitriteConfig);
+        }
+        return null;
+    }
+
+    private Collection<IndexDescriptor> queryableIndexes() {
+        // the index list is read from the store only after an index change
+        return findPlanCache.getIndexDescriptors(indexOperations.getIndexVersion(),
+            () -> queryableIndexes(indexOperations.listIndexes()));
+    }
+
+    private Collection<IndexDescriptor> queryableIndexes(Collection<IndexDescriptor> indexDescriptors) {
+        if (indexDescriptors == null || indexDescriptors.isEmpty()) {
+            return indexDescriptors;
+        }
+
+        // an index which is being built online is not complete yet
+        List<IndexDescriptor> queryable = null;
+        for (IndexDescriptor indexDescriptor : indexDescriptors) {
+            if (indexOperations.isBuildingOnline(indexDescriptor.getFields())) {
+                if (queryable == null) {
+                    queryable = new ArrayList<>(indexDescriptors);
+                }
+                queryable.remove(indexDescriptor);
+            }
+        }
+        return queryable == null ? indexDescriptors : queryable;
+    }
+
     private void prepareFilter(Filter filter) {
         if (filter instanceof NitriteFilter) {
             NitriteFilter nitriteFilter = (NitriteFilter) filter;
@@ -113,6 +364,34 @@ class ReadOperations {
         return cursor;
     }
 
+    private boolean isKeysetById(FindPlan findPlan) {
+        return findPlan.isKeyset() && findPlan.getKeysetOrder().isEmpty();
+    }
+
+    private boolean isIndexOrdered(FindPlan findPlan) {
+        IndexDescriptor indexDescriptor = findPlan.getIndexDescriptor();
+        if (indexDescriptor == null || !nitriteMap.isNaturallyOrdered() || !findPlan.getSubPlans().isEmpty()
+            || findPlan.getKeysetOrder().isEmpty()) {
+            return false;
+        }
+
+        // only the comparable indexes are scanned in the natural key order
+        String indexType = indexDescriptor.getIndexType();
+        return (IndexType.UNIQUE.equals(indexType) || IndexType.NON_UNIQUE.equals(indexType))
+            && (findPlan.getBlockingSortOrder() == null || findPlan.getBlockingSortOrder().isEmpty());
+    }
+
+    private LinkedHashSet<NitriteId> idsAfter(Set<NitriteId> nitriteIds, ContinuationToken token) {
+        List<NitriteId> sorted = new ArrayList<>(nitriteIds.size());
+        for (NitriteId nitriteId : nitriteIds) {
+            if (token == null || nitriteId.compareTo(token.getNitriteId()) > 0) {
+                sorted.add(nitriteId);
+            }
+        }
+        Collections.sort(sorted);
+        return new LinkedHashSet<>(sorted);
+    }
+
     private RecordStream<Pair<NitriteId, Document>> findSuitableStream(FindPlan findPlan) {
         RecordStream<Pair<NitriteId, Document>> rawStream;
 
@@ -148,9 +427,17 @@ class ReadOperations {
                     // get optimized filter
                     NitriteIndexer indexer = nitriteConfig.findIndexer(indexDescriptor.getIndexType());
                     LinkedHashSet<NitriteId> nitriteIds = indexer.findByFilter(findPlan, nitriteConfig);
+                    if (isKeysetById(findPlan)) {
+                        // keyset pages without sort order are in id order
+                        nitriteIds = idsAfter(nitriteIds, findPlan.getContinuation());
+                    }
 
                     // create indexed stream from optimized filter
                     rawStream = new IndexedStream(nitriteIds, nitriteMap);
+                } else if (isKeysetById(findPlan)) {
+                    // seek to the last id of the previous page
+                    ContinuationToken token = findPlan.getContinuation();
+                    rawStream = new KeysetScanStream(nitriteMap, token == null ? null : token.getNitriteId());
                 } else {
                     rawStream = nitriteMap.entries();
                 }
@@ -163,7 +450,14 @@ class ReadOperations {
 
         // sort and bound stage
         if (rawStream != null) {
-            if (findPlan.getBlockingSortOrder() != null && !findPlan.getBlockingSortOrder().isEmpty()) {
+            if (findPlan.isKeyset()) {
+                // a scan in id order has already been positioned after the token
+                boolean scanById = isKeysetById(findPlan) && findPlan.getSubPlans().isEmpty()
+                    && findPlan.getByIdFilter() == null;
+                if (!scanById) {
+                    rawStream = new KeysetStream(findPlan, rawStream, isIndexOrdered(findPlan));
+                }
+            } else if (findPlan.getBlockingSortOrder() != null && !findPlan.getBlockingSortOrder().isEmpty()) {
                 rawStream = new SortedDocumentStream(findPlan, rawStream);
             }
 
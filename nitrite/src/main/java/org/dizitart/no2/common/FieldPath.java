@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common;
+
+import org.dizitart.no2.NitriteConfig;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.exceptions.ValidationException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.dizitart.no2.common.util.ObjectUtils.convertToObjectArray;
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
+/**
+ * Represents a pre-parsed document field path.
+ * <p>
+ * A field path is split into its segments only once using the current
+ * {@link NitriteConfig#getFieldSeparator()}, numeric segments are parsed as array
+ * indexes upfront. Resolving a compiled path against a document does not need
+ * any regular expression or string allocation.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public final class FieldPath {
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static final Map<String, FieldPath> cache = new ConcurrentHashMap<>();
+
+    private final String path;
+    private final String separator;
+    private final String[] segments;
+    private final int[] indexes;
+    private final boolean[] numeric;
+
+    private FieldPath(String path, String separator) {
+        this.path = path;
+        this.separator = separator;
+        this.segments = split(path, separator);
+        this.indexes = new int[segments.length];
+        this.numeric = new boolean[segments.length];
+
+        for (int i = 0; i < segments.length; i++) {
+            try {
+                indexes[i] = Integer.parseInt(segments[i]);
+                numeric[i] = true;
+            } catch (NumberFormatException e) {
+                indexes[i] = -1;
+            }
+        }
+    }
+
+    /**
+     * Gets the compiled field path for a field name.
+     *
+     * @param path the field name
+     * @return the field path
+     */
+    public static FieldPath of(String path) {
+        notNull(path, "path cannot be null");
+        String separator = NitriteConfig.getFieldSeparator();
+        FieldPath fieldPath = cache.get(path);
+        if (fieldPath != null && fieldPath.separator.equals(separator)) {
+            return fieldPath;
+        }
+
+        fieldPath = new FieldPath(path, separator);
+        if (cache.size() >= MAX_CACHE_SIZE) {
+            cache.clear();
+        }
+        cache.put(path, fieldPath);
+        return fieldPath;
+    }
+
+    /**
+     * Gets the field name of this path.
+     *
+     * @return the field name
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the number of segments of this path.
+     *
+     * @return the number of segments
+     */
+    public int size() {
+        return segments.length;
+    }
+
+    /**
+     * Gets the segment at the specified position.
+     *
+     * @param index the position
+     * @return the segment
+     */
+    public String segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Checks if the segment at the specified position is an array index.
+     *
+     * @param index the position
+     * @return <code>true</code> if the segment is an integer
+     */
+    public boolean isIndex(int index) {
+        return numeric[index];
+    }
+
+    /**
+     * Checks if this path points to an embedded field.
+     *
+     * @return <code>true</code> if the path contains the field separator
+     */
+    public boolean isEmbedded() {
+        return segments.length != 1 || !segments[0].equals(path);
+    }
+
+    /**
+     * Checks if this path was compiled with the current field separator.
+     *
+     * @return <code>true</code> if the path is up-to-date
+     */
+    public boolean isCurrent() {
+        return separator.equals(NitriteConfig.getFieldSeparator());
+    }
+
+    /**
+     * Resolves the value of this path in a document.
+     *
+     * @param document the document
+     * @return the value, or <code>null</code> if not found
+     */
+    public Object getValue(Document document) {
+        if (document == null) return null;
+        if (!isEmbedded() || document.containsKey(path)) {
+            return document.get(path);
+        }
+        return getValue(document, 0);
+    }
+
+    /**
+     * Resolves the value of this path in a document starting from
+     * the segment at the specified position.
+     *
+     * @param document the document
+     * @param from     the position of the first segment
+     * @return the value, or <code>null</code> if not found
+     */
+    public Object getValue(Document document, int from) {
+        if (from >= segments.length) {
+            return null;
+        }
+        return resolve(document.get(segments[from]), from + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object resolve(Object object, int position) {
+        if (object == null) {
+            return null;
+        }
+
+        if (position == segments.length) {
+            return object;
+        }
+
+        if (object instanceof Document) {
+            // if the current level value is document, scan to the next level
+            return resolve(((Document) object).get(segments[position]), position + 1);
+        }
+
+        if (object.getClass().isArray()) {
+            // if the current level value is an array
+            Object[] array = convertToObjectArray(object);
+            if (numeric[position]) {
+                int index = indexes[position];
+                if (index < 0 || index >= array.length) {
+                    throw new ValidationException("Invalid index " + index + " to access item inside a document");
+                }
+                return resolve(array[index], position + 1);
+            }
+
+            // decompose the array and scan each of its element using remaining segments
+            return decompose(Arrays.asList(array), position);
+        }
+
+        if (object instanceof Iterable) {
+            // if the current level value is an iterable
+            List<Object> collection;
+            if (object instanceof List) {
+                collection = (List<Object>) object;
+            } else {
+                collection = new ArrayList<>();
+                for (Object item : (Iterable<Object>) object) {
+                    collection.add(item);
+                }
+            }
+
+            if (numeric[position]) {
+                int index = indexes[position];
+                if (index < 0 || index >= collection.size()) {
+                    throw new ValidationException("Invalid index " + index + " to access item inside a document");
+                }
+                return resolve(collection.get(index), position + 1);
+            }
+
+            // decompose the list and scan each of its element using remaining segments
+            return decompose(collection, position);
+        }
+
+        // if no match found return null
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> decompose(List<Object> collection, int position) {
+        Set<Object> items = new HashSet<>();
+
+        for (Object item : collection) {
+            // scan the item using remaining segments
+            Object result = resolve(item, position);
+
+            if (result != null) {
+                if (result instanceof Iterable) {
+                    // if the result is iterable, return everything as a list
+                    for (Object element : (Iterable<Object>) result) {
+                        items.add(element);
+                    }
+                } else if (result.getClass().isArray()) {
+                    // if the result is an array, return everything as list
+                    items.addAll(Arrays.asList(convertToObjectArray(result)));
+                } else {
+                    // if its neither a iterable not an array, return the item
+                    items.add(result);
+                }
+            }
+        }
+        return new ArrayList<>(items);
+    }
+
+    private static String[] split(String path, String separator) {
+        if (separator.isEmpty() || !path.contains(separator)) {
+            return new String[] { path };
+        }
+
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int next;
+        while ((next = path.indexOf(separator, start)) >= 0) {
+            parts.add(path.substring(start, next));
+            start = next + separator.length();
+        }
+        parts.add(path.substring(start));
+
+        // trailing empty segments are ignored
+        int size = parts.size();
+        while (size > 0 && parts.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return parts.subList(0, size).toArray(new String[0]);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof FieldPath)) return false;
+        FieldPath fieldPath = (FieldPath) other;
+        return path.equals(fieldPath.path) && separator.equals(fieldPath.separator);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, separator);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
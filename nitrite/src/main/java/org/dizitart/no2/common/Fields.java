@@ -35,6 +35,8 @@ public class Fields implements Comparable<Fields>, Serializable {
     @Setter(AccessLevel.PACKAGE)
     protected List<String> fieldNames;
 
+    private transient List<FieldPath> fieldPaths;
+
     /**
      * Instantiates a new Fields.
      */
@@ -80,6 +82,26 @@ public class Fields implements Comparable<Fields>, Serializable {
         return Collections.unmodifiableList(fieldNames);
     }
 
+    /**
+     * Gets the compiled paths of the field names, in the same order. A
+     * <code>null</code> field name has a <code>null</code> path.
+     *
+     * @return the field paths
+     * @since 4.3.1
+     */
+    public List<FieldPath> getFieldPaths() {
+        List<FieldPath> paths = this.fieldPaths;
+        if (paths == null || !isCompiled(paths)) {
+            List<FieldPath> compiled = new ArrayList<>(fieldNames.size());
+            for (String fieldName : fieldNames) {
+                compiled.add(fieldName == null ? null : FieldPath.of(fieldName));
+            }
+            paths = Collections.unmodifiableList(compiled);
+            this.fieldPaths = paths;
+        }
+        return paths;
+    }
+
     /**
      * Check if a {@link Fields} is a subset of the current {@link Fields}.
      *
@@ -140,6 +162,22 @@ public class Fields implements Comparable<Fields>, Serializable {
         return result;
     }
 
+    private boolean isCompiled(List<FieldPath> paths) {
+        // field names can be modified by sub classes
+        if (paths.size() != fieldNames.size()) return false;
+        for (int i = 0; i < paths.size(); i++) {
+            FieldPath path = paths.get(i);
+            if (path == null) {
+                if (fieldNames.get(i) != null) return false;
+                continue;
+            }
+            if (!path.getPath().equals(fieldNames.get(i)) || !path.isCurrent()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void writeObject(ObjectOutputStream stream) throws IOException {
         stream.writeObject(fieldNames);
     }
@@ -76,6 +76,9 @@ public interface PersistentCollection<T> extends EventAware, AttributesAware, Au
      *         <li><b>_id</b> field is always indexed.</li>
      *         <li>Full-text indexing is not supported on <b>_id</b> value.</li>
      *         <li>Indexing on non-comparable value is not supported.</li>
+     *         <li>An online index build ({@link IndexOptions#isOnline()}) keeps the
+     *         collection writable during the build, but the index is not used by
+     *         queries until the build completes.</li>
      *     </ul>
      *
      * @param indexOptions index options.
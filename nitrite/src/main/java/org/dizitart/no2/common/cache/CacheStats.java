@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.dizitart.no2.common.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A point-in-time snapshot of the statistics of a {@link TinyLfuCache}.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CacheStats {
+    /**
+     * The number of lookups which found a cached value.
+     *
+     * @return the hit count.
+     */
+    private final long hitCount;
+
+    /**
+     * The number of lookups which did not find a cached value.
+     *
+     * @return the miss count.
+     */
+    private final long missCount;
+
+    /**
+     * The number of entries evicted to keep the cache within its capacity.
+     *
+     * @return the eviction count.
+     */
+    private final long evictionCount;
+
+    /**
+     * The number of entries currently in the cache.
+     *
+     * @return the entry count.
+     */
+    private final long size;
+
+    /**
+     * The estimated size of all cached entries in bytes.
+     *
+     * @return the weighted size.
+     */
+    private final long weightedSize;
+
+    /**
+     * The maximum size of the cache in bytes.
+     *
+     * @return the maximum weight.
+     */
+    private final long maxWeight;
+
+    /**
+     * Gets the ratio of lookups which found a cached value.
+     *
+     * @return the hit rate, or 0 if there was no lookup yet.
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.dizitart.no2.common.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToLongFunction;
+
+import static org.dizitart.no2.common.util.ValidationUtils.notNull;
+
+/**
+ * A bounded cache which follows the W-TinyLFU policy. The size of the cache
+ * is accounted in bytes, as estimated by a weigher function.
+ * <p>
+ * New entries are admitted into a small LRU window. An entry evicted from the
+ * window competes with the eviction candidate of the main segmented LRU and
+ * only the one accessed more frequently in the recent past stays in the cache.
+ * This keeps a hot working set cached even under large scans.
+ * <p>
+ * All operations are thread-safe. Reads do not take a lock, they are served
+ * from a concurrent map and recorded in a buffer which is replayed on the
+ * eviction policy in batches. Under heavy contention some reads may not be
+ * recorded, which only affects the eviction order.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class TinyLfuCache<K, V> {
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int AVERAGE_ENTRY_WEIGHT = 1024;
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = 64;
+    private static final int READ_BUFFER_MAX_SIZE = 1024;
+
+    private final long maxWeight;
+    private final long windowMaxWeight;
+    private final long protectedMaxWeight;
+    private final ToLongFunction<V> weigher;
+
+    private final ConcurrentHashMap<K, Node<V>> data;
+    private final Queue<K> readBuffer;
+    private final AtomicInteger readBufferSize;
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+
+    // the eviction policy, guarded by the eviction lock
+    private final ReentrantLock evictionLock;
+    private final FrequencySketch sketch;
+    private final LinkedHashMap<K, Node<V>> window;
+    private final LinkedHashMap<K, Node<V>> probation;
+    private final LinkedHashMap<K, Node<V>> protectedSegment;
+
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+    private long evictionCount;
+
+    /**
+     * Instantiates a new {@link TinyLfuCache}.
+     *
+     * @param maxWeight the maximum size of the cache in bytes
+     * @param weigher   the function to estimate the size of a value in bytes
+     */
+    public TinyLfuCache(long maxWeight, ToLongFunction<V> weigher) {
+        notNull(weigher, "weigher cannot be null");
+        this.maxWeight = Math.max(0, maxWeight);
+        this.weigher = weigher;
+        this.windowMaxWeight = Math.max(1, this.maxWeight * WINDOW_PERCENT / 100);
+        this.protectedMaxWeight = (this.maxWeight - windowMaxWeight) * PROTECTED_PERCENT / 100;
+
+        this.data = new ConcurrentHashMap<>();
+        this.readBuffer = new ConcurrentLinkedQueue<>();
+        this.readBufferSize = new AtomicInteger();
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+
+        this.evictionLock = new ReentrantLock();
+        this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, this.maxWeight / AVERAGE_ENTRY_WEIGHT));
+        this.window = new LinkedHashMap<>(16, 0.75f, true);
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Gets the cached value for the key, or <code>null</code> if not cached.
+     *
+     * @param key the key
+     * @return the cached value
+     */
+    public V get(K key) {
+        if (key == null) return null;
+
+        Node<V> node = data.get(key);
+        recordRead(key);
+
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+
+        hitCount.increment();
+        return node.value;
+    }
+
+    /**
+     * Checks if a value is cached for the key without affecting
+     * the statistics or the eviction order.
+     *
+     * @param key the key
+     * @return <code>true</code> if cached, <code>false</code> otherwise
+     */
+    public boolean contains(K key) {
+        return key != null && data.containsKey(key);
+    }
+
+    /**
+     * Caches a value for the key. A value larger than the capacity
+     * of the cache is not cached.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        put(key, value, () -> true);
+    }
+
+    /**
+     * Caches a value for the key, if the condition still holds. The condition
+     * is checked under the same lock as {@link #invalidate(Object)}, so a
+     * value loaded before a concurrent invalidation can be kept out of the
+     * cache by a condition which that invalidation has made false.
+     *
+     * @param key       the key
+     * @param value     the value
+     * @param condition the condition to check before caching
+     */
+    public void put(K key, V value, BooleanSupplier condition) {
+        if (key == null || value == null) return;
+
+        long weight = Math.max(1, weigher.applyAsLong(value));
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (!condition.getAsBoolean()) {
+                return;
+            }
+
+            invalidateInternal(key);
+            if (weight > maxWeight - windowMaxWeight) {
+                return;
+            }
+
+            Node<V> node = new Node<>(value, weight);
+            window.put(key, node);
+            data.put(key, node);
+            windowWeight += weight;
+            evictWindow();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the cached value of the key, if any.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        if (key == null) return;
+
+        evictionLock.lock();
+        try {
+            invalidateInternal(key);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all cached values.
+     */
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            windowWeight = 0;
+            probationWeight = 0;
+            protectedWeight = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Gets a snapshot of the cache statistics.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            long size = window.size() + probation.size() + protectedSegment.size();
+            long weightedSize = windowWeight + probationWeight + protectedWeight;
+            return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount, size, weightedSize, maxWeight);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void recordRead(K key) {
+        int size = readBufferSize.incrementAndGet();
+        if (size <= READ_BUFFER_MAX_SIZE) {
+            readBuffer.offer(key);
+        } else {
+            // the buffer is full, drop the read
+            readBufferSize.decrementAndGet();
+        }
+
+        if (size >= READ_BUFFER_DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        K key;
+        while ((key = readBuffer.poll()) != null) {
+            readBufferSize.decrementAndGet();
+            onAccess(key);
+        }
+    }
+
+    private void onAccess(K key) {
+        sketch.increment(key);
+
+        // an access moves the entry to the end of its segment
+        if (window.get(key) != null || protectedSegment.get(key) != null) {
+            return;
+        }
+
+        Node<V> node = probation.remove(key);
+        if (node != null) {
+            // second hit in the main segment, promote to protected
+            probationWeight -= node.weight;
+            protectedSegment.put(key, node);
+            protectedWeight += node.weight;
+            demoteProtected();
+        }
+    }
+
+    private void invalidateInternal(K key) {
+        data.remove(key);
+        Node<V> node = window.remove(key);
+        if (node != null) {
+            windowWeight -= node.weight;
+            return;
+        }
+
+        node = probation.remove(key);
+        if (node != null) {
+            probationWeight -= node.weight;
+            return;
+        }
+
+        node = protectedSegment.remove(key);
+        if (node != null) {
+            protectedWeight -= node.weight;
+        }
+    }
+
+    private void evictWindow() {
+        long mainMaxWeight = maxWeight - windowMaxWeight;
+        while (windowWeight > windowMaxWeight) {
+            Map.Entry<K, Node<V>> candidate = removeEldest(window);
+            windowWeight -= candidate.getValue().weight;
+
+            K candidateKey = candidate.getKey();
+            long candidateWeight = candidate.getValue().weight;
+            int candidateFrequency = sketch.frequency(candidateKey);
+
+            // make room in the main segment only if the candidate is
+            // more popular than every victim it is going to replace
+            while (probationWeight + protectedWeight + candidateWeight > mainMaxWeight) {
+                LinkedHashMap<K, Node<V>> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+                K victimKey = victimSegment.keySet().iterator().next();
+                if (sketch.frequency(victimKey) >= candidateFrequency) {
+                    break;
+                }
+                evict(victimSegment, victimKey);
+            }
+
+            if (probationWeight + protectedWeight + candidateWeight <= mainMaxWeight) {
+                probation.put(candidateKey, candidate.getValue());
+                probationWeight += candidateWeight;
+            } else {
+                data.remove(candidateKey);
+                evictionCount++;
+            }
+        }
+    }
+
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaxWeight && !protectedSegment.isEmpty()) {
+            Map.Entry<K, Node<V>> eldest = removeEldest(protectedSegment);
+            protectedWeight -= eldest.getValue().weight;
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationWeight += eldest.getValue().weight;
+        }
+    }
+
+    private void evict(LinkedHashMap<K, Node<V>> segment, K key) {
+        Node<V> node = segment.remove(key);
+        data.remove(key);
+        if (segment == probation) {
+            probationWeight -= node.weight;
+        } else {
+            protectedWeight -= node.weight;
+        }
+        evictionCount++;
+    }
+
+    private Map.Entry<K, Node<V>> removeEldest(LinkedHashMap<K, Node<V>> segment) {
+        Iterator<Map.Entry<K, Node<V>>> iterator = segment.entrySet().iterator();
+        Map.Entry<K, Node<V>> eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+
+    private static class Node<V> {
+        private final V value;
+        private final long weight;
+
+        Node(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -194,6 +194,12 @@ public class PluginManager implements AutoCloseable {
             loadPlugin(plugin);
         }
 
+        if (!indexerMap.containsKey(IndexType.FULL_TEXT_TRIGRAM)) {
+            log.debug("Loading nitrite trigram text indexer");
+            NitritePlugin plugin = new TrigramTextIndexer();
+            loadPlugin(plugin);
+        }
+
         if (nitriteMapper == null) {
             log.debug("Loading mappable mapper");
             NitritePlugin plugin = new SimpleNitriteMapper();
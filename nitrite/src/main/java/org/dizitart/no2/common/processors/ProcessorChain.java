@@ -41,6 +41,16 @@ public class ProcessorChain implements Processor {
         processors.remove(processor);
     }
 
+    /**
+     * Checks if there is no processor in the chain.
+     *
+     * @return <code>true</code> if the chain is empty
+     * @since 4.3.1
+     */
+    public boolean isEmpty() {
+        return processors.isEmpty();
+    }
+
     @Override
     public Document processBeforeWrite(Document document) {
         Document processed = document;
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.AggregateFunction;
+import org.dizitart.no2.collection.AggregateOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.common.FieldPath;
+import org.dizitart.no2.common.util.Comparables;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+
+import java.util.List;
+
+import static org.dizitart.no2.common.util.ObjectUtils.convertToObjectArray;
+
+/**
+ * The running state of the aggregates of a group. Sums and counts are kept
+ * in primitive arrays, one slot per aggregate, so accumulating a value does
+ * not allocate.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class AggregateState {
+    private final AggregateOptions.Aggregate[] aggregates;
+    private final Object[] groupValues;
+    private final long[] longSums;
+    private final double[] doubleSums;
+    private final boolean[] floating;
+    private final long[] valueCounts;
+    private final Comparable<?>[] extremes;
+    private long count;
+
+    /**
+     * Instantiates a new {@link AggregateState}.
+     *
+     * @param aggregates  the aggregates
+     * @param groupValues the values of the group fields
+     */
+    public AggregateState(List<AggregateOptions.Aggregate> aggregates, Object[] groupValues) {
+        int size = aggregates.size();
+        this.aggregates = aggregates.toArray(new AggregateOptions.Aggregate[0]);
+        this.groupValues = groupValues;
+        this.longSums = new long[size];
+        this.doubleSums = new double[size];
+        this.floating = new boolean[size];
+        this.valueCounts = new long[size];
+        this.extremes = new Comparable<?>[size];
+    }
+
+    /**
+     * Accumulates a document into the group.
+     *
+     * @param document   the document
+     * @param fieldPaths the paths of the aggregated fields, <code>null</code> for a count
+     */
+    public void accumulate(Document document, FieldPath[] fieldPaths) {
+        count++;
+        for (int i = 0; i < aggregates.length; i++) {
+            if (fieldPaths[i] == null) continue;
+
+            Object value = fieldPaths[i].getValue(document);
+            if (value == null) continue;
+
+            if (value instanceof Iterable) {
+                for (Object item : (Iterable<?>) value) {
+                    accept(i, item);
+                }
+            } else if (value.getClass().isArray()) {
+                for (Object item : convertToObjectArray(value)) {
+                    accept(i, item);
+                }
+            } else {
+                accept(i, value);
+            }
+        }
+    }
+
+    /**
+     * Adds to the number of documents of the group.
+     *
+     * @param documents the number of documents
+     */
+    public void addCount(long documents) {
+        count += documents;
+    }
+
+    /**
+     * Gets the number of documents of the group.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Accumulates a single value of an aggregated field.
+     *
+     * @param index the position of the aggregate
+     * @param value the value
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void accept(int index, Object value) {
+        if (value == null) return;
+
+        AggregateOptions.Aggregate aggregate = aggregates[index];
+        switch (aggregate.getFunction()) {
+            case Sum:
+            case Average:
+                if (!(value instanceof Number)) {
+                    throw new InvalidOperationException("Cannot aggregate non numeric value " + value
+                        + " of " + aggregate.getField());
+                }
+                addNumber(index, (Number) value);
+                break;
+            case Min:
+            case Max:
+                if (!(value instanceof Comparable)) {
+                    throw new InvalidOperationException("Cannot compare " + value.getClass()
+                        + " of " + aggregate.getField());
+                }
+                Comparable current = extremes[index];
+                if (current == null) {
+                    extremes[index] = (Comparable<?>) value;
+                } else {
+                    int result = Comparables.compare((Comparable) value, current);
+                    if (aggregate.getFunction() == AggregateFunction.Min ? result < 0 : result > 0) {
+                        extremes[index] = (Comparable<?>) value;
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Creates the result document of the group.
+     *
+     * @param groupFields the group fields
+     * @return the document
+     */
+    public Document toDocument(List<String> groupFields) {
+        Document document = Document.createDocument();
+        for (int i = 0; i < groupFields.size(); i++) {
+            document.put(groupFields.get(i), groupValues[i]);
+        }
+
+        for (int i = 0; i < aggregates.length; i++) {
+            document.put(aggregates[i].getAlias(), result(i));
+        }
+        return document;
+    }
+
+    private Object result(int index) {
+        switch (aggregates[index].getFunction()) {
+            case Count:
+                return count;
+            case Sum:
+                if (valueCounts[index] == 0) return null;
+                return floating[index] ? (Object) (doubleSums[index] + longSums[index]) : (Object) longSums[index];
+            case Average:
+                if (valueCounts[index] == 0) return null;
+                return (doubleSums[index] + longSums[index]) / valueCounts[index];
+            default:
+                return extremes[index];
+        }
+    }
+
+    private void addNumber(int index, Number number) {
+        valueCounts[index]++;
+        if (number instanceof Integer || number instanceof Long
+            || number instanceof Short || number instanceof Byte) {
+            long sum = longSums[index] + number.longValue();
+            if (((longSums[index] ^ sum) & (number.longValue() ^ sum)) < 0) {
+                // overflow, carry on in floating point
+                floating[index] = true;
+                doubleSums[index] += longSums[index];
+                doubleSums[index] += number.longValue();
+                longSums[index] = 0;
+            } else {
+                longSums[index] = sum;
+            }
+        } else {
+            floating[index] = true;
+            doubleSums[index] += number.doubleValue();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.AggregateOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.tuples.Pair;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The last stage of an aggregation, which filters, sorts and limits the
+ * group documents.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class AggregateStream implements RecordStream<Document> {
+    private final RecordStream<Pair<NitriteId, Document>> groupStream;
+    private final AggregateOptions aggregateOptions;
+
+    /**
+     * Instantiates a new {@link AggregateStream}.
+     *
+     * @param groupStream      the group documents
+     * @param aggregateOptions the aggregate options
+     */
+    public AggregateStream(RecordStream<Pair<NitriteId, Document>> groupStream,
+                           AggregateOptions aggregateOptions) {
+        this.groupStream = groupStream;
+        this.aggregateOptions = aggregateOptions;
+    }
+
+    @Override
+    public Iterator<Document> iterator() {
+        RecordStream<Pair<NitriteId, Document>> recordStream = groupStream;
+        if (aggregateOptions.getHaving() != null) {
+            recordStream = new FilteredStream(recordStream, aggregateOptions.getHaving());
+        }
+
+        if (aggregateOptions.getSortBy() != null) {
+            List<Pair<NitriteId, Document>> groups = new ArrayList<>();
+            for (Pair<NitriteId, Document> group : recordStream) {
+                groups.add(group);
+            }
+            groups.sort(new DocumentSorter(null, aggregateOptions.getSortBy().getSortingOrders()));
+            recordStream = RecordStream.fromIterable(groups);
+        }
+
+        if (aggregateOptions.getLimit() != null) {
+            recordStream = new BoundedStream<>(0L, aggregateOptions.getLimit(), recordStream);
+        }
+
+        Iterator<Pair<NitriteId, Document>> iterator = recordStream.iterator();
+        return new Iterator<Document>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Document next() {
+                return iterator.next().getSecond();
+            }
+        };
+    }
+}
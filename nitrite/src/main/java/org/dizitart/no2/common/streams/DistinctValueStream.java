@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.DistinctOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.FieldPath;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.processors.ProcessorChain;
+import org.dizitart.no2.common.tuples.Pair;
+
+import java.util.*;
+
+import static org.dizitart.no2.common.util.ObjectUtils.convertToObjectArray;
+
+/**
+ * A stream of the distinct non-null values of a field in a record stream.
+ * The values of array fields are unwound, the same way an index stores them.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class DistinctValueStream implements RecordStream<Object> {
+    private final RecordStream<Pair<NitriteId, Document>> recordStream;
+    private final String field;
+    private final DistinctOptions distinctOptions;
+    private final ProcessorChain processorChain;
+
+    /**
+     * Instantiates a new {@link DistinctValueStream}.
+     *
+     * @param recordStream    the stored documents
+     * @param field           the field
+     * @param distinctOptions the distinct options
+     * @param processorChain  the processors to run on the documents before reading the field
+     */
+    public DistinctValueStream(RecordStream<Pair<NitriteId, Document>> recordStream, String field,
+                               DistinctOptions distinctOptions, ProcessorChain processorChain) {
+        this.recordStream = recordStream;
+        this.field = field;
+        this.distinctOptions = distinctOptions == null ? DistinctOptions.distinctOptions() : distinctOptions;
+        this.processorChain = processorChain;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        Iterator<Pair<NitriteId, Document>> iterator = recordStream == null ? Collections.emptyIterator()
+            : recordStream.iterator();
+        return new DistinctValueIterator(iterator);
+    }
+
+    private class DistinctValueIterator implements Iterator<Object> {
+        private final Iterator<Pair<NitriteId, Document>> iterator;
+        private final FieldPath fieldPath;
+        private final boolean process;
+        private final long limit;
+        private final Set<Object> seen;
+        private final Deque<Object> pending;
+        private long count;
+
+        DistinctValueIterator(Iterator<Pair<NitriteId, Document>> iterator) {
+            this.iterator = iterator;
+            this.fieldPath = FieldPath.of(field);
+            this.process = processorChain != null && !processorChain.isEmpty();
+            Long limit = distinctOptions.getLimit();
+            this.limit = limit == null ? Long.MAX_VALUE : limit;
+            this.seen = new HashSet<>();
+            this.pending = new ArrayDeque<>();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (count >= limit) return false;
+
+            while (pending.isEmpty() && iterator.hasNext()) {
+                Document document = iterator.next().getSecond();
+                if (process) {
+                    // stored documents are read only here
+                    document = processorChain.processAfterRead(Document.copyOnWrite(document));
+                }
+                collect(fieldPath.getValue(document));
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            count++;
+            return pending.poll();
+        }
+
+        private void collect(Object value) {
+            if (value instanceof Iterable) {
+                for (Object item : (Iterable<?>) value) {
+                    offer(item);
+                }
+            } else if (value != null && value.getClass().isArray()) {
+                for (Object item : convertToObjectArray(value)) {
+                    offer(item);
+                }
+            } else {
+                offer(value);
+            }
+        }
+
+        private void offer(Object value) {
+            if (value != null && distinctOptions.accepts(value) && seen.add(value)) {
+                pending.add(value);
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.dizitart.no2.common.streams;
 import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.NitriteId;
 import org.dizitart.no2.common.DBNull;
+import org.dizitart.no2.common.FieldPath;
 import org.dizitart.no2.common.SortOrder;
 import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.exceptions.InvalidOperationException;
@@ -35,22 +36,31 @@ import java.util.List;
 public class DocumentSorter implements Comparator<Pair<NitriteId, Document>> {
     private final Collator collator;
     private final List<Pair<String, SortOrder>> sortOrder;
+    private final FieldPath[] fieldPaths;
 
     public DocumentSorter(Collator collator, List<Pair<String, SortOrder>> sortOrder) {
         this.collator = collator;
         this.sortOrder = sortOrder;
+
+        // parse the sort fields once for all comparisons
+        int size = sortOrder == null ? 0 : sortOrder.size();
+        this.fieldPaths = new FieldPath[size];
+        for (int i = 0; i < size; i++) {
+            fieldPaths[i] = FieldPath.of(sortOrder.get(i).getFirst());
+        }
     }
 
     @Override
     @SuppressWarnings({"rawtypes", "unchecked"})
     public int compare(Pair<NitriteId, Document> pair1, Pair<NitriteId, Document> pair2) {
         if (sortOrder != null && !sortOrder.isEmpty()) {
-            for (Pair<String, SortOrder> pair : sortOrder) {
+            for (int i = 0; i < sortOrder.size(); i++) {
+                Pair<String, SortOrder> pair = sortOrder.get(i);
                 Document doc1 = pair1.getSecond();
                 Document doc2 = pair2.getSecond();
 
-                Object value1 = doc1.get(pair.getFirst());
-                Object value2 = doc2.get(pair.getFirst());
+                Object value1 = fieldPaths[i].getValue(doc1);
+                Object value2 = fieldPaths[i].getValue(doc2);
 
                 // handle null values
                 int result;
@@ -19,6 +19,7 @@ package org.dizitart.no2.common.streams;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.dizitart.no2.collection.ContinuationToken;
 import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.DocumentCursor;
 import org.dizitart.no2.collection.FindPlan;
@@ -44,6 +45,8 @@ public class DocumentStream implements DocumentCursor {
     @Getter @Setter
     private FindPlan findPlan;
 
+    private volatile Pair<NitriteId, Document> lastRecord;
+
     public DocumentStream(RecordStream<Pair<NitriteId, Document>> recordStream,
                           ProcessorChain processorChain) {
         this.recordStream = recordStream;
@@ -65,7 +68,18 @@ public class DocumentStream implements DocumentCursor {
     public Iterator<Document> iterator() {
         Iterator<Pair<NitriteId, Document>> iterator = recordStream == null ? Collections.emptyIterator()
             : recordStream.iterator();
-        return new DocumentCursorIterator(iterator, processorChain);
+        return new DocumentCursorIterator(iterator);
+    }
+
+    @Override
+    public String getContinuationToken() {
+        if (findPlan == null || !findPlan.isKeyset()) {
+            throw new InvalidOperationException("Continuation token is only available for keyset pagination");
+        }
+
+        Pair<NitriteId, Document> record = lastRecord;
+        if (record == null) return null;
+        return ContinuationToken.of(findPlan.getKeysetOrder(), record.getFirst(), record.getSecond()).encode();
     }
 
     private void validateProjection(Document projection) {
@@ -84,14 +98,11 @@ public class DocumentStream implements DocumentCursor {
         }
     }
 
-    private static class DocumentCursorIterator implements Iterator<Document> {
+    private class DocumentCursorIterator implements Iterator<Document> {
         private final Iterator<Pair<NitriteId, Document>> iterator;
-        private final ProcessorChain processorChain;
 
-        DocumentCursorIterator(Iterator<Pair<NitriteId, Document>> iterator,
-                               ProcessorChain processorChain) {
+        DocumentCursorIterator(Iterator<Pair<NitriteId, Document>> iterator) {
             this.iterator = iterator;
-            this.processorChain = processorChain;
         }
 
         @Override
@@ -104,9 +115,16 @@ public class DocumentStream implements DocumentCursor {
             Pair<NitriteId, Document> next = iterator.next();
             Document document = next.getSecond();
             if (document != null) {
-                Document copy = document.clone();
-                copy = processorChain.processAfterRead(copy);
-                return copy;
+                // remember the stored document for the continuation token
+                lastRecord = next;
+
+                // hand out a copy-on-write view, the document is copied
+                // only if the caller or a processor modifies it
+                Document view = Document.copyOnWrite(document);
+                if (processorChain == null || processorChain.isEmpty()) {
+                    return view;
+                }
+                return processorChain.processAfterRead(view);
             }
             return null;
         }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.AggregateFunction;
+import org.dizitart.no2.collection.AggregateOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.FieldPath;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.processors.ProcessorChain;
+import org.dizitart.no2.common.tuples.Pair;
+
+import java.util.*;
+
+import static org.dizitart.no2.common.util.ObjectUtils.convertToObjectArray;
+
+/**
+ * A stream which groups the documents of a record stream by a hash of the
+ * group field values and emits one result document per group.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class GroupedStream implements RecordStream<Pair<NitriteId, Document>> {
+    private final RecordStream<Pair<NitriteId, Document>> recordStream;
+    private final AggregateOptions aggregateOptions;
+    private final ProcessorChain processorChain;
+
+    /**
+     * Instantiates a new {@link GroupedStream}.
+     *
+     * @param recordStream     the stored documents to group
+     * @param aggregateOptions the aggregate options
+     * @param processorChain   the processors to run on the documents before grouping
+     */
+    public GroupedStream(RecordStream<Pair<NitriteId, Document>> recordStream,
+                         AggregateOptions aggregateOptions,
+                         ProcessorChain processorChain) {
+        this.recordStream = recordStream;
+        this.aggregateOptions = aggregateOptions;
+        this.processorChain = processorChain;
+    }
+
+    @Override
+    public Iterator<Pair<NitriteId, Document>> iterator() {
+        List<String> groupFields = aggregateOptions.getGroupFields();
+        List<AggregateOptions.Aggregate> aggregates = aggregateOptions.getAggregates();
+
+        FieldPath[] groupPaths = new FieldPath[groupFields.size()];
+        for (int i = 0; i < groupPaths.length; i++) {
+            groupPaths[i] = FieldPath.of(groupFields.get(i));
+        }
+
+        FieldPath[] fieldPaths = new FieldPath[aggregates.size()];
+        for (int i = 0; i < fieldPaths.length; i++) {
+            AggregateOptions.Aggregate aggregate = aggregates.get(i);
+            if (aggregate.getFunction() != AggregateFunction.Count) {
+                fieldPaths[i] = FieldPath.of(aggregate.getField());
+            }
+        }
+
+        Collection<AggregateState> states;
+        if (groupPaths.length == 0) {
+            // a single group, no hashing at all
+            AggregateState state = new AggregateState(aggregates, new Object[0]);
+            for (Document document : documents()) {
+                state.accumulate(document, fieldPaths);
+            }
+            states = Collections.singletonList(state);
+        } else {
+            Map<Object, AggregateState> groups = new LinkedHashMap<>();
+            Set<Object> keys = new HashSet<>();
+            for (Document document : documents()) {
+                keys.clear();
+                collectKeys(document, groupPaths, 0, new Object[groupPaths.length], keys);
+                for (Object key : keys) {
+                    AggregateState state = groups.get(key);
+                    if (state == null) {
+                        state = new AggregateState(aggregates, groupValues(key, groupPaths.length));
+                        groups.put(key, state);
+                    }
+                    state.accumulate(document, fieldPaths);
+                }
+            }
+            states = groups.values();
+        }
+
+        List<Pair<NitriteId, Document>> results = new ArrayList<>(states.size());
+        for (AggregateState state : states) {
+            results.add(new Pair<>(null, state.toDocument(groupFields)));
+        }
+        return results.iterator();
+    }
+
+    private Iterable<Document> documents() {
+        if (recordStream == null) {
+            return Collections.emptyList();
+        }
+
+        boolean process = processorChain != null && !processorChain.isEmpty();
+        return () -> new Iterator<Document>() {
+            private final Iterator<Pair<NitriteId, Document>> iterator = recordStream.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Document next() {
+                Document document = iterator.next().getSecond();
+                // stored documents are read only here, copy only for the processors
+                return process ? processorChain.processAfterRead(Document.copyOnWrite(document)) : document;
+            }
+        };
+    }
+
+    private void collectKeys(Document document, FieldPath[] groupPaths, int depth,
+                             Object[] values, Set<Object> keys) {
+        if (depth == groupPaths.length) {
+            // a single group field is its own key
+            keys.add(values.length == 1 ? values[0] : new GroupKey(values.clone()));
+            return;
+        }
+
+        Object value = groupPaths[depth].getValue(document);
+        if (value instanceof Iterable) {
+            for (Object item : (Iterable<?>) value) {
+                values[depth] = item;
+                collectKeys(document, groupPaths, depth + 1, values, keys);
+            }
+        } else if (value != null && value.getClass().isArray()) {
+            for (Object item : convertToObjectArray(value)) {
+                values[depth] = item;
+                collectKeys(document, groupPaths, depth + 1, values, keys);
+            }
+        } else {
+            values[depth] = value;
+            collectKeys(document, groupPaths, depth + 1, values, keys);
+        }
+    }
+
+    private Object[] groupValues(Object key, int size) {
+        if (size == 1) {
+            return new Object[]{key};
+        }
+        return ((GroupKey) key).values;
+    }
+
+    private static class GroupKey {
+        private final Object[] values;
+        private final int hash;
+
+        GroupKey(Object[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof GroupKey)) return false;
+            GroupKey other = (GroupKey) o;
+            return hash == other.hash && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
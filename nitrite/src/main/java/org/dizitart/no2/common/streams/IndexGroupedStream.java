@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.AggregateFunction;
+import org.dizitart.no2.collection.AggregateOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.DBValue;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.index.IndexMap;
+
+import java.util.*;
+
+/**
+ * A stream which answers an aggregation from the keys of a comparable index
+ * instead of the documents. The group fields must be a prefix of the index
+ * fields, and the aggregates must be counts or the min/max of a group field
+ * or of the index field which follows the group fields.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class IndexGroupedStream implements RecordStream<Pair<NitriteId, Document>> {
+    private final IndexMap indexMap;
+    private final List<String> indexFields;
+    private final AggregateOptions aggregateOptions;
+
+    /**
+     * Instantiates a new {@link IndexGroupedStream}.
+     *
+     * @param indexMap         the index map
+     * @param indexFields      the fields of the index
+     * @param aggregateOptions the aggregate options
+     */
+    public IndexGroupedStream(IndexMap indexMap, List<String> indexFields,
+                              AggregateOptions aggregateOptions) {
+        this.indexMap = indexMap;
+        this.indexFields = indexFields;
+        this.aggregateOptions = aggregateOptions;
+    }
+
+    /**
+     * Checks if an index with the specified fields can answer an aggregation.
+     *
+     * @param indexFields      the fields of the index
+     * @param aggregateOptions the aggregate options
+     * @return <code>true</code> if the aggregation can be read from the index keys
+     */
+    public static boolean canAnswer(List<String> indexFields, AggregateOptions aggregateOptions) {
+        List<String> groupFields = aggregateOptions.getGroupFields();
+        int depth = groupFields.size();
+        if (depth == 0 || depth > indexFields.size()
+            || !indexFields.subList(0, depth).equals(groupFields)) {
+            return false;
+        }
+
+        String nextField = depth < indexFields.size() ? indexFields.get(depth) : null;
+        for (AggregateOptions.Aggregate aggregate : aggregateOptions.getAggregates()) {
+            AggregateFunction function = aggregate.getFunction();
+            if (function == AggregateFunction.Count) continue;
+            if (function != AggregateFunction.Min && function != AggregateFunction.Max) {
+                return false;
+            }
+            if (!groupFields.contains(aggregate.getField()) && !aggregate.getField().equals(nextField)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<Pair<NitriteId, Document>> iterator() {
+        List<Pair<NitriteId, Document>> results = new ArrayList<>();
+        walk(indexMap, 0, new Object[aggregateOptions.getGroupFields().size()], results);
+        return results.iterator();
+    }
+
+    private void walk(IndexMap map, int depth, Object[] groupValues,
+                      List<Pair<NitriteId, Document>> results) {
+        for (Pair<Comparable<?>, ?> entry : map.entries()) {
+            groupValues[depth] = entry.getFirst();
+            if (depth == groupValues.length - 1) {
+                Document group = aggregate(groupValues.clone(), entry.getSecond());
+                if (group != null) {
+                    results.add(new Pair<>(null, group));
+                }
+            } else if (entry.getSecond() instanceof NavigableMap) {
+                walk(subMap(entry.getSecond()), depth + 1, groupValues, results);
+            }
+        }
+    }
+
+    private Document aggregate(Object[] groupValues, Object subTree) {
+        long count = countIds(subTree);
+        if (count == 0) {
+            // an intermediate map of a compound index which has lost all its ids
+            return null;
+        }
+
+        List<String> groupFields = aggregateOptions.getGroupFields();
+        List<AggregateOptions.Aggregate> aggregates = aggregateOptions.getAggregates();
+        AggregateState state = new AggregateState(aggregates, groupValues);
+        state.addCount(count);
+
+        for (int i = 0; i < aggregates.size(); i++) {
+            AggregateOptions.Aggregate aggregate = aggregates.get(i);
+            if (aggregate.getFunction() == AggregateFunction.Count) continue;
+
+            int groupIndex = groupFields.indexOf(aggregate.getField());
+            if (groupIndex >= 0) {
+                state.accept(i, groupValues[groupIndex]);
+            } else if (subTree instanceof NavigableMap) {
+                // the next index field is in key order under this group
+                state.accept(i, firstKey(subMap(subTree),
+                    aggregate.getFunction() == AggregateFunction.Max));
+            }
+        }
+        return state.toDocument(groupFields);
+    }
+
+    private Comparable<?> firstKey(IndexMap map, boolean reverse) {
+        map.setReverseScan(reverse);
+        for (Pair<Comparable<?>, ?> entry : map.entries()) {
+            // null values are not aggregated
+            if (entry.getFirst() != null && countIds(entry.getSecond()) > 0) {
+                return entry.getFirst();
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private long countIds(Object subTree) {
+        if (subTree instanceof List) {
+            List<NitriteId> nitriteIds = (List<NitriteId>) subTree;
+            // an array value can index the same id twice under a key
+            return nitriteIds.size() <= 1 ? nitriteIds.size() : new HashSet<>(nitriteIds).size();
+        } else if (subTree instanceof NavigableMap) {
+            return new HashSet<>(subMap(subTree).getTerminalNitriteIds()).size();
+        }
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private IndexMap subMap(Object subTree) {
+        return new IndexMap((NavigableMap<DBValue, ?>) subTree);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.DistinctOptions;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.index.IndexMap;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+
+/**
+ * A stream of the distinct non-null keys of an index in ascending order.
+ * The stream seeks from key to key, so the keys outside the range of the
+ * {@link DistinctOptions} are never visited.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class IndexKeyStream implements RecordStream<Object> {
+    private final IndexMap indexMap;
+    private final DistinctOptions distinctOptions;
+    private final boolean checkEntries;
+
+    /**
+     * Instantiates a new {@link IndexKeyStream}.
+     *
+     * @param indexMap        the index map
+     * @param distinctOptions the distinct options
+     * @param checkEntries    if a key can remain in the index without any id, as
+     *                        the leading key of a compound index can
+     */
+    public IndexKeyStream(IndexMap indexMap, DistinctOptions distinctOptions, boolean checkEntries) {
+        this.indexMap = indexMap;
+        this.distinctOptions = distinctOptions == null ? DistinctOptions.distinctOptions() : distinctOptions;
+        this.checkEntries = checkEntries;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new IndexKeyIterator();
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Comparable startKey() {
+        Comparable lowerBound = distinctOptions.getLowerBound();
+        String prefix = distinctOptions.getPrefix();
+
+        Comparable key;
+        if (lowerBound != null) {
+            key = distinctOptions.isLowerInclusive() ? indexMap.ceilingKey(lowerBound)
+                : indexMap.higherKey(lowerBound);
+        } else {
+            key = indexMap.firstKey();
+            if (key == null) {
+                // null values come first in the index
+                key = indexMap.higherKey(null);
+            }
+        }
+
+        if (prefix != null && key instanceof String && ((String) key).compareTo(prefix) < 0) {
+            key = indexMap.ceilingKey(prefix);
+        }
+        return key;
+    }
+
+    private static boolean hasIds(Object value) {
+        if (value instanceof List) {
+            return !((List<?>) value).isEmpty();
+        } else if (value instanceof NavigableMap) {
+            for (Map.Entry<?, ?> entry : ((NavigableMap<?, ?>) value).entrySet()) {
+                if (hasIds(entry.getValue())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private class IndexKeyIterator implements Iterator<Object> {
+        private final long limit;
+        private Comparable<?> nextKey;
+        private boolean started;
+        private long count;
+
+        IndexKeyIterator() {
+            Long limit = distinctOptions.getLimit();
+            this.limit = limit == null ? Long.MAX_VALUE : limit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!started) {
+                started = true;
+                nextKey = count < limit ? seek(startKey()) : null;
+            }
+            return nextKey != null;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Comparable<?> key = nextKey;
+            count++;
+            nextKey = count < limit ? seek(higherKey(key)) : null;
+            return key;
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private Comparable higherKey(Comparable key) {
+            return indexMap.higherKey(key);
+        }
+
+        @SuppressWarnings({"rawtypes"})
+        private Comparable<?> seek(Comparable key) {
+            String prefix = distinctOptions.getPrefix();
+            while (key != null) {
+                if (!distinctOptions.isBelowUpperBound(key)) {
+                    return null;
+                }
+
+                if (prefix != null) {
+                    if (key instanceof String && !((String) key).startsWith(prefix)) {
+                        // string keys after the prefix range
+                        return null;
+                    }
+
+                    if (!(key instanceof String)) {
+                        key = higherKey(key);
+                        continue;
+                    }
+                }
+
+                if (!checkEntries || hasIds(indexMap.get(key))) {
+                    return key;
+                }
+                key = higherKey(key);
+            }
+            return null;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.store.NitriteMap;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
@@ -48,6 +49,7 @@ public class IndexedStream implements RecordStream<Pair<NitriteId, Document>> {
     private static class IndexedStreamIterator implements Iterator<Pair<NitriteId, Document>> {
         private final Iterator<NitriteId> iterator;
         private final NitriteMap<NitriteId, Document> nitriteMap;
+        private Pair<NitriteId, Document> nextPair;
 
         IndexedStreamIterator(Iterator<NitriteId> iterator,
                               NitriteMap<NitriteId, Document> nitriteMap) {
@@ -57,14 +59,35 @@ public class IndexedStream implements RecordStream<Pair<NitriteId, Document>> {
 
         @Override
         public boolean hasNext() {
-            return iterator.hasNext();
+            if (nextPair == null) {
+                nextMatch();
+            }
+            return nextPair != null;
         }
 
         @Override
         public Pair<NitriteId, Document> next() {
-            NitriteId id = iterator.next();
-            Document document = nitriteMap.get(id);
-            return new Pair<>(id, document);
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Pair<NitriteId, Document> pair = nextPair;
+            nextPair = null;
+            return pair;
+        }
+
+        private void nextMatch() {
+            while (iterator.hasNext()) {
+                NitriteId id = iterator.next();
+                Document document = nitriteMap.get(id);
+
+                // an index read outside a snapshot can point to a
+                // document which is not visible yet, skip it
+                if (document != null) {
+                    nextPair = new Pair<>(id, document);
+                    return;
+                }
+            }
         }
     }
 }
@@ -97,10 +97,11 @@ public class JoinedDocumentStream implements RecordStream<Document> {
             Pair<NitriteId, Document> next = iterator.next();
             Document document = next.getSecond();
             if (document != null) {
-                Document unprocessed = document.clone();
+                Document unprocessed = Document.copyOnWrite(document);
 
                 // process the document
-                Document processed = processorChain.processAfterRead(unprocessed);
+                Document processed = processorChain == null || processorChain.isEmpty()
+                    ? unprocessed : processorChain.processAfterRead(unprocessed);
                 return join(processed, foreignCursor, lookup);
             }
             return null;
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A stream of all documents of a collection in the key order of the
+ * collection map, starting after a {@link NitriteId}. It seeks to the
+ * position in the map instead of iterating over the preceding documents.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class KeysetScanStream implements RecordStream<Pair<NitriteId, Document>> {
+    private final NitriteMap<NitriteId, Document> nitriteMap;
+    private final NitriteId after;
+
+    /**
+     * Instantiates a new {@link KeysetScanStream}.
+     *
+     * @param nitriteMap the collection map
+     * @param after      the id to start after, or <code>null</code> to start from the first document
+     */
+    public KeysetScanStream(NitriteMap<NitriteId, Document> nitriteMap, NitriteId after) {
+        this.nitriteMap = nitriteMap;
+        this.after = after;
+    }
+
+    @Override
+    public Iterator<Pair<NitriteId, Document>> iterator() {
+        return new KeysetScanIterator();
+    }
+
+    private class KeysetScanIterator implements Iterator<Pair<NitriteId, Document>> {
+        private NitriteId nextKey;
+        private boolean started;
+
+        @Override
+        public boolean hasNext() {
+            if (!started) {
+                nextKey = after == null ? nitriteMap.firstKey() : nitriteMap.higherKey(after);
+                started = true;
+            }
+            return nextKey != null;
+        }
+
+        @Override
+        public Pair<NitriteId, Document> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            NitriteId key = nextKey;
+            nextKey = nitriteMap.higherKey(key);
+            return new Pair<>(key, nitriteMap.get(key));
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.ContinuationToken;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.FindPlan;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.DBNull;
+import org.dizitart.no2.common.FieldPath;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.SortOrder;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.common.util.Comparables;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+
+import java.text.Collator;
+import java.util.*;
+
+/**
+ * A stream of documents in the order of a keyset pagination. The documents
+ * are ordered by the keyset sort order of the {@link FindPlan} and then by
+ * their ids, and only the documents after the continuation token of the
+ * plan are returned.
+ * <p>
+ * If the underlying stream is already in the sort order, like an index
+ * scan, only the runs of documents with equal sort keys are ordered by
+ * id. Otherwise all documents are sorted, keeping only the top
+ * <code>skip + limit</code> documents in memory if the plan is bounded.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+public class KeysetStream implements RecordStream<Pair<NitriteId, Document>> {
+    private final FindPlan findPlan;
+    private final RecordStream<Pair<NitriteId, Document>> recordStream;
+    private final boolean presorted;
+
+    /**
+     * Instantiates a new {@link KeysetStream}.
+     *
+     * @param findPlan     the find plan
+     * @param recordStream the underlying stream
+     * @param presorted    if the underlying stream is in the sort order of the plan
+     */
+    public KeysetStream(FindPlan findPlan,
+                        RecordStream<Pair<NitriteId, Document>> recordStream,
+                        boolean presorted) {
+        this.findPlan = findPlan;
+        this.recordStream = recordStream;
+        this.presorted = presorted;
+    }
+
+    @Override
+    public Iterator<Pair<NitriteId, Document>> iterator() {
+        if (recordStream == null) return Collections.emptyIterator();
+
+        List<Pair<String, SortOrder>> sortOrder = findPlan.getKeysetOrder() == null
+            ? Collections.emptyList() : findPlan.getKeysetOrder();
+
+        // an index scan is ordered by the natural order of the keys
+        KeysetComparator comparator = new KeysetComparator(sortOrder,
+            presorted ? null : findPlan.getCollator());
+
+        ContinuationToken token = findPlan.getContinuation();
+        Entry after = token == null ? null
+            : new Entry(null, token.getNitriteId(), token.getValues().toArray());
+
+        if (presorted) {
+            return new RunIterator(recordStream.iterator(), comparator, after);
+        }
+        return sort(comparator, after).iterator();
+    }
+
+    private List<Pair<NitriteId, Document>> sort(KeysetComparator comparator, Entry after) {
+        long bound = Long.MAX_VALUE;
+        if (findPlan.getLimit() != null) {
+            long skip = findPlan.getSkip() == null ? 0 : findPlan.getSkip();
+            bound = findPlan.getLimit() + skip < 0 ? Long.MAX_VALUE : findPlan.getLimit() + skip;
+        }
+
+        List<Entry> entries;
+        if (bound < Integer.MAX_VALUE) {
+            // keep only the first entries of the page in a max heap
+            int size = (int) bound;
+            PriorityQueue<Entry> heap = new PriorityQueue<>(Math.max(1, Math.min(size, 1024)),
+                Collections.reverseOrder(comparator));
+            for (Pair<NitriteId, Document> record : recordStream) {
+                Entry entry = comparator.entry(record);
+                if (entry == null || (after != null && comparator.compare(entry, after) <= 0)) continue;
+
+                if (heap.size() < size) {
+                    heap.add(entry);
+                } else if (size > 0 && comparator.compare(entry, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            }
+            entries = new ArrayList<>(heap);
+        } else {
+            entries = new ArrayList<>();
+            for (Pair<NitriteId, Document> record : recordStream) {
+                Entry entry = comparator.entry(record);
+                if (entry == null || (after != null && comparator.compare(entry, after) <= 0)) continue;
+                entries.add(entry);
+            }
+        }
+
+        entries.sort(comparator);
+        List<Pair<NitriteId, Document>> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            result.add(entry.record);
+        }
+        return result;
+    }
+
+    private static class Entry {
+        private final Pair<NitriteId, Document> record;
+        private final NitriteId nitriteId;
+        private final Object[] keys;
+
+        Entry(Pair<NitriteId, Document> record, NitriteId nitriteId, Object[] keys) {
+            this.record = record;
+            this.nitriteId = nitriteId;
+            this.keys = keys;
+        }
+    }
+
+    private static class KeysetComparator implements Comparator<Entry> {
+        private final FieldPath[] fieldPaths;
+        private final boolean[] descending;
+        private final Collator collator;
+
+        KeysetComparator(List<Pair<String, SortOrder>> sortOrder, Collator collator) {
+            this.collator = collator;
+            this.fieldPaths = new FieldPath[sortOrder.size()];
+            this.descending = new boolean[sortOrder.size()];
+            for (int i = 0; i < sortOrder.size(); i++) {
+                fieldPaths[i] = FieldPath.of(sortOrder.get(i).getFirst());
+                descending[i] = sortOrder.get(i).getSecond() == SortOrder.Descending;
+            }
+        }
+
+        Entry entry(Pair<NitriteId, Document> record) {
+            Document document = record.getSecond();
+            if (document == null) return null;
+
+            Object[] keys = new Object[fieldPaths.length];
+            for (int i = 0; i < fieldPaths.length; i++) {
+                keys[i] = fieldPaths[i].getValue(document);
+            }
+            return new Entry(record, record.getFirst(), keys);
+        }
+
+        @Override
+        public int compare(Entry entry1, Entry entry2) {
+            int result = compareKeys(entry1, entry2);
+            if (result != 0) return result;
+            return entry1.nitriteId.compareTo(entry2.nitriteId);
+        }
+
+        int compareKeys(Entry entry1, Entry entry2) {
+            for (int i = 0; i < fieldPaths.length; i++) {
+                int result = compareValues(entry1.keys[i], entry2.keys[i]);
+                if (result != 0) {
+                    return descending[i] ? -result : result;
+                }
+            }
+            return 0;
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private int compareValues(Object value1, Object value2) {
+            boolean null1 = value1 == null || value1 instanceof DBNull;
+            boolean null2 = value2 == null || value2 instanceof DBNull;
+            if (null1 || null2) {
+                // null values come first
+                return null1 == null2 ? 0 : (null1 ? -1 : 1);
+            }
+
+            if (!(value1 instanceof Comparable) || !(value2 instanceof Comparable)) {
+                throw new InvalidOperationException("Cannot compare " + value1.getClass()
+                    + " and " + value2.getClass());
+            }
+
+            if (collator != null && value1 instanceof String && value2 instanceof String) {
+                return collator.compare(value1, value2);
+            }
+            return Comparables.compare((Comparable) value1, (Comparable) value2);
+        }
+    }
+
+    private static class RunIterator implements Iterator<Pair<NitriteId, Document>> {
+        private final Iterator<Pair<NitriteId, Document>> iterator;
+        private final KeysetComparator comparator;
+        private final Deque<Entry> run;
+        private Entry after;
+        private Entry pending;
+
+        RunIterator(Iterator<Pair<NitriteId, Document>> iterator,
+                    KeysetComparator comparator, Entry after) {
+            this.iterator = iterator;
+            this.comparator = comparator;
+            this.after = after;
+            this.run = new ArrayDeque<>();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (run.isEmpty()) {
+                if (!nextRun()) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Pair<NitriteId, Document> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return run.poll().record;
+        }
+
+        private boolean nextRun() {
+            Entry first = pending != null ? pending : nextEntry();
+            pending = null;
+            if (first == null) return false;
+
+            // collect the documents with equal sort keys and order them by id
+            List<Entry> entries = new ArrayList<>();
+            entries.add(first);
+            Entry entry;
+            while ((entry = nextEntry()) != null) {
+                if (comparator.compareKeys(first, entry) != 0) {
+                    pending = entry;
+                    break;
+                }
+                entries.add(entry);
+            }
+            entries.sort(comparator);
+
+            for (Entry candidate : entries) {
+                if (after == null || comparator.compare(candidate, after) > 0) {
+                    run.add(candidate);
+                }
+            }
+
+            if (!run.isEmpty()) {
+                // the stream is ordered, everything else is after the token
+                after = null;
+            }
+            return true;
+        }
+
+        private Entry nextEntry() {
+            while (iterator.hasNext()) {
+                Entry entry = comparator.entry(iterator.next());
+                if (entry != null) return entry;
+            }
+            return null;
+        }
+    }
+}
@@ -77,7 +77,8 @@ public class ProjectedDocumentStream implements RecordStream<Document> {
 
         @Override
         public Document next() {
-            Document returnValue = nextElement.clone();
+            // projected document is a new document, no need to copy it again
+            Document returnValue = nextElement;
             nextMatch();
             return returnValue;
         }
@@ -87,7 +88,7 @@ public class ProjectedDocumentStream implements RecordStream<Document> {
                 Pair<NitriteId, Document> next = iterator.next();
                 Document document = next.getSecond();
                 if (document != null) {
-                    Document projected = project(document.clone());
+                    Document projected = project(Document.copyOnWrite(document));
                     if (projected != null) {
                         nextElement = projected;
                         return;
@@ -115,7 +116,9 @@ public class ProjectedDocumentStream implements RecordStream<Document> {
             }
 
             // process the result
-            newDoc = processorChain.processAfterRead(newDoc);
+            if (processorChain != null && !processorChain.isEmpty()) {
+                newDoc = processorChain.processAfterRead(newDoc);
+            }
             return newDoc;
         }
     }
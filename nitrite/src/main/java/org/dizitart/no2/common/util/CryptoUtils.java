@@ -17,10 +17,12 @@
 
 package org.dizitart.no2.common.util;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
@@ -31,10 +33,12 @@ import java.security.spec.KeySpec;
  * @author Anindya Chatterjee
  */
 public class CryptoUtils {
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
 
     public static byte[] getRandomNonce(int numBytes) {
         byte[] nonce = new byte[numBytes];
-        new SecureRandom().nextBytes(nonce);
+        RANDOM.nextBytes(nonce);
         return nonce;
     }
 
@@ -47,4 +51,47 @@ public class CryptoUtils {
         KeySpec spec = new PBEKeySpec(password, salt, 65536, 256);
         return new SecretKeySpec(factory.generateSecret(spec).getEncoded(), "AES");
     }
+
+    /**
+     * Derives a key from a secret key using HKDF with HMAC-SHA256 (RFC 5869).
+     * Unlike PBKDF2 it is cheap, so it is meant for deriving many keys
+     * from one strong master key, not for deriving a key from a password.
+     *
+     * @param key    the master key
+     * @param salt   the salt
+     * @param info   the context information
+     * @param length the length of the derived key in bytes, at most 8160
+     * @return the derived key bytes
+     * @throws NoSuchAlgorithmException if HMAC-SHA256 is not available
+     * @throws InvalidKeyException      if the master key is invalid
+     * @since 4.3.1
+     */
+    public static byte[] hkdf(byte[] key, byte[] salt, byte[] info, int length)
+        throws NoSuchAlgorithmException, InvalidKeyException {
+        Mac mac = Mac.getInstance(HMAC_SHA256);
+
+        // extract
+        byte[] extractSalt = salt == null || salt.length == 0 ? new byte[mac.getMacLength()] : salt;
+        mac.init(new SecretKeySpec(extractSalt, HMAC_SHA256));
+        byte[] prk = mac.doFinal(key);
+
+        // expand
+        mac.init(new SecretKeySpec(prk, HMAC_SHA256));
+        byte[] result = new byte[length];
+        byte[] block = new byte[0];
+        int offset = 0;
+        for (int i = 1; offset < length; i++) {
+            mac.update(block);
+            if (info != null) {
+                mac.update(info);
+            }
+            mac.update((byte) i);
+            block = mac.doFinal();
+
+            int size = Math.min(block.length, length - offset);
+            System.arraycopy(block, 0, result, offset, size);
+            offset += size;
+        }
+        return result;
+    }
 }
@@ -17,6 +17,7 @@
 package org.dizitart.no2.common.util;
 
 import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.common.FieldPath;
 import org.dizitart.no2.common.FieldValues;
 import org.dizitart.no2.common.Fields;
 import org.dizitart.no2.common.tuples.Pair;
@@ -70,9 +71,13 @@ public class DocumentUtils {
         fieldValues.setFields(fields);
         fieldValues.setValues(new ArrayList<>());
 
-        for (String field : fields.getFieldNames()) {
-            Object value = document.get(field);
-            fieldValues.getValues().add(new Pair<>(field, value));
+        for (FieldPath fieldPath : fields.getFieldPaths()) {
+            if (fieldPath == null) {
+                fieldValues.getValues().add(new Pair<>(null, document.get(null)));
+                continue;
+            }
+            Object value = fieldPath.getValue(document);
+            fieldValues.getValues().add(new Pair<>(fieldPath.getPath(), value));
         }
 
         return fieldValues;
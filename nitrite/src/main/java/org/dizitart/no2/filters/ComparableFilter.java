@@ -51,6 +51,17 @@ public abstract class ComparableFilter extends FieldBasedFilter {
         return (Comparable) getValue();
     }
 
+    /**
+     * Checks if this filter can be evaluated on an index of the given type.
+     *
+     * @param indexType the index type
+     * @return <code>true</code> if the index can be used for this filter
+     * @since 4.3.1
+     */
+    public boolean supportsIndexType(String indexType) {
+        return true;
+    }
+
     /**
      * Apply this filter on a nitrite index.
      *
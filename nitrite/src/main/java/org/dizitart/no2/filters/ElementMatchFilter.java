@@ -18,6 +18,7 @@ package org.dizitart.no2.filters;
 
 import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.FieldPath;
 import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.exceptions.FilterException;
 
@@ -37,6 +38,7 @@ import static org.dizitart.no2.common.util.ObjectUtils.deepEquals;
  */
 class ElementMatchFilter extends NitriteFilter {
     private final String field;
+    private transient FieldPath fieldPath;
     private final Filter elementFilter;
 
     ElementMatchFilter(String field, Filter elementFilter) {
@@ -56,7 +58,13 @@ class ElementMatchFilter extends NitriteFilter {
         }
 
         Document document = element.getSecond();
-        Object fieldValue = document.get(field);
+        FieldPath path = fieldPath;
+        if (path == null || !path.isCurrent()) {
+            path = FieldPath.of(field);
+            fieldPath = path;
+        }
+
+        Object fieldValue = path.getValue(document);
         if (fieldValue == null) {
             return false;
         }
@@ -20,7 +20,11 @@ import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.FieldPath;
 import org.dizitart.no2.common.mapper.NitriteMapper;
 import org.dizitart.no2.exceptions.ValidationException;
 
@@ -47,6 +51,11 @@ public abstract class FieldBasedFilter extends NitriteFilter {
     @Getter(AccessLevel.NONE)
     private boolean processed = false;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient FieldPath fieldPath;
+
     /**
      * Instantiates a new Field based filter.
      *
@@ -80,6 +89,25 @@ public abstract class FieldBasedFilter extends NitriteFilter {
         return value;
     }
 
+    /**
+     * Gets the value of the filter field from a document. The field
+     * path is parsed only once and reused for every document.
+     *
+     * @param document the document
+     * @return the value of the field
+     * @since 4.3.1
+     */
+    protected Object getFieldValue(Document document) {
+        if (field == null) return null;
+
+        FieldPath path = fieldPath;
+        if (path == null || !path.getPath().equals(field) || !path.isCurrent()) {
+            path = FieldPath.of(field);
+            fieldPath = path;
+        }
+        return path.getValue(document);
+    }
+
     /**
      * Validates the search term for a given field and value.
      *
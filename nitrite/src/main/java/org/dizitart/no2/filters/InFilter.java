@@ -40,7 +40,7 @@ class InFilter extends ComparableArrayFilter {
     @Override
     public boolean apply(Pair<NitriteId, Document> element) {
         Document document = element.getSecond();
-        Object fieldValue = document.get(getField());
+        Object fieldValue = getFieldValue(document);
 
         if (fieldValue instanceof Comparable) {
             Comparable<?> comparable = (Comparable<?>) fieldValue;
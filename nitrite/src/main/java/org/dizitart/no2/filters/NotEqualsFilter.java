@@ -22,7 +22,7 @@ class NotEqualsFilter extends ComparableFilter {
     @Override
     public boolean apply(Pair<NitriteId, Document> element) {
         Document document = element.getSecond();
-        Object fieldValue = document.get(getField());
+        Object fieldValue = getFieldValue(document);
         return !deepEquals(fieldValue, getValue());
     }
 
@@ -20,25 +20,33 @@ import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.NitriteId;
 import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.exceptions.FilterException;
+import org.dizitart.no2.index.IndexMap;
+import org.dizitart.no2.index.IndexType;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * @author Anindya Chatterjee
  */
-class RegexFilter extends FieldBasedFilter {
+class RegexFilter extends StringFilter {
     private final Pattern pattern;
+    private final List<String> prefixes;
 
     RegexFilter(String field, String value) {
         super(field, value);
         pattern = Pattern.compile(value);
+        prefixes = RegexPrefixes.extract(value);
     }
 
     @Override
     public boolean apply(Pair<NitriteId, Document> element) {
         Document document = element.getSecond();
-        Object fieldValue = document.get(getField());
+        Object fieldValue = getFieldValue(document);
         if (fieldValue != null) {
             if (fieldValue instanceof String) {
                 Matcher matcher = pattern.matcher((String) fieldValue);
@@ -53,6 +61,65 @@ class RegexFilter extends FieldBasedFilter {
         return false;
     }
 
+    @Override
+    public boolean supportsIndexType(String indexType) {
+        return IndexType.UNIQUE.equals(indexType) || IndexType.NON_UNIQUE.equals(indexType);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<?> applyOnIndex(IndexMap indexMap) {
+        List<NavigableMap<Comparable<?>, Object>> subMaps = new ArrayList<>();
+        List<NitriteId> nitriteIds = new ArrayList<>();
+
+        if (!prefixes.isEmpty() && indexMap.isNaturallyOrdered()) {
+            // all matches start with one of the prefixes, so only scan the
+            // key ranges of the prefixes and run the regex on those keys
+            List<Object> values = new ArrayList<>();
+            for (String prefix : prefixes) {
+                Comparable key = indexMap.ceilingKey((Comparable) prefix);
+                while (key instanceof String && ((String) key).startsWith(prefix)) {
+                    if (matches(key)) {
+                        values.add(indexMap.get(key));
+                    }
+                    key = indexMap.higherKey(key);
+                }
+            }
+
+            if (indexMap.isReverseScan()) {
+                Collections.reverse(values);
+            }
+
+            for (Object value : values) {
+                processIndexValue(value, subMaps, nitriteIds);
+            }
+        } else {
+            // run the regex on the index keys instead of the documents
+            for (Pair<Comparable<?>, ?> entry : indexMap.entries()) {
+                if (matches(entry.getFirst())) {
+                    processIndexValue(entry.getSecond(), subMaps, nitriteIds);
+                }
+            }
+        }
+
+        if (!subMaps.isEmpty()) {
+            // if sub-map is populated then filtering on compound index, return sub-map
+            return subMaps;
+        } else {
+            // else it is filtering on either single field index,
+            // or it is a terminal filter on compound index, return only nitrite-ids
+            return nitriteIds;
+        }
+    }
+
+    private boolean matches(Comparable<?> key) {
+        if (key == null) return false;
+        if (key instanceof String) {
+            return pattern.matcher((String) key).find();
+        }
+        throw new FilterException(getField() + " does not contain string value");
+    }
+
     @Override
     public String toString() {
         return "(" + getField() + " regex " + getValue() + ")";
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.filters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Extracts the literal prefixes every match of an anchored regular
+ * expression must start with, so that a regex can be answered by range
+ * scans on an index instead of a full scan.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class RegexPrefixes {
+    private static final int MAX_PREFIXES = 64;
+    private static final String META_CHARS = "\\^$.|?*+()[]{}";
+
+    private RegexPrefixes() {}
+
+    /**
+     * Extracts the literal prefixes of a regular expression. Each top level
+     * alternative must be anchored with <code>^</code> or <code>\A</code>,
+     * simple alternations of literals like <code>^(ORD|INV)-</code> are
+     * expanded into multiple prefixes.
+     *
+     * @param regex the regular expression
+     * @return the sorted non-overlapping prefixes, or an empty list
+     * if the matches are not bounded by any prefix
+     */
+    static List<String> extract(String regex) {
+        List<String> branches = split(regex);
+        if (branches == null) return Collections.emptyList();
+
+        TreeSet<String> prefixes = new TreeSet<>();
+        for (String branch : branches) {
+            List<String> branchPrefixes = extractBranch(branch);
+            if (branchPrefixes == null) return Collections.emptyList();
+
+            for (String prefix : branchPrefixes) {
+                // an empty prefix matches every key
+                if (prefix.isEmpty()) return Collections.emptyList();
+                prefixes.add(prefix);
+            }
+            if (prefixes.size() > MAX_PREFIXES) return Collections.emptyList();
+        }
+
+        // drop the prefixes already covered by a shorter one
+        List<String> result = new ArrayList<>();
+        String last = null;
+        for (String prefix : prefixes) {
+            if (last == null || !prefix.startsWith(last)) {
+                result.add(prefix);
+                last = prefix;
+            }
+        }
+        return result;
+    }
+
+    private static List<String> extractBranch(String branch) {
+        int index;
+        if (branch.startsWith("^")) {
+            index = 1;
+        } else if (branch.startsWith("\\A")) {
+            index = 2;
+        } else {
+            return null;
+        }
+
+        List<String> prefixes = new ArrayList<>();
+        prefixes.add("");
+
+        int length = branch.length();
+        while (index < length) {
+            char c = branch.charAt(index);
+            if (c == '(') {
+                int end = closingParenthesis(branch, index);
+                if (end < 0) return prefixes;
+
+                String group = branch.substring(index + 1, end);
+                if (group.startsWith("?:")) {
+                    group = group.substring(2);
+                } else if (group.startsWith("?")) {
+                    // look around, named group or inline flags
+                    return prefixes;
+                }
+
+                index = end + 1;
+                if (isQuantifier(branch, index)) return prefixes;
+
+                List<String> alternatives = split(group);
+                if (alternatives == null) return prefixes;
+
+                List<String> expanded = new ArrayList<>();
+                for (String alternative : alternatives) {
+                    String literal = literal(alternative);
+                    if (literal == null) return prefixes;
+                    for (String prefix : prefixes) {
+                        expanded.add(prefix + literal);
+                    }
+                }
+
+                if (expanded.size() > MAX_PREFIXES) return prefixes;
+                prefixes = expanded;
+            } else {
+                StringBuilder literal = new StringBuilder();
+                index = readLiteral(branch, index, literal);
+                if (literal.length() == 0) return prefixes;
+
+                for (int i = 0; i < prefixes.size(); i++) {
+                    prefixes.set(i, prefixes.get(i) + literal);
+                }
+                if (index < 0) return prefixes;
+            }
+        }
+        return prefixes;
+    }
+
+    /*
+     * Reads literal characters starting at index into the builder. Returns the
+     * index after the literal, or -1 if the scan for literals must stop there.
+     */
+    private static int readLiteral(String regex, int index, StringBuilder literal) {
+        int length = regex.length();
+        while (index < length) {
+            char c = regex.charAt(index);
+            String chars;
+            int next;
+            if (c == '\\') {
+                if (index + 1 >= length) return -1;
+
+                char escaped = regex.charAt(index + 1);
+                if (escaped == 'Q') {
+                    int end = regex.indexOf("\\E", index + 2);
+                    chars = end < 0 ? regex.substring(index + 2) : regex.substring(index + 2, end);
+                    next = end < 0 ? length : end + 2;
+                } else if (Character.isLetterOrDigit(escaped)) {
+                    // character classes, back references and special escapes
+                    return -1;
+                } else {
+                    chars = String.valueOf(escaped);
+                    next = index + 2;
+                }
+            } else if (c == '(') {
+                return index;
+            } else if (META_CHARS.indexOf(c) >= 0) {
+                return -1;
+            } else {
+                chars = String.valueOf(c);
+                next = index + 1;
+            }
+
+            if (isQuantifier(regex, next)) {
+                // the quantifier only applies to the last character,
+                // which is still mandatory for a '+'
+                boolean mandatory = regex.charAt(next) == '+';
+                if (!chars.isEmpty()) {
+                    literal.append(chars, 0, mandatory ? chars.length() : chars.length() - 1);
+                } else if (!mandatory && literal.length() > 0) {
+                    literal.setLength(literal.length() - 1);
+                }
+                return -1;
+            }
+
+            literal.append(chars);
+            index = next;
+        }
+        return index;
+    }
+
+    private static String literal(String regex) {
+        StringBuilder literal = new StringBuilder();
+        int index = readLiteral(regex, 0, literal);
+        return index == regex.length() ? literal.toString() : null;
+    }
+
+    private static boolean isQuantifier(String regex, int index) {
+        if (index >= regex.length()) return false;
+        char c = regex.charAt(index);
+        return c == '?' || c == '*' || c == '+' || c == '{';
+    }
+
+    /*
+     * Splits a regex on its top level alternation, returns null if the
+     * regex is not well-formed.
+     */
+    private static List<String> split(String regex) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        int index = 0;
+        int length = regex.length();
+        while (index < length) {
+            char c = regex.charAt(index);
+            if (c == '\\') {
+                index = skipEscape(regex, index);
+                continue;
+            } else if (c == '[') {
+                index = skipCharacterClass(regex, index);
+                if (index < 0) return null;
+                continue;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (--depth < 0) return null;
+            } else if (c == '|' && depth == 0) {
+                parts.add(regex.substring(start, index));
+                start = index + 1;
+            }
+            index++;
+        }
+
+        if (depth != 0) return null;
+        parts.add(regex.substring(start));
+        return parts;
+    }
+
+    private static int closingParenthesis(String regex, int open) {
+        int depth = 0;
+        int index = open;
+        int length = regex.length();
+        while (index < length) {
+            char c = regex.charAt(index);
+            if (c == '\\') {
+                index = skipEscape(regex, index);
+                continue;
+            } else if (c == '[') {
+                index = skipCharacterClass(regex, index);
+                if (index < 0) return -1;
+                continue;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    private static int skipEscape(String regex, int index) {
+        if (index + 1 < regex.length() && regex.charAt(index + 1) == 'Q') {
+            int end = regex.indexOf("\\E", index + 2);
+            return end < 0 ? regex.length() : end + 2;
+        }
+        return index + 2;
+    }
+
+    private static int skipCharacterClass(String regex, int open) {
+        int depth = 0;
+        int index = open;
+        int length = regex.length();
+        while (index < length) {
+            char c = regex.charAt(index);
+            if (c == '\\') {
+                index = skipEscape(regex, index);
+                continue;
+            } else if (c == '[') {
+                depth++;
+                // a closing bracket right after the opening one is a literal
+                if (index + 1 < length && regex.charAt(index + 1) == '^') index++;
+                if (index + 1 < length && regex.charAt(index + 1) == ']') index++;
+            } else if (c == ']' && --depth == 0) {
+                return index + 1;
+            }
+            index++;
+        }
+        return -1;
+    }
+}
@@ -22,6 +22,7 @@ import org.dizitart.no2.collection.NitriteId;
 import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.exceptions.FilterException;
 import org.dizitart.no2.index.IndexMap;
+import org.dizitart.no2.index.TextIndex;
 import org.dizitart.no2.index.fulltext.TextTokenizer;
 import org.dizitart.no2.store.NitriteMap;
 
@@ -53,7 +54,7 @@ public class TextFilter extends StringFilter {
         notNull(getField(), "field cannot be null");
         notNull(getStringValue(), "search term cannot be null");
         String searchString = getStringValue();
-        Object docValue = element.getSecond().get(getField());
+        Object docValue = getFieldValue(element.getSecond());
 
         if (!(docValue instanceof String)) {
             throw new FilterException("Text filter can not be applied on non string field " + getField());
@@ -78,7 +79,10 @@ public class TextFilter extends StringFilter {
      *
      * @param indexMap the index map
      * @return the linked hash set
+     * @deprecated the index map only holds the latest postings of each term,
+     * use {@link #applyOnTextIndex(TextIndex)} instead.
      */
+    @Deprecated
     public LinkedHashSet<NitriteId> applyOnTextIndex(NitriteMap<String, List<?>> indexMap) {
         notNull(getField(), "field cannot be null");
         notNull(getStringValue(), "search term cannot be null");
@@ -91,6 +95,77 @@ public class TextFilter extends StringFilter {
         }
     }
 
+    /**
+     * Apply this filter on text index. Wild card searches are resolved using
+     * the term lookups of the text index instead of scanning all the terms.
+     *
+     * @param textIndex the text index
+     * @return the linked hash set
+     * @since 4.3.1
+     */
+    public LinkedHashSet<NitriteId> applyOnTextIndex(TextIndex textIndex) {
+        notNull(getField(), "field cannot be null");
+        notNull(getStringValue(), "search term cannot be null");
+        String searchString = getStringValue();
+
+        if (searchString.startsWith("*") || searchString.endsWith("*")) {
+            validateWildCard(searchString);
+
+            Set<String> terms;
+            if (searchString.startsWith("*") && !searchString.endsWith("*")) {
+                terms = textIndex.findTermsBySuffix(searchString.substring(1).toLowerCase());
+            } else if (searchString.endsWith("*") && !searchString.startsWith("*")) {
+                terms = textIndex.findTermsByPrefix(searchString.substring(0, searchString.length() - 1)
+                    .toLowerCase());
+            } else {
+                terms = textIndex.findTermsContaining(searchString.substring(1, searchString.length() - 1)
+                    .toLowerCase());
+            }
+
+            LinkedHashSet<NitriteId> idSet = new LinkedHashSet<>();
+            for (String term : terms) {
+                List<NitriteId> nitriteIds = textIndex.findByTerm(term);
+                if (nitriteIds != null) {
+                    idSet.addAll(nitriteIds);
+                }
+            }
+            return idSet;
+        } else {
+            return new LinkedHashSet<>(rankOnTextIndex(textIndex, Integer.MAX_VALUE).keySet());
+        }
+    }
+
+    /**
+     * Ranks the documents matching this filter on text index using BM25
+     * and returns the best <code>topK</code> of them.
+     *
+     * @param textIndex the text index
+     * @param topK      the maximum number of results
+     * @return the scores of the matching documents, in descending order
+     * @since 4.3.1
+     */
+    public LinkedHashMap<NitriteId, Double> rankOnTextIndex(TextIndex textIndex, int topK) {
+        notNull(getField(), "field cannot be null");
+        notNull(getStringValue(), "search term cannot be null");
+        if (isWildCardSearch()) {
+            throw new FilterException("Wild card search can not be ranked");
+        }
+
+        Set<String> words = textTokenizer.tokenize(getStringValue());
+        return textIndex.rank(words, topK);
+    }
+
+    /**
+     * Checks if this filter searches by wild card.
+     *
+     * @return <code>true</code> if the search term starts or ends with <code>*</code>
+     * @since 4.3.1
+     */
+    public boolean isWildCardSearch() {
+        String searchString = getStringValue();
+        return searchString != null && (searchString.startsWith("*") || searchString.endsWith("*"));
+    }
+
     @SuppressWarnings("unchecked")
     private LinkedHashSet<NitriteId> searchExactByIndex(NitriteMap<String, List<?>> indexMap, String searchString) {
 
@@ -109,15 +184,7 @@ public class TextFilter extends StringFilter {
     }
 
     private LinkedHashSet<NitriteId> searchByWildCard(NitriteMap<String, List<?>> indexMap, String searchString) {
-        if (searchString.contentEquals("*")) {
-            throw new FilterException("* is not a valid search term");
-        }
-
-        StringTokenizer stringTokenizer = stringTokenizer(searchString);
-        if (stringTokenizer.countTokens() > 1) {
-            throw new FilterException("Wild card search can not be applied on " +
-                "multiple words");
-        }
+        validateWildCard(searchString);
 
         if (searchString.startsWith("*") && !searchString.endsWith("*")) {
             return searchByLeadingWildCard(indexMap, searchString);
@@ -178,8 +245,20 @@ public class TextFilter extends StringFilter {
         return idSet;
     }
 
+    private void validateWildCard(String searchString) {
+        if (searchString.contentEquals("*")) {
+            throw new FilterException("* is not a valid search term");
+        }
+
+        StringTokenizer stringTokenizer = stringTokenizer(searchString);
+        if (stringTokenizer.countTokens() > 1) {
+            throw new FilterException("Wild card search can not be applied on " +
+                "multiple words");
+        }
+    }
+
     private LinkedHashSet<NitriteId> sortedIdsByScore(Map<NitriteId, Integer> unsortedMap) {
-        List<Map.Entry<NitriteId, Integer>> list = new LinkedList<>(unsortedMap.entrySet());
+        List<Map.Entry<NitriteId, Integer>> list = new ArrayList<>(unsortedMap.entrySet());
         list.sort((e1, e2) -> (e2.getValue()).compareTo(e1.getValue()));
 
         LinkedHashSet<NitriteId> result = new LinkedHashSet<>();
@@ -24,6 +24,7 @@ import org.dizitart.no2.common.Fields;
 import org.dizitart.no2.exceptions.IndexingException;
 
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -70,6 +71,13 @@ public abstract class ComparableIndexer implements NitriteIndexer {
         nitriteIndex.write(fieldValues);
     }
 
+    @Override
+    public void writeIndexEntries(List<FieldValues> fieldValues, IndexDescriptor indexDescriptor,
+                                  NitriteConfig nitriteConfig) {
+        NitriteIndex nitriteIndex = findNitriteIndex(indexDescriptor, nitriteConfig);
+        nitriteIndex.writeAll(fieldValues);
+    }
+
     @Override
     public void removeIndexEntry(FieldValues fieldValues, IndexDescriptor indexDescriptor,
                                  NitriteConfig nitriteConfig) {
@@ -83,6 +91,20 @@ public abstract class ComparableIndexer implements NitriteIndexer {
         nitriteIndex.drop();
     }
 
+    /**
+     * Gets the key ordered map of an index, to read the index keys without
+     * a find plan.
+     *
+     * @param indexDescriptor the index descriptor
+     * @param nitriteConfig   the nitrite config
+     * @return the index map
+     * @since 4.3.1
+     */
+    public IndexMap findIndexMap(IndexDescriptor indexDescriptor, NitriteConfig nitriteConfig) {
+        NitriteIndex nitriteIndex = findNitriteIndex(indexDescriptor, nitriteConfig);
+        return nitriteIndex.getIndexMap();
+    }
+
     private NitriteIndex findNitriteIndex(IndexDescriptor indexDescriptor, NitriteConfig nitriteConfig) {
         if (indexDescriptor == null) {
             throw new IndexingException("Index descriptor cannot be null");
@@ -138,6 +138,11 @@ public class CompoundIndex implements NitriteIndex {
         indexMap.drop();
     }
 
+    @Override
+    public IndexMap getIndexMap() {
+        return new IndexMap(findIndexMap());
+    }
+
     @Override
     public LinkedHashSet<NitriteId> findNitriteIds(FindPlan findPlan) {
         if (findPlan.getIndexScanFilter() == null) return new LinkedHashSet<>();
@@ -159,6 +159,17 @@ public class IndexMap {
         return dbKey == null || dbKey instanceof DBNull ? null : (T) dbKey.getValue();
     }
 
+    /**
+     * Checks if the keys of this map are ordered by their natural order. Range
+     * scans over a key prefix are only possible on a naturally ordered map.
+     *
+     * @return <code>true</code> if keys are naturally ordered
+     * @since 4.3.1
+     */
+    public boolean isNaturallyOrdered() {
+        return nitriteMap == null || nitriteMap.isNaturallyOrdered();
+    }
+
     /**
      * Gets the value mapped with the specified key or <code>null</code> otherwise.
      *
@@ -39,6 +39,17 @@ public class IndexOptions {
      */
     private String indexType;
 
+    /**
+     * Specifies whether the index should be built online. An online build
+     * does not block the writers of the collection while the documents are
+     * being scanned; changes made during the build are merged at the end.
+     *
+     * @param online if the index should be built online.
+     * @return if the index should be built online.
+     * @since 4.3.1
+     */
+    private boolean online;
+
     /**
      * Creates an {@link IndexOptions} with the specified <code>indexType</code>.
      * Index creation will be synchronous with this option.
@@ -51,5 +62,21 @@ public class IndexOptions {
         options.setIndexType(indexType);
         return options;
     }
-}
 
+    /**
+     * Creates an {@link IndexOptions} with the specified <code>indexType</code>
+     * which builds the index online if <code>online</code> is <code>true</code>.
+     * The call still returns only after the index has been built, but the
+     * collection remains writable during the build.
+     *
+     * @param indexType the type of index to be created.
+     * @param online    if the index should be built online.
+     * @return a new index creation option.
+     * @since 4.3.1
+     */
+    public static IndexOptions indexOptions(String indexType, boolean online) {
+        IndexOptions options = indexOptions(indexType);
+        options.setOnline(online);
+        return options;
+    }
+}
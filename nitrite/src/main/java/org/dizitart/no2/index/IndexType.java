@@ -37,4 +37,12 @@ public interface IndexType {
      * Represents a full text index type.
      */
     String FULL_TEXT = "Fulltext";
+
+    /**
+     * Represents a full text index type which also indexes the
+     * trigrams of each term to speed up wild card searches.
+     *
+     * @since 4.3.1
+     */
+    String FULL_TEXT_TRIGRAM = "FulltextTrigram";
 }
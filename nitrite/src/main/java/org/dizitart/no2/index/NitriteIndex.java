@@ -52,6 +52,19 @@ public interface NitriteIndex {
      */
     void write(FieldValues fieldValues);
 
+    /**
+     * Writes a batch of field values to the index. The default implementation
+     * writes the entries one by one.
+     *
+     * @param fieldValues the batch of field values to write.
+     * @since 4.3.1
+     */
+    default void writeAll(List<FieldValues> fieldValues) {
+        for (FieldValues values : fieldValues) {
+            write(values);
+        }
+    }
+
     /**
      * Removes the index entry for the specified field values.
      *
@@ -72,6 +85,17 @@ public interface NitriteIndex {
      */
     LinkedHashSet<NitriteId> findNitriteIds(FindPlan findPlan);
 
+    /**
+     * Gets the key ordered map of the index, or <code>null</code> if the index
+     * does not store its entries by key.
+     *
+     * @return the index map
+     * @since 4.3.1
+     */
+    default IndexMap getIndexMap() {
+        return null;
+    }
+
     /**
      * Checks if the index is unique.
      *
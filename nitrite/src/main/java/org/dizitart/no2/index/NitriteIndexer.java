@@ -24,6 +24,7 @@ import org.dizitart.no2.common.Fields;
 import org.dizitart.no2.common.module.NitritePlugin;
 
 import java.util.LinkedHashSet;
+import java.util.List;
 
 /**
  * An abstract class representing a Nitrite indexer plugin.
@@ -67,6 +68,24 @@ public interface NitriteIndexer extends NitritePlugin {
      */
     void writeIndexEntry(FieldValues fieldValues, IndexDescriptor indexDescriptor, NitriteConfig nitriteConfig);
 
+    /**
+     * Writes a batch of index entries for the given field values and index descriptor.
+     * <p>
+     * It is used while building an index in bulk. Implementations can override it
+     * to load the batch as a sorted run instead of writing the entries one by one.
+     *
+     * @param fieldValues     the batch of field values to be indexed
+     * @param indexDescriptor the descriptor of the index
+     * @param nitriteConfig   the NitriteConfig to use for indexing
+     * @since 4.3.1
+     */
+    default void writeIndexEntries(List<FieldValues> fieldValues, IndexDescriptor indexDescriptor,
+                                   NitriteConfig nitriteConfig) {
+        for (FieldValues values : fieldValues) {
+            writeIndexEntry(values, indexDescriptor, nitriteConfig);
+        }
+    }
+
     /**
      * Removes an index entry for the given field values and index descriptor from the Nitrite database.
      *
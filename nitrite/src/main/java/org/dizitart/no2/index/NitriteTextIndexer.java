@@ -36,13 +36,14 @@ import java.util.concurrent.ConcurrentHashMap;
 public class NitriteTextIndexer implements NitriteIndexer {
     private final TextTokenizer textTokenizer;
     private final Map<IndexDescriptor, TextIndex> indexRegistry;
+    private final String indexType;
+    private final boolean trigramEnabled;
 
     /**
      * Instantiates a new {@link NitriteTextIndexer}.
      */
     public NitriteTextIndexer() {
-        this.textTokenizer = new EnglishTextTokenizer();
-        this.indexRegistry = new ConcurrentHashMap<>();
+        this(new EnglishTextTokenizer());
     }
 
     /**
@@ -51,8 +52,22 @@ public class NitriteTextIndexer implements NitriteIndexer {
      * @param textTokenizer the text tokenizer
      */
     public NitriteTextIndexer(TextTokenizer textTokenizer) {
+        this(textTokenizer, IndexType.FULL_TEXT, false);
+    }
+
+    /**
+     * Instantiates a new {@link NitriteTextIndexer}.
+     *
+     * @param textTokenizer  the text tokenizer
+     * @param indexType      the index type
+     * @param trigramEnabled if <code>true</code>, the terms are also indexed by their trigrams
+     * @since 4.3.1
+     */
+    protected NitriteTextIndexer(TextTokenizer textTokenizer, String indexType, boolean trigramEnabled) {
         this.textTokenizer = textTokenizer;
         this.indexRegistry = new ConcurrentHashMap<>();
+        this.indexType = indexType;
+        this.trigramEnabled = trigramEnabled;
     }
 
     @Override
@@ -61,7 +76,7 @@ public class NitriteTextIndexer implements NitriteIndexer {
 
     @Override
     public String getIndexType() {
-        return IndexType.FULL_TEXT;
+        return indexType;
     }
 
     @Override
@@ -105,7 +120,8 @@ public class NitriteTextIndexer implements NitriteIndexer {
             return indexRegistry.get(indexDescriptor);
         }
 
-        TextIndex textIndex = new TextIndex(textTokenizer, indexDescriptor, nitriteConfig.getNitriteStore());
+        TextIndex textIndex = new TextIndex(textTokenizer, indexDescriptor,
+            nitriteConfig.getNitriteStore(), trigramEnabled);
         indexRegistry.put(indexDescriptor, textIndex);
         return textIndex;
     }
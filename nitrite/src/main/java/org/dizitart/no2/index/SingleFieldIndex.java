@@ -28,8 +28,12 @@ import org.dizitart.no2.filters.ComparableFilter;
 import org.dizitart.no2.store.NitriteMap;
 import org.dizitart.no2.store.NitriteStore;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.dizitart.no2.common.util.IndexUtils.deriveIndexMapName;
@@ -90,6 +94,41 @@ public class SingleFieldIndex implements NitriteIndex {
         }
     }
 
+    @Override
+    public void writeAll(List<FieldValues> fieldValues) {
+        // build a sorted run of the batch in memory, so that every
+        // key of the index map is read and written only once
+        NavigableMap<DBValue, List<FieldValues>> run = new TreeMap<>();
+        for (FieldValues values : fieldValues) {
+            String firstField = values.getFields().getFieldNames().get(0);
+            Object element = values.get(firstField);
+
+            if (element == null) {
+                addToRun(run, values, DBNull.getInstance());
+            } else if (element instanceof Comparable) {
+                addToRun(run, values, new DBValue((Comparable<?>) element));
+            } else if (element.getClass().isArray()) {
+                Object[] array = convertToObjectArray(element);
+                for (Object item : array) {
+                    DBValue dbValue = item == null ? DBNull.getInstance() : new DBValue((Comparable<?>) item);
+                    addToRun(run, values, dbValue);
+                }
+            } else if (element instanceof Iterable) {
+                Iterable<?> iterable = (Iterable<?>) element;
+                for (Object item : iterable) {
+                    DBValue dbValue = item == null ? DBNull.getInstance() : new DBValue((Comparable<?>) item);
+                    addToRun(run, values, dbValue);
+                }
+            }
+        }
+
+        // load the run into the index map in key order
+        NitriteMap<DBValue, List<?>> indexMap = findIndexMap();
+        for (Map.Entry<DBValue, List<FieldValues>> entry : run.entrySet()) {
+            loadIndexElement(indexMap, entry.getKey(), entry.getValue());
+        }
+    }
+
     @Override
     public void remove(FieldValues fieldValues) {
         Fields fields = fieldValues.getFields();
@@ -131,6 +170,11 @@ public class SingleFieldIndex implements NitriteIndex {
         indexMap.drop();
     }
 
+    @Override
+    public IndexMap getIndexMap() {
+        return new IndexMap(findIndexMap());
+    }
+
     @Override
     public LinkedHashSet<NitriteId> findNitriteIds(FindPlan findPlan) {
         if (findPlan.getIndexScanFilter() == null) return new LinkedHashSet<>();
@@ -142,15 +186,42 @@ public class SingleFieldIndex implements NitriteIndex {
     @SuppressWarnings("unchecked")
     private void addIndexElement(NitriteMap<DBValue, List<?>> indexMap,
                                  FieldValues fieldValues, DBValue element) {
-        List<NitriteId> nitriteIds = (List<NitriteId>) indexMap.get(element);
+        List<NitriteId> nitriteIds = copyOnWrite((List<NitriteId>) indexMap.get(element));
         nitriteIds = addNitriteIds(nitriteIds, fieldValues);
         indexMap.put(element, nitriteIds);
     }
 
+    private void addToRun(NavigableMap<DBValue, List<FieldValues>> run,
+                          FieldValues fieldValues, DBValue element) {
+        List<FieldValues> entries = run.get(element);
+        if (entries == null) {
+            entries = new ArrayList<>();
+            run.put(element, entries);
+        }
+        entries.add(fieldValues);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadIndexElement(NitriteMap<DBValue, List<?>> indexMap,
+                                  DBValue element, List<FieldValues> entries) {
+        List<NitriteId> nitriteIds = (List<NitriteId>) indexMap.get(element);
+        if (nitriteIds == null) {
+            nitriteIds = new ArrayList<>(entries.size());
+        } else {
+            // copy once instead of copying the list for every added id
+            nitriteIds = new ArrayList<>(nitriteIds);
+        }
+
+        for (FieldValues fieldValues : entries) {
+            nitriteIds = addNitriteIds(nitriteIds, fieldValues);
+        }
+        indexMap.put(element, new CopyOnWriteArrayList<>(nitriteIds));
+    }
+
     @SuppressWarnings("unchecked")
     private void removeIndexElement(NitriteMap<DBValue, List<?>> indexMap,
                                     FieldValues fieldValues, DBValue element) {
-        List<NitriteId> nitriteIds = (List<NitriteId>) indexMap.get(element);
+        List<NitriteId> nitriteIds = copyOnWrite((List<NitriteId>) indexMap.get(element));
         if (nitriteIds != null && !nitriteIds.isEmpty()) {
             nitriteIds.remove(fieldValues.getNitriteId());
             if (nitriteIds.size() == 0) {
@@ -161,6 +232,15 @@ public class SingleFieldIndex implements NitriteIndex {
         }
     }
 
+    private List<NitriteId> copyOnWrite(List<NitriteId> nitriteIds) {
+        // never change a stored entry in place, a store snapshot might still
+        // refer to it; copying a CopyOnWriteArrayList shares its array, so
+        // this does not cost more than the update itself. Any other list is
+        // a private working copy, like the delta of a transaction.
+        return nitriteIds instanceof CopyOnWriteArrayList
+            ? new CopyOnWriteArrayList<>(nitriteIds) : nitriteIds;
+    }
+
     private NitriteMap<DBValue, List<?>> findIndexMap() {
         String mapName = deriveIndexMapName(indexDescriptor);
         return nitriteStore.openMap(mapName, DBValue.class, CopyOnWriteArrayList.class);
@@ -30,11 +30,11 @@ import org.dizitart.no2.index.fulltext.TextTokenizer;
 import org.dizitart.no2.store.NitriteMap;
 import org.dizitart.no2.store.NitriteStore;
 
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.dizitart.no2.common.Constants.INTERNAL_NAME_SEPARATOR;
 
 import static org.dizitart.no2.common.util.IndexUtils.deriveIndexMapName;
 import static org.dizitart.no2.common.util.ObjectUtils.convertToObjectArray;
@@ -46,10 +46,28 @@ import static org.dizitart.no2.common.util.ValidationUtils.validateStringIterabl
  * @since 4.0
  */
 public class TextIndex implements NitriteIndex {
+    private static final String REVERSE_MAP_SUFFIX = "reverse";
+    private static final String TRIGRAM_MAP_SUFFIX = "trigram";
+    private static final String FREQUENCY_MAP_SUFFIX = "frequency";
+    private static final String LENGTH_MAP_SUFFIX = "length";
+    private static final String STATS_MAP_SUFFIX = "stats";
+    private static final String[] TERM_MAP_SUFFIXES = {REVERSE_MAP_SUFFIX, TRIGRAM_MAP_SUFFIX,
+        FREQUENCY_MAP_SUFFIX, LENGTH_MAP_SUFFIX, STATS_MAP_SUFFIX};
+    private static final String DOCUMENT_COUNT = "documents";
+    private static final String TOKEN_COUNT = "tokens";
+    private static final int GRAM_SIZE = 3;
+    private static final int SEGMENT_SIZE = 512;
+    private static final int MERGE_THRESHOLD = 64;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
     @Getter
     private final IndexDescriptor indexDescriptor;
     private final NitriteStore<?> nitriteStore;
     private final TextTokenizer textTokenizer;
+    private final boolean trigramEnabled;
+    private final TextPostings postings;
+    private volatile boolean termIndexReady;
 
     /**
      * Instantiates a new {@link TextIndex}.
@@ -61,9 +79,28 @@ public class TextIndex implements NitriteIndex {
     public TextIndex(TextTokenizer textTokenizer,
                      IndexDescriptor indexDescriptor,
                      NitriteStore<?> nitriteStore) {
+        this(textTokenizer, indexDescriptor, nitriteStore, false);
+    }
+
+    /**
+     * Instantiates a new {@link TextIndex}.
+     *
+     * @param textTokenizer   the text tokenizer
+     * @param indexDescriptor the index descriptor
+     * @param nitriteStore    the nitrite store
+     * @param trigramEnabled  if <code>true</code>, the terms are also indexed by their trigrams
+     * @since 4.3.1
+     */
+    public TextIndex(TextTokenizer textTokenizer,
+                     IndexDescriptor indexDescriptor,
+                     NitriteStore<?> nitriteStore,
+                     boolean trigramEnabled) {
         this.textTokenizer = textTokenizer;
         this.indexDescriptor = indexDescriptor;
         this.nitriteStore = nitriteStore;
+        this.trigramEnabled = trigramEnabled;
+        this.postings = new TextPostings(indexDescriptor, nitriteStore, SEGMENT_SIZE, MERGE_THRESHOLD,
+            term -> removeTerm(term, findIndexMap().isNaturallyOrdered(), trigramEnabled));
     }
 
     @Override
@@ -75,29 +112,14 @@ public class TextIndex implements NitriteIndex {
         Object element = fieldValues.get(firstField);
 
         NitriteMap<String, List<?>> indexMap = findIndexMap();
+        ensureTermIndex(indexMap);
 
-        if (element == null) {
-            addIndexElement(indexMap, fieldValues, null);
-        } else if (element instanceof String) {
-            addIndexElement(indexMap, fieldValues, (String) element);
-        } else if (element.getClass().isArray()) {
-            validateStringArrayIndexField(element, firstField);
-            Object[] array = convertToObjectArray(element);
-
-            for (Object item : array) {
-                addIndexElement(indexMap, fieldValues, (String) item);
-            }
-        } else if (element instanceof Iterable) {
-            validateStringIterableIndexField((Iterable<?>) element, firstField);
-            Iterable<?> iterable = (Iterable<?>) element;
-
-            for (Object item : iterable) {
-                addIndexElement(indexMap, fieldValues, (String) item);
-            }
-        } else {
-            throw new IndexingException("Index field " + firstField
-                + " must be a String, String[] or Iterable<String>");
+        HashMap<String, Integer> frequencies = null;
+        for (String text : textValues(element, firstField)) {
+            HashMap<String, Integer> textFrequencies = addIndexElement(indexMap, fieldValues, text);
+            frequencies = merge(frequencies, textFrequencies);
         }
+        addDocumentStatistics(fieldValues.getNitriteId(), frequencies);
     }
 
     @Override
@@ -109,91 +131,637 @@ public class TextIndex implements NitriteIndex {
         Object element = fieldValues.get(firstField);
 
         NitriteMap<String, List<?>> indexMap = findIndexMap();
-        if (element == null) {
-            removeIndexElement(indexMap, fieldValues, null);
-        } else if (element instanceof String) {
-            removeIndexElement(indexMap, fieldValues, (String) element);
-        } else if (element.getClass().isArray()) {
-            validateStringArrayIndexField(element, firstField);
-            Object[] array = convertToObjectArray(element);
+        ensureTermIndex(indexMap);
 
-            for (Object item : array) {
-                removeIndexElement(indexMap, fieldValues, (String) item);
-            }
-        } else if (element instanceof Iterable) {
-            validateStringIterableIndexField((Iterable<?>) element, firstField);
-            Iterable<?> iterable = (Iterable<?>) element;
-
-            for (Object item : iterable) {
-                removeIndexElement(indexMap, fieldValues, (String) item);
-            }
-        } else {
-            throw new IndexingException("Index field " + firstField
-                + " must be a String, String[] or Iterable<String>");
+        HashMap<String, Integer> frequencies = null;
+        for (String text : textValues(element, firstField)) {
+            HashMap<String, Integer> textFrequencies = removeIndexElement(indexMap, fieldValues, text);
+            frequencies = merge(frequencies, textFrequencies);
         }
+        removeDocumentStatistics(fieldValues.getNitriteId(), frequencies);
     }
 
     @Override
     public void drop() {
-        NitriteMap<String, List<?>> indexMap = findIndexMap();
+        String mapName = deriveIndexMapName(indexDescriptor);
+        NitriteMap<String, List<?>> indexMap = nitriteStore.openMap(mapName, String.class,
+            CopyOnWriteArrayList.class);
         indexMap.clear();
         indexMap.drop();
+
+        for (String suffix : TERM_MAP_SUFFIXES) {
+            dropTermMap(mapName + INTERNAL_NAME_SEPARATOR + suffix);
+        }
+        postings.drop(mapName);
+        termIndexReady = false;
+    }
+
+    /**
+     * Opens the index map of a text index and the other maps it keeps
+     * in a store, with their key and value types.
+     * <p>
+     * The maps which do not exist yet are not created.
+     *
+     * @param indexDescriptor the index descriptor
+     * @param nitriteStore    the nitrite store
+     * @since 4.3.1
+     */
+    public static void openMaps(IndexDescriptor indexDescriptor, NitriteStore<?> nitriteStore) {
+        String mapName = deriveIndexMapName(indexDescriptor);
+        nitriteStore.openMap(mapName, String.class, CopyOnWriteArrayList.class);
+        openTermMap(nitriteStore, mapName, REVERSE_MAP_SUFFIX, String.class, String.class);
+        openTermMap(nitriteStore, mapName, TRIGRAM_MAP_SUFFIX, String.class, CopyOnWriteArrayList.class);
+        openTermMap(nitriteStore, mapName, FREQUENCY_MAP_SUFFIX, NitriteId.class, HashMap.class);
+        openTermMap(nitriteStore, mapName, LENGTH_MAP_SUFFIX, NitriteId.class, Integer.class);
+        openTermMap(nitriteStore, mapName, STATS_MAP_SUFFIX, String.class, Long.class);
+        TextPostings.openMaps(mapName, nitriteStore);
     }
 
     @Override
     public LinkedHashSet<NitriteId> findNitriteIds(FindPlan findPlan) {
         if (findPlan.getIndexScanFilter() == null) return new LinkedHashSet<>();
 
-        NitriteMap<String, List<?>> indexMap = findIndexMap();
         List<ComparableFilter> filters = findPlan.getIndexScanFilter().getFilters();
 
         if (filters.size() == 1 && filters.get(0) instanceof TextFilter) {
             TextFilter textFilter = (TextFilter) filters.get(0);
             textFilter.setTextTokenizer(textTokenizer);
-            return textFilter.applyOnTextIndex(indexMap);
+            if (textFilter.isWildCardSearch()) {
+                return textFilter.applyOnTextIndex(this);
+            }
+
+            Map<NitriteId, Double> scores = textFilter.rankOnTextIndex(this, topK(findPlan));
+            findPlan.setTextScores(scores);
+            return new LinkedHashSet<>(scores.keySet());
         }
         throw new FilterException("TextFilter can only be applied on text index.");
     }
 
+    /**
+     * Finds the ids of the documents containing the term.
+     *
+     * @param term the term
+     * @return the ids, or <code>null</code> if the term is not indexed
+     * @since 4.3.1
+     */
+    public List<NitriteId> findByTerm(String term) {
+        return postings.get(term);
+    }
+
+    /**
+     * Merges the posting segments of all terms with pending deletes right
+     * away, instead of waiting for the background merge.
+     *
+     * @since 4.3.1
+     */
+    public void compact() {
+        postings.compact();
+    }
+
+    /**
+     * Finds all indexed terms starting with the prefix.
+     * <p>
+     * If the index map keeps its keys in natural order, the terms are read
+     * by seeking to the prefix, otherwise the trigram index is used if
+     * available.
+     *
+     * @param prefix the prefix
+     * @return the terms
+     * @since 4.3.1
+     */
+    public Set<String> findTermsByPrefix(String prefix) {
+        NitriteMap<String, List<?>> indexMap = findIndexMap();
+        ensureTermIndex(indexMap);
+
+        Set<String> terms = new LinkedHashSet<>();
+        if (indexMap.isNaturallyOrdered()) {
+            seek(indexMap, prefix, terms::add);
+        } else if (useTrigrams(prefix)) {
+            for (String term : findTrigramCandidates(prefix)) {
+                if (term.startsWith(prefix)) {
+                    terms.add(term);
+                }
+            }
+        } else {
+            for (String term : indexMap.keys()) {
+                if (term.startsWith(prefix)) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Finds all indexed terms ending with the suffix.
+     * <p>
+     * If the index map keeps its keys in natural order, the terms are read
+     * by seeking to the reversed suffix in the reversed-term index, otherwise
+     * the trigram index is used if available.
+     *
+     * @param suffix the suffix
+     * @return the terms
+     * @since 4.3.1
+     */
+    public Set<String> findTermsBySuffix(String suffix) {
+        NitriteMap<String, List<?>> indexMap = findIndexMap();
+        ensureTermIndex(indexMap);
+
+        Set<String> terms = new LinkedHashSet<>();
+        if (indexMap.isNaturallyOrdered()) {
+            NitriteMap<String, String> reverseMap = findReverseMap();
+            seek(reverseMap, reverse(suffix), key -> terms.add(reverseMap.get(key)));
+        } else if (useTrigrams(suffix)) {
+            for (String term : findTrigramCandidates(suffix)) {
+                if (term.endsWith(suffix)) {
+                    terms.add(term);
+                }
+            }
+        } else {
+            for (String term : indexMap.keys()) {
+                if (term.endsWith(suffix)) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Finds all indexed terms containing the text. The trigram index is used
+     * if available and the text is long enough.
+     *
+     * @param text the text
+     * @return the terms
+     * @since 4.3.1
+     */
+    public Set<String> findTermsContaining(String text) {
+        NitriteMap<String, List<?>> indexMap = findIndexMap();
+        ensureTermIndex(indexMap);
+
+        Set<String> terms = new LinkedHashSet<>();
+        Iterable<String> candidates = useTrigrams(text) ? findTrigramCandidates(text) : indexMap.keys();
+        for (String term : candidates) {
+            if (term.contains(text)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Ranks the documents containing any of the terms using BM25 and returns
+     * the best <code>topK</code> of them, ordered by descending score.
+     * <p>
+     * Terms are visited in the order of their maximum possible contribution.
+     * Once the top-k results are known and the remaining terms can not lift
+     * an unseen document above the lowest of them, the remaining posting
+     * lists are not read at all (MaxScore). Each candidate is scored once,
+     * from the stored term frequencies of the document.
+     *
+     * @param terms the query terms
+     * @param topK  the maximum number of results
+     * @return the scores of the best matching documents
+     * @since 4.3.1
+     */
+    public LinkedHashMap<NitriteId, Double> rank(Set<String> terms, int topK) {
+        NitriteMap<String, List<?>> indexMap = findIndexMap();
+        ensureTermIndex(indexMap);
+
+        LinkedHashMap<NitriteId, Double> result = new LinkedHashMap<>();
+        if (topK <= 0 || terms.isEmpty()) return result;
+
+        NitriteMap<String, Long> statsMap = findStatsMap();
+        long documentCount = valueOf(statsMap.get(DOCUMENT_COUNT));
+        long tokenCount = valueOf(statsMap.get(TOKEN_COUNT));
+
+        List<RankedTerm> rankedTerms = new ArrayList<>();
+        for (String term : terms) {
+            List<NitriteId> nitriteIds = postings.get(term);
+            if (nitriteIds != null && !nitriteIds.isEmpty()) {
+                documentCount = Math.max(documentCount, nitriteIds.size());
+                rankedTerms.add(new RankedTerm(term, nitriteIds));
+            }
+        }
+        if (rankedTerms.isEmpty()) return result;
+
+        for (RankedTerm rankedTerm : rankedTerms) {
+            double df = rankedTerm.nitriteIds.size();
+            rankedTerm.idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        }
+        double averageLength = documentCount == 0 || tokenCount == 0 ? 1.0 : (double) tokenCount / documentCount;
+
+        // visit the terms with the highest possible contribution first,
+        // remaining[i] is the best score a document first seen at term i can get
+        rankedTerms.sort((t1, t2) -> Double.compare(t2.idf, t1.idf));
+        double[] remaining = new double[rankedTerms.size() + 1];
+        for (int i = rankedTerms.size() - 1; i >= 0; i--) {
+            remaining[i] = remaining[i + 1] + rankedTerms.get(i).idf * (K1 + 1);
+        }
+
+        NitriteMap<NitriteId, HashMap<String, Integer>> frequencyMap = findFrequencyMap();
+        NitriteMap<NitriteId, Integer> lengthMap = findLengthMap();
+        PriorityQueue<ScoredId> topDocs = new PriorityQueue<>();
+        Set<NitriteId> seen = new HashSet<>();
+        int sequence = 0;
+
+        terms:
+        for (int i = 0; i < rankedTerms.size(); i++) {
+            for (NitriteId nitriteId : rankedTerms.get(i).nitriteIds) {
+                if (topDocs.size() >= topK && remaining[i] <= topDocs.peek().score) {
+                    // no unseen document can make it to the top-k anymore
+                    break terms;
+                }
+
+                if (!seen.add(nitriteId)) continue;
+
+                // the document does not contain any of the terms visited before
+                double score = score(nitriteId, rankedTerms, i, frequencyMap, lengthMap, averageLength);
+                ScoredId scoredId = new ScoredId(nitriteId, score, sequence++);
+                if (topDocs.size() < topK) {
+                    topDocs.add(scoredId);
+                } else if (scoredId.compareTo(topDocs.peek()) > 0) {
+                    topDocs.poll();
+                    topDocs.add(scoredId);
+                }
+            }
+        }
+
+        List<ScoredId> scoredIds = new ArrayList<>(topDocs);
+        scoredIds.sort(Collections.reverseOrder());
+        for (ScoredId scoredId : scoredIds) {
+            result.put(scoredId.nitriteId, scoredId.score);
+        }
+        return result;
+    }
+
     private NitriteMap<String, List<?>> findIndexMap() {
         String mapName = deriveIndexMapName(indexDescriptor);
         return nitriteStore.openMap(mapName, String.class, CopyOnWriteArrayList.class);
     }
 
-    @SuppressWarnings("unchecked")
-    private void addIndexElement(NitriteMap<String, List<?>> indexMap, FieldValues fieldValues, String value) {
-        Set<String> words = decompose(value);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private NitriteMap<NitriteId, HashMap<String, Integer>> findFrequencyMap() {
+        NitriteMap map = nitriteStore.openMap(deriveTermMapName(FREQUENCY_MAP_SUFFIX), NitriteId.class, HashMap.class);
+        return (NitriteMap<NitriteId, HashMap<String, Integer>>) map;
+    }
+
+    private NitriteMap<NitriteId, Integer> findLengthMap() {
+        return nitriteStore.openMap(deriveTermMapName(LENGTH_MAP_SUFFIX), NitriteId.class, Integer.class);
+    }
+
+    private NitriteMap<String, Long> findStatsMap() {
+        return nitriteStore.openMap(deriveTermMapName(STATS_MAP_SUFFIX), String.class, Long.class);
+    }
+
+    private NitriteMap<String, String> findReverseMap() {
+        return nitriteStore.openMap(deriveTermMapName(REVERSE_MAP_SUFFIX), String.class, String.class);
+    }
+
+    private NitriteMap<String, List<?>> findTrigramMap() {
+        return nitriteStore.openMap(deriveTermMapName(TRIGRAM_MAP_SUFFIX), String.class, CopyOnWriteArrayList.class);
+    }
+
+    private String deriveTermMapName(String suffix) {
+        return deriveIndexMapName(indexDescriptor) + INTERNAL_NAME_SEPARATOR + suffix;
+    }
+
+    private static void openTermMap(NitriteStore<?> nitriteStore, String indexMapName, String suffix,
+                                    Class<?> keyType, Class<?> valueType) {
+        String mapName = indexMapName + INTERNAL_NAME_SEPARATOR + suffix;
+        if (nitriteStore.hasMap(mapName)) {
+            nitriteStore.openMap(mapName, keyType, valueType);
+        }
+    }
+
+    private void dropTermMap(String mapName) {
+        if (nitriteStore.hasMap(mapName)) {
+            NitriteMap<String, ?> termMap = nitriteStore.openMap(mapName, String.class, Object.class);
+            termMap.clear();
+            termMap.drop();
+        }
+    }
+
+    private boolean useTrigrams(String text) {
+        return trigramEnabled && text.length() >= GRAM_SIZE;
+    }
+
+    private void ensureTermIndex(NitriteMap<String, List<?>> indexMap) {
+        if (termIndexReady) return;
+
+        synchronized (this) {
+            if (termIndexReady) return;
+
+            // index created by an earlier version does not have the term
+            // indexes yet, build them once from the existing terms
+            if (!indexMap.isEmpty()) {
+                boolean buildReverse = indexMap.isNaturallyOrdered() && findReverseMap().isEmpty();
+                boolean buildTrigram = trigramEnabled && findTrigramMap().isEmpty();
+                if (buildReverse || buildTrigram) {
+                    for (String term : indexMap.keys()) {
+                        addTerm(term, buildReverse, buildTrigram);
+                    }
+                }
+
+                NitriteMap<String, Long> statsMap = findStatsMap();
+                if (statsMap.isEmpty()) {
+                    // term frequencies of existing documents are not known, every
+                    // indexed term is counted once per document
+                    Set<NitriteId> documents = new HashSet<>();
+                    long tokens = 0;
+                    for (List<?> nitriteIds : indexMap.values()) {
+                        for (Object nitriteId : nitriteIds) {
+                            documents.add((NitriteId) nitriteId);
+                        }
+                        tokens += nitriteIds.size();
+                    }
+                    statsMap.put(DOCUMENT_COUNT, (long) documents.size());
+                    statsMap.put(TOKEN_COUNT, tokens);
+                }
+            }
+            termIndexReady = true;
+        }
+    }
+
+    private synchronized void addTerm(String term, boolean reverse, boolean trigram) {
+        if (reverse) {
+            findReverseMap().put(reverse(term), term);
+        }
 
-        for (String word : words) {
-            List<NitriteId> nitriteIds = (List<NitriteId>) indexMap.get(word);
+        if (trigram) {
+            NitriteMap<String, List<?>> trigramMap = findTrigramMap();
+            for (String gram : trigrams(term)) {
+                @SuppressWarnings("unchecked")
+                List<String> terms = (List<String>) trigramMap.get(gram);
+                if (terms == null) {
+                    terms = new CopyOnWriteArrayList<>();
+                }
 
-            if (nitriteIds == null) {
-                nitriteIds = new CopyOnWriteArrayList<>();
+                if (!terms.contains(term)) {
+                    // never change the stored list in place
+                    terms = new CopyOnWriteArrayList<>(terms);
+                    terms.add(term);
+                    trigramMap.put(gram, terms);
+                }
             }
+        }
+    }
+
+    private synchronized void removeTerm(String term, boolean reverse, boolean trigram) {
+        if (reverse) {
+            findReverseMap().remove(reverse(term));
+        }
 
-            nitriteIds = addNitriteIds(nitriteIds, fieldValues);
-            indexMap.put(word, nitriteIds);
+        if (trigram) {
+            NitriteMap<String, List<?>> trigramMap = findTrigramMap();
+            for (String gram : trigrams(term)) {
+                List<?> terms = trigramMap.get(gram);
+                if (terms != null && terms.contains(term)) {
+                    terms = new CopyOnWriteArrayList<>(terms);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        trigramMap.remove(gram);
+                    } else {
+                        trigramMap.put(gram, terms);
+                    }
+                }
+            }
         }
     }
 
     @SuppressWarnings("unchecked")
-    private void removeIndexElement(NitriteMap<String, List<?>> indexMap, FieldValues fieldValues, String value) {
-        Set<String> words = decompose(value);
-        for (String word : words) {
-            List<NitriteId> nitriteIds = (List<NitriteId>) indexMap.get(word);
-            if (nitriteIds != null && !nitriteIds.isEmpty()) {
-                nitriteIds.remove(fieldValues.getNitriteId());
-                if (nitriteIds.isEmpty()) {
-                    indexMap.remove(word);
-                } else {
-                    indexMap.put(word, nitriteIds);
-                }
+    private Set<String> findTrigramCandidates(String text) {
+        NitriteMap<String, List<?>> trigramMap = findTrigramMap();
+
+        List<List<String>> postings = new ArrayList<>();
+        for (String gram : trigrams(text)) {
+            List<String> terms = (List<String>) trigramMap.get(gram);
+            if (terms == null) {
+                // no term contains this trigram
+                return Collections.emptySet();
             }
+            postings.add(terms);
+        }
+
+        // intersect starting from the rarest trigram
+        postings.sort(Comparator.comparingInt(List::size));
+        Set<String> candidates = new LinkedHashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(new HashSet<>(postings.get(i)));
         }
+        return candidates;
     }
 
-    private Set<String> decompose(String fieldValue) {
-        if (fieldValue == null) return new HashSet<>();
-        return textTokenizer.tokenize(fieldValue);
+    private static Set<String> trigrams(String term) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static void seek(NitriteMap<String, ?> map, String prefix, Consumer<String> consumer) {
+        // keys are in natural order, all keys with the prefix are contiguous
+        String key = map.ceilingKey(prefix);
+        while (key != null && key.startsWith(prefix)) {
+            consumer.accept(key);
+            key = map.higherKey(key);
+        }
+    }
+
+    private static String reverse(String term) {
+        return new StringBuilder(term).reverse().toString();
+    }
+
+    private HashMap<String, Integer> addIndexElement(NitriteMap<String, List<?>> indexMap,
+                                                     FieldValues fieldValues, String value) {
+        HashMap<String, Integer> frequencies = decompose(value);
+
+        for (String word : frequencies.keySet()) {
+            if (postings.add(word, fieldValues.getNitriteId())) {
+                addTerm(word, indexMap.isNaturallyOrdered(), trigramEnabled);
+            }
+        }
+        return frequencies;
+    }
+
+    private HashMap<String, Integer> removeIndexElement(NitriteMap<String, List<?>> indexMap,
+                                                        FieldValues fieldValues, String value) {
+        HashMap<String, Integer> frequencies = decompose(value);
+        for (String word : frequencies.keySet()) {
+            if (postings.remove(word, fieldValues.getNitriteId())) {
+                removeTerm(word, indexMap.isNaturallyOrdered(), trigramEnabled);
+            }
+        }
+        return frequencies;
+    }
+
+    private List<String> textValues(Object element, String field) {
+        if (element == null) {
+            return Collections.emptyList();
+        } else if (element instanceof String) {
+            return Collections.singletonList((String) element);
+        } else if (element.getClass().isArray()) {
+            validateStringArrayIndexField(element, field);
+            Object[] array = convertToObjectArray(element);
+
+            List<String> texts = new ArrayList<>(array.length);
+            for (Object item : array) {
+                texts.add((String) item);
+            }
+            return texts;
+        } else if (element instanceof Iterable) {
+            validateStringIterableIndexField((Iterable<?>) element, field);
+            Iterable<?> iterable = (Iterable<?>) element;
+
+            List<String> texts = new ArrayList<>();
+            for (Object item : iterable) {
+                texts.add((String) item);
+            }
+            return texts;
+        } else {
+            throw new IndexingException("Index field " + field
+                + " must be a String, String[] or Iterable<String>");
+        }
+    }
+
+    private void addDocumentStatistics(NitriteId nitriteId, HashMap<String, Integer> frequencies) {
+        if (nitriteId == null || frequencies == null || frequencies.isEmpty()) return;
+
+        int length = 0;
+        for (Integer frequency : frequencies.values()) {
+            length += frequency;
+        }
+
+        synchronized (this) {
+            NitriteMap<NitriteId, HashMap<String, Integer>> frequencyMap = findFrequencyMap();
+            NitriteMap<NitriteId, Integer> lengthMap = findLengthMap();
+            NitriteMap<String, Long> statsMap = findStatsMap();
+
+            long documents = valueOf(statsMap.get(DOCUMENT_COUNT));
+            long tokens = valueOf(statsMap.get(TOKEN_COUNT));
+
+            Integer previous = lengthMap.get(nitriteId);
+            if (previous != null) {
+                // written again without being removed first
+                documents--;
+                tokens -= previous;
+            }
+
+            frequencyMap.put(nitriteId, frequencies);
+            lengthMap.put(nitriteId, length);
+            statsMap.put(DOCUMENT_COUNT, documents + 1);
+            statsMap.put(TOKEN_COUNT, tokens + length);
+        }
+    }
+
+    private void removeDocumentStatistics(NitriteId nitriteId, HashMap<String, Integer> frequencies) {
+        if (nitriteId == null) return;
+        synchronized (this) {
+            NitriteMap<NitriteId, Integer> lengthMap = findLengthMap();
+            Integer length = lengthMap.remove(nitriteId);
+            if (length != null) {
+                findFrequencyMap().remove(nitriteId);
+            } else {
+                // indexed before the statistics were kept
+                if (frequencies == null || frequencies.isEmpty()) return;
+                length = frequencies.size();
+            }
+
+            NitriteMap<String, Long> statsMap = findStatsMap();
+            long documents = valueOf(statsMap.get(DOCUMENT_COUNT));
+            long tokens = valueOf(statsMap.get(TOKEN_COUNT));
+            statsMap.put(DOCUMENT_COUNT, Math.max(0, documents - 1));
+            statsMap.put(TOKEN_COUNT, Math.max(0, tokens - length));
+        }
+    }
+
+    private static HashMap<String, Integer> merge(HashMap<String, Integer> frequencies,
+                                                  HashMap<String, Integer> textFrequencies) {
+        if (frequencies == null) return textFrequencies;
+        for (Map.Entry<String, Integer> entry : textFrequencies.entrySet()) {
+            frequencies.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private double score(NitriteId nitriteId, List<RankedTerm> rankedTerms, int from,
+                         NitriteMap<NitriteId, HashMap<String, Integer>> frequencyMap,
+                         NitriteMap<NitriteId, Integer> lengthMap, double averageLength) {
+        HashMap<String, Integer> frequencies = frequencyMap.get(nitriteId);
+        Integer length = lengthMap.get(nitriteId);
+        double norm = K1 * (1 - B + B * (length == null ? averageLength : length) / averageLength);
+
+        double score = 0;
+        for (int i = from; i < rankedTerms.size(); i++) {
+            RankedTerm rankedTerm = rankedTerms.get(i);
+            int frequency;
+            if (frequencies != null) {
+                Integer value = frequencies.get(rankedTerm.term);
+                frequency = value == null ? 0 : value;
+            } else {
+                // no frequencies stored for the document, fall back to the postings
+                frequency = i == from || rankedTerm.nitriteIds.contains(nitriteId) ? 1 : 0;
+            }
+
+            if (frequency > 0) {
+                score += rankedTerm.idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+        }
+        return score;
+    }
+
+    private static int topK(FindPlan findPlan) {
+        // results can be cut at the index only if nothing else filters or reorders them
+        if (findPlan.getLimit() == null || findPlan.getCollectionScanFilter() != null
+            || (findPlan.getBlockingSortOrder() != null && !findPlan.getBlockingSortOrder().isEmpty())) {
+            return Integer.MAX_VALUE;
+        }
+
+        long topK = findPlan.getLimit() + (findPlan.getSkip() == null ? 0 : findPlan.getSkip());
+        return topK < 0 || topK > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) topK;
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private HashMap<String, Integer> decompose(String fieldValue) {
+        // tokens are streamed straight into the term counts of the text
+        HashMap<String, Integer> frequencies = new HashMap<>();
+        if (fieldValue != null) {
+            textTokenizer.tokenize(fieldValue, (token, position) -> frequencies.merge(token, 1, Integer::sum));
+        }
+        return frequencies;
+    }
+
+    private static class RankedTerm {
+        private final String term;
+        private final List<NitriteId> nitriteIds;
+        private double idf;
+
+        RankedTerm(String term, List<NitriteId> nitriteIds) {
+            this.term = term;
+            this.nitriteIds = nitriteIds;
+        }
+    }
+
+    private static class ScoredId implements Comparable<ScoredId> {
+        private final NitriteId nitriteId;
+        private final double score;
+        private final int sequence;
+
+        ScoredId(NitriteId nitriteId, double score, int sequence) {
+            this.nitriteId = nitriteId;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(ScoredId other) {
+            // on equal score, the document found first ranks higher
+            int result = Double.compare(score, other.score);
+            return result != 0 ? result : Integer.compare(other.sequence, sequence);
+        }
     }
 }
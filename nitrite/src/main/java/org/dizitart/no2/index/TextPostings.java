@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.store.NitriteStore;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static org.dizitart.no2.common.Constants.INTERNAL_NAME_SEPARATOR;
+import static org.dizitart.no2.common.concurrent.ThreadPoolManager.runAsync;
+import static org.dizitart.no2.common.util.IndexUtils.deriveIndexMapName;
+
+/**
+ * The posting lists of a {@link TextIndex}, kept as segments.
+ * <p>
+ * New ids of a term are appended to a small mutable head list stored in
+ * the index map. Once the head is full, it is sealed as an immutable segment
+ * and a new head is started, so indexing a document never rewrites more
+ * than a bounded list per term.
+ * <p>
+ * Ids removed from a term with sealed segments are recorded as tombstones
+ * of the term and filtered out of the sealed segments on read. Adding an id
+ * again clears its tombstone. A background merge rewrites the segments of a
+ * term without its tombstones once enough of them have piled up.
+ * <p>
+ * A list stored in a map is never changed in place, every change puts
+ * a new list, so a reader holding an older version of the map (like a
+ * transaction) never sees a partial change.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+@Slf4j(topic = "nitrite")
+class TextPostings {
+    private static final String SEGMENT_MAP_SUFFIX = "segment";
+    private static final String TOMBSTONE_MAP_SUFFIX = "tombstone";
+
+    private final IndexDescriptor indexDescriptor;
+    private final NitriteStore<?> nitriteStore;
+    private final int segmentSize;
+    private final int mergeThreshold;
+    private final Consumer<String> termRemovedListener;
+    private final ReadWriteLock lock;
+    private final Set<String> mergeQueue;
+    private final AtomicBoolean mergeScheduled;
+
+    /**
+     * Instantiates a new {@link TextPostings}.
+     *
+     * @param indexDescriptor     the index descriptor
+     * @param nitriteStore        the nitrite store
+     * @param segmentSize         the maximum number of ids in the head of a term
+     * @param mergeThreshold      the number of tombstones of a term which triggers a merge
+     * @param termRemovedListener notified when a merge removes the last id of a term
+     */
+    TextPostings(IndexDescriptor indexDescriptor,
+                 NitriteStore<?> nitriteStore,
+                 int segmentSize,
+                 int mergeThreshold,
+                 Consumer<String> termRemovedListener) {
+        this.indexDescriptor = indexDescriptor;
+        this.nitriteStore = nitriteStore;
+        this.segmentSize = segmentSize;
+        this.mergeThreshold = mergeThreshold;
+        this.termRemovedListener = termRemovedListener;
+        this.lock = new ReentrantReadWriteLock();
+        this.mergeQueue = ConcurrentHashMap.newKeySet();
+        this.mergeScheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Adds an id to the postings of a term.
+     *
+     * @param term      the term
+     * @param nitriteId the id
+     * @return <code>true</code> if the term was not indexed before
+     */
+    @SuppressWarnings("unchecked")
+    boolean add(String term, NitriteId nitriteId) {
+        lock.writeLock().lock();
+        try {
+            NitriteMap<String, List<?>> indexMap = findIndexMap();
+            List<NitriteId> head = (List<NitriteId>) indexMap.get(term);
+            boolean newTerm = head == null;
+
+            if (head == null) {
+                head = new CopyOnWriteArrayList<>();
+            } else if (head.size() >= segmentSize) {
+                seal(term, head);
+                head = new CopyOnWriteArrayList<>();
+            } else {
+                head = new CopyOnWriteArrayList<>(head);
+            }
+
+            head.add(nitriteId);
+            indexMap.put(term, head);
+
+            if (!newTerm) {
+                // a tombstone left by an earlier remove would hide the id
+                // once this head gets sealed
+                NitriteMap<String, List<?>> tombstoneMap = findTombstoneMap();
+                List<NitriteId> tombstones = (List<NitriteId>) tombstoneMap.get(term);
+                if (tombstones != null && tombstones.contains(nitriteId)) {
+                    tombstones = new CopyOnWriteArrayList<>(tombstones);
+                    tombstones.remove(nitriteId);
+                    if (tombstones.isEmpty()) {
+                        tombstoneMap.remove(term);
+                    } else {
+                        tombstoneMap.put(term, tombstones);
+                    }
+                }
+            }
+            return newTerm;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an id from the postings of a term.
+     *
+     * @param term      the term
+     * @param nitriteId the id
+     * @return <code>true</code> if the term is not indexed anymore
+     */
+    @SuppressWarnings("unchecked")
+    boolean remove(String term, NitriteId nitriteId) {
+        lock.writeLock().lock();
+        try {
+            NitriteMap<String, List<?>> indexMap = findIndexMap();
+            List<NitriteId> head = (List<NitriteId>) indexMap.get(term);
+            if (head == null) return false;
+
+            head = new CopyOnWriteArrayList<>(head);
+            boolean removed = head.remove(nitriteId);
+            boolean sealed = findSegmentMap().containsKey(segmentKey(term, 0));
+
+            if (!sealed) {
+                if (!removed) return false;
+                if (head.isEmpty()) {
+                    indexMap.remove(term);
+                    return true;
+                }
+                indexMap.put(term, head);
+                return false;
+            }
+
+            if (removed) {
+                // keep an empty head as long as there are sealed segments
+                indexMap.put(term, head);
+            }
+
+            // the id might be in a sealed segment even if it was in the head,
+            // when it was added again after being removed
+            NitriteMap<String, List<?>> tombstoneMap = findTombstoneMap();
+            List<NitriteId> tombstones = (List<NitriteId>) tombstoneMap.get(term);
+            if (tombstones == null) {
+                tombstones = new CopyOnWriteArrayList<>();
+            }
+
+            if (!tombstones.contains(nitriteId)) {
+                tombstones = new CopyOnWriteArrayList<>(tombstones);
+                tombstones.add(nitriteId);
+                tombstoneMap.put(term, tombstones);
+            }
+
+            if (tombstones.size() >= mergeThreshold) {
+                scheduleMerge(term);
+            }
+
+            if (head.isEmpty()) {
+                // the term might have no live id left
+                scheduleMerge(term);
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets all live ids of a term across its segments, oldest first.
+     *
+     * @param term the term
+     * @return the ids, or <code>null</code> if the term is not indexed
+     */
+    @SuppressWarnings("unchecked")
+    List<NitriteId> get(String term) {
+        lock.readLock().lock();
+        try {
+            List<NitriteId> head = (List<NitriteId>) findIndexMap().get(term);
+            if (head == null) return null;
+
+            NitriteMap<String, List<?>> segmentMap = findSegmentMap();
+            List<NitriteId> segment = (List<NitriteId>) segmentMap.get(segmentKey(term, 0));
+            if (segment == null) return head;
+
+            List<?> tombstones = findTombstoneMap().get(term);
+            Set<NitriteId> deleted = tombstones == null
+                ? Collections.emptySet() : new HashSet<>((List<NitriteId>) tombstones);
+
+            Set<NitriteId> nitriteIds = new LinkedHashSet<>();
+            for (int i = 1; segment != null; i++) {
+                for (NitriteId nitriteId : segment) {
+                    if (!deleted.contains(nitriteId)) {
+                        nitriteIds.add(nitriteId);
+                    }
+                }
+                segment = (List<NitriteId>) segmentMap.get(segmentKey(term, i));
+            }
+            nitriteIds.addAll(head);
+            return new ArrayList<>(nitriteIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merges the segments of all terms waiting for a merge.
+     */
+    void compact() {
+        Iterator<String> iterator = mergeQueue.iterator();
+        while (iterator.hasNext()) {
+            String term = iterator.next();
+            iterator.remove();
+
+            NitriteMap<String, List<?>> indexMap = findIndexMap();
+            if (indexMap.isClosed() || indexMap.isDropped()) {
+                mergeQueue.clear();
+                return;
+            }
+            merge(term);
+        }
+    }
+
+    /**
+     * Drops the segments and the tombstones.
+     *
+     * @param indexMapName the name of the index map
+     */
+    void drop(String indexMapName) {
+        lock.writeLock().lock();
+        try {
+            mergeQueue.clear();
+            for (String mapName : mapNames(indexMapName)) {
+                dropMap(mapName);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Opens the segment and the tombstone maps of an index map, if they exist.
+     *
+     * @param indexMapName the name of the index map
+     * @param nitriteStore the nitrite store
+     */
+    static void openMaps(String indexMapName, NitriteStore<?> nitriteStore) {
+        for (String mapName : mapNames(indexMapName)) {
+            if (nitriteStore.hasMap(mapName)) {
+                nitriteStore.openMap(mapName, String.class, CopyOnWriteArrayList.class);
+            }
+        }
+    }
+
+    private static List<String> mapNames(String indexMapName) {
+        return Arrays.asList(indexMapName + INTERNAL_NAME_SEPARATOR + SEGMENT_MAP_SUFFIX,
+            indexMapName + INTERNAL_NAME_SEPARATOR + TOMBSTONE_MAP_SUFFIX);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void merge(String term) {
+        lock.writeLock().lock();
+        try {
+            NitriteMap<String, List<?>> segmentMap = findSegmentMap();
+            NitriteMap<String, List<?>> tombstoneMap = findTombstoneMap();
+            List<?> tombstones = tombstoneMap.get(term);
+            Set<?> deleted = tombstones == null ? Collections.emptySet() : new HashSet<>(tombstones);
+
+            // collect the live ids of all sealed segments
+            Set<NitriteId> live = new LinkedHashSet<>();
+            int segmentCount = 0;
+            List<NitriteId> segment = (List<NitriteId>) segmentMap.get(segmentKey(term, 0));
+            while (segment != null) {
+                for (NitriteId nitriteId : segment) {
+                    if (!deleted.contains(nitriteId)) {
+                        live.add(nitriteId);
+                    }
+                }
+                segment = (List<NitriteId>) segmentMap.get(segmentKey(term, ++segmentCount));
+            }
+
+            // rewrite them as full segments
+            int index = 0;
+            List<NitriteId> merged = new CopyOnWriteArrayList<>();
+            for (NitriteId nitriteId : live) {
+                merged.add(nitriteId);
+                if (merged.size() == segmentSize) {
+                    segmentMap.put(segmentKey(term, index++), merged);
+                    merged = new CopyOnWriteArrayList<>();
+                }
+            }
+            if (!merged.isEmpty()) {
+                segmentMap.put(segmentKey(term, index++), merged);
+            }
+            for (int i = index; i < segmentCount; i++) {
+                segmentMap.remove(segmentKey(term, i));
+            }
+            tombstoneMap.remove(term);
+
+            NitriteMap<String, List<?>> indexMap = findIndexMap();
+            List<?> head = indexMap.get(term);
+            if (live.isEmpty() && head != null && head.isEmpty()) {
+                indexMap.remove(term);
+                termRemovedListener.accept(term);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void seal(String term, List<NitriteId> head) {
+        NitriteMap<String, List<?>> segmentMap = findSegmentMap();
+        int index = 0;
+        while (segmentMap.containsKey(segmentKey(term, index))) {
+            index++;
+        }
+        segmentMap.put(segmentKey(term, index), head);
+    }
+
+    private void scheduleMerge(String term) {
+        mergeQueue.add(term);
+        if (mergeScheduled.compareAndSet(false, true)) {
+            runAsync(this::runMerge);
+        }
+    }
+
+    private void runMerge() {
+        try {
+            compact();
+        } catch (Exception e) {
+            // the store might have been closed in the meantime
+            log.warn("Failed to merge text index segments of {}", indexDescriptor, e);
+            mergeQueue.clear();
+        } finally {
+            mergeScheduled.set(false);
+        }
+
+        if (!mergeQueue.isEmpty() && mergeScheduled.compareAndSet(false, true)) {
+            runAsync(this::runMerge);
+        }
+    }
+
+    private void dropMap(String mapName) {
+        if (nitriteStore.hasMap(mapName)) {
+            NitriteMap<String, ?> map = nitriteStore.openMap(mapName, String.class, CopyOnWriteArrayList.class);
+            map.clear();
+            map.drop();
+        }
+    }
+
+    private NitriteMap<String, List<?>> findIndexMap() {
+        String mapName = deriveIndexMapName(indexDescriptor);
+        return nitriteStore.openMap(mapName, String.class, CopyOnWriteArrayList.class);
+    }
+
+    private NitriteMap<String, List<?>> findSegmentMap() {
+        String mapName = deriveIndexMapName(indexDescriptor) + INTERNAL_NAME_SEPARATOR + SEGMENT_MAP_SUFFIX;
+        return nitriteStore.openMap(mapName, String.class, CopyOnWriteArrayList.class);
+    }
+
+    private NitriteMap<String, List<?>> findTombstoneMap() {
+        String mapName = deriveIndexMapName(indexDescriptor) + INTERNAL_NAME_SEPARATOR + TOMBSTONE_MAP_SUFFIX;
+        return nitriteStore.openMap(mapName, String.class, CopyOnWriteArrayList.class);
+    }
+
+    private static String segmentKey(String term, int index) {
+        return term + INTERNAL_NAME_SEPARATOR + index;
+    }
+}
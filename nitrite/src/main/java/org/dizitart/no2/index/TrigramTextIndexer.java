@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.index;
+
+import org.dizitart.no2.index.fulltext.EnglishTextTokenizer;
+import org.dizitart.no2.index.fulltext.TextTokenizer;
+
+/**
+ * A full text indexer which also maintains a trigram index of the
+ * terms, so that wild card searches like <code>*term*</code> do not
+ * need to scan all the indexed terms.
+ *
+ * @author Anindya Chatterjee
+ * @see IndexType#FULL_TEXT_TRIGRAM
+ * @since 4.3.1
+ */
+public class TrigramTextIndexer extends NitriteTextIndexer {
+
+    /**
+     * Instantiates a new {@link TrigramTextIndexer}.
+     */
+    public TrigramTextIndexer() {
+        this(new EnglishTextTokenizer());
+    }
+
+    /**
+     * Instantiates a new {@link TrigramTextIndexer}.
+     *
+     * @param textTokenizer the text tokenizer
+     */
+    public TrigramTextIndexer(TextTokenizer textTokenizer) {
+        super(textTokenizer, IndexType.FULL_TEXT_TRIGRAM, true);
+    }
+}
@@ -18,9 +18,7 @@ package org.dizitart.no2.index.fulltext;
 
 import org.dizitart.no2.common.util.StringUtils;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.StringTokenizer;
+import java.util.*;
 
 import static org.dizitart.no2.common.util.StringUtils.stringTokenizer;
 
@@ -28,27 +26,128 @@ import static org.dizitart.no2.common.util.StringUtils.stringTokenizer;
  * An abstract text tokenizer which tokenizes a given string.
  * It discards certain words known as stop word depending on
  * the language chosen.
+ * <p>
+ * Words are scanned in place, ASCII words are lower-cased into a reused
+ * buffer and looked up in a stop-word table without creating a string,
+ * so only the tokens which are kept are allocated.
  *
  * @author Anindya Chatterjee
  * @since 2.1.0
  */
 public abstract class BaseTextTokenizer implements TextTokenizer {
+    private static final boolean[] DELIMITERS = new boolean[128];
+
+    static {
+        // same delimiters as StringUtils.stringTokenizer()
+        for (char c : " \t\n\r\f+\"*%&/()=?'!,.;:-_#@|^~`{}[]<>\\".toCharArray()) {
+            DELIMITERS[c] = true;
+        }
+    }
+
+    private final boolean customized;
+    private final boolean customTokenize;
+    private volatile StopWordMatcher stopWordMatcher;
+
+    /**
+     * Instantiates a new {@link BaseTextTokenizer}.
+     */
+    protected BaseTextTokenizer() {
+        // a subclass with its own word conversion keeps the string based path
+        this.customTokenize = overrides("tokenize");
+        this.customized = customTokenize || overrides("convertWord");
+    }
+
     @Override
     public Set<String> tokenize(String text) {
         Set<String> words = new HashSet<>();
         if (StringUtils.isNullOrEmpty(text)) return words;
 
-        StringTokenizer tokenizer = stringTokenizer(text);
-        while (tokenizer.hasMoreTokens()) {
-            String word = tokenizer.nextToken();
-            word = convertWord(word);
-            if (word != null) {
-                words.add(word);
+        if (customized) {
+            StringTokenizer tokenizer = stringTokenizer(text);
+            while (tokenizer.hasMoreTokens()) {
+                String word = tokenizer.nextToken();
+                word = convertWord(word);
+                if (word != null) {
+                    words.add(word);
+                }
             }
+        } else {
+            tokenize(text, (token, position) -> words.add(token));
         }
         return words;
     }
 
+    @Override
+    public void tokenize(CharSequence text, TokenConsumer consumer) {
+        if (customTokenize) {
+            TextTokenizer.super.tokenize(text, consumer);
+            return;
+        }
+        if (text == null || text.length() == 0) return;
+
+        if (customized) {
+            StringTokenizer tokenizer = stringTokenizer(text.toString());
+            int position = 0;
+            while (tokenizer.hasMoreTokens()) {
+                String word = convertWord(tokenizer.nextToken());
+                if (word != null) {
+                    consumer.accept(word, position);
+                }
+                position++;
+            }
+            return;
+        }
+
+        StopWordMatcher matcher = stopWordMatcher();
+        // lower-casing 'I' is locale sensitive, keep the locale aware path there
+        boolean asciiLowerCase = isAsciiLowerCaseSafe();
+        char[] buffer = new char[32];
+
+        int length = text.length();
+        int position = 0;
+        int index = 0;
+        while (index < length) {
+            while (index < length && isDelimiter(text.charAt(index))) {
+                index++;
+            }
+
+            int start = index;
+            boolean ascii = asciiLowerCase;
+            while (index < length) {
+                char c = text.charAt(index);
+                if (isDelimiter(c)) break;
+                if (c >= 128) {
+                    ascii = false;
+                }
+                index++;
+            }
+
+            int wordLength = index - start;
+            if (wordLength == 0) break;
+
+            if (ascii) {
+                if (buffer.length < wordLength) {
+                    buffer = new char[Math.max(wordLength, buffer.length * 2)];
+                }
+
+                for (int i = 0; i < wordLength; i++) {
+                    char c = text.charAt(start + i);
+                    buffer[i] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+                }
+
+                if (!matcher.contains(buffer, 0, wordLength)) {
+                    consumer.accept(new String(buffer, 0, wordLength), position);
+                }
+            } else {
+                String word = text.subSequence(start, index).toString().toLowerCase();
+                if (!matcher.contains(word)) {
+                    consumer.accept(word, position);
+                }
+            }
+            position++;
+        }
+    }
+
     /**
      * Converts a <code>word</code> into all lower case and checks if it
      * is a known stop word. If it is, then the <code>word</code> will be
@@ -64,4 +163,34 @@ public abstract class BaseTextTokenizer implements TextTokenizer {
         }
         return convertedWord;
     }
+
+    private StopWordMatcher stopWordMatcher() {
+        StopWordMatcher matcher = stopWordMatcher;
+        if (matcher == null) {
+            matcher = new StopWordMatcher(stopWords());
+            stopWordMatcher = matcher;
+        }
+        return matcher;
+    }
+
+    private boolean overrides(String methodName) {
+        for (Class<?> type = getClass(); type != BaseTextTokenizer.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod(methodName, String.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // check the super class
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c < 128 && DELIMITERS[c];
+    }
+
+    private static boolean isAsciiLowerCaseSafe() {
+        String language = Locale.getDefault().getLanguage();
+        return !"tr".equals(language) && !"az".equals(language);
+    }
 }
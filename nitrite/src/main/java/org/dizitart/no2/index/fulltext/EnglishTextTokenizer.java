@@ -27,10 +27,10 @@ import java.util.Set;
  * @since 1.0
  */
 public class EnglishTextTokenizer extends BaseTextTokenizer {
-    private final Language language;
+    private final Set<String> stopWords;
 
     public EnglishTextTokenizer() {
-        language = new English();
+        stopWords = new English().stopWords();
     }
 
     @Override
@@ -40,6 +40,6 @@ public class EnglishTextTokenizer extends BaseTextTokenizer {
 
     @Override
     public Set<String> stopWords() {
-        return language.stopWords();
+        return stopWords;
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.index.fulltext;
+
+import java.util.Set;
+
+/**
+ * An immutable open addressing hash table of stop-words, which can
+ * be probed with a slice of characters without creating a string.
+ * The table is kept at most half full, so a probe rarely needs more
+ * than one comparison.
+ *
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+final class StopWordMatcher {
+    private final char[][] table;
+    private final int mask;
+
+    /**
+     * Instantiates a new {@link StopWordMatcher}.
+     *
+     * @param stopWords the stop-words
+     */
+    StopWordMatcher(Set<String> stopWords) {
+        int capacity = Integer.highestOneBit(Math.max(stopWords.size(), 1)) << 2;
+        this.table = new char[capacity][];
+        this.mask = capacity - 1;
+
+        for (String stopWord : stopWords) {
+            char[] chars = stopWord.toCharArray();
+            int index = hash(chars, 0, chars.length) & mask;
+            while (table[index] != null) {
+                if (equals(table[index], chars, 0, chars.length)) break;
+                index = (index + 1) & mask;
+            }
+            table[index] = chars;
+        }
+    }
+
+    /**
+     * Checks if the characters are a stop-word.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the first character
+     * @param length the number of characters
+     * @return <code>true</code> if it is a stop-word
+     */
+    boolean contains(char[] buffer, int offset, int length) {
+        int index = hash(buffer, offset, length) & mask;
+        char[] entry;
+        while ((entry = table[index]) != null) {
+            if (equals(entry, buffer, offset, length)) return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the word is a stop-word.
+     *
+     * @param word the word
+     * @return <code>true</code> if it is a stop-word
+     */
+    boolean contains(String word) {
+        int hash = 0;
+        for (int i = 0; i < word.length(); i++) {
+            hash = 31 * hash + word.charAt(i);
+        }
+
+        int index = spread(hash) & mask;
+        char[] entry;
+        while ((entry = table[index]) != null) {
+            if (equals(entry, word)) return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    private static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return spread(hash);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(char[] entry, String word) {
+        if (entry.length != word.length()) return false;
+        for (int i = 0; i < entry.length; i++) {
+            if (entry[i] != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean equals(char[] entry, char[] buffer, int offset, int length) {
+        if (entry.length != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (entry[i] != buffer[offset + i]) return false;
+        }
+        return true;
+    }
+}
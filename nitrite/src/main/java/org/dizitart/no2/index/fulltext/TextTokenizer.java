@@ -16,7 +16,12 @@
 
 package org.dizitart.no2.index.fulltext;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.StringTokenizer;
+
+import static org.dizitart.no2.common.util.StringUtils.stringTokenizer;
 
 /**
  * An abstract class representing a stop-word based text tokenizer.
@@ -42,6 +47,47 @@ public interface TextTokenizer {
      */
     Set<String> tokenize(String text);
 
+    /**
+     * Tokenize a <code>text</code>, discards all stop-words from it and
+     * counts the occurrences of each token.
+     *
+     * @param text the text to tokenize
+     * @return the number of occurrences of each token.
+     * @since 4.3.1
+     */
+    default Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(text, (token, position) -> frequencies.merge(token, 1, Integer::sum));
+        return frequencies;
+    }
+
+    /**
+     * Tokenize a <code>text</code>, discards all stop-words from it and
+     * passes each remaining token to the <code>consumer</code> in the order
+     * they appear, without collecting them first.
+     * <p>
+     * By default the text is split into words in order and each word is
+     * filtered by {@link #tokenize(String)}, so repeated words are reported
+     * every time they appear. Tokenizers with their own splitting should
+     * override this method.
+     *
+     * @param text     the text to tokenize
+     * @param consumer the consumer of the tokens
+     * @since 4.3.1
+     */
+    default void tokenize(CharSequence text, TokenConsumer consumer) {
+        if (text == null) return;
+
+        StringTokenizer tokenizer = stringTokenizer(text.toString());
+        int position = 0;
+        while (tokenizer.hasMoreTokens()) {
+            for (String token : tokenize(tokenizer.nextToken())) {
+                consumer.accept(token, position);
+            }
+            position++;
+        }
+    }
+
     /**
      * Gets all stop-words for a language.
      *
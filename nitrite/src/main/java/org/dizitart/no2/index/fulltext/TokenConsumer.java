@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.index.fulltext;
+
+/**
+ * Receives the tokens of a text from a {@link TextTokenizer}.
+ *
+ * @author Anindya Chatterjee
+ * @see TextTokenizer#tokenize(CharSequence, TokenConsumer)
+ * @since 4.3.1
+ */
+@FunctionalInterface
+public interface TokenConsumer {
+
+    /**
+     * Accepts a token.
+     *
+     * @param token    the token
+     * @param position the position of the word in the text, stop-words included
+     */
+    void accept(String token, int position);
+}
@@ -16,6 +16,7 @@
 
 package org.dizitart.no2.repository;
 
+import org.dizitart.no2.collection.FindOptions;
 import org.dizitart.no2.collection.FindPlan;
 import org.dizitart.no2.common.Lookup;
 import org.dizitart.no2.common.RecordStream;
@@ -59,4 +60,15 @@ public interface Cursor<T> extends RecordStream<T> {
      * @since 2.1.0
      */
     <Foreign, Joined> RecordStream<Joined> join(Cursor<Foreign> foreignCursor, Lookup lookup, Class<Joined> type);
+
+    /**
+     * Gets the continuation token for the next page of a keyset paginated
+     * find operation. The token points to the last object iterated from
+     * this cursor.
+     *
+     * @return the token, or <code>null</code> if no object was iterated.
+     * @see FindOptions#after(String)
+     * @since 4.3.1
+     */
+    String getContinuationToken();
 }
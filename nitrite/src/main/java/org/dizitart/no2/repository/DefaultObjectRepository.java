@@ -160,6 +160,16 @@ class DefaultObjectRepository<T> implements ObjectRepository<T> {
         return operations.find(filter, findOptions, getType());
     }
 
+    @Override
+    public long count(Filter filter) {
+        return operations.count(filter);
+    }
+
+    @Override
+    public boolean exists(Filter filter) {
+        return operations.exists(filter);
+    }
+
     @Override
     public <I> T getById(I id) {
         Filter idFilter = operations.createIdFilter(id);
@@ -58,6 +58,11 @@ class ObjectCursor<T> implements Cursor<T> {
         return cursor.getFindPlan();
     }
 
+    @Override
+    public String getContinuationToken() {
+        return cursor.getContinuationToken();
+    }
+
     @Override
     public <P> RecordStream<P> project(Class<P> projectionType) {
         notNull(projectionType, "projection cannot be null");
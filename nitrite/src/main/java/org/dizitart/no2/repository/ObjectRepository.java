@@ -302,6 +302,31 @@ public interface ObjectRepository<T> extends PersistentCollection<T> {
      */
     Cursor<T> find(Filter filter, FindOptions findOptions);
 
+    /**
+     * Counts the objects which match a filter, without fetching the
+     * documents when the filter can be answered from the indexes alone.
+     *
+     * @param filter the filter to apply to select objects from collection.
+     * @return the number of matching objects.
+     * @see NitriteCollection#count(Filter)
+     * @since 4.3.1
+     */
+    default long count(Filter filter) {
+        return find(filter).size();
+    }
+
+    /**
+     * Checks if any object matches a filter.
+     *
+     * @param filter the filter to apply to select objects from collection.
+     * @return {@code true} if at least one object matches.
+     * @see NitriteCollection#exists(Filter)
+     * @since 4.3.1
+     */
+    default boolean exists(Filter filter) {
+        return !find(filter).isEmpty();
+    }
+
     /**
      * Gets a single element from the repository by its id. If no element
      * is found, it will return {@code null}. The object must have a field annotated with {@link Id},
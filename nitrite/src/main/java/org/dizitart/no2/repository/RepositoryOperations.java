@@ -200,6 +200,14 @@ public class RepositoryOperations {
         return new ObjectCursor<>(nitriteMapper, documentCursor, type);
     }
 
+    public long count(Filter filter) {
+        return collection.count(asObjectFilter(filter));
+    }
+
+    public boolean exists(Filter filter) {
+        return collection.exists(asObjectFilter(filter));
+    }
+
     private void validateCollection() {
         if (collection == null) {
             throw new ValidationException("Repository has not been initialized properly");
@@ -1,9 +1,11 @@
 package org.dizitart.no2.store;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.dizitart.no2.NitriteConfig;
 import org.dizitart.no2.common.event.NitriteEventBus;
+import org.dizitart.no2.common.meta.Attributes;
 import org.dizitart.no2.store.events.EventInfo;
 import org.dizitart.no2.store.events.StoreEventBus;
 import org.dizitart.no2.store.events.StoreEventListener;
@@ -11,6 +13,9 @@ import org.dizitart.no2.store.events.StoreEvents;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.dizitart.no2.common.Constants.META_MAP_NAME;
 
 /**
  * An abstract implementation of the {@link NitriteStore} interface
@@ -46,11 +51,44 @@ public abstract class AbstractNitriteStore<Config extends StoreConfig>
      */
     private StoreCatalog storeCatalog;
 
+    /**
+     * The last modified times of the maps not yet written to their attributes.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Long> lastModifiedTimes;
+
     /**
      * Instantiates a new {@link AbstractNitriteStore}.
      */
     protected AbstractNitriteStore() {
         eventBus = new StoreEventBus();
+        lastModifiedTimes = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void markModified(String mapName) {
+        lastModifiedTimes.put(mapName, System.currentTimeMillis());
+    }
+
+    @Override
+    public void flushModifications() {
+        if (lastModifiedTimes.isEmpty() || isClosed()) return;
+
+        NitriteMap<String, Attributes> metaMap = openMap(META_MAP_NAME, String.class, Attributes.class);
+        for (Map.Entry<String, Long> entry : lastModifiedTimes.entrySet()) {
+            String mapName = entry.getKey();
+            Long time = entry.getValue();
+            // keep a time recorded meanwhile for the next flush
+            lastModifiedTimes.remove(mapName, time);
+            if (metaMap == null) continue;
+
+            Attributes attributes = metaMap.get(mapName);
+            if (attributes == null) {
+                attributes = new Attributes(mapName);
+            }
+            attributes.set(Attributes.LAST_MODIFIED_TIME, Long.toString(time));
+            metaMap.put(mapName, attributes);
+        }
     }
 
     /**
@@ -63,6 +101,15 @@ public abstract class AbstractNitriteStore<Config extends StoreConfig>
         eventBus.post(event);
     }
 
+    /**
+     * Discards the pending last modified time of a dropped map.
+     *
+     * @param mapName the name of the map
+     */
+    protected void discardModifications(String mapName) {
+        lastModifiedTimes.remove(mapName);
+    }
+
     @Override
     public Set<String> getCollectionNames() {
         return getCatalog().getCollectionNames();
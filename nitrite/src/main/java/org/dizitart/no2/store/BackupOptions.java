@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.store;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Represents the options of an online backup of a {@link NitriteStore}.
+ *
+ * @author Anindya Chatterjee
+ * @see NitriteStore#backup(BackupOptions)
+ * @since 4.3.1
+ */
+@Setter
+@Getter
+@EqualsAndHashCode
+public class BackupOptions {
+
+    /**
+     * Specifies the target of the backup. Depending on the store it is
+     * a file or a directory.
+     *
+     * @param path the target of the backup.
+     * @return the target of the backup.
+     */
+    private String path;
+
+    /**
+     * Specifies whether the backup only adds the changes since the previous
+     * backup to the same target. A store which can not back up incrementally
+     * always writes a full backup.
+     *
+     * @param incremental if the backup should be incremental.
+     * @return if the backup should be incremental.
+     */
+    private boolean incremental;
+
+    /**
+     * Specifies the maximum number of bytes per second the backup writes,
+     * so that it does not saturate the disk used by the database. A value
+     * of 0 or less does not limit the backup.
+     *
+     * @param rateLimit the maximum number of bytes per second.
+     * @return the maximum number of bytes per second.
+     */
+    private long rateLimit;
+
+    /**
+     * Creates a {@link BackupOptions} which writes a full backup to the
+     * specified <code>path</code>.
+     *
+     * @param path the target of the backup.
+     * @return a new backup option.
+     */
+    public static BackupOptions backupOptions(String path) {
+        BackupOptions options = new BackupOptions();
+        options.setPath(path);
+        return options;
+    }
+
+    /**
+     * Creates a {@link BackupOptions} which writes a backup to the specified
+     * <code>path</code>, incrementally if <code>incremental</code> is
+     * <code>true</code>.
+     *
+     * @param path        the target of the backup.
+     * @param incremental if the backup should be incremental.
+     * @return a new backup option.
+     */
+    public static BackupOptions backupOptions(String path, boolean incremental) {
+        BackupOptions options = backupOptions(path);
+        options.setIncremental(incremental);
+        return options;
+    }
+}
@@ -213,11 +213,24 @@ public interface NitriteMap<Key, Value> extends AttributesAware, AutoCloseable {
      */
     boolean isDropped();
 
+    /**
+     * Indicates if the keys of this map are navigated in their natural order,
+     * so that a contiguous range of keys can be served by seeking with
+     * {@link #ceilingKey(Object)} and {@link #higherKey(Object)}.
+     *
+     * @return <code>true</code> if the keys are in natural order
+     * @since 4.3.1
+     */
+    default boolean isNaturallyOrdered() {
+        return true;
+    }
+
     /**
      * Gets the attributes of this map.
      * */
     default Attributes getAttributes() {
         if (!isDropped()) {
+            getStore().flushModifications();
             NitriteMap<String, Attributes> metaMap = getStore().openMap(META_MAP_NAME, String.class, Attributes.class);
             if (metaMap != null && !getName().contentEquals(META_MAP_NAME)) {
                 return metaMap.get(getName());
@@ -239,22 +252,15 @@ public interface NitriteMap<Key, Value> extends AttributesAware, AutoCloseable {
     }
 
     /**
-     * Update last modified time of the map.
+     * Update last modified time of the map. The store keeps the time in
+     * memory and writes it to the attributes of the map on commit or close.
      */
     default void updateLastModifiedTime() {
         if (!isDropped()) {
             if (isNullOrEmpty(getName())
                 || META_MAP_NAME.equals(getName())) return;
 
-            NitriteMap<String, Attributes> metaMap = getStore().openMap(META_MAP_NAME, String.class, Attributes.class);
-            if (metaMap != null) {
-                Attributes attributes = metaMap.get(getName());
-                if (attributes == null) {
-                    attributes = new Attributes(getName());
-                    metaMap.put(getName(), attributes);
-                }
-                attributes.set(Attributes.LAST_MODIFIED_TIME, Long.toString(System.currentTimeMillis()));
-            }
+            getStore().markModified(getName());
         }
     }
 }
@@ -18,12 +18,17 @@ package org.dizitart.no2.store;
 
 import org.dizitart.no2.collection.NitriteCollection;
 import org.dizitart.no2.index.BoundingBox;
+import org.dizitart.no2.common.meta.Attributes;
 import org.dizitart.no2.common.module.NitritePlugin;
+import org.dizitart.no2.exceptions.InvalidOperationException;
 import org.dizitart.no2.repository.ObjectRepository;
 import org.dizitart.no2.store.events.StoreEventListener;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.dizitart.no2.common.Constants.META_MAP_NAME;
 
 /**
  * Represents a storage interface for Nitrite database.
@@ -87,6 +92,54 @@ public interface NitriteStore<Config extends StoreConfig> extends NitritePlugin
      */
     void commit();
 
+    /**
+     * Commits the changes asynchronously. The returned future completes
+     * when the changes are durable, or exceptionally if the commit fails.
+     * <p>
+     * By default, it commits the changes on the calling thread. A store
+     * can coalesce the commits of many callers into one write instead.
+     *
+     * @return the future which completes when the changes are durable.
+     */
+    default CompletableFuture<Void> commitAsync() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            commit();
+            future.complete(null);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Records a modification of a map. By default, the last modified time
+     * in the attributes of the map is updated right away, a store can keep
+     * it in memory until {@link #flushModifications()} instead.
+     *
+     * @param mapName the name of the map
+     * @since 4.3.1
+     */
+    default void markModified(String mapName) {
+        NitriteMap<String, Attributes> metaMap = openMap(META_MAP_NAME, String.class, Attributes.class);
+        if (metaMap != null) {
+            Attributes attributes = metaMap.get(mapName);
+            if (attributes == null) {
+                attributes = new Attributes(mapName);
+            }
+            attributes.set(Attributes.LAST_MODIFIED_TIME, Long.toString(System.currentTimeMillis()));
+            metaMap.put(mapName, attributes);
+        }
+    }
+
+    /**
+     * Writes the pending last modified times of the maps to their attributes.
+     *
+     * @since 4.3.1
+     */
+    default void flushModifications() {
+    }
+
     /**
      * This method is called before closing the store. Any cleanup or finalization
      * tasks should be performed in this method.
@@ -194,4 +247,42 @@ public interface NitriteStore<Config extends StoreConfig> extends NitritePlugin
      * @return the catalog
      */
     StoreCatalog getCatalog();
+
+    /**
+     * Checks if the store can run transactions natively through
+     * {@link #beginTransaction()}.
+     *
+     * @return {@code true} if the store supports native transactions;
+     * {@code false} otherwise.
+     * @since 4.3.1
+     */
+    default boolean isTransactional() {
+        return false;
+    }
+
+    /**
+     * Begins a native store transaction. Maps opened through the returned
+     * {@link StoreTransaction} read from a snapshot of the store and buffer
+     * their writes until the transaction is committed.
+     *
+     * @return the store transaction
+     * @throws InvalidOperationException if the store does not support native transactions.
+     * @since 4.3.1
+     */
+    default StoreTransaction beginTransaction() {
+        throw new InvalidOperationException(getClass().getSimpleName() + " does not support native transactions");
+    }
+
+    /**
+     * Writes an online backup of the store. The store remains readable and
+     * writable while the backup is written, the backup holds the committed
+     * state of the store at the start of the backup.
+     *
+     * @param backupOptions the backup options
+     * @throws InvalidOperationException if the store does not support backups.
+     * @since 4.3.1
+     */
+    default void backup(BackupOptions backupOptions) {
+        throw new InvalidOperationException(getClass().getSimpleName() + " does not support backups");
+    }
 }
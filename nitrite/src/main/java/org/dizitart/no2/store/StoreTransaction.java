@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.exceptions.TransactionException;
+
+/**
+ * Represents a transaction executed natively by a {@link NitriteStore}.
+ * <p>
+ * Every map opened through a store transaction reads from a snapshot of
+ * the store taken when the map is first opened, and buffers its writes
+ * in memory. On {@link #commit()} the store checks that no other writer
+ * has changed any of the written keys since the transaction observed them,
+ * and applies the whole write set atomically.
+ *
+ * @author Anindya Chatterjee
+ * @see NitriteStore#beginTransaction()
+ * @since 4.3.1
+ */
+public interface StoreTransaction extends AutoCloseable {
+    /**
+     * Opens a transactional view of a {@link NitriteMap}. If a view of
+     * the map is already open in this transaction, that view is returned.
+     *
+     * @param <Key>     the key type
+     * @param <Value>   the value type
+     * @param mapName   the map name
+     * @param keyType   the key type
+     * @param valueType the value type
+     * @return the transactional view of the map.
+     */
+    <Key, Value> NitriteMap<Key, Value> openMap(String mapName, Class<?> keyType, Class<?> valueType);
+
+    /**
+     * Validates the write set of this transaction and applies it to the store.
+     *
+     * @throws TransactionException if a written key was modified by another
+     * writer after this transaction observed it.
+     */
+    void commit();
+
+    /**
+     * Discards all buffered writes of this transaction.
+     */
+    void rollback();
+
+    /**
+     * Releases the snapshot held by this transaction. Any uncommitted
+     * writes are discarded.
+     */
+    @Override
+    void close();
+}
@@ -8,6 +8,7 @@ import org.dizitart.no2.collection.*;
 import org.dizitart.no2.collection.events.CollectionEventInfo;
 import org.dizitart.no2.collection.events.CollectionEventListener;
 import org.dizitart.no2.collection.operation.CollectionOperations;
+import org.dizitart.no2.common.RecordStream;
 import org.dizitart.no2.common.WriteResult;
 import org.dizitart.no2.common.event.EventBus;
 import org.dizitart.no2.common.event.NitriteEventBus;
@@ -23,6 +24,7 @@ import org.dizitart.no2.store.NitriteStore;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -94,7 +96,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
                 primary.remove(document);
             }
         });
-        transactionContext.getJournal().add(journalEntry);
+        addJournalEntry(journalEntry);
 
         return result;
     }
@@ -135,7 +137,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
                 primary.insert(document);
             }
         });
-        transactionContext.getJournal().add(journalEntry);
+        addJournalEntry(journalEntry);
 
         return result;
     }
@@ -185,7 +187,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
                 primary.insert(toRemove.get());
             }
         });
-        transactionContext.getJournal().add(journalEntry);
+        addJournalEntry(journalEntry);
 
         return result;
     }
@@ -226,7 +228,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
                 primary.insert(document);
             }
         });
-        transactionContext.getJournal().add(journalEntry);
+        addJournalEntry(journalEntry);
 
         return result;
     }
@@ -242,6 +244,63 @@ class DefaultTransactionalCollection implements NitriteCollection {
         }
     }
 
+    @Override
+    public RecordStream<Document> aggregate(Filter filter, AggregateOptions aggregateOptions) {
+        try {
+            readLock.lock();
+            checkOpened();
+            // the index maps of a transaction are overlays, their entries are
+            // neither in key order nor free of duplicate keys
+            return collectionOperations.aggregate(filter, aggregateOptions, false);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public RecordStream<Object> distinct(String field, Filter filter, DistinctOptions distinctOptions) {
+        try {
+            readLock.lock();
+            checkOpened();
+            // the index maps of a transaction are overlays, their keys are
+            // neither in order nor free of duplicates
+            return collectionOperations.distinct(field, filter, distinctOptions, false);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public long count(Filter filter) {
+        if (filter == null || filter == Filter.ALL) {
+            // the size of the transactional map does not include the primary
+            return size();
+        }
+
+        try {
+            readLock.lock();
+            checkOpened();
+            return collectionOperations.count(filter);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean exists(Filter filter) {
+        if (filter == null || filter == Filter.ALL) {
+            return !find().isEmpty();
+        }
+
+        try {
+            readLock.lock();
+            checkOpened();
+            return collectionOperations.exists(filter);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     @Override
     public Document getById(NitriteId nitriteId) {
         notNull(nitriteId, "nitriteId cannot be null");
@@ -277,6 +336,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
         try {
             writeLock.lock();
             checkOpened();
+            checkSchemaChange();
             primary.createIndex(indexOptions, fieldNames);
         } finally {
             writeLock.unlock();
@@ -288,6 +348,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
         try {
             writeLock.lock();
             checkOpened();
+            checkSchemaChange();
             primary.rebuildIndex(fieldNames);
         } finally {
             writeLock.unlock();
@@ -332,6 +393,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
         try {
             writeLock.lock();
             checkOpened();
+            checkSchemaChange();
             primary.dropIndex(fieldNames);
         } finally {
             writeLock.unlock();
@@ -343,6 +405,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
         try {
             writeLock.lock();
             checkOpened();
+            checkSchemaChange();
             primary.dropAllIndices();
             collectionOperations.initialize();
         } finally {
@@ -355,6 +418,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
         try {
             writeLock.lock();
             checkOpened();
+            checkSchemaChange();
             primary.clear();
         } finally {
             writeLock.unlock();
@@ -366,6 +430,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
         try {
             writeLock.lock();
             checkOpened();
+            checkSchemaChange();
             primary.drop();
         } finally {
             close();
@@ -472,7 +537,7 @@ class DefaultTransactionalCollection implements NitriteCollection {
                 primary.setAttributes(original.get());
             }
         });
-        transactionContext.getJournal().add(journalEntry);
+        addJournalEntry(journalEntry);
     }
 
     private void initialize() {
@@ -484,7 +549,10 @@ class DefaultTransactionalCollection implements NitriteCollection {
         this.readLock = rwLock.readLock();
         this.writeLock = rwLock.writeLock();
 
-        this.eventBus = new CollectionEventBus();
+        // a native store transaction writes to the maps of the primary collection
+        // directly, its events are kept to be published on commit
+        this.eventBus = new CollectionEventBus(transactionContext.isNativeTransaction()
+            ? transactionContext.getPendingEvents() : null);
         initializeOperation();
     }
 
@@ -495,8 +563,17 @@ class DefaultTransactionalCollection implements NitriteCollection {
     }
 
     private static class CollectionEventBus extends NitriteEventBus<CollectionEventInfo<?>, CollectionEventListener> {
+        private final Queue<CollectionEventInfo<?>> pendingEvents;
+
+        CollectionEventBus(Queue<CollectionEventInfo<?>> pendingEvents) {
+            this.pendingEvents = pendingEvents;
+        }
 
         public void post(CollectionEventInfo<?> collectionEventInfo) {
+            if (pendingEvents != null) {
+                pendingEvents.add(collectionEventInfo);
+            }
+
             for (final CollectionEventListener listener : getListeners()) {
                 getEventExecutor().submit(() -> listener.onEvent(collectionEventInfo));
             }
@@ -521,6 +598,19 @@ class DefaultTransactionalCollection implements NitriteCollection {
         }
     }
 
+    private void checkSchemaChange() {
+        if (transactionContext.isNativeTransaction()) {
+            throw new TransactionException("Index and collection level changes are not supported in a native store transaction");
+        }
+    }
+
+    private void addJournalEntry(JournalEntry journalEntry) {
+        // a native store transaction applies its own write set on commit
+        if (!transactionContext.isNativeTransaction()) {
+            transactionContext.getJournal().add(journalEntry);
+        }
+    }
+
     private void closeEventBus() {
         if (eventBus != null) {
             eventBus.close();
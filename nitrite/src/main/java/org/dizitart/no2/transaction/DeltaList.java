@@ -0,0 +1,130 @@
+package org.dizitart.no2.transaction;
+
+import java.util.*;
+
+/**
+ * A list view over an entry of the primary map which records the changes
+ * of a transaction as a delta instead of copying the entry. The entry
+ * itself is never modified, reads merge it with the delta lazily.
+ * <p>
+ * Only appending and removing by value are supported, which is all
+ * an index does with its entries.
+ *
+ * @param <E> the element type
+ * @author Anindya Chatterjee
+ * @since 4.3.1
+ */
+class DeltaList<E> extends AbstractList<E> {
+    private final List<E> base;
+    private final Map<Object, Integer> removed;
+    private final List<E> added;
+    private int removedCount;
+
+    /**
+     * Instantiates a new {@link DeltaList}.
+     *
+     * @param base the entry of the primary map
+     */
+    DeltaList(List<E> base) {
+        this.base = base;
+        this.removed = new HashMap<>();
+        this.added = new ArrayList<>();
+    }
+
+    @Override
+    public boolean add(E element) {
+        modCount++;
+        return added.add(element);
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        // the first occurrence is in the base entry as long as it has
+        // more occurrences than the ones already removed
+        int skip = removed.getOrDefault(element, 0);
+        int occurrences = 0;
+        for (E e : base) {
+            if (Objects.equals(e, element) && ++occurrences > skip) {
+                removed.put(element, skip + 1);
+                removedCount++;
+                modCount++;
+                return true;
+            }
+        }
+
+        if (added.remove(element)) {
+            modCount++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        int baseSize = base.size() - removedCount;
+        if (index >= baseSize) {
+            return added.get(index - baseSize);
+        }
+
+        Iterator<E> iterator = iterator();
+        for (int i = 0; i < index; i++) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    @Override
+    public int size() {
+        return base.size() - removedCount + added.size();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final Iterator<E> baseIterator = base.iterator();
+            private final Iterator<E> addedIterator = added.iterator();
+            private final Map<Object, Integer> skipped = new HashMap<>();
+            private E next;
+            private boolean nextSet = false;
+
+            @Override
+            public boolean hasNext() {
+                return nextSet || setNext();
+            }
+
+            @Override
+            public E next() {
+                if (!nextSet && !setNext()) {
+                    throw new NoSuchElementException();
+                }
+                nextSet = false;
+                return next;
+            }
+
+            private boolean setNext() {
+                while (baseIterator.hasNext()) {
+                    E element = baseIterator.next();
+                    int count = skipped.getOrDefault(element, 0);
+                    if (count < removed.getOrDefault(element, 0)) {
+                        skipped.put(element, count + 1);
+                        continue;
+                    }
+                    next = element;
+                    nextSet = true;
+                    return true;
+                }
+
+                if (addedIterator.hasNext()) {
+                    next = addedIterator.next();
+                    nextSet = true;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+}
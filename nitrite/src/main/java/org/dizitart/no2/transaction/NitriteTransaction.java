@@ -7,18 +7,26 @@ import org.dizitart.no2.NitriteConfig;
 import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.NitriteCollection;
 import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.collection.events.CollectionEventInfo;
+import org.dizitart.no2.common.DBValue;
 import org.dizitart.no2.common.concurrent.LockService;
 import org.dizitart.no2.common.module.NitriteModule;
 import org.dizitart.no2.exceptions.TransactionException;
+import org.dizitart.no2.index.IndexDescriptor;
+import org.dizitart.no2.index.IndexType;
+import org.dizitart.no2.index.TextIndex;
 import org.dizitart.no2.repository.ObjectRepository;
 import org.dizitart.no2.repository.EntityDecorator;
 import org.dizitart.no2.store.NitriteMap;
 import org.dizitart.no2.store.NitriteStore;
+import org.dizitart.no2.store.StoreTransaction;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.locks.Lock;
 
+import static org.dizitart.no2.common.util.IndexUtils.deriveIndexMapName;
 import static org.dizitart.no2.common.util.ObjectUtils.findRepositoryName;
 import static org.dizitart.no2.common.util.ObjectUtils.findRepositoryNameByDecorator;
 
@@ -64,15 +72,9 @@ class NitriteTransaction implements Transaction {
             throw new TransactionException("Collection " + name + " does not exists");
         }
 
-        NitriteMap<NitriteId, Document> txMap = transactionStore.openMap(name,
-            NitriteId.class, Document.class);
-
-        TransactionContext context = new TransactionContext();
-        context.setCollectionName(name);
-        context.setNitriteMap(txMap);
-        context.setJournal(new LinkedList<>());
-        context.setConfig(transactionConfig);
+        NitriteMap<NitriteId, Document> txMap = openTransactionalMap(name, primary);
 
+        TransactionContext context = createContext(name, txMap, primary);
         NitriteCollection txCollection = new DefaultTransactionalCollection(primary, context);
         collectionRegistry.put(name, txCollection);
         contextMap.put(name, context);
@@ -96,16 +98,10 @@ class NitriteTransaction implements Transaction {
             throw new TransactionException("Repository of type " + type.getName() + " does not exists");
         }
 
-        NitriteMap<NitriteId, Document> txMap = transactionStore.openMap(name,
-            NitriteId.class, Document.class);
-
-        TransactionContext context = new TransactionContext();
-        context.setCollectionName(name);
-        context.setNitriteMap(txMap);
-        context.setJournal(new LinkedList<>());
-        context.setConfig(transactionConfig);
-
         NitriteCollection primaryCollection = primary.getDocumentCollection();
+        NitriteMap<NitriteId, Document> txMap = openTransactionalMap(name, primaryCollection);
+
+        TransactionContext context = createContext(name, txMap, primaryCollection);
         NitriteCollection backingCollection = new DefaultTransactionalCollection(primaryCollection, context);
         ObjectRepository<T> txRepository = new DefaultTransactionalRepository<>(type,
             primary, backingCollection, transactionConfig);
@@ -133,16 +129,10 @@ class NitriteTransaction implements Transaction {
                 + " and key " + key + " does not exists");
         }
 
-        NitriteMap<NitriteId, Document> txMap = transactionStore.openMap(name,
-            NitriteId.class, Document.class);
-
-        TransactionContext context = new TransactionContext();
-        context.setCollectionName(name);
-        context.setNitriteMap(txMap);
-        context.setJournal(new LinkedList<>());
-        context.setConfig(transactionConfig);
-
         NitriteCollection primaryCollection = primary.getDocumentCollection();
+        NitriteMap<NitriteId, Document> txMap = openTransactionalMap(name, primaryCollection);
+
+        TransactionContext context = createContext(name, txMap, primaryCollection);
         NitriteCollection backingCollection = new DefaultTransactionalCollection(primaryCollection, context);
         ObjectRepository<T> txRepository = new DefaultTransactionalRepository<>(type,
             primary, backingCollection, transactionConfig);
@@ -168,16 +158,10 @@ class NitriteTransaction implements Transaction {
             throw new TransactionException("Repository of type " + entityDecorator.getEntityName() + " does not exists");
         }
 
-        NitriteMap<NitriteId, Document> txMap = transactionStore.openMap(name,
-            NitriteId.class, Document.class);
-
-        TransactionContext context = new TransactionContext();
-        context.setCollectionName(name);
-        context.setNitriteMap(txMap);
-        context.setJournal(new LinkedList<>());
-        context.setConfig(transactionConfig);
-
         NitriteCollection primaryCollection = primary.getDocumentCollection();
+        NitriteMap<NitriteId, Document> txMap = openTransactionalMap(name, primaryCollection);
+
+        TransactionContext context = createContext(name, txMap, primaryCollection);
         NitriteCollection backingCollection = new DefaultTransactionalCollection(primaryCollection, context);
         ObjectRepository<T> txRepository = new DefaultTransactionalRepository<>(entityDecorator,
             primary, backingCollection, transactionConfig);
@@ -205,16 +189,10 @@ class NitriteTransaction implements Transaction {
                 + " and key " + key + " does not exists");
         }
 
-        NitriteMap<NitriteId, Document> txMap = transactionStore.openMap(name,
-            NitriteId.class, Document.class);
-
-        TransactionContext context = new TransactionContext();
-        context.setCollectionName(name);
-        context.setNitriteMap(txMap);
-        context.setJournal(new LinkedList<>());
-        context.setConfig(transactionConfig);
-
         NitriteCollection primaryCollection = primary.getDocumentCollection();
+        NitriteMap<NitriteId, Document> txMap = openTransactionalMap(name, primaryCollection);
+
+        TransactionContext context = createContext(name, txMap, primaryCollection);
         NitriteCollection backingCollection = new DefaultTransactionalCollection(primaryCollection, context);
         ObjectRepository<T> txRepository = new DefaultTransactionalRepository<>(entityDecorator,
             primary, backingCollection, transactionConfig);
@@ -228,6 +206,12 @@ class NitriteTransaction implements Transaction {
         checkState();
         this.state = TransactionState.PartiallyCommitted;
 
+        StoreTransaction storeTransaction = transactionStore.getStoreTransaction();
+        if (storeTransaction != null) {
+            commitStoreTransaction(storeTransaction);
+            return;
+        }
+
         for (Map.Entry<String, TransactionContext> contextEntry : contextMap.entrySet()) {
             String collectionName = contextEntry.getKey();
             TransactionContext transactionContext = contextEntry.getValue();
@@ -280,6 +264,11 @@ class NitriteTransaction implements Transaction {
     public synchronized void rollback() {
         this.state = TransactionState.Aborted;
 
+        StoreTransaction storeTransaction = transactionStore.getStoreTransaction();
+        if (storeTransaction != null) {
+            storeTransaction.rollback();
+        }
+
         for (Map.Entry<String, Stack<UndoEntry>> entry : undoRegistry.entrySet()) {
             String collectionName = entry.getKey();
             Stack<UndoEntry> undoLog = entry.getValue();
@@ -338,7 +327,8 @@ class NitriteTransaction implements Transaction {
         NitriteStore<?> nitriteStore = nitrite.getStore();
         NitriteConfig nitriteConfig = nitrite.getConfig();
         this.transactionConfig = new TransactionConfig(nitriteConfig);
-        this.transactionConfig.loadModule(NitriteModule.module(new TransactionStore<>(nitriteStore)));
+        StoreTransaction storeTransaction = nitriteStore.isTransactional() ? nitriteStore.beginTransaction() : null;
+        this.transactionConfig.loadModule(NitriteModule.module(new TransactionStore<>(nitriteStore, storeTransaction)));
 
         this.transactionConfig.autoConfigure();
         this.transactionConfig.initialize();
@@ -346,6 +336,111 @@ class NitriteTransaction implements Transaction {
         this.state = TransactionState.Active;
     }
 
+    private void commitStoreTransaction(StoreTransaction storeTransaction) {
+        // lock the collections in a fixed order, so that concurrent commits
+        // can not deadlock, and let the store validate and apply the write set
+        List<Lock> locks = new ArrayList<>();
+        for (String collectionName : new TreeSet<>(contextMap.keySet())) {
+            locks.add(lockService.getWriteLock(collectionName));
+        }
+
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+
+        try {
+            storeTransaction.commit();
+        } catch (TransactionException te) {
+            state = TransactionState.Failed;
+            log.error("Error while committing transaction", te);
+            throw te;
+        } catch (Exception e) {
+            state = TransactionState.Failed;
+            log.error("Error while committing transaction", e);
+            throw new TransactionException("Error committing transaction", e);
+        } finally {
+            for (TransactionContext transactionContext : contextMap.values()) {
+                transactionContext.getActive().set(false);
+            }
+
+            for (Lock lock : locks) {
+                lock.unlock();
+            }
+        }
+
+        state = TransactionState.Committed;
+        publishPendingEvents();
+        close();
+    }
+
+    private void publishPendingEvents() {
+        // the store has written the changes to the maps directly, the
+        // listeners of the primary collections learn about them only here
+        for (TransactionContext context : contextMap.values()) {
+            CollectionEventInfo<?> eventInfo;
+            while ((eventInfo = context.getPendingEvents().poll()) != null) {
+                try {
+                    context.getPrimary().publish(eventInfo);
+                } catch (Exception e) {
+                    log.error("Error while publishing the event of a committed transaction", e);
+                }
+            }
+        }
+    }
+
+    private NitriteMap<NitriteId, Document> openTransactionalMap(String name, NitriteCollection primary) {
+        if (transactionStore.getStoreTransaction() == null) {
+            return transactionStore.openMap(name, NitriteId.class, Document.class);
+        }
+
+        // open the documents and the indexes of a collection under its read lock,
+        // so that the transaction reads all of them from the same snapshot
+        Lock lock = lockService.getReadLock(name);
+        try {
+            lock.lock();
+            NitriteMap<NitriteId, Document> txMap = transactionStore.openMap(name,
+                NitriteId.class, Document.class);
+            for (IndexDescriptor indexDescriptor : primary.listIndices()) {
+                if (isTextIndex(indexDescriptor)) {
+                    // postings, term indexes and statistics of a text index
+                    // live in maps of their own
+                    TextIndex.openMaps(indexDescriptor, transactionStore);
+                } else if (isComparableIndex(indexDescriptor)) {
+                    transactionStore.openMap(deriveIndexMapName(indexDescriptor),
+                        DBValue.class, ConcurrentSkipListMap.class);
+                }
+            }
+            return txMap;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private TransactionContext createContext(String name, NitriteMap<NitriteId, Document> txMap,
+                                             NitriteCollection primary) {
+        TransactionContext context = new TransactionContext();
+        context.setCollectionName(name);
+        context.setNitriteMap(txMap);
+        context.setPrimary(primary);
+        context.setJournal(new LinkedList<>());
+        context.setConfig(transactionConfig);
+        context.setNativeTransaction(transactionStore.getStoreTransaction() != null);
+        return context;
+    }
+
+    private boolean isComparableIndex(IndexDescriptor indexDescriptor) {
+        // spatial indexes are backed by an r-tree, not a map
+        String indexType = indexDescriptor.getIndexType();
+        return IndexType.UNIQUE.equals(indexType)
+            || IndexType.NON_UNIQUE.equals(indexType);
+    }
+
+    private boolean isTextIndex(IndexDescriptor indexDescriptor) {
+        String indexType = indexDescriptor.getIndexType();
+        return IndexType.FULL_TEXT.equals(indexType)
+            || IndexType.FULL_TEXT_TRIGRAM.equals(indexType);
+    }
+
     private void checkState() {
         if (state != TransactionState.Active) {
             throw new TransactionException("Transaction is not active");
@@ -1,11 +1,15 @@
 package org.dizitart.no2.transaction;
 
 import lombok.Data;
+import lombok.ToString;
 import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteCollection;
 import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.collection.events.CollectionEventInfo;
 import org.dizitart.no2.store.NitriteMap;
 
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -19,14 +23,21 @@ class TransactionContext implements AutoCloseable {
     private NitriteMap<NitriteId, Document> nitriteMap;
     private TransactionConfig config;
     private AtomicBoolean active;
+    private boolean nativeTransaction;
+    @ToString.Exclude
+    private NitriteCollection primary;
+    @ToString.Exclude
+    private Queue<CollectionEventInfo<?>> pendingEvents;
 
     public TransactionContext() {
         active = new AtomicBoolean(true);
+        pendingEvents = new ConcurrentLinkedQueue<>();
     }
 
     @Override
     public void close() throws Exception {
         journal.clear();
+        pendingEvents.clear();
         nitriteMap.clear();
         nitriteMap.close();
         active.compareAndSet(true, false);
@@ -1,6 +1,7 @@
 package org.dizitart.no2.transaction;
 
 import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.exceptions.TransactionException;
 import org.dizitart.no2.index.BoundingBox;
 import org.dizitart.no2.store.*;
 import org.dizitart.no2.store.events.StoreEventListener;
@@ -16,12 +17,18 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 class TransactionStore<T extends StoreConfig> extends AbstractNitriteStore<T> {
     private final NitriteStore<T> primaryStore;
+    private final StoreTransaction storeTransaction;
     private final Map<String, NitriteMap<?, ?>> mapRegistry;
     private final Map<String, NitriteRTree<?, ?>> rTreeRegistry;
     private final List<String> deletedMap = new ArrayList<>();
 
     public TransactionStore(NitriteStore<T> store) {
+        this(store, null);
+    }
+
+    public TransactionStore(NitriteStore<T> store, StoreTransaction storeTransaction) {
         this.primaryStore = store;
+        this.storeTransaction = storeTransaction;
         this.mapRegistry = new ConcurrentHashMap<>();
         this.rTreeRegistry = new ConcurrentHashMap<>();
     }
@@ -46,6 +53,16 @@ class TransactionStore<T extends StoreConfig> extends AbstractNitriteStore<T> {
         return false;
     }
 
+    /**
+     * Gets the native store transaction backing this store, if any.
+     *
+     * @return the native store transaction, or {@code null} if the
+     * transaction replays its journal on the primary store.
+     */
+    StoreTransaction getStoreTransaction() {
+        return storeTransaction;
+    }
+
     @Override
     public void commit() {
         throw new InvalidOperationException("Call commit on transaction");
@@ -63,6 +80,9 @@ class TransactionStore<T extends StoreConfig> extends AbstractNitriteStore<T> {
 
         mapRegistry.clear();
         rTreeRegistry.clear();
+        if (storeTransaction != null) {
+            storeTransaction.close();
+        }
         eventBus.close();
     }
 
@@ -94,6 +114,12 @@ class TransactionStore<T extends StoreConfig> extends AbstractNitriteStore<T> {
             }
         }
 
+        if (storeTransaction != null) {
+            NitriteMap<Key, Value> nitriteMap = storeTransaction.openMap(mapName, keyType, valueType);
+            mapRegistry.put(mapName, nitriteMap);
+            return nitriteMap;
+        }
+
         NitriteMap<Key, Value> primaryMap = null;
         if (primaryStore.hasMap(mapName)) {
             primaryMap = primaryStore.openMap(mapName, keyType, valueType);
@@ -113,6 +139,10 @@ class TransactionStore<T extends StoreConfig> extends AbstractNitriteStore<T> {
             return (NitriteRTree<Key, Value>) rTreeRegistry.get(rTreeName);
         }
 
+        if (storeTransaction != null) {
+            throw new TransactionException("Spatial indexes are not supported in a native store transaction");
+        }
+
         NitriteRTree<Key, Value> primaryMap = null;
         if (primaryStore.hasMap(rTreeName)) {
             primaryMap = primaryStore.openRTree(rTreeName, keyType, valueType);
@@ -11,8 +11,6 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
-import static org.dizitart.no2.common.util.ObjectUtils.deepCopy;
-
 /**
  * @author Anindya Chatterjee
  * @since 4.0
@@ -65,10 +63,10 @@ class TransactionalMap<K, V> implements NitriteMap<K, V> {
         if (result == null) {
             result = primary.get(k);
             if (result instanceof CopyOnWriteArrayList) {
-                // create a deep copy of the list so that it does not affect the original one
-                List<?> list = deepCopy((CopyOnWriteArrayList<?>) result);
-                backingMap.put(k, (V) list);
-                result = (V) list;
+                // record the changes as a delta over the original list so that
+                // it is neither affected nor copied, the delta is stored in the
+                // backing map once the caller puts the list back
+                result = (V) new DeltaList<>((List<?>) result);
             }
         }
 
@@ -275,6 +273,11 @@ class TransactionalMap<K, V> implements NitriteMap<K, V> {
         return droppedFlag.get();
     }
 
+    @Override
+    public boolean isNaturallyOrdered() {
+        return backingMap.isNaturallyOrdered();
+    }
+
     @Override
     public void close() {
         backingMap.clear();
@@ -152,7 +152,7 @@ public class NitriteBuilderTest {
         assertTrue(store.getRepositoryRegistry().isEmpty());
         assertFalse(store.isClosed());
         PluginManager pluginManager = config.getPluginManager();
-        assertEquals(3, pluginManager.getIndexerMap().size());
+        assertEquals(4, pluginManager.getIndexerMap().size());
         assertTrue(pluginManager.getNitriteMapper() instanceof SimpleNitriteMapper);
         assertTrue(store.getCatalog().getKeyedRepositoryNames().isEmpty());
         assertSame(store, pluginManager.getNitriteStore());
@@ -169,7 +169,7 @@ public class NitriteBuilderTest {
         assertTrue(store.getRepositoryRegistry().isEmpty());
         assertFalse(store.isClosed());
         PluginManager pluginManager = config.getPluginManager();
-        assertEquals(3, pluginManager.getIndexerMap().size());
+        assertEquals(4, pluginManager.getIndexerMap().size());
         assertTrue(pluginManager.getNitriteMapper() instanceof SimpleNitriteMapper);
         assertTrue(store.getCatalog().getKeyedRepositoryNames().isEmpty());
         assertSame(store, pluginManager.getNitriteStore());
@@ -182,7 +182,7 @@ public class NitriteBuilderTest {
         builderResult.openOrCreate("", "iloveyou");
         NitriteConfig nitriteConfig = builderResult.getNitriteConfig();
         PluginManager pluginManager = nitriteConfig.getPluginManager();
-        assertEquals(3, pluginManager.getIndexerMap().size());
+        assertEquals(4, pluginManager.getIndexerMap().size());
         NitriteStore<?> nitriteStore = nitriteConfig.getNitriteStore();
         assertSame(nitriteStore, pluginManager.getNitriteStore());
         assertTrue(pluginManager.getNitriteMapper() instanceof SimpleNitriteMapper);
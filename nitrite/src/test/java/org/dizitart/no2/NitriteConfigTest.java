@@ -112,7 +112,7 @@ public class NitriteConfigTest {
         NitriteConfig nitriteConfig = new NitriteConfig();
         nitriteConfig.autoConfigure();
         PluginManager pluginManager = nitriteConfig.getPluginManager();
-        assertEquals(3, pluginManager.getIndexerMap().size());
+        assertEquals(4, pluginManager.getIndexerMap().size());
         NitriteStore<?> nitriteStore = nitriteConfig.getNitriteStore();
         assertSame(nitriteStore, pluginManager.getNitriteStore());
         assertTrue(pluginManager.getNitriteMapper() instanceof SimpleNitriteMapper);
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+import org.dizitart.no2.common.SortOrder;
+import org.dizitart.no2.exceptions.ValidationException;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.junit.Assert.*;
+
+public class AggregateOptionsTest {
+
+    @Test
+    public void testGroupBy() {
+        AggregateOptions options = AggregateOptions.groupBy("a", "b")
+            .count("total")
+            .sum("c", "sum")
+            .avg("c", "avg")
+            .min("c", "min")
+            .max("c", "max")
+            .having(where("total").gt(1))
+            .sortBy("total", SortOrder.Descending)
+            .limit(10);
+
+        assertEquals(2, options.getGroupFields().size());
+        assertEquals(5, options.getAggregates().size());
+        assertEquals(AggregateFunction.Count, options.getAggregates().get(0).getFunction());
+        assertNull(options.getAggregates().get(0).getField());
+        assertEquals("c", options.getAggregates().get(4).getField());
+        assertEquals("max", options.getAggregates().get(4).getAlias());
+        assertNotNull(options.getHaving());
+        assertEquals(Collections.singletonList("total"), options.getSortBy().getFieldNames());
+        assertEquals(Long.valueOf(10), options.getLimit());
+    }
+
+    @Test
+    public void testAggregateAll() {
+        AggregateOptions options = AggregateOptions.aggregateAll().count("total");
+        assertTrue(options.getGroupFields().isEmpty());
+        assertEquals(1, options.getAggregates().size());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testNullGroupField() {
+        AggregateOptions.groupBy("a", null);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testDuplicateAlias() {
+        AggregateOptions.groupBy("a").count("total").sum("b", "total");
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testAliasOfGroupField() {
+        AggregateOptions.groupBy("a").max("b", "a");
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testMissingField() {
+        AggregateOptions.groupBy("a").sum("", "total");
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testNegativeLimit() {
+        AggregateOptions.groupBy("a").count("total").limit(-1);
+    }
+}
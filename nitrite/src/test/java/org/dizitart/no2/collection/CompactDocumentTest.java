@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.exceptions.InvalidIdException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.junit.Assert.*;
+
+public class CompactDocumentTest {
+
+    private Map<String, Object> map(String name) {
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("city", "Kolkata");
+        address.put("zip", 700001);
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("_id", NitriteId.newId().getIdValue());
+        map.put("name", name);
+        map.put("tags", Arrays.asList("a", "b"));
+        map.put("address", Document.createDocument(address));
+        map.put("data", new byte[]{1, 2, 3});
+        return map;
+    }
+
+    @Test
+    public void testRead() {
+        Map<String, Object> map = map("John");
+        Document document = Document.createCompactDocument(map);
+
+        assertTrue(document instanceof CompactDocument);
+        assertTrue(document.get("address") instanceof CompactDocument);
+        assertEquals("John", document.get("name"));
+        assertEquals("Kolkata", document.get("address.city"));
+        assertEquals(700001, document.get("address.zip", Integer.class).intValue());
+        assertEquals("b", document.get("tags.1"));
+        assertNull(document.get("unknown"));
+        assertNull(document.get("address.unknown"));
+        assertEquals(5, document.size());
+        assertTrue(document.hasId());
+        assertEquals(map.get("_id"), document.getId().getIdValue());
+        assertTrue(document.containsKey("name"));
+        assertTrue(document.containsField("address.zip"));
+        assertFalse(document.containsField("address.country"));
+        assertEquals(new HashSet<>(Arrays.asList("name", "tags", "address.city", "address.zip", "data")),
+            document.getFields());
+    }
+
+    @Test
+    public void testSharedShape() {
+        Document first = Document.createCompactDocument(map("John"));
+        Document second = Document.createCompactDocument(map("Jane"));
+
+        Iterator<Pair<String, Object>> firstIterator = first.iterator();
+        Iterator<Pair<String, Object>> secondIterator = second.iterator();
+        while (firstIterator.hasNext()) {
+            // field names are not duplicated per document
+            assertSame(firstIterator.next().getFirst(), secondIterator.next().getFirst());
+        }
+        assertFalse(secondIterator.hasNext());
+    }
+
+    @Test
+    public void testEquality() {
+        Map<String, Object> map = map("John");
+        Document compact = Document.createCompactDocument(map);
+        Document regular = Document.createDocument(map);
+
+        assertEquals(regular, compact);
+        assertEquals(compact, regular);
+        assertEquals(regular.hashCode(), compact.hashCode());
+        assertEquals(regular.toString(), compact.toString());
+        assertNotEquals(compact, Document.createCompactDocument(map("Jane")));
+    }
+
+    @Test
+    public void testMutation() {
+        Document document = Document.createCompactDocument(map("John"));
+
+        document.put("name", "Jane");
+        document.put("address.city", "Delhi");
+        document.remove("data");
+        document.put("age", 30);
+
+        assertEquals("Jane", document.get("name"));
+        assertEquals("Delhi", document.get("address.city"));
+        assertFalse(document.containsKey("data"));
+        assertEquals(30, document.get("age"));
+        assertEquals(5, document.size());
+
+        document.merge(createDocument("address", createDocument("country", "India")));
+        assertEquals("India", document.get("address.country"));
+        assertEquals("Delhi", document.get("address.city"));
+    }
+
+    @Test
+    public void testClone() {
+        Document document = Document.createCompactDocument(map("John"));
+        Document clone = document.clone();
+
+        assertTrue(clone instanceof NitriteDocument);
+        assertTrue(clone.get("address") instanceof NitriteDocument);
+        assertEquals(document, clone);
+
+        clone.put("address.city", "Delhi");
+        assertEquals("Kolkata", document.get("address.city"));
+    }
+
+    @Test
+    public void testNewId() {
+        Document document = Document.createCompactDocument(Collections.singletonMap("name", "John"));
+        assertFalse(document.hasId());
+        assertNotNull(document.getId());
+        assertTrue(document.hasId());
+    }
+
+    @Test(expected = InvalidIdException.class)
+    public void testInvalidId() {
+        Document document = Document.createCompactDocument(Collections.singletonMap("_id", 1L));
+        document.getId();
+    }
+
+    @Test
+    public void testWideDocument() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i <= DocumentShape.MAX_FIELDS; i++) {
+            map.put("field" + i, i);
+        }
+
+        Document document = Document.createCompactDocument(map);
+        assertTrue(document instanceof NitriteDocument);
+        assertEquals(DocumentShape.MAX_FIELDS + 1, document.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMapView() {
+        Document document = Document.createCompactDocument(map("John"));
+        Map<String, Object> map = (Map<String, Object>) document;
+
+        assertEquals(5, map.entrySet().size());
+        assertEquals("John", map.get("name"));
+        assertEquals("John", map.remove("name"));
+        assertFalse(document.containsKey("name"));
+
+        map.clear();
+        assertEquals(0, document.size());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        Document document = createDocument("name", "John")
+            .put("address", createDocument("city", "Kolkata"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(outputStream)) {
+            stream.writeObject(document);
+        }
+
+        Object object;
+        try (ObjectInputStream stream = new ObjectInputStream(
+            new ByteArrayInputStream(outputStream.toByteArray()))) {
+            object = stream.readObject();
+        }
+
+        // documents read back are kept compact
+        assertTrue(object instanceof CompactDocument);
+        assertTrue(((Document) object).get("address") instanceof CompactDocument);
+        assertEquals(document, object);
+
+        // compact documents are written as regular documents
+        outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(outputStream)) {
+            stream.writeObject(object);
+        }
+
+        try (ObjectInputStream stream = new ObjectInputStream(
+            new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertEquals(document, stream.readObject());
+        }
+    }
+
+    @Test
+    public void testRemoveFromElementAfterSerialization() throws Exception {
+        Document document = createDocument("list", Arrays.asList(createDocument("x", 1).put("y", 2)))
+            .put("array", new Document[]{createDocument("x", 1).put("y", 2)});
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(outputStream)) {
+            stream.writeObject(document);
+        }
+
+        Document copy;
+        try (ObjectInputStream stream = new ObjectInputStream(
+            new ByteArrayInputStream(outputStream.toByteArray()))) {
+            copy = (Document) stream.readObject();
+        }
+
+        // elements are compact documents, only the field is removed
+        copy.remove("list.0.x");
+        copy.remove("array.0.x");
+        assertEquals(Collections.singletonList(createDocument("y", 2)), copy.get("list"));
+        assertArrayEquals(new Object[]{createDocument("y", 2)}, (Object[]) copy.get("array"));
+    }
+
+    @Test
+    public void testConcurrentInflation() throws Exception {
+        Document document = Document.createCompactDocument(map("John"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final int writer = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        if (writer == 0 && j == 500) {
+                            document.put("age", 40);
+                        }
+                        assertEquals("John", document.get("name"));
+                        assertTrue(document.containsKey("tags"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(40, document.get("age"));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.collection;
+
+import org.dizitart.no2.common.SortOrder;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.exceptions.ValidationException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ContinuationTokenTest {
+    @Test
+    public void testEncodeDecode() {
+        List<Pair<String, SortOrder>> sortOrder = Arrays.asList(
+            new Pair<>("name", SortOrder.Ascending),
+            new Pair<>("address.city", SortOrder.Descending),
+            new Pair<>("age", SortOrder.Ascending),
+            new Pair<>("joined", SortOrder.Ascending),
+            new Pair<>("balance", SortOrder.Descending),
+            new Pair<>("missing", SortOrder.Ascending));
+
+        Date joined = new Date();
+        Document document = Document.createDocument("name", "Jöhn")
+            .put("address", Document.createDocument("city", "Köln"))
+            .put("age", 42L)
+            .put("joined", joined)
+            .put("balance", new BigDecimal("10.25"));
+        NitriteId nitriteId = NitriteId.newId();
+
+        String encoded = ContinuationToken.of(sortOrder, nitriteId, document).encode();
+        ContinuationToken token = ContinuationToken.decode(encoded);
+
+        assertTrue(token.matches(sortOrder));
+        assertFalse(token.matches(sortOrder.subList(0, 2)));
+        assertEquals(nitriteId, token.getNitriteId());
+        assertEquals(Arrays.asList("Jöhn", "Köln", 42L, joined, new BigDecimal("10.25"), null), token.getValues());
+        assertEquals(encoded, token.encode());
+    }
+
+    @Test
+    public void testIdOnly() {
+        NitriteId nitriteId = NitriteId.newId();
+        ContinuationToken token = ContinuationToken.decode(
+            ContinuationToken.of(Collections.emptyList(), nitriteId, Document.createDocument()).encode());
+        assertEquals(nitriteId, token.getNitriteId());
+        assertTrue(token.getValues().isEmpty());
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void testUnsupportedValue() {
+        ContinuationToken.of(Collections.singletonList(new Pair<>("value", SortOrder.Ascending)),
+            NitriteId.newId(), Document.createDocument("value", new StringBuilder("a"))).encode();
+    }
+
+    @Test
+    public void testInvalidToken() {
+        String encoded = ContinuationToken.of(Collections.emptyList(), NitriteId.newId(),
+            Document.createDocument()).encode();
+
+        assertThrows(ValidationException.class, () -> ContinuationToken.decode(null));
+        assertThrows(ValidationException.class, () -> ContinuationToken.decode("xyz"));
+        assertThrows(ValidationException.class, () -> ContinuationToken.decode("ff00"));
+        assertThrows(ValidationException.class, () -> ContinuationToken.decode(encoded.substring(0, 10)));
+        assertThrows(ValidationException.class, () -> ContinuationToken.decode(encoded + "00"));
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+import org.dizitart.no2.common.tuples.Pair;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.junit.Assert.*;
+
+public class CopyOnWriteDocumentTest {
+
+    private Document source() {
+        Document document = createDocument("name", "John")
+            .put("address", createDocument("city", "Kolkata")
+                .put("geo", createDocument("lat", 22.5).put("lng", 88.3)));
+        document.getId();
+        return document;
+    }
+
+    @Test
+    public void testReadWithoutCopy() {
+        Document source = source();
+        Document view = Document.copyOnWrite(source);
+
+        assertEquals("John", view.get("name"));
+        assertEquals("Kolkata", view.get("address.city"));
+        assertEquals(22.5, view.get("address.geo.lat"));
+        assertEquals(source.getId(), view.getId());
+        assertEquals(source.getFields(), view.getFields());
+        assertEquals(source.size(), view.size());
+        assertTrue(view.containsField("address.geo.lng"));
+        assertEquals(source, view);
+        assertEquals(view, source);
+        assertEquals(source.hashCode(), view.hashCode());
+        assertSame(view, Document.copyOnWrite(view));
+        assertNull(Document.copyOnWrite(null));
+    }
+
+    @Test
+    public void testWriteDoesNotModifySource() {
+        Document source = source();
+        Document view = Document.copyOnWrite(source);
+
+        view.put("name", "Jane");
+        view.put("address.city", "Delhi");
+        view.remove("address.geo.lng");
+
+        assertEquals("Jane", view.get("name"));
+        assertEquals("Delhi", view.get("address.city"));
+        assertNull(view.get("address.geo.lng"));
+
+        assertEquals("John", source.get("name"));
+        assertEquals("Kolkata", source.get("address.city"));
+        assertEquals(88.3, source.get("address.geo.lng"));
+    }
+
+    @Test
+    public void testNestedWriteDoesNotModifySource() {
+        Document source = source();
+        Document view = Document.copyOnWrite(source);
+
+        Document address = view.get("address", Document.class);
+        Document geo = address.get("geo", Document.class);
+        geo.put("lat", 0.0);
+        address.put("city", "Delhi");
+
+        // changes in embedded documents are visible through the root view
+        assertEquals(0.0, view.get("address.geo.lat"));
+        assertEquals("Delhi", view.get("address.city"));
+        assertEquals(0.0, geo.get("lat"));
+
+        assertEquals(22.5, source.get("address.geo.lat"));
+        assertEquals("Kolkata", source.get("address.city"));
+    }
+
+    @Test
+    public void testNestedViewFollowsParentCopy() {
+        Document source = source();
+        Document view = Document.copyOnWrite(source);
+
+        Document address = view.get("address", Document.class);
+        view.put("address.city", "Delhi");
+        assertEquals("Delhi", address.get("city"));
+
+        Document embedded = view.get("address.geo", Document.class);
+        embedded.put("lat", 1.0);
+        assertEquals(22.5, source.get("address.geo.lat"));
+    }
+
+    @Test
+    public void testMerge() {
+        Document source = source();
+        Document view = Document.copyOnWrite(source);
+
+        view.merge(createDocument("address", createDocument("zip", 700001)));
+        assertEquals(700001, view.get("address.zip"));
+        assertEquals("Kolkata", view.get("address.city"));
+        assertFalse(source.containsField("address.zip"));
+
+        Document target = createDocument("name", "Jane");
+        target.merge(Document.copyOnWrite(source()));
+        assertEquals("John", target.get("name"));
+        assertEquals(88.3, target.get("address.geo.lng"));
+    }
+
+    @Test
+    public void testCloneIsDetached() {
+        Document source = source();
+        Document view = Document.copyOnWrite(source);
+
+        Document clone = view.clone();
+        assertFalse(clone instanceof CopyOnWriteDocument);
+        assertEquals(source, clone);
+
+        clone.put("address.city", "Delhi");
+        assertEquals("Kolkata", source.get("address.city"));
+        assertEquals("Kolkata", view.get("address.city"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMapView() {
+        Document source = source();
+        Map<String, Object> view = (Map<String, Object>) Document.copyOnWrite(source);
+
+        assertEquals(source.size(), view.size());
+        assertTrue(view.containsKey("name"));
+        for (Map.Entry<String, Object> entry : view.entrySet()) {
+            if (entry.getValue() instanceof Document) {
+                ((Document) entry.getValue()).put("city", "Delhi");
+            }
+        }
+        assertEquals("Kolkata", source.get("address.city"));
+
+        assertEquals("John", view.remove("name"));
+        assertFalse(view.containsKey("name"));
+        view.clear();
+        assertTrue(view.isEmpty());
+        assertEquals("John", source.get("name"));
+    }
+
+    @Test
+    public void testIterator() {
+        Document source = source();
+        Document view = Document.copyOnWrite(source);
+
+        for (Pair<String, Object> pair : view) {
+            if (pair.getSecond() instanceof Document) {
+                ((Document) pair.getSecond()).put("city", "Delhi");
+            }
+        }
+        assertEquals("Kolkata", source.get("address.city"));
+        assertEquals("Delhi", view.get("address.city"));
+    }
+
+    @Test
+    public void testGenerateId() {
+        Document source = createDocument("name", "John");
+        Document view = Document.copyOnWrite(source);
+
+        NitriteId id = view.getId();
+        assertNotNull(id);
+        assertTrue(view.hasId());
+        assertFalse(source.hasId());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        Document view = Document.copyOnWrite(source());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(outputStream)) {
+            stream.writeObject(view);
+        }
+
+        try (ObjectInputStream stream = new ObjectInputStream(
+            new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Object object = stream.readObject();
+            assertFalse(object instanceof CopyOnWriteDocument);
+            assertEquals(view, object);
+        }
+    }
+}
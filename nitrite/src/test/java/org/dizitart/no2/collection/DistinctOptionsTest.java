@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection;
+
+import org.dizitart.no2.exceptions.ValidationException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DistinctOptionsTest {
+
+    @Test
+    public void testAcceptsRange() {
+        DistinctOptions options = DistinctOptions.distinctOptions().from(2, true).to(5, false);
+        assertFalse(options.accepts(1));
+        assertTrue(options.accepts(2));
+        assertTrue(options.accepts(4.5));
+        assertFalse(options.accepts(5));
+        assertFalse(options.accepts("3"));
+        assertFalse(options.accepts(new Object()));
+
+        options = DistinctOptions.distinctOptions().from(2, false).to(5, true);
+        assertFalse(options.accepts(2));
+        assertTrue(options.accepts(5));
+        assertTrue(options.isBelowUpperBound(5));
+        assertFalse(options.isBelowUpperBound(6));
+    }
+
+    @Test
+    public void testAcceptsPrefix() {
+        DistinctOptions options = DistinctOptions.distinctOptions().prefix("eu-");
+        assertTrue(options.accepts("eu-west"));
+        assertFalse(options.accepts("us-east"));
+        assertFalse(options.accepts(1));
+        assertTrue(DistinctOptions.distinctOptions().accepts(new Object()));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testNegativeLimit() {
+        DistinctOptions.distinctOptions().limit(-1);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testNullPrefix() {
+        DistinctOptions.distinctOptions().prefix(null);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.collection.operation;
+
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.store.memory.InMemoryMap;
+import org.dizitart.no2.store.memory.InMemoryStore;
+import org.junit.Test;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.junit.Assert.*;
+
+public class CachedDocumentMapTest {
+
+    @Test
+    public void testReadRacingWithWrite() {
+        NitriteId nitriteId = NitriteId.newId();
+        Document updated = createDocument("name", "Jane");
+        CachedDocumentMap[] cachedMap = new CachedDocumentMap[1];
+
+        InMemoryMap<NitriteId, Document> nitriteMap = new InMemoryMap<NitriteId, Document>("test", new InMemoryStore()) {
+            private boolean raced;
+
+            @Override
+            public Document get(NitriteId key) {
+                Document document = super.get(key);
+                if (!raced) {
+                    // a writer replaces the document after the reader has loaded it
+                    raced = true;
+                    cachedMap[0].put(key, updated);
+                }
+                return document;
+            }
+        };
+        nitriteMap.put(nitriteId, createDocument("name", "John"));
+        cachedMap[0] = new CachedDocumentMap(nitriteMap, 1024 * 1024);
+
+        assertEquals("John", cachedMap[0].get(nitriteId).get("name"));
+        assertEquals("Jane", cachedMap[0].get(nitriteId).get("name"));
+    }
+
+    @Test
+    public void testReadRacingWithRemove() {
+        NitriteId nitriteId = NitriteId.newId();
+        CachedDocumentMap[] cachedMap = new CachedDocumentMap[1];
+
+        InMemoryMap<NitriteId, Document> nitriteMap = new InMemoryMap<NitriteId, Document>("test", new InMemoryStore()) {
+            private boolean raced;
+
+            @Override
+            public Document get(NitriteId key) {
+                Document document = super.get(key);
+                if (!raced) {
+                    raced = true;
+                    cachedMap[0].remove(key);
+                }
+                return document;
+            }
+        };
+        nitriteMap.put(nitriteId, createDocument("name", "John"));
+        cachedMap[0] = new CachedDocumentMap(nitriteMap, 1024 * 1024);
+
+        assertNotNull(cachedMap[0].get(nitriteId));
+        assertFalse(cachedMap[0].containsKey(nitriteId));
+        assertNull(cachedMap[0].get(nitriteId));
+    }
+
+    @Test
+    public void testCachedRead() {
+        NitriteId nitriteId = NitriteId.newId();
+        InMemoryMap<NitriteId, Document> nitriteMap = new InMemoryMap<>("test", new InMemoryStore());
+        nitriteMap.put(nitriteId, createDocument("name", "John"));
+        CachedDocumentMap cachedMap = new CachedDocumentMap(nitriteMap, 1024 * 1024);
+
+        Document document = cachedMap.get(nitriteId);
+        assertSame(document, cachedMap.get(nitriteId));
+        assertEquals(1, cachedMap.getCacheStats().getHitCount());
+
+        cachedMap.put(nitriteId, createDocument("name", "Jane"));
+        assertEquals("Jane", cachedMap.get(nitriteId).get("name"));
+    }
+}
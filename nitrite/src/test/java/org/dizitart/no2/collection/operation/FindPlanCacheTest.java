@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.collection.operation;
+
+import org.dizitart.no2.collection.FindOptions;
+import org.dizitart.no2.collection.FindPlan;
+import org.dizitart.no2.common.Fields;
+import org.dizitart.no2.common.SortOrder;
+import org.dizitart.no2.filters.Filter;
+import org.dizitart.no2.index.IndexDescriptor;
+import org.dizitart.no2.index.IndexType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.junit.Assert.*;
+
+public class FindPlanCacheTest {
+    private FindPlanCache findPlanCache;
+    private FindOptimizer findOptimizer;
+    private Collection<IndexDescriptor> indexDescriptors;
+    private AtomicInteger plans;
+
+    @Before
+    public void setUp() {
+        findPlanCache = new FindPlanCache();
+        findOptimizer = new FindOptimizer(true, findPlanCache);
+        indexDescriptors = findPlanCache.getIndexDescriptors(1, () -> Collections.singletonList(
+            new IndexDescriptor(IndexType.NON_UNIQUE, Fields.withNames("a"), "Collection Name")));
+        plans = new AtomicInteger();
+    }
+
+    @Test
+    public void testBindValues() {
+        Filter first = where("a").eq(1).and(where("b").gt(2));
+        FindPlan firstPlan = plan(first);
+
+        Filter second = where("a").eq(10).and(where("b").gt(20));
+        FindPlan secondPlan = plan(second);
+
+        assertEquals(1, plans.get());
+        assertEquals(firstPlan.getIndexDescriptor(), secondPlan.getIndexDescriptor());
+        assertEquals(where("a").eq(10), secondPlan.getIndexScanFilter().getFilters().get(0));
+        assertEquals(where("b").gt(20), secondPlan.getCollectionScanFilter());
+        assertEquals(where("a").eq(1), firstPlan.getIndexScanFilter().getFilters().get(0));
+    }
+
+    @Test
+    public void testFindOptionsNotCached() {
+        Filter filter = where("a").eq(1);
+        FindPlan sorted = findOptimizer.optimize(filter, FindOptions.orderBy("b", SortOrder.Ascending)
+            .limit(5), indexDescriptors);
+        FindPlan unsorted = findOptimizer.optimize(where("a").eq(2), null, indexDescriptors);
+
+        assertEquals(1, sorted.getBlockingSortOrder().size());
+        assertEquals(Long.valueOf(5), sorted.getLimit());
+        assertTrue(unsorted.getBlockingSortOrder().isEmpty());
+        assertNull(unsorted.getLimit());
+    }
+
+    @Test
+    public void testDifferentShapes() {
+        plan(where("a").eq(1));
+        plan(where("a").gt(1));
+        plan(where("b").eq(1));
+        plan(where("a").eq(1).or(where("b").eq(2)));
+        assertEquals(4, plans.get());
+    }
+
+    @Test
+    public void testOrFallbackRebound() {
+        plan(where("a").eq(1).or(where("b").eq(2)));
+        FindPlan findPlan = plan(where("a").eq(3).or(where("b").eq(4)));
+
+        assertEquals(1, plans.get());
+        assertTrue(findPlan.getSubPlans().isEmpty());
+        assertEquals(where("a").eq(3).or(where("b").eq(4)), findPlan.getCollectionScanFilter());
+    }
+
+    @Test
+    public void testEqualFiltersNotCached() {
+        plan(where("b").eq(1).and(where("b").eq(1)));
+        FindPlan findPlan = plan(where("b").eq(1).and(where("b").eq(2)));
+
+        assertEquals(2, plans.get());
+        assertEquals(where("b").eq(1).and(where("b").eq(2)), findPlan.getCollectionScanFilter());
+    }
+
+    @Test
+    public void testIndexVersionChange() {
+        plan(where("b").eq(1));
+        assertSame(indexDescriptors, findPlanCache.getIndexDescriptors(1, Collections::emptyList));
+
+        indexDescriptors = findPlanCache.getIndexDescriptors(2, () -> Collections.singletonList(
+            new IndexDescriptor(IndexType.NON_UNIQUE, Fields.withNames("b"), "Collection Name")));
+        FindPlan findPlan = plan(where("b").eq(2));
+
+        assertEquals(2, plans.get());
+        assertEquals(where("b").eq(2), findPlan.getIndexScanFilter().getFilters().get(0));
+    }
+
+    private FindPlan plan(Filter filter) {
+        return findPlanCache.getFilterPlan(filter, f -> {
+            plans.incrementAndGet();
+            return new FindOptimizer().optimize(f, null, indexDescriptors);
+        });
+    }
+}
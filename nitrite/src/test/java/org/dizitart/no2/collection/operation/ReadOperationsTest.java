@@ -26,13 +26,14 @@ import org.dizitart.no2.common.processors.ProcessorChain;
 import org.dizitart.no2.filters.Filter;
 import org.dizitart.no2.index.IndexDescriptor;
 import org.dizitart.no2.store.memory.InMemoryMap;
+import org.dizitart.no2.store.memory.InMemoryStore;
 import org.junit.Test;
 import org.mockito.internal.verification.NoInteractions;
 
 import java.util.ArrayList;
 
-import static org.junit.Assert.assertNull;
-import static org.junit.Assert.assertTrue;
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 public class ReadOperationsTest {
@@ -80,5 +81,29 @@ public class ReadOperationsTest {
         assertNull(readOperations.getById(NitriteId.newId()));
         verify(indexOperations, new NoInteractions()).listIndexes();
     }
+
+    @Test
+    public void testCountAndExists() {
+        IndexOperations indexOperations = mock(IndexOperations.class);
+        when(indexOperations.listIndexes()).thenReturn(new ArrayList<>());
+        NitriteConfig nitriteConfig = new NitriteConfig();
+        InMemoryMap<NitriteId, Document> nitriteMap = new InMemoryMap<>("Map Name", new InMemoryStore());
+        for (int i = 0; i < 10; i++) {
+            Document document = Document.createDocument("value", i);
+            nitriteMap.put(document.getId(), document);
+        }
+
+        ReadOperations readOperations = new ReadOperations("Collection Name", indexOperations, nitriteConfig, nitriteMap,
+                new ProcessorChain());
+        assertEquals(10, readOperations.count(Filter.ALL));
+        assertEquals(10, readOperations.count(null));
+        assertEquals(3, readOperations.count(where("value").gte(7)));
+        assertEquals(0, readOperations.count(where("value").gt(9)));
+        assertTrue(readOperations.exists(where("value").eq(5)));
+        assertFalse(readOperations.exists(where("value").eq(10)));
+        assertTrue(readOperations.exists(Filter.ALL));
+        // the index list is cached until an index changes
+        verify(indexOperations, times(1)).listIndexes();
+    }
 }
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common;
+
+import org.dizitart.no2.NitriteConfig;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.exceptions.ValidationException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.junit.Assert.*;
+
+public class FieldPathTest {
+
+    @Test
+    public void testParse() {
+        FieldPath path = FieldPath.of("a.b.0.c");
+        assertEquals("a.b.0.c", path.getPath());
+        assertTrue(path.isEmbedded());
+        assertEquals(4, path.size());
+        assertEquals("a", path.segment(0));
+        assertEquals("0", path.segment(2));
+        assertFalse(path.isIndex(1));
+        assertTrue(path.isIndex(2));
+        assertSame(path, FieldPath.of("a.b.0.c"));
+
+        path = FieldPath.of("name");
+        assertFalse(path.isEmbedded());
+        assertEquals(1, path.size());
+
+        // same as String.split, trailing empty segments are dropped
+        assertEquals(1, FieldPath.of("a..").size());
+        assertEquals(3, FieldPath.of("a..b").size());
+        assertEquals(0, FieldPath.of(".").size());
+        assertTrue(FieldPath.of("a.").isEmbedded());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testNullPath() {
+        FieldPath.of(null);
+    }
+
+    @Test
+    public void testGetValue() {
+        Document document = createDocument("name", "John")
+            .put("address", createDocument("city", "Kolkata"))
+            .put("phones", Arrays.asList(
+                createDocument("type", "home").put("number", 1),
+                createDocument("type", "work").put("number", 2)))
+            .put("scores", new int[] {10, 20})
+            .put("a.b", "literal");
+
+        assertEquals("John", FieldPath.of("name").getValue(document));
+        assertEquals("Kolkata", FieldPath.of("address.city").getValue(document));
+        assertEquals(2, FieldPath.of("phones.1.number").getValue(document));
+        assertEquals(20, FieldPath.of("scores.1").getValue(document));
+        assertNull(FieldPath.of("address.zip").getValue(document));
+        assertNull(FieldPath.of("name.first").getValue(document));
+        assertNull(FieldPath.of("unknown").getValue(document));
+        assertNull(FieldPath.of("name").getValue(null));
+
+        List<?> types = (List<?>) FieldPath.of("phones.type").getValue(document);
+        assertEquals(2, types.size());
+        assertTrue(types.containsAll(Arrays.asList("home", "work")));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testInvalidIndex() {
+        Document document = createDocument("scores", Arrays.asList(1, 2));
+        FieldPath.of("scores.2").getValue(document);
+    }
+
+    @Test
+    public void testSeparatorChange() {
+        NitriteConfig config = new NitriteConfig();
+        FieldPath dotted = FieldPath.of("a:b");
+        assertFalse(dotted.isEmbedded());
+        try {
+            config.fieldSeparator(":");
+            assertFalse(dotted.isCurrent());
+
+            FieldPath path = FieldPath.of("a:b");
+            assertTrue(path.isCurrent());
+            assertTrue(path.isEmbedded());
+            assertEquals(1, path.getValue(createDocument("a", createDocument("b", 1))));
+        } finally {
+            config.fieldSeparator(".");
+        }
+    }
+}
@@ -107,5 +107,27 @@ public class FieldsTest {
         Fields withNamesResult = Fields.withNames("Fields", "foo", "foo");
         assertEquals(-32, withNamesResult.compareTo(Fields.withNames("foo", "foo", "foo")));
     }
-}
 
+    @Test
+    public void testGetFieldPaths() {
+        Fields fields = Fields.withNames("a.b", "c");
+        List<FieldPath> paths = fields.getFieldPaths();
+        assertEquals(2, paths.size());
+        assertEquals("a.b", paths.get(0).getPath());
+        assertSame(paths, fields.getFieldPaths());
+
+        fields.addField("d");
+        paths = fields.getFieldPaths();
+        assertEquals(3, paths.size());
+        assertEquals("d", paths.get(2).getPath());
+    }
+
+    @Test
+    public void testGetFieldPathsWithNullName() {
+        Fields fields = Fields.withNames("a", null);
+        List<FieldPath> paths = fields.getFieldPaths();
+        assertEquals(2, paths.size());
+        assertNull(paths.get(1));
+        assertSame(paths, fields.getFieldPaths());
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.dizitart.no2.common.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class TinyLfuCacheTest {
+    @Test
+    public void testGetAndPut() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10000, value -> 10);
+        assertNull(cache.get(1));
+        cache.put(1, "one");
+        assertEquals("one", cache.get(1));
+        assertTrue(cache.contains(1));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+        assertEquals(10, stats.getWeightedSize());
+        assertEquals(10000, stats.getMaxWeight());
+        assertEquals(0.5, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testInvalidate() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10000, value -> 10);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.invalidate(1);
+        assertFalse(cache.contains(1));
+        assertTrue(cache.contains(2));
+
+        cache.invalidateAll();
+        assertFalse(cache.contains(2));
+        assertEquals(0, cache.stats().getSize());
+        assertEquals(0, cache.stats().getWeightedSize());
+    }
+
+    @Test
+    public void testReplace() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10000, String::length);
+        cache.put(1, "one");
+        cache.put(1, "three");
+        assertEquals("three", cache.get(1));
+        assertEquals(1, cache.stats().getSize());
+        assertEquals(5, cache.stats().getWeightedSize());
+    }
+
+    @Test
+    public void testOversizedValue() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100, value -> 1000);
+        cache.put(1, "one");
+        assertFalse(cache.contains(1));
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void testDisabled() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(0, value -> 1);
+        cache.put(1, "one");
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void testBoundedWeight() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(1000, value -> 10);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+
+        CacheStats stats = cache.stats();
+        assertTrue(stats.getWeightedSize() <= 1000);
+        assertTrue(stats.getEvictionCount() > 0);
+        assertEquals(stats.getSize() * 10, stats.getWeightedSize());
+    }
+
+    @Test
+    public void testHotSetSurvivesScan() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(1000, value -> 10);
+
+        // build up a hot set of 50 keys
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, i);
+                }
+            }
+        }
+
+        // a scan over many keys accessed only once
+        for (int i = 1000; i < 5000; i++) {
+            if (cache.get(i) == null) {
+                cache.put(i, i);
+            }
+        }
+
+        int hits = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.contains(i)) {
+                hits++;
+            }
+        }
+        assertTrue("hot set evicted by scan, only " + hits + " left", hits >= 40);
+    }
+
+    @Test
+    public void testConditionalPut() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(10000, value -> 10);
+        cache.put(1, "one", () -> false);
+        assertFalse(cache.contains(1));
+
+        cache.put(1, "one", () -> true);
+        assertEquals("one", cache.get(1));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(1000, value -> 10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        int key = (i * 31 + seed) % 200;
+                        Integer value = cache.get(key);
+                        if (value == null) {
+                            cache.put(key, key);
+                        } else {
+                            assertEquals(key, value.intValue());
+                        }
+                        if (i % 1000 == 0) {
+                            cache.invalidate(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        CacheStats stats = cache.stats();
+        assertEquals(8 * 20000, stats.getHitCount() + stats.getMissCount());
+        assertTrue(stats.getWeightedSize() <= 1000);
+        assertEquals(stats.getSize() * 10, stats.getWeightedSize());
+    }
+}
@@ -62,7 +62,7 @@ public class PluginManagerTest {
         pluginManager.findAndLoadPlugins();
         NitriteStore<?> nitriteStore = pluginManager.getNitriteStore();
         assertTrue(nitriteStore instanceof org.dizitart.no2.store.memory.InMemoryStore);
-        assertEquals(3, pluginManager.getIndexerMap().size());
+        assertEquals(4, pluginManager.getIndexerMap().size());
         assertTrue(pluginManager.getNitriteMapper() instanceof SimpleNitriteMapper);
         assertFalse(nitriteStore.isClosed());
     }
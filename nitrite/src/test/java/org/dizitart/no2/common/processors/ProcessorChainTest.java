@@ -19,7 +19,9 @@ package org.dizitart.no2.common.processors;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 public class ProcessorChainTest {
@@ -53,5 +55,15 @@ public class ProcessorChainTest {
         processorChain.add(new ProcessorChain());
         assertNull(processorChain.processAfterRead(null));
     }
-}
 
+    @Test
+    public void testIsEmpty() {
+        ProcessorChain processorChain = new ProcessorChain();
+        assertTrue(processorChain.isEmpty());
+        Processor processor = mock(Processor.class);
+        processorChain.add(processor);
+        assertFalse(processorChain.isEmpty());
+        processorChain.remove(processor);
+        assertTrue(processorChain.isEmpty());
+    }
+}
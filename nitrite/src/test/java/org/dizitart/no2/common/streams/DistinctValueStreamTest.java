@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.DistinctOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.tuples.Pair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.junit.Assert.assertEquals;
+
+public class DistinctValueStreamTest {
+
+    @Test
+    public void testDistinctValues() {
+        List<Pair<NitriteId, Document>> documents = new ArrayList<>();
+        documents.add(pair(createDocument("tag", "b")));
+        documents.add(pair(createDocument("tag", new String[]{"a", "b"})));
+        documents.add(pair(createDocument("tag", null)));
+        documents.add(pair(createDocument("other", 1)));
+        documents.add(pair(createDocument("tag", Arrays.asList("c", "a"))));
+
+        assertEquals(Arrays.asList("b", "a", "c"),
+            new DistinctValueStream(RecordStream.fromIterable(documents), "tag", null, null).toList());
+        assertEquals(Arrays.asList("b", "c"),
+            new DistinctValueStream(RecordStream.fromIterable(documents), "tag",
+                DistinctOptions.distinctOptions().from("a", false), null).toList());
+        assertEquals(Arrays.asList("b", "a"),
+            new DistinctValueStream(RecordStream.fromIterable(documents), "tag",
+                DistinctOptions.distinctOptions().limit(2), null).toList());
+    }
+
+    private Pair<NitriteId, Document> pair(Document document) {
+        return new Pair<>(NitriteId.newId(), document);
+    }
+}
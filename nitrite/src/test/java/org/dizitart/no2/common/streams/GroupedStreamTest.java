@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.AggregateOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.processors.Processor;
+import org.dizitart.no2.common.processors.ProcessorChain;
+import org.dizitart.no2.common.tuples.Pair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.junit.Assert.*;
+
+public class GroupedStreamTest {
+
+    @Test
+    public void testGroupByMultipleFields() {
+        List<Pair<NitriteId, Document>> documents = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            documents.add(pair(createDocument("a", i % 2).put("b", i % 3).put("c", i)));
+        }
+
+        AggregateOptions options = AggregateOptions.groupBy("a", "b").count("n").sum("c", "sum");
+        List<Pair<NitriteId, Document>> groups = new GroupedStream(RecordStream.fromIterable(documents),
+            options, null).toList();
+
+        assertEquals(6, groups.size());
+        for (Pair<NitriteId, Document> group : groups) {
+            Document document = group.getSecond();
+            int a = document.get("a", Integer.class);
+            int b = document.get("b", Integer.class);
+            long sum = 0;
+            for (int i = 0; i < 12; i++) {
+                if (i % 2 == a && i % 3 == b) sum += i;
+            }
+            assertEquals(2L, document.get("n"));
+            assertEquals(sum, document.get("sum"));
+        }
+    }
+
+    @Test
+    public void testSumOverflowAndNulls() {
+        List<Pair<NitriteId, Document>> documents = new ArrayList<>();
+        documents.add(pair(createDocument("v", Long.MAX_VALUE)));
+        documents.add(pair(createDocument("v", Long.MAX_VALUE)));
+        documents.add(pair(createDocument("v", null)));
+
+        AggregateOptions options = AggregateOptions.aggregateAll().count("n").sum("v", "sum")
+            .avg("v", "avg").sum("w", "missing");
+        Document result = new GroupedStream(RecordStream.fromIterable(documents), options, null)
+            .firstOrNull().getSecond();
+
+        assertEquals(3L, result.get("n"));
+        assertEquals(2.0 * Long.MAX_VALUE, (Double) result.get("sum"), 1e6);
+        assertEquals((double) Long.MAX_VALUE, (Double) result.get("avg"), 1e6);
+        assertNull(result.get("missing"));
+    }
+
+    @Test
+    public void testEmptyStream() {
+        AggregateOptions options = AggregateOptions.aggregateAll().count("n").max("v", "max");
+        Document result = new GroupedStream(RecordStream.empty(), options, null).firstOrNull().getSecond();
+        assertEquals(0L, result.get("n"));
+        assertNull(result.get("max"));
+
+        options = AggregateOptions.groupBy("v").count("n");
+        assertTrue(new GroupedStream(RecordStream.empty(), options, null).isEmpty());
+    }
+
+    @Test
+    public void testProcessorsDoNotChangeStoredDocuments() {
+        Document stored = createDocument("v", 1);
+        List<Pair<NitriteId, Document>> documents = new ArrayList<>();
+        documents.add(pair(stored));
+
+        ProcessorChain processorChain = new ProcessorChain();
+        processorChain.add(new Processor() {
+            @Override
+            public Document processAfterRead(Document document) {
+                document.put("v", document.get("v", Integer.class) * 10);
+                return document;
+            }
+        });
+
+        AggregateOptions options = AggregateOptions.aggregateAll().sum("v", "sum");
+        Document result = new GroupedStream(RecordStream.fromIterable(documents), options, processorChain)
+            .firstOrNull().getSecond();
+        assertEquals(10L, result.get("sum"));
+        assertEquals(1, stored.get("v"));
+    }
+
+    private Pair<NitriteId, Document> pair(Document document) {
+        return new Pair<>(NitriteId.newId(), document);
+    }
+}
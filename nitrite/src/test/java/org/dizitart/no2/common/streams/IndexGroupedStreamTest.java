@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.AggregateOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.DBNull;
+import org.dizitart.no2.common.DBValue;
+import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.index.IndexMap;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.junit.Assert.*;
+
+public class IndexGroupedStreamTest {
+
+    @Test
+    public void testCanAnswer() {
+        List<String> indexFields = Arrays.asList("a", "b", "c");
+        assertTrue(IndexGroupedStream.canAnswer(indexFields, AggregateOptions.groupBy("a").count("n")));
+        assertTrue(IndexGroupedStream.canAnswer(indexFields, AggregateOptions.groupBy("a", "b").count("n")
+            .min("c", "min").max("a", "max")));
+        assertFalse(IndexGroupedStream.canAnswer(indexFields, AggregateOptions.groupBy("b").count("n")));
+        assertFalse(IndexGroupedStream.canAnswer(indexFields, AggregateOptions.groupBy("a").max("c", "max")));
+        assertFalse(IndexGroupedStream.canAnswer(indexFields, AggregateOptions.groupBy("a").sum("b", "sum")));
+        assertFalse(IndexGroupedStream.canAnswer(indexFields, AggregateOptions.aggregateAll().count("n")));
+    }
+
+    @Test
+    public void testCompoundIndex() {
+        NitriteId id1 = NitriteId.newId();
+        NitriteId id2 = NitriteId.newId();
+        NitriteId id3 = NitriteId.newId();
+
+        NavigableMap<DBValue, Object> x = new ConcurrentSkipListMap<>();
+        x.put(DBNull.getInstance(), Collections.singletonList(id1));
+        x.put(new DBValue(5), Arrays.asList(id2, id2));
+        x.put(new DBValue(9), Collections.singletonList(id3));
+
+        NavigableMap<DBValue, Object> y = new ConcurrentSkipListMap<>();
+        y.put(new DBValue(7), Collections.emptyList());
+
+        NavigableMap<DBValue, Object> index = new ConcurrentSkipListMap<>();
+        index.put(new DBValue("x"), x);
+        index.put(new DBValue("y"), y);
+
+        AggregateOptions options = AggregateOptions.groupBy("a").count("n")
+            .min("b", "min").max("b", "max");
+        List<Pair<NitriteId, Document>> groups = new IndexGroupedStream(new IndexMap(index),
+            Arrays.asList("a", "b"), options).toList();
+
+        // the group without ids is dropped
+        assertEquals(1, groups.size());
+        Document group = groups.get(0).getSecond();
+        assertEquals("x", group.get("a"));
+        assertEquals(3L, group.get("n"));
+        assertEquals(5, group.get("min"));
+        assertEquals(9, group.get("max"));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.common.streams;
+
+import org.dizitart.no2.collection.DistinctOptions;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.DBNull;
+import org.dizitart.no2.common.DBValue;
+import org.dizitart.no2.index.IndexMap;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class IndexKeyStreamTest {
+
+    @Test
+    public void testSingleFieldIndex() {
+        NavigableMap<DBValue, Object> index = new ConcurrentSkipListMap<>();
+        index.put(DBNull.getInstance(), Collections.singletonList(NitriteId.newId()));
+        for (String key : Arrays.asList("ap-south", "eu-central", "eu-north", "eu-west", "us-east")) {
+            index.put(new DBValue(key), Collections.singletonList(NitriteId.newId()));
+        }
+        IndexMap indexMap = new IndexMap(index);
+
+        assertEquals(Arrays.asList("ap-south", "eu-central", "eu-north", "eu-west", "us-east"),
+            new IndexKeyStream(indexMap, null, false).toList());
+        assertEquals(Arrays.asList("eu-central", "eu-north", "eu-west"),
+            new IndexKeyStream(indexMap, DistinctOptions.distinctOptions().prefix("eu-"), false).toList());
+        assertEquals(Arrays.asList("eu-north", "eu-west"),
+            new IndexKeyStream(indexMap, DistinctOptions.distinctOptions().prefix("eu-")
+                .from("eu-central", false), false).toList());
+        assertEquals(Arrays.asList("eu-central", "eu-north"),
+            new IndexKeyStream(indexMap, DistinctOptions.distinctOptions()
+                .from("b", true).to("eu-north", true), false).toList());
+        assertEquals(Collections.singletonList("ap-south"),
+            new IndexKeyStream(indexMap, DistinctOptions.distinctOptions().limit(1), false).toList());
+        assertEquals(Collections.emptyList(),
+            new IndexKeyStream(indexMap, DistinctOptions.distinctOptions().prefix("sa-"), false).toList());
+    }
+
+    @Test
+    public void testCompoundIndex() {
+        NavigableMap<DBValue, Object> x = new ConcurrentSkipListMap<>();
+        x.put(new DBValue(5), Collections.singletonList(NitriteId.newId()));
+
+        NavigableMap<DBValue, Object> y = new ConcurrentSkipListMap<>();
+        y.put(new DBValue(7), Collections.emptyList());
+
+        NavigableMap<DBValue, Object> index = new ConcurrentSkipListMap<>();
+        index.put(new DBValue(1), x);
+        index.put(new DBValue(2), y);
+        index.put(new DBValue(3), x);
+
+        // the leading key without ids is skipped
+        assertEquals(Arrays.asList(1, 3), new IndexKeyStream(new IndexMap(index), null, true).toList());
+    }
+}
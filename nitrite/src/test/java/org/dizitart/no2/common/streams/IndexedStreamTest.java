@@ -17,12 +17,18 @@
 
 package org.dizitart.no2.common.streams;
 
+import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.tuples.Pair;
 import org.dizitart.no2.store.memory.InMemoryMap;
+import org.dizitart.no2.store.memory.InMemoryStore;
 import org.junit.Test;
 
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class IndexedStreamTest {
@@ -40,5 +46,24 @@ public class IndexedStreamTest {
         indexedStream.iterator();
         assertTrue(indexedStream.toList().isEmpty());
     }
-}
 
+    @Test
+    public void testSkipMissingDocuments() {
+        InMemoryMap<NitriteId, Document> nitriteMap = new InMemoryMap<>("Map Name", new InMemoryStore());
+        NitriteId first = NitriteId.newId();
+        NitriteId missing = NitriteId.newId();
+        NitriteId last = NitriteId.newId();
+        nitriteMap.put(first, Document.createDocument("a", 1));
+        nitriteMap.put(last, Document.createDocument("a", 2));
+
+        LinkedHashSet<NitriteId> nitriteIds = new LinkedHashSet<>();
+        nitriteIds.add(first);
+        nitriteIds.add(missing);
+        nitriteIds.add(last);
+
+        List<Pair<NitriteId, Document>> pairs = new IndexedStream(nitriteIds, nitriteMap).toList();
+        assertEquals(2, pairs.size());
+        assertEquals(first, pairs.get(0).getFirst());
+        assertEquals(last, pairs.get(1).getFirst());
+    }
+}
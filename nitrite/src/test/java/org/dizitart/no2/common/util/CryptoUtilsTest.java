@@ -22,6 +22,7 @@ import org.junit.Test;
 import java.io.UnsupportedEncodingException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 
@@ -39,5 +40,25 @@ public class CryptoUtilsTest {
         assertTrue(CryptoUtils.getAESKeyFromPassword(password,
             "AAAAAAAA".getBytes("UTF-8")) instanceof javax.crypto.spec.SecretKeySpec);
     }
-}
 
+    @Test
+    public void testHkdf() throws Exception {
+        // test case 1 of RFC 5869
+        byte[] key = hex("0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b");
+        byte[] salt = hex("000102030405060708090a0b0c");
+        byte[] info = hex("f0f1f2f3f4f5f6f7f8f9");
+        byte[] expected = hex("3cb25f25faacd57a90434f64d0362f2a2d2d0a90cf1a5a4c5db02d56ecc4c5bf34007208d5b887185865");
+        assertArrayEquals(expected, CryptoUtils.hkdf(key, salt, info, 42));
+
+        // a prefix of the same output for a shorter length
+        assertArrayEquals(Arrays.copyOf(expected, 16), CryptoUtils.hkdf(key, salt, info, 16));
+    }
+
+    private static byte[] hex(String value) {
+        byte[] bytes = new byte[value.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(value.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+}
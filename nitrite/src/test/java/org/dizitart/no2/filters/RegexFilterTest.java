@@ -2,11 +2,16 @@ package org.dizitart.no2.filters;
 
 import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.DBValue;
 import org.dizitart.no2.common.tuples.Pair;
+import org.dizitart.no2.exceptions.FilterException;
+import org.dizitart.no2.index.IndexMap;
+import org.dizitart.no2.index.IndexType;
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertFalse;
+import java.util.*;
+
+import static org.junit.Assert.*;
 
 public class RegexFilterTest {
     @Test
@@ -46,5 +51,45 @@ public class RegexFilterTest {
         NitriteId first = NitriteId.newId();
         assertFalse(regexFilter.apply(new Pair<>(first, Document.createDocument())));
     }
-}
 
+    @Test
+    public void testApplyOnIndex() {
+        NitriteId id1 = NitriteId.newId();
+        NitriteId id2 = NitriteId.newId();
+        NitriteId id3 = NitriteId.newId();
+        NitriteId id4 = NitriteId.newId();
+
+        NavigableMap<DBValue, List<NitriteId>> index = new TreeMap<>();
+        index.put(new DBValue("INV-2024-7"), Collections.singletonList(id1));
+        index.put(new DBValue("ORD-2023-1"), Collections.singletonList(id2));
+        index.put(new DBValue("ORD-2024-1"), Collections.singletonList(id3));
+        index.put(new DBValue("ORD-2024-x"), Collections.singletonList(id4));
+
+        assertEquals(Collections.singletonList(id3),
+            new RegexFilter("field", "^ORD-2024-\\d").applyOnIndex(new IndexMap(index)));
+        assertEquals(Arrays.asList(id1, id3, id4),
+            new RegexFilter("field", "^(ORD|INV)-2024").applyOnIndex(new IndexMap(index)));
+        assertEquals(Arrays.asList(id1, id3, id4),
+            new RegexFilter("field", "2024").applyOnIndex(new IndexMap(index)));
+
+        IndexMap reverse = new IndexMap(index);
+        reverse.setReverseScan(true);
+        assertEquals(Arrays.asList(id4, id3, id1),
+            new RegexFilter("field", "^(ORD|INV)-2024").applyOnIndex(reverse));
+    }
+
+    @Test(expected = FilterException.class)
+    public void testApplyOnIndexWithNonStringKey() {
+        NavigableMap<DBValue, List<NitriteId>> index = new TreeMap<>();
+        index.put(new DBValue(42), Collections.singletonList(NitriteId.newId()));
+        new RegexFilter("field", "4").applyOnIndex(new IndexMap(index));
+    }
+
+    @Test
+    public void testSupportsIndexType() {
+        RegexFilter regexFilter = new RegexFilter("field", "^a");
+        assertTrue(regexFilter.supportsIndexType(IndexType.UNIQUE));
+        assertTrue(regexFilter.supportsIndexType(IndexType.NON_UNIQUE));
+        assertFalse(regexFilter.supportsIndexType(IndexType.FULL_TEXT));
+    }
+}
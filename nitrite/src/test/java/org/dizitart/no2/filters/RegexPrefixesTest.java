@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.filters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class RegexPrefixesTest {
+    @Test
+    public void testAnchoredLiteral() {
+        assertEquals(Collections.singletonList("ORD-2024-"), RegexPrefixes.extract("^ORD-2024-.*"));
+        assertEquals(Collections.singletonList("ORD"), RegexPrefixes.extract("\\AORD\\d+"));
+        assertEquals(Collections.singletonList("a.b"), RegexPrefixes.extract("^a\\.b[0-9]"));
+        assertEquals(Collections.singletonList("a+b"), RegexPrefixes.extract("^\\Qa+b\\E(x|y)?"));
+    }
+
+    @Test
+    public void testQuantifiers() {
+        assertEquals(Collections.singletonList("ab"), RegexPrefixes.extract("^abc?"));
+        assertEquals(Collections.singletonList("ab"), RegexPrefixes.extract("^abc*"));
+        assertEquals(Collections.singletonList("ab"), RegexPrefixes.extract("^abc{0,2}"));
+        assertEquals(Collections.singletonList("abc"), RegexPrefixes.extract("^abc+d"));
+        assertEquals(Collections.singletonList("ab"), RegexPrefixes.extract("^ab(cd)*"));
+    }
+
+    @Test
+    public void testAlternations() {
+        assertEquals(Arrays.asList("INV-1", "ORD-1"), RegexPrefixes.extract("^(ORD|INV)-1"));
+        assertEquals(Arrays.asList("INV", "ORD"), RegexPrefixes.extract("^(?:ORD|INV)[0-9]"));
+        assertEquals(Arrays.asList("abc", "xyz"), RegexPrefixes.extract("^abc|^xyz.*"));
+        // overlapping prefixes are covered by the shorter one
+        assertEquals(Collections.singletonList("ab"), RegexPrefixes.extract("^ab|^abc"));
+        // a non literal alternative stops the prefix before the group
+        assertEquals(Collections.singletonList("a-"), RegexPrefixes.extract("^a-(b|c+)"));
+    }
+
+    @Test
+    public void testUnbounded() {
+        assertEquals(Collections.emptyList(), RegexPrefixes.extract("ORD"));
+        assertEquals(Collections.emptyList(), RegexPrefixes.extract("^ORD|INV"));
+        assertEquals(Collections.emptyList(), RegexPrefixes.extract("^.*ORD"));
+        assertEquals(Collections.emptyList(), RegexPrefixes.extract("^a?b"));
+        assertEquals(Collections.emptyList(), RegexPrefixes.extract("(?i)^ORD"));
+        assertEquals(Collections.emptyList(), RegexPrefixes.extract("^[|]a"));
+        assertEquals(Collections.emptyList(), RegexPrefixes.extract(""));
+    }
+}
@@ -18,11 +18,22 @@
 package org.dizitart.no2.index;
 
 import org.dizitart.no2.collection.FindPlan;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.DBValue;
 import org.dizitart.no2.common.FieldValues;
 import org.dizitart.no2.common.Fields;
+import org.dizitart.no2.exceptions.UniqueConstraintException;
+import org.dizitart.no2.store.NitriteMap;
 import org.dizitart.no2.store.memory.InMemoryStore;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.dizitart.no2.common.util.IndexUtils.deriveIndexMapName;
+
 import static org.dizitart.no2.common.tuples.Pair.pair;
 import static org.junit.Assert.*;
 
@@ -61,5 +72,46 @@ public class SingleFieldIndexTest {
                 new IndexDescriptor("Index Type", new Fields(), "Collection Name"), null);
         assertTrue(singleFieldIndex.findNitriteIds(new FindPlan()).isEmpty());
     }
-}
 
+    @Test
+    public void testWriteAll() {
+        InMemoryStore store = new InMemoryStore();
+        IndexDescriptor indexDescriptor = new IndexDescriptor(IndexType.NON_UNIQUE,
+            Fields.withNames("a"), "Collection Name");
+        SingleFieldIndex singleFieldIndex = new SingleFieldIndex(indexDescriptor, store);
+
+        List<FieldValues> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            FieldValues fieldValues = new FieldValues();
+            fieldValues.setNitriteId(NitriteId.newId());
+            fieldValues.getValues().add(pair("a", i % 2 == 0 ? Arrays.asList(1, 2) : 3));
+            batch.add(fieldValues);
+        }
+        singleFieldIndex.writeAll(batch);
+
+        NitriteMap<DBValue, List<?>> indexMap = store.openMap(deriveIndexMapName(indexDescriptor),
+            DBValue.class, CopyOnWriteArrayList.class);
+        assertEquals(3, indexMap.size());
+        assertEquals(5, indexMap.get(new DBValue(1)).size());
+        assertEquals(5, indexMap.get(new DBValue(2)).size());
+        assertEquals(5, indexMap.get(new DBValue(3)).size());
+        assertTrue(indexMap.get(new DBValue(1)) instanceof CopyOnWriteArrayList);
+        assertEquals(batch.get(0).getNitriteId(), indexMap.get(new DBValue(1)).get(0));
+    }
+
+    @Test(expected = UniqueConstraintException.class)
+    public void testWriteAllUniqueViolation() {
+        IndexDescriptor indexDescriptor = new IndexDescriptor(IndexType.UNIQUE,
+            Fields.withNames("a"), "Collection Name");
+        SingleFieldIndex singleFieldIndex = new SingleFieldIndex(indexDescriptor, new InMemoryStore());
+
+        List<FieldValues> batch = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            FieldValues fieldValues = new FieldValues();
+            fieldValues.setNitriteId(NitriteId.newId());
+            fieldValues.getValues().add(pair("a", 1));
+            batch.add(fieldValues);
+        }
+        singleFieldIndex.writeAll(batch);
+    }
+}
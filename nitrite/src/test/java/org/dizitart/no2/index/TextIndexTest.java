@@ -18,6 +18,7 @@
 package org.dizitart.no2.index;
 
 import org.dizitart.no2.collection.FindPlan;
+import org.dizitart.no2.collection.NitriteId;
 import org.dizitart.no2.common.FieldValues;
 import org.dizitart.no2.common.Fields;
 import org.dizitart.no2.common.tuples.Pair;
@@ -26,6 +27,15 @@ import org.dizitart.no2.index.fulltext.EnglishTextTokenizer;
 import org.dizitart.no2.store.memory.InMemoryStore;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.dizitart.no2.common.Constants.INTERNAL_NAME_SEPARATOR;
+import static org.dizitart.no2.common.util.IndexUtils.deriveIndexMapName;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
@@ -91,5 +101,151 @@ public class TextIndexTest {
                 new IndexDescriptor("Index Type", new Fields(), "Collection Name"), null);
         assertTrue(textIndex.findNitriteIds(new FindPlan()).isEmpty());
     }
-}
 
+    @Test
+    public void testFindTermsByPrefixAndSuffix() {
+        TextIndex textIndex = new TextIndex(new EnglishTextTokenizer(),
+                new IndexDescriptor(IndexType.FULL_TEXT, Fields.withNames("body"), "test"), new InMemoryStore());
+        NitriteId id1 = NitriteId.newId();
+        NitriteId id2 = NitriteId.newId();
+        textIndex.write(fieldValues(id1, "quick brown fox"));
+        textIndex.write(fieldValues(id2, "quiet brown dog"));
+
+        assertEquals(new HashSet<>(Arrays.asList("quick", "quiet")), textIndex.findTermsByPrefix("qui"));
+        assertEquals(Collections.singleton("brown"), textIndex.findTermsBySuffix("own"));
+        assertEquals(Collections.singleton("fox"), textIndex.findTermsContaining("ox"));
+        assertTrue(textIndex.findTermsByPrefix("z").isEmpty());
+        assertEquals(Arrays.asList(id1, id2), textIndex.findByTerm("brown"));
+
+        textIndex.remove(fieldValues(id1, "quick brown fox"));
+        assertEquals(Collections.singleton("quiet"), textIndex.findTermsByPrefix("qui"));
+        assertEquals(Collections.singleton("brown"), textIndex.findTermsBySuffix("own"));
+        assertTrue(textIndex.findTermsBySuffix("ick").isEmpty());
+    }
+
+    @Test
+    public void testFindTermsWithTrigram() {
+        InMemoryStore store = new InMemoryStore();
+        IndexDescriptor indexDescriptor = new IndexDescriptor(IndexType.FULL_TEXT_TRIGRAM,
+                Fields.withNames("body"), "test");
+        TextIndex textIndex = new TextIndex(new EnglishTextTokenizer(), indexDescriptor, store, true);
+        NitriteId id1 = NitriteId.newId();
+        NitriteId id2 = NitriteId.newId();
+        textIndex.write(fieldValues(id1, "lorem ipsum"));
+        textIndex.write(fieldValues(id2, "explore more"));
+
+        assertEquals(new HashSet<>(Arrays.asList("lorem", "explore")), textIndex.findTermsContaining("lor"));
+        assertEquals(Collections.singleton("lorem"), textIndex.findTermsContaining("orem"));
+        assertEquals(new HashSet<>(Arrays.asList("lorem", "explore")), textIndex.findTermsContaining("re"));
+        assertTrue(textIndex.findTermsContaining("xyz").isEmpty());
+
+        textIndex.remove(fieldValues(id2, "explore more"));
+        assertEquals(Collections.singleton("lorem"), textIndex.findTermsContaining("lor"));
+
+        textIndex.drop();
+        assertFalse(store.hasMap(deriveIndexMapName(indexDescriptor) + INTERNAL_NAME_SEPARATOR + "trigram"));
+        assertFalse(store.hasMap(deriveIndexMapName(indexDescriptor) + INTERNAL_NAME_SEPARATOR + "reverse"));
+    }
+
+    @Test
+    public void testBuildTermIndexForExistingTerms() {
+        InMemoryStore store = new InMemoryStore();
+        IndexDescriptor indexDescriptor = new IndexDescriptor(IndexType.FULL_TEXT_TRIGRAM,
+                Fields.withNames("body"), "test");
+        new TextIndex(new EnglishTextTokenizer(), indexDescriptor, store)
+                .write(fieldValues(NitriteId.newId(), "lorem ipsum"));
+
+        // opening the same index with trigrams enabled builds the missing term indexes
+        TextIndex textIndex = new TextIndex(new EnglishTextTokenizer(), indexDescriptor, store, true);
+        assertEquals(Collections.singleton("ipsum"), textIndex.findTermsContaining("psu"));
+        assertEquals(Collections.singleton("ipsum"), textIndex.findTermsBySuffix("sum"));
+    }
+
+    @Test
+    public void testRank() {
+        TextIndex textIndex = new TextIndex(new EnglishTextTokenizer(),
+                new IndexDescriptor(IndexType.FULL_TEXT, Fields.withNames("body"), "test"), new InMemoryStore());
+        NitriteId id1 = NitriteId.newId();
+        NitriteId id2 = NitriteId.newId();
+        NitriteId id3 = NitriteId.newId();
+        NitriteId id4 = NitriteId.newId();
+        textIndex.write(fieldValues(id1, "fox hunting in the forest near the river bank"));
+        textIndex.write(fieldValues(id2, "fox fox fox"));
+        textIndex.write(fieldValues(id3, "a river runs through the forest"));
+        textIndex.write(fieldValues(id4, "nothing to see here"));
+
+        Map<NitriteId, Double> scores = textIndex.rank(new HashSet<>(Arrays.asList("fox", "river")), 10);
+        assertEquals(Arrays.asList(id1, id2, id3), new ArrayList<>(scores.keySet()));
+        assertTrue(scores.get(id1) > scores.get(id2));
+        assertTrue(scores.get(id2) > scores.get(id3));
+
+        Map<NitriteId, Double> top = textIndex.rank(new HashSet<>(Arrays.asList("fox", "river")), 1);
+        assertEquals(Collections.singletonList(id1), new ArrayList<>(top.keySet()));
+        assertEquals(scores.get(id1), top.get(id1));
+
+        assertTrue(textIndex.rank(Collections.singleton("unknown"), 10).isEmpty());
+        assertTrue(textIndex.rank(Collections.singleton("fox"), 0).isEmpty());
+
+        textIndex.remove(fieldValues(id1, "fox hunting in the forest near the river bank"));
+        scores = textIndex.rank(Collections.singleton("fox"), 10);
+        assertEquals(Collections.singletonList(id2), new ArrayList<>(scores.keySet()));
+    }
+
+    @Test
+    public void testRankIndexWithoutStatistics() {
+        InMemoryStore store = new InMemoryStore();
+        IndexDescriptor indexDescriptor = new IndexDescriptor(IndexType.FULL_TEXT, Fields.withNames("body"), "test");
+        TextIndex textIndex = new TextIndex(new EnglishTextTokenizer(), indexDescriptor, store);
+        NitriteId id1 = NitriteId.newId();
+        NitriteId id2 = NitriteId.newId();
+        textIndex.write(fieldValues(id1, "quick brown fox"));
+        textIndex.write(fieldValues(id2, "quick dog"));
+
+        // simulate an index created before the statistics were kept
+        String mapName = deriveIndexMapName(indexDescriptor);
+        store.removeMap(mapName + INTERNAL_NAME_SEPARATOR + "frequency");
+        store.removeMap(mapName + INTERNAL_NAME_SEPARATOR + "length");
+        store.removeMap(mapName + INTERNAL_NAME_SEPARATOR + "stats");
+
+        textIndex = new TextIndex(new EnglishTextTokenizer(), indexDescriptor, store);
+        Map<NitriteId, Double> scores = textIndex.rank(new HashSet<>(Arrays.asList("quick", "fox")), 10);
+        assertEquals(Arrays.asList(id1, id2), new ArrayList<>(scores.keySet()));
+    }
+
+    @Test
+    public void testUpdateDocumentOfSealedTerm() {
+        TextIndex textIndex = new TextIndex(new EnglishTextTokenizer(),
+                new IndexDescriptor(IndexType.FULL_TEXT, Fields.withNames("body"), "test"), new InMemoryStore());
+        List<NitriteId> ids = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            NitriteId id = NitriteId.newId();
+            ids.add(id);
+            textIndex.write(fieldValues(id, "quick fox"));
+        }
+
+        // update a document whose term already has a sealed segment
+        NitriteId updated = ids.get(10);
+        textIndex.remove(fieldValues(updated, "quick fox"));
+        textIndex.write(fieldValues(updated, "lazy fox"));
+
+        // fill the head past the segment size
+        for (int i = 0; i < 600; i++) {
+            textIndex.write(fieldValues(NitriteId.newId(), "quick fox"));
+        }
+
+        assertTrue(textIndex.findByTerm("fox").contains(updated));
+        assertFalse(textIndex.findByTerm("quick").contains(updated));
+        textIndex.compact();
+        assertTrue(textIndex.findByTerm("fox").contains(updated));
+        assertFalse(textIndex.findByTerm("quick").contains(updated));
+        assertEquals(1200, textIndex.findByTerm("fox").size());
+    }
+
+    private FieldValues fieldValues(NitriteId nitriteId, String text) {
+        FieldValues fieldValues = new FieldValues();
+        fieldValues.setNitriteId(nitriteId);
+        fieldValues.setFields(Fields.withNames("body"));
+        fieldValues.getValues().add(Pair.pair("body", text));
+        return fieldValues;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.index;
+
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.Fields;
+import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.store.memory.InMemoryStore;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.dizitart.no2.common.Constants.INTERNAL_NAME_SEPARATOR;
+import static org.dizitart.no2.common.util.IndexUtils.deriveIndexMapName;
+import static org.junit.Assert.*;
+
+public class TextPostingsTest {
+    private InMemoryStore store;
+    private IndexDescriptor indexDescriptor;
+    private List<String> removedTerms;
+    private TextPostings postings;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryStore();
+        indexDescriptor = new IndexDescriptor(IndexType.FULL_TEXT, Fields.withNames("body"), "test");
+        removedTerms = new CopyOnWriteArrayList<>();
+        postings = new TextPostings(indexDescriptor, store, 4, 100, removedTerms::add);
+    }
+
+    @Test
+    public void testAddSealsFullHead() {
+        List<NitriteId> ids = newIds(10);
+        assertTrue(postings.add("fox", ids.get(0)));
+        for (int i = 1; i < ids.size(); i++) {
+            assertFalse(postings.add("fox", ids.get(i)));
+        }
+
+        assertEquals(ids, postings.get("fox"));
+        assertNull(postings.get("dog"));
+
+        // the head never grows beyond the segment size
+        NitriteMap<String, List<?>> indexMap = store.openMap(deriveIndexMapName(indexDescriptor),
+            String.class, CopyOnWriteArrayList.class);
+        assertEquals(2, indexMap.get("fox").size());
+    }
+
+    @Test
+    public void testRemoveFromSealedSegment() {
+        List<NitriteId> ids = newIds(6);
+        for (NitriteId id : ids) {
+            postings.add("fox", id);
+        }
+
+        assertFalse(postings.remove("fox", ids.get(1)));
+        assertFalse(postings.remove("fox", ids.get(5)));
+        assertEquals(Arrays.asList(ids.get(0), ids.get(2), ids.get(3), ids.get(4)), postings.get("fox"));
+
+        // removed and added again, it is live in its sealed segment again
+        postings.add("fox", ids.get(1));
+        assertEquals(Arrays.asList(ids.get(0), ids.get(1), ids.get(2), ids.get(3), ids.get(4)),
+            postings.get("fox"));
+
+        postings.compact();
+        assertEquals(Arrays.asList(ids.get(0), ids.get(1), ids.get(2), ids.get(3), ids.get(4)),
+            postings.get("fox"));
+    }
+
+    @Test
+    public void testUpdateBeforeHeadIsSealed() {
+        List<NitriteId> ids = newIds(6);
+        for (NitriteId id : ids) {
+            postings.add("fox", id);
+        }
+
+        // update of a document in a sealed segment
+        postings.remove("fox", ids.get(1));
+        postings.add("fox", ids.get(1));
+
+        // fill the head past the segment size, so the re-added id gets sealed
+        List<NitriteId> more = newIds(6);
+        for (NitriteId id : more) {
+            postings.add("fox", id);
+        }
+        assertTrue(postings.get("fox").contains(ids.get(1)));
+        assertEquals(12, postings.get("fox").size());
+
+        postings.compact();
+        assertTrue(postings.get("fox").contains(ids.get(1)));
+
+        // removed again, it must not come back from any segment
+        postings.remove("fox", ids.get(1));
+        assertFalse(postings.get("fox").contains(ids.get(1)));
+        postings.compact();
+        assertFalse(postings.get("fox").contains(ids.get(1)));
+        assertEquals(11, postings.get("fox").size());
+    }
+
+    @Test
+    public void testMergeRemovesDeadTerm() {
+        List<NitriteId> ids = newIds(5);
+        for (NitriteId id : ids) {
+            postings.add("fox", id);
+        }
+
+        for (NitriteId id : ids) {
+            assertFalse(postings.remove("fox", id));
+        }
+        // the merge might already have run in background
+        List<NitriteId> live = postings.get("fox");
+        assertTrue(live == null || live.isEmpty());
+
+        postings.compact();
+        assertNull(postings.get("fox"));
+        assertEquals(Arrays.asList("fox"), removedTerms);
+    }
+
+    @Test
+    public void testMergeByThreshold() throws InterruptedException {
+        postings = new TextPostings(indexDescriptor, store, 4, 2, removedTerms::add);
+        List<NitriteId> ids = newIds(9);
+        for (NitriteId id : ids) {
+            postings.add("fox", id);
+        }
+
+        postings.remove("fox", ids.get(0));
+        postings.remove("fox", ids.get(4));
+
+        // the merge runs in background
+        String tombstoneMapName = deriveIndexMapName(indexDescriptor) + INTERNAL_NAME_SEPARATOR + "tombstone";
+        for (int i = 0; i < 100 && !store.openMap(tombstoneMapName, String.class, Object.class).isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(store.openMap(tombstoneMapName, String.class, Object.class).isEmpty());
+        assertEquals(7, postings.get("fox").size());
+        assertFalse(postings.get("fox").contains(ids.get(0)));
+        assertFalse(postings.get("fox").contains(ids.get(4)));
+    }
+
+    @Test
+    public void testRemoveUnsealed() {
+        NitriteId id = NitriteId.newId();
+        postings.add("fox", id);
+        assertFalse(postings.remove("fox", NitriteId.newId()));
+        assertTrue(postings.remove("fox", id));
+        assertNull(postings.get("fox"));
+        assertFalse(postings.remove("dog", id));
+    }
+
+    @Test
+    public void testDrop() {
+        for (NitriteId id : newIds(6)) {
+            postings.add("fox", id);
+        }
+
+        String mapName = deriveIndexMapName(indexDescriptor);
+        assertTrue(store.hasMap(mapName + INTERNAL_NAME_SEPARATOR + "segment"));
+        postings.drop(mapName);
+        assertFalse(store.hasMap(mapName + INTERNAL_NAME_SEPARATOR + "segment"));
+    }
+
+    private List<NitriteId> newIds(int count) {
+        List<NitriteId> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(NitriteId.newId());
+        }
+        return ids;
+    }
+}
@@ -2,7 +2,7 @@ package org.dizitart.no2.index.fulltext;
 
 import org.junit.Test;
 
-import java.util.Set;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -34,5 +34,111 @@ public class EnglishTextTokenizerTest {
         assertTrue(actualStopWordsResult.contains("appreciate"));
         assertTrue(actualStopWordsResult.contains("would"));
     }
-}
 
+    @Test
+    public void testTermFrequencies() {
+        Map<String, Integer> frequencies = new EnglishTextTokenizer()
+            .termFrequencies("The quick fox and the lazy fox");
+        assertEquals(3, frequencies.size());
+        assertEquals(2, frequencies.get("fox").intValue());
+        assertEquals(1, frequencies.get("quick").intValue());
+        assertEquals(1, frequencies.get("lazy").intValue());
+        assertTrue(new EnglishTextTokenizer().termFrequencies("").isEmpty());
+    }
+
+    @Test
+    public void testTokenizeStream() {
+        List<String> tokens = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        new EnglishTextTokenizer().tokenize("The QUICK, brown fox's den", (token, position) -> {
+            tokens.add(token);
+            positions.add(position);
+        });
+        assertEquals(Arrays.asList("quick", "brown", "fox", "den"), tokens);
+        assertEquals(Arrays.asList(1, 2, 3, 5), positions);
+    }
+
+    @Test
+    public void testTokenizeNonAscii() {
+        Set<String> tokens = new EnglishTextTokenizer().tokenize("Ärger über THE Straße");
+        assertEquals(new HashSet<>(Arrays.asList("ärger", "über", "straße")), tokens);
+    }
+
+    @Test
+    public void testTokenizeWithCustomConversion() {
+        EnglishTextTokenizer tokenizer = new EnglishTextTokenizer() {
+            @Override
+            protected String convertWord(String word) {
+                String converted = super.convertWord(word);
+                return converted == null ? null : converted + "!";
+            }
+        };
+        assertEquals(new HashSet<>(Arrays.asList("quick!", "fox!")), tokenizer.tokenize("the quick fox"));
+        assertEquals(2, tokenizer.termFrequencies("fox fox").get("fox!").intValue());
+
+        List<String> tokens = new ArrayList<>();
+        tokenizer.tokenize("the quick", (token, position) -> tokens.add(token));
+        assertEquals(Collections.singletonList("quick!"), tokens);
+    }
+
+    @Test
+    public void testTokenizeStreamWithStringTokenizerOnly() {
+        TextTokenizer tokenizer = new TextTokenizer() {
+            @Override
+            public Languages getLanguage() {
+                return Languages.English;
+            }
+
+            @Override
+            public Set<String> tokenize(String text) {
+                Set<String> words = new HashSet<>();
+                for (String word : text.split("\\s+")) {
+                    if (!word.isEmpty() && !stopWords().contains(word.toLowerCase())) {
+                        words.add(word.toLowerCase());
+                    }
+                }
+                return words;
+            }
+
+            @Override
+            public Set<String> stopWords() {
+                return Collections.singleton("the");
+            }
+        };
+
+        List<String> tokens = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        tokenizer.tokenize("The fox saw the other fox", (token, position) -> {
+            tokens.add(token);
+            positions.add(position);
+        });
+        assertEquals(Arrays.asList("fox", "saw", "other", "fox"), tokens);
+        assertEquals(Arrays.asList(1, 2, 4, 5), positions);
+        assertEquals(2, tokenizer.termFrequencies("The fox saw the other fox").get("fox").intValue());
+        assertEquals(1, tokenizer.termFrequencies("The fox saw the other fox").get("saw").intValue());
+    }
+
+    @Test
+    public void testTokenizeStreamWithOverriddenTokenize() {
+        EnglishTextTokenizer tokenizer = new EnglishTextTokenizer() {
+            @Override
+            public Set<String> tokenize(String text) {
+                Set<String> words = new HashSet<>();
+                for (String word : super.tokenize(text)) {
+                    words.add(word.toUpperCase());
+                }
+                return words;
+            }
+        };
+
+        List<String> tokens = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        tokenizer.tokenize("the quick fox and the fox", (token, position) -> {
+            tokens.add(token);
+            positions.add(position);
+        });
+        assertEquals(Arrays.asList("QUICK", "FOX", "FOX"), tokens);
+        assertEquals(Arrays.asList(1, 2, 5), positions);
+        assertEquals(2, tokenizer.termFrequencies("the quick fox and the fox").get("FOX").intValue());
+    }
+}
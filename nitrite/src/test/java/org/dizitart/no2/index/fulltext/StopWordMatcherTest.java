@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.index.fulltext;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StopWordMatcherTest {
+    @Test
+    public void testContains() {
+        StopWordMatcher matcher = new StopWordMatcher(new HashSet<>(Arrays.asList("a", "the", "and", "者", "ছিলেন")));
+        char[] buffer = "xxtheandx".toCharArray();
+
+        assertTrue(matcher.contains(buffer, 2, 3));
+        assertTrue(matcher.contains(buffer, 5, 3));
+        assertFalse(matcher.contains(buffer, 2, 4));
+        assertFalse(matcher.contains(buffer, 0, 0));
+        assertTrue(matcher.contains("者"));
+        assertTrue(matcher.contains("ছিলেন"));
+        assertFalse(matcher.contains("ছিলে"));
+        assertFalse(matcher.contains("The"));
+    }
+
+    @Test
+    public void testAllStopWords() {
+        UniversalTextTokenizer tokenizer = new UniversalTextTokenizer();
+        StopWordMatcher matcher = new StopWordMatcher(tokenizer.stopWords());
+        for (String stopWord : tokenizer.stopWords()) {
+            char[] chars = stopWord.toCharArray();
+            assertTrue(stopWord, matcher.contains(chars, 0, chars.length));
+            assertTrue(stopWord, matcher.contains(stopWord));
+        }
+        assertFalse(matcher.contains("nitrite"));
+    }
+
+    @Test
+    public void testEmpty() {
+        StopWordMatcher matcher = new StopWordMatcher(Collections.emptySet());
+        assertFalse(matcher.contains("a"));
+        assertFalse(matcher.contains(new char[0], 0, 0));
+    }
+}
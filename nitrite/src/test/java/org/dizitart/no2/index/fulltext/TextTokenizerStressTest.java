@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.index.fulltext;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.dizitart.no2.common.util.StringUtils.stringTokenizer;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the streaming tokenizer with the legacy {@link StringTokenizer}
+ * based conversion over a multilingual corpus and logs the throughput.
+ *
+ * @author Anindya Chatterjee
+ */
+@Slf4j
+public class TextTokenizerStressTest {
+    private static final String DELIMITERS = " \t\n\r\f+\"*%&/()=?'!,.;:-_#@|^~`{}[]<>\\";
+
+    @Test
+    public void testStreamingMatchesLegacy() {
+        UniversalTextTokenizer tokenizer = new UniversalTextTokenizer();
+        List<String> corpus = corpus(tokenizer.stopWords());
+
+        for (String text : corpus) {
+            assertEquals(text, legacyTokenize(tokenizer, text), tokenizer.tokenize(text));
+        }
+
+        int[] count = new int[1];
+        long start = System.nanoTime();
+        for (int round = 0; round < 5; round++) {
+            for (String text : corpus) {
+                tokenizer.tokenize(text, (token, position) -> count[0]++);
+            }
+        }
+        long streaming = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int round = 0; round < 5; round++) {
+            for (String text : corpus) {
+                count[0] += legacyTokenize(tokenizer, text).size();
+            }
+        }
+        long legacy = System.nanoTime() - start;
+
+        log.info("Tokenized {} texts, streaming {} ms, legacy {} ms", corpus.size() * 5,
+            streaming / 1_000_000, legacy / 1_000_000);
+    }
+
+    private Set<String> legacyTokenize(BaseTextTokenizer tokenizer, String text) {
+        Set<String> words = new HashSet<>();
+        StringTokenizer stringTokenizer = stringTokenizer(text);
+        while (stringTokenizer.hasMoreTokens()) {
+            String word = stringTokenizer.nextToken().toLowerCase();
+            if (!tokenizer.stopWords().contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private List<String> corpus(Set<String> stopWords) {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>(stopWords);
+        Collections.sort(words);
+        words.addAll(Arrays.asList("Nitrite", "DATABASE", "Straße", "Ärger", "документ",
+            "索引", "তথ্য", "embedded", "Quick", "fox's"));
+
+        List<String> corpus = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = 5 + random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                String word = words.get(random.nextInt(words.size()));
+                if (random.nextInt(4) == 0) {
+                    word = word.toUpperCase();
+                }
+                text.append(word).append(DELIMITERS.charAt(random.nextInt(DELIMITERS.length())));
+            }
+            corpus.add(text.toString());
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package org.dizitart.no2.integration.collection;
+
+import org.dizitart.no2.collection.AggregateOptions;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.common.RecordStream;
+import org.dizitart.no2.common.SortOrder;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.exceptions.ValidationException;
+import org.dizitart.no2.index.IndexOptions;
+import org.dizitart.no2.index.IndexType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.dizitart.no2.filters.Filter.ALL;
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee
+ */
+public class CollectionAggregateTest extends BaseCollectionTest {
+
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        String[] cities = {"Kolkata", "Delhi", "Mumbai", "Chennai"};
+        for (int i = 0; i < 40; i++) {
+            Document document = createDocument("orderId", i)
+                .put("city", i % 7 == 6 ? null : cities[i % 4])
+                .put("amount", (i % 5) * 10 + 5)
+                .put("rating", i % 3 == 0 ? 4.5 : 3.0)
+                .put("tags", i % 2 == 0 ? Arrays.asList("gift", "express") : Arrays.asList("gift"));
+            collection.insert(document);
+        }
+    }
+
+    @Test
+    public void testGroupByWithoutIndex() {
+        List<Document> result = collection.aggregate(ALL, AggregateOptions.groupBy("city")
+            .count("orders")
+            .sum("amount", "revenue")
+            .avg("rating", "avgRating")
+            .min("amount", "smallest")
+            .max("orderId", "last")
+            .sortBy("city", SortOrder.Ascending)).toList();
+
+        assertEquals(5, result.size());
+        assertNull(result.get(0).get("city"));
+        assertEquals(5L, result.get(0).get("orders"));
+
+        Document chennai = result.get(1);
+        assertEquals("Chennai", chennai.get("city"));
+        long orders = 0, revenue = 0;
+        int smallest = Integer.MAX_VALUE, last = -1;
+        for (int i = 3; i < 40; i += 4) {
+            if (i % 7 == 6) continue;
+            orders++;
+            revenue += (i % 5) * 10 + 5;
+            smallest = Math.min(smallest, (i % 5) * 10 + 5);
+            last = i;
+        }
+        assertEquals(orders, chennai.get("orders"));
+        assertEquals(revenue, chennai.get("revenue"));
+        assertEquals(smallest, chennai.get("smallest"));
+        assertEquals(last, chennai.get("last"));
+        assertTrue(chennai.get("avgRating") instanceof Double);
+    }
+
+    @Test
+    public void testAggregateAll() {
+        Document result = collection.aggregate(where("amount").gte(25),
+            AggregateOptions.aggregateAll()
+                .count("orders")
+                .sum("amount", "revenue")
+                .sum("rating", "ratings")
+                .min("city", "firstCity")).firstOrNull();
+
+        assertNotNull(result);
+        assertEquals(24L, result.get("orders"));
+        assertEquals(24L * 35, result.get("revenue"));
+        assertTrue(result.get("ratings") instanceof Double);
+        assertEquals("Chennai", result.get("firstCity"));
+    }
+
+    @Test
+    public void testUnwindArrayField() {
+        List<Document> result = collection.aggregate(ALL, AggregateOptions.groupBy("tags")
+            .count("orders")
+            .sortBy("orders", SortOrder.Descending)).toList();
+
+        assertEquals(2, result.size());
+        assertEquals("gift", result.get(0).get("tags"));
+        assertEquals(40L, result.get(0).get("orders"));
+        assertEquals("express", result.get(1).get("tags"));
+        assertEquals(20L, result.get(1).get("orders"));
+    }
+
+    @Test
+    public void testHavingSortAndLimit() {
+        RecordStream<Document> result = collection.aggregate(ALL, AggregateOptions.groupBy("amount")
+            .count("orders")
+            .having(where("amount").gt(15))
+            .sortBy("amount", SortOrder.Descending)
+            .limit(2));
+
+        List<Document> documents = result.toList();
+        assertEquals(2, documents.size());
+        assertEquals(45, documents.get(0).get("amount"));
+        assertEquals(35, documents.get(1).get("amount"));
+        assertEquals(8L, documents.get(0).get("orders"));
+
+        // the stream can be iterated again
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    public void testIndexMatchesScan() {
+        AggregateOptions byCity = AggregateOptions.groupBy("city")
+            .count("orders")
+            .min("city", "name")
+            .sortBy("city", SortOrder.Ascending);
+        AggregateOptions byTags = AggregateOptions.groupBy("tags")
+            .count("orders")
+            .sortBy("tags", SortOrder.Ascending);
+        AggregateOptions byCityAmount = AggregateOptions.groupBy("city")
+            .count("orders")
+            .min("amount", "smallest")
+            .max("amount", "largest")
+            .sortBy("city", SortOrder.Ascending);
+        AggregateOptions extremes = AggregateOptions.aggregateAll()
+            .count("orders")
+            .min("orderId", "first")
+            .max("orderId", "last");
+
+        List<Document> cities = collection.aggregate(ALL, byCity).toList();
+        List<Document> tags = collection.aggregate(ALL, byTags).toList();
+        List<Document> cityAmounts = collection.aggregate(ALL, byCityAmount).toList();
+        List<Document> all = collection.aggregate(ALL, extremes).toList();
+
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "city");
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "tags");
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "city", "amount");
+        collection.createIndex(IndexOptions.indexOptions(IndexType.UNIQUE), "orderId");
+
+        assertEquals(cities, collection.aggregate(ALL, byCity).toList());
+        assertEquals(tags, collection.aggregate(ALL, byTags).toList());
+        assertEquals(cityAmounts, collection.aggregate(ALL, byCityAmount).toList());
+        assertEquals(all, collection.aggregate(ALL, extremes).toList());
+        assertEquals(0, all.get(0).get("first"));
+        assertEquals(39, all.get(0).get("last"));
+    }
+
+    @Test
+    public void testIndexAfterRemove() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "city", "amount");
+        collection.remove(where("city").eq("Delhi"));
+
+        List<Document> result = collection.aggregate(ALL, AggregateOptions.groupBy("city")
+            .count("orders")
+            .sortBy("city", SortOrder.Ascending)).toList();
+        assertEquals(4, result.size());
+        for (Document document : result) {
+            assertNotEquals("Delhi", document.get("city"));
+        }
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void testSumOfNonNumericField() {
+        collection.aggregate(ALL, AggregateOptions.groupBy("amount").sum("city", "total")).toList();
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testEmptyAggregation() {
+        collection.aggregate(ALL, AggregateOptions.aggregateAll());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.dizitart.no2.integration.collection;
+
+import org.dizitart.no2.Nitrite;
+import org.dizitart.no2.collection.Document;
+import org.dizitart.no2.collection.NitriteCollection;
+import org.dizitart.no2.collection.NitriteId;
+import org.dizitart.no2.common.cache.CacheStats;
+import org.dizitart.no2.index.IndexType;
+import org.dizitart.no2.transaction.Session;
+import org.dizitart.no2.transaction.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.dizitart.no2.collection.Document.createDocument;
+import static org.dizitart.no2.filters.FluentFilter.where;
+import static org.dizitart.no2.index.IndexOptions.indexOptions;
+import static org.junit.Assert.*;
+
+public class CollectionDocumentCacheTest {
+    private Nitrite db;
+    private NitriteCollection collection;
+
+    @Before
+    public void setUp() {
+        db = Nitrite.builder()
+            .documentCacheSize(1024 * 1024)
+            .openOrCreate();
+        collection = db.getCollection("test");
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null && !db.isClosed()) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testCacheDisabledByDefault() {
+        try (Nitrite nitrite = Nitrite.builder().openOrCreate()) {
+            assertNull(nitrite.getCollection("test").getDocumentCacheStats());
+        }
+    }
+
+    @Test
+    public void testGetByIdHitsCache() {
+        NitriteId id = collection.insert(createDocument("name", "a")).iterator().next();
+
+        assertEquals("a", collection.getById(id).get("name"));
+        assertEquals("a", collection.getById(id).get("name"));
+
+        CacheStats stats = collection.getDocumentCacheStats();
+        assertNotNull(stats);
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getSize());
+        assertTrue(stats.getWeightedSize() > 0);
+    }
+
+    @Test
+    public void testInvalidatedByWrites() {
+        NitriteId id = collection.insert(createDocument("name", "a")).iterator().next();
+        assertEquals("a", collection.getById(id).get("name"));
+
+        collection.update(where("name").eq("a"), createDocument("name", "b"));
+        assertEquals("b", collection.getById(id).get("name"));
+
+        Document document = collection.getById(id);
+        collection.remove(document);
+        assertNull(collection.getById(id));
+
+        NitriteId id2 = collection.insert(createDocument("name", "c")).iterator().next();
+        assertEquals("c", collection.getById(id2).get("name"));
+        collection.clear();
+        assertNull(collection.getById(id2));
+    }
+
+    @Test
+    public void testIndexedFindUsesCache() {
+        collection.createIndex(indexOptions(IndexType.NON_UNIQUE), "group");
+        for (int i = 0; i < 100; i++) {
+            collection.insert(createDocument("group", i % 10).put("value", i));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(10, collection.find(where("group").eq(3)).size());
+        }
+
+        CacheStats stats = collection.getDocumentCacheStats();
+        assertEquals(10, stats.getMissCount());
+        assertEquals(40, stats.getHitCount());
+
+        collection.update(where("value").eq(3), createDocument("group", 4));
+        assertEquals(9, collection.find(where("group").eq(3)).size());
+        assertEquals(11, collection.find(where("group").eq(4)).size());
+    }
+
+    @Test
+    public void testTransactionCommitInvalidatesCache() {
+        NitriteId id = collection.insert(createDocument("name", "a")).iterator().next();
+        assertEquals("a", collection.getById(id).get("name"));
+
+        try (Session session = db.createSession()) {
+            Transaction transaction = session.beginTransaction();
+            NitriteCollection txCollection = transaction.getCollection("test");
+            txCollection.update(where("name").eq("a"), createDocument("name", "b"));
+            transaction.commit();
+        }
+
+        assertEquals("b", collection.getById(id).get("name"));
+    }
+}
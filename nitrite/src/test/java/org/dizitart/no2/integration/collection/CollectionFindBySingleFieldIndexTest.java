@@ -20,9 +20,12 @@ package org.dizitart.no2.integration.collection;
 import com.github.javafaker.Faker;
 import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.DocumentCursor;
+import org.dizitart.no2.collection.FindOptions;
 import org.dizitart.no2.collection.NitriteCollection;
 import org.dizitart.no2.common.SortOrder;
+import org.dizitart.no2.common.processors.Processor;
 import org.dizitart.no2.exceptions.FilterException;
+import org.dizitart.no2.filters.Filter;
 import org.dizitart.no2.index.IndexOptions;
 import org.dizitart.no2.index.IndexType;
 import org.junit.Test;
@@ -32,6 +35,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.dizitart.no2.integration.TestUtil.isSorted;
 import static org.dizitart.no2.collection.FindOptions.orderBy;
@@ -359,6 +363,142 @@ public class CollectionFindBySingleFieldIndexTest extends BaseCollectionTest {
         assertEquals(cursor.size(), 2);
     }
 
+    @Test
+    public void testFindTextWithWildCardOnTrigramIndex() {
+        insert();
+        collection.createIndex(IndexOptions.indexOptions(IndexType.FULL_TEXT_TRIGRAM), "body");
+
+        DocumentCursor cursor = collection.find(where("body").text("Lo"));
+        assertEquals(cursor.size(), 0);
+
+        cursor = collection.find(where("body").text("Lo*"));
+        assertEquals(cursor.size(), 1);      // Lorem
+
+        cursor = collection.find(where("body").text("*rem"));
+        assertEquals(cursor.size(), 1);      // lorem
+
+        cursor = collection.find(where("body").text("*or*"));
+        assertEquals(cursor.size(), 2);
+
+        cursor = collection.find(where("body").text("*ore*"));
+        assertEquals(cursor.size(), 1);
+
+        collection.remove(where("body").text("Lorem"));
+        cursor = collection.find(where("body").text("*ore*"));
+        assertEquals(cursor.size(), 0);
+    }
+
+    @Test
+    public void testFindTextRanked() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.FULL_TEXT), "body");
+        collection.insert(Document.createDocument("body", "fox hunting near the river bank"),
+            Document.createDocument("body", "fox fox fox"),
+            Document.createDocument("body", "the river runs through the forest"),
+            Document.createDocument("body", "nothing to see here"));
+
+        DocumentCursor cursor = collection.find(where("body").text("fox river"));
+        List<Document> documents = cursor.toList();
+        assertEquals(3, documents.size());
+        assertEquals("fox hunting near the river bank", documents.get(0).get("body"));
+        assertEquals("fox fox fox", documents.get(1).get("body"));
+        assertEquals("the river runs through the forest", documents.get(2).get("body"));
+        assertTrue(cursor.getScore(documents.get(0)) > cursor.getScore(documents.get(1)));
+        assertTrue(cursor.getScore(documents.get(1)) > cursor.getScore(documents.get(2)));
+
+        cursor = collection.find(where("body").text("fox river"), FindOptions.limitBy(1));
+        documents = cursor.toList();
+        assertEquals(1, documents.size());
+        assertEquals("fox hunting near the river bank", documents.get(0).get("body"));
+        assertEquals(1, cursor.getFindPlan().getTextScores().size());
+
+        cursor = collection.find(where("body").text("fox river"), FindOptions.skipBy(1).limit(1));
+        documents = cursor.toList();
+        assertEquals(1, documents.size());
+        assertEquals("fox fox fox", documents.get(0).get("body"));
+
+        cursor = collection.find(where("body").text("fox*"));
+        assertNull(cursor.getScore(cursor.firstOrNull()));
+    }
+
+    @Test
+    public void testFindTextAcrossSegments() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.FULL_TEXT), "body");
+        for (int i = 0; i < 1200; i++) {
+            collection.insert(Document.createDocument("body", "common text " + (i % 2 == 0 ? "alpha" : "beta"))
+                .put("number", i));
+        }
+
+        assertEquals(1200, collection.find(where("body").text("common")).size());
+        assertEquals(600, collection.find(where("body").text("alpha")).size());
+
+        collection.remove(where("number").lt(100));
+        collection.update(where("number").eq(500), Document.createDocument("body", "rare text"));
+        assertEquals(1099, collection.find(where("body").text("common")).size());
+        assertEquals(1, collection.find(where("body").text("rare")).size());
+        assertEquals(549, collection.find(where("body").text("alpha")).size());
+    }
+
+    @Test
+    public void testFindRegexOnIndex() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.UNIQUE), "orderId");
+        for (int i = 0; i < 100; i++) {
+            collection.insert(Document.createDocument("orderId", (i % 2 == 0 ? "ORD-" : "INV-") + (2000 + i))
+                .put("number", i));
+        }
+
+        DocumentCursor cursor = collection.find(where("orderId").regex("^ORD-20[0-4]\\d"));
+        assertEquals(25, cursor.size());
+        assertNull(cursor.getFindPlan().getCollectionScanFilter());
+        assertNotNull(cursor.getFindPlan().getIndexScanFilter());
+
+        assertEquals(50, collection.find(where("orderId").regex("^(ORD|INV)-20[0-4]")).size());
+        assertEquals(5, collection.find(where("orderId").regex("-20[0-4]5$")).size());
+        assertEquals(0, collection.find(where("orderId").regex("^ORX")).size());
+
+        cursor = collection.find(where("orderId").regex("^(ORD|INV)-209"),
+            orderBy("orderId", SortOrder.Descending));
+        List<String> orderIds = new ArrayList<>();
+        for (Document document : cursor) {
+            orderIds.add(document.get("orderId", String.class));
+        }
+        assertEquals(Arrays.asList("ORD-2098", "ORD-2096", "ORD-2094", "ORD-2092", "ORD-2090",
+            "INV-2099", "INV-2097", "INV-2095", "INV-2093", "INV-2091"), orderIds);
+    }
+
+    @Test
+    public void testCountAndExistsOnIndex() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.UNIQUE), "orderId");
+        collection.createIndex(IndexOptions.indexOptions(IndexType.FULL_TEXT), "note");
+        for (int i = 0; i < 100; i++) {
+            collection.insert(Document.createDocument("orderId", "ORD-" + (2000 + i))
+                .put("number", i)
+                .put("note", i % 10 == 0 ? "urgent delivery" : "regular delivery"));
+        }
+
+        AtomicInteger reads = new AtomicInteger();
+        collection.addProcessor(new Processor() {
+            @Override
+            public Document processAfterRead(Document document) {
+                reads.incrementAndGet();
+                return document;
+            }
+        });
+
+        assertEquals(100, collection.count(Filter.ALL));
+        assertEquals(10, collection.count(where("orderId").gte("ORD-2090")));
+        assertEquals(10, collection.count(where("note").text("urgent")));
+        assertEquals(19, collection.count(or(where("orderId").lt("ORD-2010"), where("note").text("urgent"))));
+        assertEquals(5, collection.count(and(where("orderId").lt("ORD-2010"), where("number").gte(5))));
+        assertEquals(0, collection.count(where("orderId").eq("ORD-3000")));
+        assertTrue(collection.exists(where("orderId").eq("ORD-2042")));
+        assertTrue(collection.exists(where("number").gte(50)));
+        assertFalse(collection.exists(and(where("orderId").gte("ORD-2090"), where("number").lt(50))));
+        assertEquals(0, reads.get());
+
+        assertEquals(collection.find(where("note").text("delivery")).size(),
+            collection.count(where("note").text("delivery")));
+    }
+
     @Test
     public void testFindTextWithEmptyString() {
         insert();
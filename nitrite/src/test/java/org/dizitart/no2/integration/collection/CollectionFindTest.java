@@ -19,12 +19,15 @@ package org.dizitart.no2.integration.collection;
 
 import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.DocumentCursor;
+import org.dizitart.no2.collection.FindOptions;
 import org.dizitart.no2.collection.NitriteCollection;
 import org.dizitart.no2.collection.NitriteId;
 import org.dizitart.no2.common.RecordStream;
 import org.dizitart.no2.common.SortOrder;
 import org.dizitart.no2.exceptions.IndexingException;
+import org.dizitart.no2.exceptions.InvalidOperationException;
 import org.dizitart.no2.exceptions.ValidationException;
+import org.dizitart.no2.filters.Filter;
 import org.dizitart.no2.index.IndexOptions;
 import org.dizitart.no2.index.IndexType;
 import org.joda.time.DateTime;
@@ -33,6 +36,7 @@ import org.junit.Test;
 import java.text.Collator;
 import java.text.ParseException;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.dizitart.no2.collection.Document.createDocument;
@@ -880,4 +884,131 @@ public class CollectionFindTest extends BaseCollectionTest {
         assertFalse(idIter.hasNext());
         assertEquals(cursor.size(), 0);
     }
+
+    @Test
+    public void testFindResultIsIsolatedFromStore() {
+        insert();
+
+        Document document = collection.find(where("firstName").eq("fn1")).firstOrNull();
+        document.put("lastName", "changed");
+        document.remove("firstName");
+
+        Document stored = collection.getById(document.getId());
+        assertEquals("fn1", stored.get("firstName"));
+        assertEquals("ln1", stored.get("lastName"));
+
+        stored.put("lastName", "changed");
+        assertEquals("ln1", collection.getById(document.getId()).get("lastName"));
+        assertEquals(1, collection.find(where("lastName").eq("ln1")).size());
+    }
+
+    @Test
+    public void testKeysetPaginationById() {
+        for (int i = 0; i < 55; i++) {
+            collection.insert(createDocument("number", i));
+        }
+
+        List<Document> documents = readPages(null, () -> limitBy(10));
+        assertEquals(55, documents.size());
+        List<NitriteId> ids = new ArrayList<>();
+        for (Document document : documents) {
+            ids.add(document.getId());
+        }
+        List<NitriteId> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        assertEquals(sorted, ids);
+        assertEquals(55, new HashSet<>(ids).size());
+
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "number");
+        documents = readPages(where("number").gte(20), () -> limitBy(7));
+        assertEquals(35, documents.size());
+        assertEquals(sorted.subList(20, 55), documents.stream().map(Document::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testKeysetPaginationBySortOrder() {
+        for (int i = 0; i < 60; i++) {
+            collection.insert(createDocument("group", i % 9 == 0 ? null : i % 7).put("number", i));
+        }
+
+        // blocking sort
+        assertKeysetOrder(null, "group", SortOrder.Ascending);
+        assertKeysetOrder(where("number").lt(45), "group", SortOrder.Descending);
+
+        // seek on the index of the sort field
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "group");
+        assertKeysetOrder(null, "group", SortOrder.Ascending);
+        assertKeysetOrder(null, "group", SortOrder.Descending);
+        assertKeysetOrder(where("number").lt(45), "group", SortOrder.Descending);
+
+        // index scan in sort order
+        assertKeysetOrder(where("group").gte(2), "group", SortOrder.Ascending);
+    }
+
+    @Test
+    public void testKeysetPaginationWithRemovedDocument() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.UNIQUE), "number");
+        for (int i = 0; i < 20; i++) {
+            collection.insert(createDocument("number", i));
+        }
+
+        DocumentCursor cursor = collection.find(orderBy("number", SortOrder.Ascending).limit(5).after(null));
+        assertEquals(5, cursor.toList().size());
+        String token = cursor.getContinuationToken();
+
+        collection.remove(where("number").eq(4));
+        cursor = collection.find(orderBy("number", SortOrder.Ascending).limit(5).after(token));
+        List<Integer> numbers = new ArrayList<>();
+        for (Document document : cursor) {
+            numbers.add(document.get("number", Integer.class));
+        }
+        assertEquals(Arrays.asList(5, 6, 7, 8, 9), numbers);
+    }
+
+    @Test
+    public void testKeysetPaginationInvalidToken() {
+        insert();
+
+        DocumentCursor cursor = collection.find(orderBy("firstName", SortOrder.Ascending).limit(1).after(null));
+        assertEquals(1, cursor.toList().size());
+        String token = cursor.getContinuationToken();
+        assertNotNull(token);
+
+        assertThrows(ValidationException.class,
+            () -> collection.find(orderBy("lastName", SortOrder.Ascending).after(token)));
+        assertThrows(ValidationException.class, () -> collection.find(limitBy(1).after("not a token")));
+        assertThrows(InvalidOperationException.class, () -> collection.find().getContinuationToken());
+        assertNull(collection.find(limitBy(1).after(null)).getContinuationToken());
+    }
+
+    private void assertKeysetOrder(Filter filter, String field, SortOrder sortOrder) {
+        List<Document> documents = readPages(filter, () -> orderBy(field, sortOrder).limit(4));
+
+        List<Document> expected = new ArrayList<>(collection.find(filter).toList());
+        expected.sort((doc1, doc2) -> {
+            Integer value1 = doc1.get(field, Integer.class);
+            Integer value2 = doc2.get(field, Integer.class);
+            int result = value1 == null ? (value2 == null ? 0 : -1) : (value2 == null ? 1 : value1.compareTo(value2));
+            if (sortOrder == SortOrder.Descending) result = -result;
+            return result != 0 ? result : doc1.getId().compareTo(doc2.getId());
+        });
+
+        assertEquals(expected.stream().map(Document::getId).collect(Collectors.toList()),
+            documents.stream().map(Document::getId).collect(Collectors.toList()));
+    }
+
+    private List<Document> readPages(Filter filter, Supplier<FindOptions> findOptions) {
+        List<Document> documents = new ArrayList<>();
+        String token = null;
+        while (true) {
+            DocumentCursor cursor = collection.find(filter, findOptions.get().after(token));
+            List<Document> page = cursor.toList();
+            if (page.isEmpty()) {
+                assertNull(cursor.getContinuationToken());
+                return documents;
+            }
+            documents.addAll(page);
+            token = cursor.getContinuationToken();
+        }
+    }
 }
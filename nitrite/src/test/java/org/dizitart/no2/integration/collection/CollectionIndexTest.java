@@ -29,6 +29,8 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.dizitart.no2.collection.Document.createDocument;
 import static org.dizitart.no2.filters.FluentFilter.where;
@@ -238,4 +240,56 @@ public class CollectionIndexTest extends BaseCollectionTest {
         collection.createIndex(indexOptions(IndexType.NON_UNIQUE), "third");
         assertEquals(collection.find(where("third").eq(null)).size(), 2);
     }
+
+    @Test
+    public void testOnlineIndex() throws InterruptedException {
+        NitriteCollection collection = db.getCollection("online-index");
+        for (int i = 0; i < 20000; i++) {
+            collection.insert(createDocument("first", i % 100).put("second", i));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            int i = 0;
+            while (running.get() || i < 100) {
+                collection.insert(createDocument("first", 1000 + i % 10).put("second", -i));
+                collection.update(where("second").eq(i), createDocument("first", 2000));
+                collection.remove(where("second").eq(10000 + i));
+                i++;
+            }
+            latch.countDown();
+        });
+        writer.start();
+
+        collection.createIndex(indexOptions(IndexType.NON_UNIQUE, true), "first");
+        running.set(false);
+        latch.await();
+
+        assertTrue(collection.hasIndex("first"));
+        assertFalse(collection.isIndexing("first"));
+
+        for (Object value : new Object[]{1, 50, 1003, 2000}) {
+            long expected = 0;
+            for (Document document : collection.find()) {
+                if (value.equals(document.get("first"))) {
+                    expected++;
+                }
+            }
+
+            DocumentCursor cursor = collection.find(where("first").eq(value));
+            assertNotNull(cursor.getFindPlan().getIndexDescriptor());
+            assertEquals(expected, cursor.size());
+        }
+    }
+
+    @Test
+    public void testOnlineIndexExisting() {
+        NitriteCollection collection = db.getCollection("online-index");
+        collection.insert(createDocument("first", 1));
+        collection.createIndex(indexOptions(IndexType.UNIQUE, true), "first");
+        collection.createIndex(indexOptions(IndexType.UNIQUE, true), "first");
+        assertTrue(collection.hasIndex("first"));
+        assertEquals(1, collection.find(where("first").eq(1)).size());
+    }
 }
@@ -33,6 +33,7 @@ import org.dizitart.no2.repository.Cursor;
 import org.dizitart.no2.repository.ObjectRepository;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -326,6 +327,36 @@ public class RepositorySearchTest extends BaseObjectRepositoryTest {
         assertEquals(employeeList.size(), count);
     }
 
+    @Test
+    public void testKeysetPagination() {
+        List<Employee> expected = employeeRepository.find(orderBy("empId", SortOrder.Descending)).toList();
+
+        List<Employee> employees = new ArrayList<>();
+        String token = null;
+        while (true) {
+            Cursor<Employee> cursor = employeeRepository.find(orderBy("empId", SortOrder.Descending)
+                .limit(3).after(token));
+            List<Employee> page = cursor.toList();
+            if (page.isEmpty()) break;
+            employees.addAll(page);
+            token = cursor.getContinuationToken();
+        }
+        assertEquals(expected, employees);
+    }
+
+    @Test
+    public void testCountAndExists() {
+        Employee emp = employeeRepository.find(orderBy("empId", SortOrder.Descending)).firstOrNull();
+        long id = emp.getEmpId();
+
+        assertEquals(employeeRepository.size(), employeeRepository.count(Filter.ALL));
+        assertEquals(3, employeeRepository.count(where("empId").in(id, id - 1, id - 2)));
+        assertEquals(employeeRepository.find(where("joinDate").lte(emp.getJoinDate())).size(),
+            employeeRepository.count(where("joinDate").lte(emp.getJoinDate())));
+        assertTrue(employeeRepository.exists(where("empId").eq(id)));
+        assertFalse(employeeRepository.exists(where("empId").gt(id)));
+    }
+
     @Test
     public void testInFilter() {
         Employee emp = employeeRepository.find(orderBy("empId", SortOrder.Descending)).firstOrNull();
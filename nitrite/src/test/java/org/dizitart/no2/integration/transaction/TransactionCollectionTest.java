@@ -19,10 +19,14 @@ package org.dizitart.no2.integration.transaction;
 
 import com.github.javafaker.Faker;
 import lombok.extern.slf4j.Slf4j;
+import org.dizitart.no2.collection.AggregateOptions;
 import org.dizitart.no2.collection.Document;
 import org.dizitart.no2.collection.NitriteCollection;
+import org.dizitart.no2.common.SortOrder;
 import org.dizitart.no2.common.meta.Attributes;
 import org.dizitart.no2.exceptions.TransactionException;
+import org.dizitart.no2.filters.Filter;
+import org.dizitart.no2.index.IndexOptions;
 import org.dizitart.no2.index.IndexType;
 import org.dizitart.no2.integration.collection.BaseCollectionTest;
 import org.dizitart.no2.transaction.Session;
@@ -69,6 +73,49 @@ public class TransactionCollectionTest extends BaseCollectionTest {
         }
     }
 
+    @Test
+    public void testCountAndExists() {
+        collection.createIndex("firstName");
+        collection.insert(createDocument("firstName", "Jane"));
+        try (Session session = db.createSession()) {
+            try (Transaction transaction = session.beginTransaction()) {
+                NitriteCollection txCol = transaction.getCollection("test");
+                txCol.insert(createDocument("firstName", "John"));
+
+                assertEquals(2, txCol.count(Filter.ALL));
+                assertEquals(1, txCol.count(where("firstName").eq("John")));
+                assertTrue(txCol.exists(where("firstName").eq("Jane")));
+                assertFalse(collection.exists(where("firstName").eq("John")));
+
+                transaction.commit();
+
+                assertEquals(1, collection.count(where("firstName").eq("John")));
+                assertTrue(collection.exists(where("firstName").eq("John")));
+            }
+        }
+    }
+
+    @Test
+    public void testAggregate() {
+        collection.createIndex(IndexOptions.indexOptions(IndexType.NON_UNIQUE), "firstName");
+        collection.insert(createDocument("firstName", "Jane"));
+        try (Session session = db.createSession()) {
+            try (Transaction transaction = session.beginTransaction()) {
+                NitriteCollection txCol = transaction.getCollection("test");
+                txCol.insert(createDocument("firstName", "Jane"), createDocument("firstName", "John"));
+
+                List<Document> result = txCol.aggregate(Filter.ALL, AggregateOptions.groupBy("firstName")
+                    .count("total")
+                    .sortBy("firstName", SortOrder.Ascending)).toList();
+                assertEquals(2, result.size());
+                assertEquals(2L, result.get(0).get("total"));
+                assertEquals(1L, result.get(1).get("total"));
+
+                transaction.commit();
+            }
+        }
+    }
+
     @Test
     public void testRollbackInsert() {
         collection.createIndex("firstName");
@@ -1,8 +1,10 @@
 package org.dizitart.no2.store.memory;
 
+import org.dizitart.no2.common.meta.Attributes;
 import org.dizitart.no2.store.NitriteMap;
 import org.junit.Test;
 
+import static org.dizitart.no2.common.Constants.META_MAP_NAME;
 import static org.dizitart.no2.common.Constants.NITRITE_VERSION;
 import static org.junit.Assert.*;
 
@@ -45,6 +47,41 @@ public class InMemoryStoreTest {
         assertNull(actualOpenMapResult.getAttributes());
     }
 
+    @Test
+    public void testLastModifiedTimeFlushedOnCommit() {
+        InMemoryStore inMemoryStore = new InMemoryStore();
+        NitriteMap<String, String> map = inMemoryStore.openMap("mapName", String.class, String.class);
+        map.put("key", "value");
+
+        NitriteMap<String, Attributes> metaMap = inMemoryStore.openMap(META_MAP_NAME, String.class, Attributes.class);
+        assertNull(metaMap.get("mapName"));
+
+        inMemoryStore.commit();
+        Attributes attributes = metaMap.get("mapName");
+        assertNotNull(attributes);
+        assertNotNull(attributes.get(Attributes.LAST_MODIFIED_TIME));
+    }
+
+    @Test
+    public void testLastModifiedTimeFlushedOnRead() {
+        InMemoryStore inMemoryStore = new InMemoryStore();
+        NitriteMap<String, String> map = inMemoryStore.openMap("mapName", String.class, String.class);
+        map.put("key", "value");
+        assertNotNull(map.getAttributes().get(Attributes.LAST_MODIFIED_TIME));
+    }
+
+    @Test
+    public void testLastModifiedTimeDiscardedOnDrop() {
+        InMemoryStore inMemoryStore = new InMemoryStore();
+        NitriteMap<String, String> map = inMemoryStore.openMap("mapName", String.class, String.class);
+        map.put("key", "value");
+        map.drop();
+
+        inMemoryStore.commit();
+        NitriteMap<String, Attributes> metaMap = inMemoryStore.openMap(META_MAP_NAME, String.class, Attributes.class);
+        assertNull(metaMap.get("mapName"));
+    }
+
     @Test
     public void testOpenRTree() {
         Class<?> keyType = Object.class;
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2017-2021 Nitrite author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.dizitart.no2.transaction;
+
+import org.dizitart.no2.store.memory.InMemoryMap;
+import org.dizitart.no2.store.memory.InMemoryStore;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class DeltaListTest {
+    @Test
+    public void testAdd() {
+        List<String> base = new CopyOnWriteArrayList<>(Arrays.asList("a", "b"));
+        DeltaList<String> list = new DeltaList<>(base);
+        assertTrue(list.add("c"));
+
+        assertEquals(Arrays.asList("a", "b", "c"), list);
+        assertEquals(3, list.size());
+        assertEquals("c", list.get(2));
+        assertEquals(Arrays.asList("a", "b"), base);
+    }
+
+    @Test
+    public void testRemove() {
+        List<String> base = new CopyOnWriteArrayList<>(Arrays.asList("a", "b", "a"));
+        DeltaList<String> list = new DeltaList<>(base);
+        list.add("a");
+
+        assertTrue(list.remove("a"));
+        assertEquals(Arrays.asList("b", "a", "a"), list);
+        assertTrue(list.remove("a"));
+        assertEquals(Arrays.asList("b", "a"), list);
+        assertTrue(list.remove("a"));
+        assertEquals(Arrays.asList("b"), list);
+        assertFalse(list.remove("a"));
+        assertFalse(list.remove("x"));
+
+        assertEquals(1, list.size());
+        assertTrue(list.contains("b"));
+        assertFalse(list.contains("a"));
+        assertEquals(Arrays.asList("a", "b", "a"), base);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        DeltaList<String> list = new DeltaList<>(new CopyOnWriteArrayList<>(Arrays.asList("a")));
+        list.remove("a");
+        list.get(0);
+    }
+
+    @Test
+    public void testTransactionalMapKeepsPrimaryEntry() {
+        InMemoryStore store = new InMemoryStore();
+        InMemoryMap<String, List<String>> primary = new InMemoryMap<>("primary", store);
+        List<String> entry = new CopyOnWriteArrayList<>(Arrays.asList("a", "b"));
+        primary.put("key", entry);
+
+        TransactionalMap<String, List<String>> map = new TransactionalMap<>("primary", primary, store);
+        List<String> list = map.get("key");
+        assertTrue(list instanceof DeltaList);
+        list.remove("a");
+        list.add("c");
+        map.put("key", list);
+
+        assertEquals(Arrays.asList("b", "c"), map.get("key"));
+        assertSame(entry, primary.get("key"));
+        assertEquals(Arrays.asList("a", "b"), primary.get("key"));
+    }
+}
@@ -31,7 +31,7 @@ import static org.junit.Assert.assertTrue;
 public class TransactionContextTest {
     @Test
     public void testConstructor() {
-        assertEquals("TransactionContext(collectionName=null, journal=null, nitriteMap=null, config=null, active=true)",
+        assertEquals("TransactionContext(collectionName=null, journal=null, nitriteMap=null, config=null, active=true, nativeTransaction=false)",
             (new TransactionContext()).toString());
     }
 